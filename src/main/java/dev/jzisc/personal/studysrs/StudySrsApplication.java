@@ -1,9 +1,12 @@
 package dev.jzisc.personal.studysrs;
 
+import dev.jzisc.personal.studysrs.config.PaginationProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(PaginationProperties.class)
 public class StudySrsApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,67 @@
+package dev.jzisc.personal.studysrs.cache;
+
+/**
+ * Count-min sketch of how often keys were requested lately, for the TinyLFU admission.
+ * Four rows of byte counters saturating at 15; once 10 increments per column were counted every
+ * counter is halved, so old popularity fades.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+            0x97cb3127L, 0xab0b4d7dL, 0xc2b2ae35L, 0x85ebca6bL
+    };
+
+    private final byte[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize){
+        int width = Integer.highestOneBit(Math.max(16, maximumSize - 1) << 1);
+        this.counters = new byte[DEPTH * width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(Object key){
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++)
+            frequency = Math.min(frequency, counters[indexOf(hash, row)]);
+        return frequency;
+    }
+
+    void increment(Object key){
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize)
+            reset();
+    }
+
+    private void reset(){
+        for (int i = 0; i < counters.length; i++)
+            counters[i] >>= 1;
+        additions = 0;
+    }
+
+    private int indexOf(int hash, int row){
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return row * (mask + 1) + ((int) (mixed >>> 32) & mask);
+    }
+
+    private static int spread(int hash){
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+
+}
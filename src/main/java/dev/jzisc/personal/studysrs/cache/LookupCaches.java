@@ -0,0 +1,257 @@
+package dev.jzisc.personal.studysrs.cache;
+
+import dev.jzisc.personal.studysrs.dto.CacheStatsDTO;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches of the hot single key lookups: kanjis by id and by character, words by id, by word and
+ * by reading key. Absent results are cached too, as empty optionals or lists.
+ * <p>
+ * Concurrent identical lookups, cached or not, share one load. Lookups within a read-write
+ * transaction run their own: they must see the transaction's writes.
+ * <p>
+ * Writers evict the entries holding the written rows twice: at once, so their own transaction
+ * doesn't read the old values, and once it completes, so a reader that cached the old committed
+ * row in between doesn't keep it. Entries are tagged with the ids of the rows they hold, so an
+ * eviction only visits the entries it removes. Values are copied in and out, callers may modify them.
+ * <p>
+ * Evictions are local: with several instances, a write on one leaves the other instances serving
+ * the old rows until their entries expire, up to ttl-seconds (10 minutes by default). Only enable
+ * the caches on a single instance, or where reads that stale are acceptable.
+ */
+@Component
+public class LookupCaches {
+
+    public static final String KANJIS = "kanjis";
+    public static final String KANJIS_BY_CHARACTER = "kanjisByCharacter";
+    public static final String WORDS = "words";
+    public static final String WORDS_BY_WORD = "wordsByWord";
+    public static final String WORDS_BY_READING = "wordsByReading";
+    public static final String KANJIS_BY_MEANING = "kanjisByMeaning";
+    public static final String WORDS_BY_MEANING = "wordsByMeaning";
+
+    private final boolean enabled;
+    private final boolean coalescing;
+    private final TinyLfuCache<Short, Optional<KanjiDTO>> kanjis;
+    private final TinyLfuCache<String, Optional<KanjiDTO>> kanjisByCharacter;
+    private final TinyLfuCache<Integer, Optional<WordDTO>> words;
+    private final TinyLfuCache<String, List<WordDTO>> wordsByWord;
+    private final TinyLfuCache<String, List<WordDTO>> wordsByReading;
+    private final SingleFlight<Short, Optional<KanjiDTO>> kanjiLoads = new SingleFlight<>();
+    private final SingleFlight<String, Optional<KanjiDTO>> kanjiByCharacterLoads = new SingleFlight<>();
+    private final SingleFlight<String, List<KanjiDTO>> kanjisByMeaningLoads = new SingleFlight<>();
+    private final SingleFlight<Integer, Optional<WordDTO>> wordLoads = new SingleFlight<>();
+    private final SingleFlight<String, List<WordDTO>> wordsByWordLoads = new SingleFlight<>();
+    private final SingleFlight<String, List<WordDTO>> wordsByReadingLoads = new SingleFlight<>();
+    private final SingleFlight<String, List<WordDTO>> wordsByMeaningLoads = new SingleFlight<>();
+
+    @Autowired
+    public LookupCaches(@Value("${study-srs.cache.enabled:false}") boolean enabled,
+                        @Value("${study-srs.cache.maximum-size:10000}") int maximumSize,
+                        @Value("${study-srs.cache.ttl-seconds:600}") long ttlSeconds,
+                        @Value("${study-srs.cache.coalescing:true}") boolean coalescing) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.enabled = enabled;
+        this.coalescing = coalescing;
+        this.kanjis = new TinyLfuCache<>(maximumSize, ttl, LookupCaches::kanjiIds);
+        this.kanjisByCharacter = new TinyLfuCache<>(maximumSize, ttl, LookupCaches::kanjiIds);
+        this.words = new TinyLfuCache<>(maximumSize, ttl);
+        this.wordsByWord = new TinyLfuCache<>(maximumSize, ttl, LookupCaches::wordIds);
+        this.wordsByReading = new TinyLfuCache<>(maximumSize, ttl, LookupCaches::wordIds);
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public Optional<KanjiDTO> kanji(Short id, Supplier<Optional<KanjiDTO>> loader){
+        return load(kanjis, kanjiLoads, id, loader).map(LookupCaches::copyOf);
+    }
+
+    public Optional<KanjiDTO> kanjiByCharacter(String kanji, Supplier<Optional<KanjiDTO>> loader){
+        return load(kanjisByCharacter, kanjiByCharacterLoads, kanji, loader).map(LookupCaches::copyOf);
+    }
+
+    /**
+     * Coalesced only, meaning searches aren't cached.
+     */
+    public List<KanjiDTO> kanjisByMeaning(String token, Supplier<List<KanjiDTO>> loader){
+        return coalesce(kanjisByMeaningLoads, token, loader).stream().map(LookupCaches::copyOf).collect(Collectors.toList());
+    }
+
+    public Optional<WordDTO> word(Integer id, Supplier<Optional<WordDTO>> loader){
+        return load(words, wordLoads, id, loader).map(LookupCaches::copyOf);
+    }
+
+    public List<WordDTO> wordsByWord(String word, Supplier<List<WordDTO>> loader){
+        return load(wordsByWord, wordsByWordLoads, word, loader).stream().map(LookupCaches::copyOf).collect(Collectors.toList());
+    }
+
+    public List<WordDTO> wordsByReading(String readingKey, Supplier<List<WordDTO>> loader){
+        return load(wordsByReading, wordsByReadingLoads, readingKey, loader).stream().map(LookupCaches::copyOf).collect(Collectors.toList());
+    }
+
+    /**
+     * Coalesced only, meaning searches aren't cached.
+     */
+    public List<WordDTO> wordsByMeaning(String token, Supplier<List<WordDTO>> loader){
+        return coalesce(wordsByMeaningLoads, token, loader).stream().map(LookupCaches::copyOf).collect(Collectors.toList());
+    }
+
+    /**
+     * Evicts the written kanjis, their characters (cached as absent before a create), and every
+     * cached kanji listing one of them as a confusion.
+     */
+    public void evictKanjis(Collection<Short> ids, Collection<String> characters){
+        kanjiLoads.forgetAll();
+        kanjiByCharacterLoads.forgetAll();
+        kanjisByMeaningLoads.forgetAll();
+        if (!enabled)
+            return;
+        Set<Short> written = new HashSet<>(ids);
+        Set<String> writtenCharacters = new HashSet<>(characters);
+        runNowAndAfterCompletion( () -> {
+            //Absent kanjis hold no id to be tagged with
+            written.forEach(kanjis::invalidate);
+            kanjis.invalidateTagged(written);
+            writtenCharacters.forEach(kanjisByCharacter::invalidate);
+            kanjisByCharacter.invalidateTagged(written);
+        });
+    }
+
+    /**
+     * Evicts the written words, the listings of their new words and reading keys, and every
+     * cached listing holding one of them under its previous spelling.
+     */
+    public void evictWords(Collection<Integer> ids, Collection<String> wordStrings, Collection<String> readingKeys){
+        wordLoads.forgetAll();
+        wordsByWordLoads.forgetAll();
+        wordsByReadingLoads.forgetAll();
+        wordsByMeaningLoads.forgetAll();
+        if (!enabled)
+            return;
+        Set<Integer> written = new HashSet<>(ids);
+        Set<String> writtenWords = new HashSet<>(wordStrings);
+        Set<String> writtenReadings = new HashSet<>(readingKeys);
+        runNowAndAfterCompletion( () -> {
+            written.forEach(words::invalidate);
+            writtenWords.forEach(wordsByWord::invalidate);
+            wordsByWord.invalidateTagged(written);
+            writtenReadings.forEach(wordsByReading::invalidate);
+            wordsByReading.invalidateTagged(written);
+        });
+    }
+
+    public void invalidateAll(){
+        kanjis.invalidateAll();
+        kanjisByCharacter.invalidateAll();
+        words.invalidateAll();
+        wordsByWord.invalidateAll();
+        wordsByReading.invalidateAll();
+    }
+
+    public List<CacheStatsDTO> stats(){
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        if (enabled) {
+            stats.add(statsOf(KANJIS, kanjis, kanjiLoads));
+            stats.add(statsOf(KANJIS_BY_CHARACTER, kanjisByCharacter, kanjiByCharacterLoads));
+            stats.add(statsOf(WORDS, words, wordLoads));
+            stats.add(statsOf(WORDS_BY_WORD, wordsByWord, wordsByWordLoads));
+            stats.add(statsOf(WORDS_BY_READING, wordsByReading, wordsByReadingLoads));
+        }
+        if (coalescing) {
+            stats.add(new CacheStatsDTO().setName(KANJIS_BY_MEANING).setCoalesced(kanjisByMeaningLoads.shared()));
+            stats.add(new CacheStatsDTO().setName(WORDS_BY_MEANING).setCoalesced(wordsByMeaningLoads.shared()));
+        }
+        return stats;
+    }
+
+    private <K, V> V load(TinyLfuCache<K, V> cache, SingleFlight<K, V> loads, K key, Supplier<V> loader){
+        if (!enabled || key == null)
+            return coalesce(loads, key, loader);
+        return cache.get(key, k -> coalesce(loads, k, loader));
+    }
+
+    private <K, V> V coalesce(SingleFlight<K, V> loads, K key, Supplier<V> loader){
+        if (!coalescing || key == null || inReadWriteTransaction())
+            return loader.get();
+        return loads.run(key, loader);
+    }
+
+    private static boolean inReadWriteTransaction(){
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static void runNowAndAfterCompletion(Runnable eviction){
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+    }
+
+    /**
+     * The kanji and the kanjis it lists as confusions.
+     */
+    private static List<Short> kanjiIds(Optional<KanjiDTO> kanji){
+        if (!kanji.isPresent())
+            return Collections.emptyList();
+        List<Short> ids = new ArrayList<>();
+        ids.add(kanji.get().getId());
+        if (kanji.get().getConfusions() != null)
+            ids.addAll(kanji.get().getConfusions());
+        return ids;
+    }
+
+    private static List<Integer> wordIds(List<WordDTO> list){
+        return list.stream().map(WordDTO::getId).collect(Collectors.toList());
+    }
+
+    private static CacheStatsDTO statsOf(String name, TinyLfuCache<?, ?> cache, SingleFlight<?, ?> loads){
+        long hits = cache.hits(), misses = cache.misses();
+        return new CacheStatsDTO()
+                .setName(name)
+                .setSize(cache.size())
+                .setMaximumSize(cache.maximumSize())
+                .setHits(hits)
+                .setMisses(misses)
+                .setEvictions(cache.evictions())
+                .setExpirations(cache.expirations())
+                .setCoalesced(loads.shared())
+                .setHitRatio(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+    }
+
+    private static KanjiDTO copyOf(KanjiDTO kanji){
+        return new KanjiDTO()
+                .setId(kanji.getId())
+                .setKanji(kanji.getKanji())
+                .setMeaning(kanji.getMeaning())
+                .setVersion(kanji.getVersion())
+                .setConfusions(kanji.getConfusions() == null ? null : new ArrayList<>(kanji.getConfusions()));
+    }
+
+    private static WordDTO copyOf(WordDTO word){
+        return new WordDTO()
+                .setId(word.getId())
+                .setWord(word.getWord())
+                .setReading(word.getReading())
+                .setMeaning(word.getMeaning())
+                .setVersion(word.getVersion());
+    }
+
+}
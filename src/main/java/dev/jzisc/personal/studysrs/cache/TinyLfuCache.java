@@ -0,0 +1,322 @@
+package dev.jzisc.personal.studysrs.cache;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size bounded cache with W-TinyLFU eviction and expiry after write.
+ * <p>
+ * New entries go to a small LRU window; the entry the window pushes out competes with the
+ * least recent entry of the main space, and only the one requested more often lately (as
+ * counted by a frequency sketch) stays. The main space is a segmented LRU: a second hit promotes
+ * an entry from probation to the protected segment, which holds 80% of it.
+ * <p>
+ * All operations hold the cache lock, except the loads, which run outside of it. A load that
+ * raced an invalidation isn't cached: it may have read the data the invalidation was for.
+ * <p>
+ * Entries can be tagged with what their value depends on, e.g. the ids of the rows it holds;
+ * {@link #invalidateTagged} then removes the entries of a tag without scanning the cache.
+ */
+public final class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final Segment<K, V>[] segments;
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Function<? super V, ? extends Collection<?>> tagger;
+    private final Map<Object, Set<Node<K, V>>> tagged = new HashMap<>();
+
+    private long invalidations;
+    private long hits, misses, evictions, expirations;
+
+    @SuppressWarnings("unchecked")
+    public TinyLfuCache(int maximumSize, Duration ttl, LongSupplier clock,
+                        Function<? super V, ? extends Collection<?>> tagger) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.windowMax = Math.max(1, this.maximumSize / 100);
+        this.protectedMax = (this.maximumSize - windowMax) * 8 / 10;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.tagger = tagger;
+        this.sketch = new FrequencySketch(this.maximumSize);
+        this.segments = new Segment[]{ new Segment<>(), new Segment<>(), new Segment<>() };
+    }
+
+    public TinyLfuCache(int maximumSize, Duration ttl, LongSupplier clock) {
+        this(maximumSize, ttl, clock, null);
+    }
+
+    public TinyLfuCache(int maximumSize, Duration ttl, Function<? super V, ? extends Collection<?>> tagger) {
+        this(maximumSize, ttl, System::nanoTime, tagger);
+    }
+
+    public TinyLfuCache(int maximumSize, Duration ttl) {
+        this(maximumSize, ttl, System::nanoTime, null);
+    }
+
+    /**
+     * The cached value of the key, or the loaded one. A null load isn't cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader){
+        long stamp;
+        synchronized (this) {
+            V value = lookup(key);
+            if (value != null)
+                return value;
+            stamp = invalidations;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null)
+            synchronized (this) {
+                if (stamp == invalidations && !nodes.containsKey(key))
+                    insert(key, loaded);
+            }
+        return loaded;
+    }
+
+    public synchronized V getIfPresent(K key){
+        return lookup(key);
+    }
+
+    public synchronized void put(K key, V value){
+        Node<K, V> node = nodes.get(key);
+        if (node != null) {
+            untag(node);
+            node.value = value;
+            tag(node);
+            node.expiresAt = clock.getAsLong() + ttlNanos;
+            onAccess(node);
+        } else {
+            insert(key, value);
+        }
+    }
+
+    public synchronized void invalidate(K key){
+        invalidations++;
+        Node<K, V> node = nodes.get(key);
+        if (node != null)
+            remove(node);
+    }
+
+    /**
+     * Removes every entry tagged with one of the tags, in time proportional to the entries removed.
+     */
+    public synchronized void invalidateTagged(Collection<?> tags){
+        invalidations++;
+        for (Object tag : tags) {
+            Set<Node<K, V>> entries = tagged.get(tag);
+            if (entries != null)
+                for (Node<K, V> node : new ArrayList<>(entries))
+                    remove(node);
+        }
+    }
+
+    /**
+     * Removes every entry matching the predicate, in one pass over the cache.
+     */
+    public synchronized void invalidateIf(BiPredicate<? super K, ? super V> predicate){
+        invalidations++;
+        for (Iterator<Node<K, V>> it = nodes.values().iterator(); it.hasNext(); ) {
+            Node<K, V> node = it.next();
+            if (predicate.test(node.key, node.value)) {
+                it.remove();
+                segments[node.segment].remove(node);
+                untag(node);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll(){
+        invalidations++;
+        nodes.clear();
+        tagged.clear();
+        for (Segment<K, V> segment : segments)
+            segment.clear();
+    }
+
+    public synchronized int size(){
+        return nodes.size();
+    }
+
+    public int maximumSize(){
+        return maximumSize;
+    }
+
+    public synchronized long hits(){
+        return hits;
+    }
+
+    public synchronized long misses(){
+        return misses;
+    }
+
+    public synchronized long evictions(){
+        return evictions;
+    }
+
+    public synchronized long expirations(){
+        return expirations;
+    }
+
+    private V lookup(K key){
+        sketch.increment(key);
+        Node<K, V> node = nodes.get(key);
+        if (node != null && node.expiresAt - clock.getAsLong() <= 0) {
+            remove(node);
+            expirations++;
+            node = null;
+        }
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    private void onAccess(Node<K, V> node){
+        if (node.segment != PROBATION) {
+            segments[node.segment].moveToTail(node);
+            return;
+        }
+        segments[PROBATION].remove(node);
+        node.segment = PROTECTED;
+        segments[PROTECTED].add(node);
+        if (segments[PROTECTED].size > protectedMax) {
+            Node<K, V> demoted = segments[PROTECTED].head();
+            segments[PROTECTED].remove(demoted);
+            demoted.segment = PROBATION;
+            segments[PROBATION].add(demoted);
+        }
+    }
+
+    private void insert(K key, V value){
+        Node<K, V> node = new Node<>(key, value, clock.getAsLong() + ttlNanos);
+        nodes.put(key, node);
+        segments[WINDOW].add(node);
+        tag(node);
+        while (segments[WINDOW].size > windowMax) {
+            Node<K, V> candidate = segments[WINDOW].head();
+            segments[WINDOW].remove(candidate);
+            if (nodes.size() <= maximumSize) {
+                candidate.segment = PROBATION;
+                segments[PROBATION].add(candidate);
+                continue;
+            }
+            Node<K, V> victim = segments[PROBATION].size > 0 ? segments[PROBATION].head() : segments[PROTECTED].head();
+            if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                remove(victim);
+                candidate.segment = PROBATION;
+                segments[PROBATION].add(candidate);
+            } else {
+                nodes.remove(candidate.key);
+                untag(candidate);
+            }
+            evictions++;
+        }
+    }
+
+    private void remove(Node<K, V> node){
+        nodes.remove(node.key);
+        segments[node.segment].remove(node);
+        untag(node);
+    }
+
+    private void tag(Node<K, V> node){
+        if (tagger == null)
+            return;
+        Collection<?> tags = tagger.apply(node.value);
+        node.tags = tags == null ? Collections.emptyList() : new ArrayList<>(tags);
+        for (Object tag : node.tags)
+            tagged.computeIfAbsent(tag, key -> new HashSet<>()).add(node);
+    }
+
+    private void untag(Node<K, V> node){
+        if (node.tags == null)
+            return;
+        for (Object tag : node.tags) {
+            Set<Node<K, V>> entries = tagged.get(tag);
+            if (entries != null && entries.remove(node) && entries.isEmpty())
+                tagged.remove(tag);
+        }
+        node.tags = null;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        V value;
+        long expiresAt;
+        int segment = WINDOW;
+        List<Object> tags;
+        Node<K, V> previous, next;
+
+        Node(K key, V value, long expiresAt){
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+    /**
+     * Intrusive LRU list, least recent at the head.
+     */
+    private static final class Segment<K, V> {
+
+        private Node<K, V> head, tail;
+        private int size;
+
+        Node<K, V> head(){
+            return head;
+        }
+
+        void add(Node<K, V> node){
+            node.previous = tail;
+            node.next = null;
+            if (tail == null)
+                head = node;
+            else
+                tail.next = node;
+            tail = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node){
+            if (node.previous == null)
+                head = node.next;
+            else
+                node.previous.next = node.next;
+            if (node.next == null)
+                tail = node.previous;
+            else
+                node.next.previous = node.previous;
+            node.previous = node.next = null;
+            size--;
+        }
+
+        void moveToTail(Node<K, V> node){
+            if (node != tail) {
+                remove(node);
+                add(node);
+            }
+        }
+
+        void clear(){
+            head = tail = null;
+            size = 0;
+        }
+
+    }
+
+}
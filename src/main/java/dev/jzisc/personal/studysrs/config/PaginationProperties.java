@@ -0,0 +1,23 @@
+package dev.jzisc.personal.studysrs.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "study-srs.pagination")
+public class PaginationProperties {
+
+    private int defaultSize = 20;
+    private int maxSize = 100;
+
+    /**
+     * @return the requested page size, or the default one, capped to maxSize
+     */
+    public int sizeOf(Integer requested){
+        if (requested == null || requested < 1)
+            return Math.min(defaultSize, maxSize);
+        return Math.min(requested, maxSize);
+    }
+
+}
@@ -0,0 +1,37 @@
+package dev.jzisc.personal.studysrs.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Serves every DTO as CBOR (application/cbor) or Smile (application/x-jackson-smile) when the
+ * Accept header asks for it; JSON stays first so it's still the default.
+ * The binary mappers come from the same builder as the JSON one, so they share its settings.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private Jackson2ObjectMapperBuilder builder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf( converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter );
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                builder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(new SmileFactory()).build()));
+    }
+
+}
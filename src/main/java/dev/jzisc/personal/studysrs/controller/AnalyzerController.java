@@ -0,0 +1,39 @@
+package dev.jzisc.personal.studysrs.controller;
+
+import dev.jzisc.personal.studysrs.dto.ErrorBody;
+import dev.jzisc.personal.studysrs.service.AnalyzerService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@RestController
+@RequestMapping("/api/analyze")
+public class AnalyzerController {
+
+    public static final int MAX_TEXT_LENGTH = 64 * 1024;
+
+    private AnalyzerService service;
+
+    /**
+     * Finds the known words of a pasted plain text paragraph.
+     */
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity analyze(@RequestBody String text){
+        if (text.length() > MAX_TEXT_LENGTH)
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage("Text longer than " + MAX_TEXT_LENGTH + " characters")
+            );
+        return ResponseEntity.ok(service.analyze(text));
+    }
+
+}
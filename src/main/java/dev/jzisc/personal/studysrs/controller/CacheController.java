@@ -0,0 +1,26 @@
+package dev.jzisc.personal.studysrs.controller;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private LookupCaches caches;
+
+    /**
+     * Size, hit ratio and eviction counts of every lookup cache, none when caching is disabled.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity getCacheStats(){
+        return ResponseEntity.ok(caches.stats());
+    }
+
+}
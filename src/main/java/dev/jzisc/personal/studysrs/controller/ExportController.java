@@ -0,0 +1,46 @@
+package dev.jzisc.personal.studysrs.controller;
+
+import dev.jzisc.personal.studysrs.dto.ErrorBody;
+import dev.jzisc.personal.studysrs.service.ExportService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private ExportService service;
+
+    /**
+     * Streams the whole dictionary on an async thread; the response is written while the rows are read.
+     */
+    @GetMapping(params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNdjson(){
+        StreamingResponseBody body = out -> service.exportNdjson(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"study-srs.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping
+    public ResponseEntity unsupportedFormat(@RequestParam(value = "format", required = false) String format){
+        return ResponseEntity.badRequest().body(
+                new ErrorBody()
+                        .setStatusCode(BAD_REQUEST.value())
+                        .setMessage("Unsupported export format: " + format + ", only ndjson is available")
+        );
+    }
+
+}
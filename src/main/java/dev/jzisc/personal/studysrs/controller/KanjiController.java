@@ -1,9 +1,13 @@
 package dev.jzisc.personal.studysrs.controller;
 
+import dev.jzisc.personal.studysrs.config.PaginationProperties;
 import dev.jzisc.personal.studysrs.dto.ErrorBody;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
 import dev.jzisc.personal.studysrs.service.KanjiService;
+import dev.jzisc.personal.studysrs.service.WordService;
+import dev.jzisc.personal.studysrs.util.ETags;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -12,9 +16,12 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 @AllArgsConstructor(onConstructor = @__({@Autowired}))
@@ -23,6 +30,8 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 public class KanjiController {
 
     private KanjiService service;
+    private WordService words;
+    private PaginationProperties pagination;
 
     @PostMapping
     public ResponseEntity saveNewKanji(@RequestBody KanjiDTO kanji,
@@ -43,11 +52,50 @@ public class KanjiController {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity saveNewKanjis(@RequestBody List<KanjiDTO> kanjis){
+        if (kanjis == null || kanjis.isEmpty())
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage("Nothing to save")
+            );
+        return ResponseEntity.ok(service.saveNewKanjis(kanjis));
+    }
+
+    /**
+     * Keyset paged listing: pass the returned next id as after to read the following page.
+     * The ETag is the kanjis table version, so any write invalidates every listing.
+     * A fuzzy meaning search returns a single ranked page, without ETag: its index may lag the table.
+     */
+    @GetMapping
+    public ResponseEntity getKanjis(@RequestParam(value = "after", required = false) Short after,
+                                    @RequestParam(value = "size", required = false) Integer size,
+                                    @RequestParam(value = "meaning", required = false) String meaning,
+                                    @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                    @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (fuzzy && meaning != null)
+            return ResponseEntity.ok(
+                    new PageDTO<KanjiDTO>().setItems(service.getKanjiListByFuzzyMeaning(meaning, pagination.sizeOf(size))));
+        int pageSize = pagination.sizeOf(size);
+        return ETags.respond(ifNoneMatch, ETags.of(service.getKanjisVersion()), () -> ResponseEntity.ok(
+                meaning != null
+                        ? service.getKanjiPageByMeaning(meaning, after, pageSize)
+                        : service.getKanjiPage(after, pageSize)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity getKanjiById(@PathVariable("id") Short id){
+    public ResponseEntity getKanjiById(@PathVariable("id") Short id,
+                                       @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (ifNoneMatch != null) {
+            //Only the version is read to answer a revalidation, from the snapshot when it's enabled
+            String etag = ETags.of(service.getKanjiVersion(id).orElse(null));
+            if (ETags.matches(ifNoneMatch, etag))
+                return ETags.notModified(etag);
+        }
         Optional<KanjiDTO> result = service.getKanjiById(id);
         if (result.isPresent())
-            return ResponseEntity.ok(result.get());
+            return withETag(result.get());
         return ResponseEntity
                     .badRequest()
                     .body(
@@ -82,20 +130,67 @@ public class KanjiController {
         return ResponseEntity.badRequest().body(err);
     }
 
+    /**
+     * Keyset paged listing of the words containing the kanji, tagged with the kanjis and the vocabulary
+     * versions: the words are matched on the kanji characters, which an update of the kanji changes.
+     */
+    @GetMapping("/{id}/words")
+    public ResponseEntity getWordsByKanji(@PathVariable("id") Short id,
+                                          @RequestParam(value = "after", required = false) Integer after,
+                                          @RequestParam(value = "size", required = false) Integer size,
+                                          @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return getWordsByKanjis(Collections.singletonList(id), after, size, ifNoneMatch);
+    }
+
+    /**
+     * Words containing every one of the kanjis, ids=9,10 lists the words using both 自 and 己.
+     */
+    @GetMapping("/words")
+    public ResponseEntity getWordsByKanjis(@RequestParam("ids") List<Short> ids,
+                                           @RequestParam(value = "after", required = false) Integer after,
+                                           @RequestParam(value = "size", required = false) Integer size,
+                                           @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (ids.isEmpty())
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody().setStatusCode(BAD_REQUEST.value()).setMessage("No kanji to search"));
+        //The kanjis are read after the tag too: an update of one of them must not keep the old tag
+        return ETags.respond(ifNoneMatch, ETags.of(service.getKanjisVersion(), words.getVocabularyVersion()), () -> {
+            List<String> kanjis = new ArrayList<>(ids.size());
+            for (Short id : ids) {
+                Optional<KanjiDTO> kanji = service.getKanjiById(id);
+                if (!kanji.isPresent())
+                    return ResponseEntity.badRequest().body(
+                            new ErrorBody()
+                                    .setStatusCode(BAD_REQUEST.value())
+                                    .setMessage(String.format("The kanji with the id {%d} doesn't exist", id))
+                    );
+                kanjis.add(kanji.get().getKanji());
+            }
+            return ResponseEntity.ok(words.getWordPageByKanjis(kanjis, after, pagination.sizeOf(size)));
+        });
+    }
+
     @GetMapping("/search")
     public ResponseEntity searchKanji(@RequestParam(value = "kanji", required = false) String kanjiStr,
-                               @RequestParam(value = "meaning", required = false) String meaning){
-        if (kanjiStr != null){
-            Optional<KanjiDTO> result = service.getKanjiByKanjiString(kanjiStr);
-            if (result.isPresent())
-                return ResponseEntity.ok(result.get());
-            return ResponseEntity.notFound().build();
-        }
-        if (meaning != null){
-            List<KanjiDTO> result = service.getKanjiListByMeaning(meaning);
-            return ResponseEntity.ok(result);
-        }
-        return ResponseEntity.badRequest().body(new ErrorBody().setMessage("Nothing to search"));
+                               @RequestParam(value = "meaning", required = false) String meaning,
+                               @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (kanjiStr == null && meaning == null)
+            return ResponseEntity.badRequest().body(new ErrorBody().setMessage("Nothing to search"));
+        return ETags.respond(ifNoneMatch, ETags.of(service.getKanjisVersion()), () -> {
+            if (kanjiStr != null){
+                Optional<KanjiDTO> result = service.getKanjiByKanjiString(kanjiStr);
+                if (result.isPresent())
+                    return ResponseEntity.ok(result.get());
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(service.getKanjiListByMeaning(meaning));
+        });
+    }
+
+    private static ResponseEntity withETag(KanjiDTO kanji){
+        if (kanji.getVersion() == null)
+            return ResponseEntity.ok(kanji);
+        return ResponseEntity.ok().eTag(ETags.of(kanji.getVersion())).body(kanji);
     }
 
-}
\ No newline at end of file
+}
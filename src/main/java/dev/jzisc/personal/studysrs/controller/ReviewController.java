@@ -0,0 +1,79 @@
+package dev.jzisc.personal.studysrs.controller;
+
+import dev.jzisc.personal.studysrs.dto.ErrorBody;
+import dev.jzisc.personal.studysrs.dto.ReviewDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewStateDTO;
+import dev.jzisc.personal.studysrs.dto.SchedulingDTO;
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.service.ReviewService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@RestController
+@RequestMapping("/api/reviews")
+public class ReviewController {
+
+    public static final int MAX_BATCH_REVIEWS = 5000;
+
+    private ReviewService service;
+
+    @GetMapping("/due")
+    public ResponseEntity getDueCards(@RequestParam(value = "type", required = false) CardType type,
+                                      @RequestParam(value = "limit", defaultValue = "20") int limit){
+        return ResponseEntity.ok(service.getDueCards(type, limit));
+    }
+
+    @PostMapping
+    public ResponseEntity answerCard(@RequestBody ReviewDTO review){
+        ReviewStateDTO result = service.answerCard(review);
+        if (result.getCardId() != null)
+            return ResponseEntity.ok(result);
+        return ResponseEntity.badRequest().body(
+                new ErrorBody()
+                        .setStatusCode(BAD_REQUEST.value())
+                        .setMessage("Invalid review or the card does not exist")
+        );
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity answerCards(@RequestBody List<ReviewDTO> reviews){
+        if (reviews == null || reviews.isEmpty() || reviews.size() > MAX_BATCH_REVIEWS)
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage("A batch holds between 1 and " + MAX_BATCH_REVIEWS + " reviews")
+            );
+        return ResponseEntity.ok(service.answerCards(reviews));
+    }
+
+    @GetMapping("/log/stats")
+    public ResponseEntity getReviewLogStats(){
+        return ResponseEntity.ok(service.getReviewLogStats());
+    }
+
+    @GetMapping("/algorithm")
+    public ResponseEntity getScheduling(){
+        return ResponseEntity.ok(service.getScheduling());
+    }
+
+    @PutMapping("/algorithm")
+    public ResponseEntity changeScheduling(@RequestBody SchedulingDTO scheduling){
+        try {
+            return ResponseEntity.ok(service.changeScheduling(scheduling));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage(ex.getMessage())
+            );
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package dev.jzisc.personal.studysrs.controller;
+
+import dev.jzisc.personal.studysrs.config.PaginationProperties;
+import dev.jzisc.personal.studysrs.dto.ErrorBody;
+import dev.jzisc.personal.studysrs.dto.SyncDTO;
+import dev.jzisc.personal.studysrs.service.SyncService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private SyncService service;
+    private PaginationProperties pagination;
+
+    /**
+     * Changes since the given token, call again with next while more is true. Without a token only
+     * the current one is returned: a new client takes it before downloading the export, anything
+     * written meanwhile is sent again by its first sync.
+     */
+    @GetMapping
+    public ResponseEntity sync(@RequestParam(value = "since", required = false) Long since,
+                               @RequestParam(value = "size", required = false) Integer size){
+        if (since == null)
+            return ResponseEntity.ok(new SyncDTO().setNext(service.getCurrentToken()));
+        if (since < 0)
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage("Invalid sync token " + since)
+            );
+        return ResponseEntity.ok(service.getChangesSince(since, pagination.sizeOf(size)));
+    }
+
+}
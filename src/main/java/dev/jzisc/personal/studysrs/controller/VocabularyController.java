@@ -1,9 +1,13 @@
 package dev.jzisc.personal.studysrs.controller;
 
+import dev.jzisc.personal.studysrs.config.PaginationProperties;
 import dev.jzisc.personal.studysrs.dto.ErrorBody;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 import dev.jzisc.personal.studysrs.dto.WordDTO;
 import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
+import dev.jzisc.personal.studysrs.service.SuggestionService;
 import dev.jzisc.personal.studysrs.service.WordService;
+import dev.jzisc.personal.studysrs.util.ETags;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,8 +17,10 @@ import javax.servlet.http.HttpServletRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 @AllArgsConstructor(onConstructor = @__({@Autowired}))
@@ -22,7 +28,12 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 @RequestMapping("/api/vocab")
 public class VocabularyController {
 
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+
     private WordService service;
+    private SuggestionService suggestions;
+    private PaginationProperties pagination;
 
     @PostMapping
     public ResponseEntity createNewWord(@RequestBody WordDTO word,
@@ -42,11 +53,70 @@ public class VocabularyController {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity createNewWords(@RequestBody List<WordDTO> words){
+        if (words == null || words.isEmpty())
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage("Nothing to save")
+            );
+        return ResponseEntity.ok(service.saveNewWords(words));
+    }
+
+    /**
+     * Keyset paged listing: pass the returned next id as after to read the following page.
+     * The ETag is the vocabulary table version, so any write invalidates every listing.
+     * A fuzzy meaning search returns a single ranked page, without ETag: its index may lag the table.
+     */
+    @GetMapping
+    public ResponseEntity getWords(@RequestParam(value = "after", required = false) Integer after,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestParam(value = "reading", required = false) String reading,
+                                   @RequestParam(value = "meaning", required = false) String meaning,
+                                   @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                   @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (fuzzy && meaning != null)
+            return ResponseEntity.ok(
+                    new PageDTO<WordDTO>().setItems(service.getWordListByFuzzyMeaning(meaning, pagination.sizeOf(size))));
+        int pageSize = pagination.sizeOf(size);
+        return ETags.respond(ifNoneMatch, ETags.of(service.getVocabularyVersion()), () -> {
+            if (reading != null)
+                return ResponseEntity.ok(service.getWordPageByReading(reading, after, pageSize));
+            if (meaning != null)
+                return ResponseEntity.ok(service.getWordPageByMeaning(meaning, after, pageSize));
+            return ResponseEntity.ok(service.getWordPage(after, pageSize));
+        });
+    }
+
+    /**
+     * Completions of a typed prefix among the words, readings and meanings, shortest first.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity suggest(@RequestParam(value = "q", required = false) String query,
+                                  @RequestParam(value = "limit", required = false) Integer limit){
+        if (query == null || query.trim().isEmpty())
+            return ResponseEntity.badRequest().body(
+                    new ErrorBody()
+                            .setStatusCode(BAD_REQUEST.value())
+                            .setMessage("Nothing to complete")
+            );
+        int count = limit == null || limit < 1 ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        return ResponseEntity.ok(suggestions.suggest(query, count));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity getWordById(@PathVariable("id") Integer id){
+    public ResponseEntity getWordById(@PathVariable("id") Integer id,
+                                      @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (ifNoneMatch != null) {
+            //Only the version is read to answer a revalidation
+            String etag = ETags.of(service.getWordVersion(id).orElse(null));
+            if (ETags.matches(ifNoneMatch, etag))
+                return ETags.notModified(etag);
+        }
         Optional<WordDTO> result = service.getWordById(id);
         if (result.isPresent())
-            return ResponseEntity.ok(result.get());
+            return withETag(result.get());
         return ResponseEntity
                 .badRequest()
                 .body(
@@ -81,4 +151,10 @@ public class VocabularyController {
         return ResponseEntity.badRequest().body(err);
     }
 
-}
\ No newline at end of file
+    private static ResponseEntity withETag(WordDTO word){
+        if (word.getVersion() == null)
+            return ResponseEntity.ok(word);
+        return ResponseEntity.ok().eTag(ETags.of(word.getVersion())).body(word);
+    }
+
+}
@@ -0,0 +1,23 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every known word found in a text: matches in text order, overlapping ones included,
+ * and each matched word once.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class AnalysisDTO {
+
+    private List<WordMatchDTO> matches = new ArrayList<>();
+    private List<WordDTO> words = new ArrayList<>();
+
+}
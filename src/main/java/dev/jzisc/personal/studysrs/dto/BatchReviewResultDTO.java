@@ -0,0 +1,23 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch of answers: duplicates are events applied by an earlier submission,
+ * states holds the resulting state of every card the batch changed.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class BatchReviewResultDTO {
+
+    private int applied, duplicates, rejected;
+    private List<ReviewStateDTO> states = new ArrayList<>();
+
+}
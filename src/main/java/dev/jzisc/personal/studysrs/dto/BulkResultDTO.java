@@ -0,0 +1,15 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class BulkResultDTO {
+
+    private int inserted, skipped, rejected;
+
+}
@@ -0,0 +1,21 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class CacheStatsDTO {
+
+    private String name;
+    private int size, maximumSize;
+    private long hits, misses, evictions, expirations;
+
+    //Lookups answered by another caller's concurrent load
+    private long coalesced;
+    private double hitRatio;
+
+}
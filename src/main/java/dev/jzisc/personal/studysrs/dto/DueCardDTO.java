@@ -0,0 +1,21 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import dev.jzisc.personal.studysrs.model.CardType;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class DueCardDTO {
+
+    private CardType cardType;
+    private Integer cardId;
+    private String text, reading, meaning;
+    private Instant dueAt;
+
+}
@@ -16,4 +16,8 @@ public class KanjiDTO {
     private String kanji, meaning;
     private List<Short> confusions;
 
+    //Row version, sent as the ETag; it doesn't take part in comparing contents
+    @EqualsAndHashCode.Exclude
+    private Integer version;
+
 }
@@ -0,0 +1,23 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of a listing ordered by id; next is the cursor ("after" parameter) of the following page,
+ * null on the last one.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class PageDTO<T> {
+
+    private List<T> items = new ArrayList<>();
+    private Integer next;
+
+}
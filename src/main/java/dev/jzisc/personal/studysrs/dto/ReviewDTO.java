@@ -0,0 +1,27 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import dev.jzisc.personal.studysrs.model.CardType;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.time.Instant;
+
+/**
+ * An answer to a card: grade 1 (again), 2 (hard), 3 (good) or 4 (easy).
+ * reviewedAt defaults to the time the answer is received. eventId is the client's id for the answer,
+ * required in batches so a retried batch isn't applied twice.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class ReviewDTO {
+
+    private String eventId;
+    private CardType cardType;
+    private Integer cardId;
+    private Integer grade;
+    private Instant reviewedAt;
+
+}
@@ -0,0 +1,19 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import dev.jzisc.personal.studysrs.reviewlog.Durability;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class ReviewLogStatsDTO {
+
+    private Durability durability;
+    private int queueDepth, queueCapacity;
+    private long appended, written, failed, flushes;
+    private double lastFlushMillis, maxFlushMillis, averageFlushMillis;
+
+}
@@ -0,0 +1,22 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import dev.jzisc.personal.studysrs.model.CardType;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class ReviewStateDTO {
+
+    private CardType cardType;
+    private Integer cardId;
+    private int intervalDays, repetitions, lapses;
+    private double ease;
+    private Instant dueAt, reviewedAt;
+
+}
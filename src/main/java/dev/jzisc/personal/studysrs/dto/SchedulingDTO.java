@@ -0,0 +1,20 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+/**
+ * Scheduling algorithm and its parameters; recomputed is the number of cards rescheduled by a change.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class SchedulingDTO {
+
+    private String algorithm;
+    private double[] parameters;
+    private long recomputed;
+
+}
@@ -0,0 +1,22 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A completion of a typed prefix: a word, a reading or a meaning token, with the words it belongs to.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class SuggestionDTO {
+
+    private String text;
+    private List<Integer> wordIds = new ArrayList<>();
+
+}
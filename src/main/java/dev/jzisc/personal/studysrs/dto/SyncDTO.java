@@ -0,0 +1,28 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes since a sync token: the current state of every created or updated word and kanji,
+ * and the ids of the deleted ones. next is the token of the following request, more is true
+ * while changes are left after it.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class SyncDTO {
+
+    private List<WordDTO> words = new ArrayList<>();
+    private List<KanjiDTO> kanjis = new ArrayList<>();
+    private List<Integer> deletedWords = new ArrayList<>();
+    private List<Short> deletedKanjis = new ArrayList<>();
+    private long next;
+    private boolean more;
+
+}
@@ -13,4 +13,8 @@ public class WordDTO {
     private Integer id;
     private String word, reading, meaning;
 
+    //Row version, sent as the ETag; it doesn't take part in comparing contents
+    @EqualsAndHashCode.Exclude
+    private Integer version;
+
 }
@@ -0,0 +1,25 @@
+package dev.jzisc.personal.studysrs.dto;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One occurrence of a known surface in an analyzed text: text[start, end) is shared by the
+ * words of wordIds.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class WordMatchDTO {
+
+    private int start;
+    private int end;
+    private String surface;
+    private List<Integer> wordIds = new ArrayList<>();
+
+}
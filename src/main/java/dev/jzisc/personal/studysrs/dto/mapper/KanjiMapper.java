@@ -3,6 +3,8 @@ package dev.jzisc.personal.studysrs.dto.mapper;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
 import dev.jzisc.personal.studysrs.model.Kanji;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 public class KanjiMapper {
@@ -12,15 +14,16 @@ public class KanjiMapper {
     public static KanjiDTO toKanjiDTO(Kanji kanji){
         if (kanji == null)
             return new KanjiDTO();
+        int count = kanji.confusionCount();
+        List<Short> confusions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            confusions.add(kanji.confusionAt(i).getKanji_id());
         return new KanjiDTO()
                 .setId(kanji.getKanji_id())
                 .setKanji(kanji.getKanji())
                 .setMeaning(kanji.getMeaning())
-                .setConfusions(
-                        kanji.getConfusions().stream()
-                                .map( k -> k.getKanji_id())
-                                .collect(Collectors.toList())
-                );
+                .setVersion(kanji.getVersion())
+                .setConfusions(confusions);
     }
 
     public static Kanji toKanji(KanjiDTO dto){
@@ -29,7 +32,8 @@ public class KanjiMapper {
         Kanji res = new Kanji()
                 .setKanji_id(dto.getId())
                 .setKanji(dto.getKanji())
-                .setMeaning(dto.getMeaning());
+                .setMeaning(dto.getMeaning())
+                .setVersion(dto.getVersion() == null ? 0 : dto.getVersion());
         if (dto.getConfusions() != null){
             res.setConfusions(
                     dto.getConfusions().stream()
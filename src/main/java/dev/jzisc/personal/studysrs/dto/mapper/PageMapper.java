@@ -0,0 +1,24 @@
+package dev.jzisc.personal.studysrs.dto.mapper;
+
+import dev.jzisc.personal.studysrs.dto.PageDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PageMapper {
+
+    private PageMapper(){}
+
+    /**
+     * Builds a page from up to size + 1 rows fetched in id order; the extra row only tells there's a next page.
+     */
+    public static <T> PageDTO<T> toPage(List<T> fetched, int size, Function<T, ? extends Number> id){
+        PageDTO<T> page = new PageDTO<>();
+        if (fetched.size() > size) {
+            fetched = fetched.subList(0, size);
+            page.setNext(id.apply(fetched.get(size - 1)).intValue());
+        }
+        return page.setItems(fetched);
+    }
+
+}
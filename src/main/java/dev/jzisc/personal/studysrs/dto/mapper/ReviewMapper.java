@@ -0,0 +1,24 @@
+package dev.jzisc.personal.studysrs.dto.mapper;
+
+import dev.jzisc.personal.studysrs.dto.ReviewStateDTO;
+import dev.jzisc.personal.studysrs.model.ReviewState;
+
+public class ReviewMapper {
+
+    private ReviewMapper(){}
+
+    public static ReviewStateDTO toReviewStateDTO(ReviewState state){
+        if (state == null)
+            return new ReviewStateDTO();
+        return new ReviewStateDTO()
+                .setCardType(state.getCardType())
+                .setCardId(state.getCardId())
+                .setIntervalDays(state.getIntervalDays())
+                .setRepetitions(state.getRepetitions())
+                .setLapses(state.getLapses())
+                .setEase(state.getEase())
+                .setDueAt(state.getDueAt())
+                .setReviewedAt(state.getReviewedAt());
+    }
+
+}
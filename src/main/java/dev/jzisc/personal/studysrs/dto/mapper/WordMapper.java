@@ -14,7 +14,8 @@ public class WordMapper {
                 .setId(word.getWord_id())
                 .setWord(word.getWord())
                 .setReading(word.getReading())
-                .setMeaning(word.getMeaning());
+                .setMeaning(word.getMeaning())
+                .setVersion(word.getVersion());
     }
 
     public static  Word toWord(WordDTO dto){
@@ -24,7 +25,8 @@ public class WordMapper {
                 .setWord_id(dto.getId())
                 .setWord(dto.getWord())
                 .setReading(dto.getReading())
-                .setMeaning(dto.getMeaning());
+                .setMeaning(dto.getMeaning())
+                .setVersion(dto.getVersion() == null ? 0 : dto.getVersion());
     }
 
 }
@@ -0,0 +1,7 @@
+package dev.jzisc.personal.studysrs.event;
+
+public enum ChangeType {
+
+    CREATED, UPDATED, DELETED
+
+}
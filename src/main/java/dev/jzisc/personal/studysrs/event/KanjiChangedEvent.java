@@ -0,0 +1,23 @@
+package dev.jzisc.personal.studysrs.event;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class KanjiChangedEvent {
+
+    private final ChangeType type;
+    private final List<KanjiDTO> kanjis;
+
+    public KanjiChangedEvent(ChangeType type, KanjiDTO kanji){
+        this(type, Collections.singletonList(kanji));
+    }
+
+}
@@ -0,0 +1,43 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Runs the dictionary imports given on the command line at startup, e.g.
+ * {@code --import.kanjidic=kanjidic2.xml.gz --import.jmdict=JMdict_e.gz}. Kanjis are imported first.
+ * The web server is already accepting requests while they run, so clients may see a partly
+ * imported dictionary until they finish.
+ */
+@Component
+public class DictionaryImportRunner implements ApplicationRunner {
+
+    static final String KANJIDIC_OPTION = "import.kanjidic";
+    static final String JMDICT_OPTION = "import.jmdict";
+
+    private final DictionaryImporter importer;
+
+    @Autowired
+    public DictionaryImportRunner(DictionaryImporter importer) {
+        this.importer = importer;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> kanjidic = args.getOptionValues(KANJIDIC_OPTION);
+        if (kanjidic != null)
+            for (String file : kanjidic)
+                importer.importKanjidic(Paths.get(file));
+
+        List<String> jmdict = args.getOptionValues(JMDICT_OPTION);
+        if (jmdict != null)
+            for (String file : jmdict)
+                importer.importJmdict(Paths.get(file));
+    }
+
+}
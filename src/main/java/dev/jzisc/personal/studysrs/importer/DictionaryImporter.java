@@ -0,0 +1,73 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import dev.jzisc.personal.studysrs.service.KanjiService;
+import dev.jzisc.personal.studysrs.service.WordService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports the JMdict and KANJIDIC2 files (plain or gzipped) through the bulk save of the services.
+ * Each import keeps its checkpoint next to the source file.
+ */
+@Slf4j
+@Service
+public class DictionaryImporter {
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final WordService wordService;
+    private final KanjiService kanjiService;
+    private final int batchSize;
+    private final int writers;
+    private final int queueCapacity;
+
+    @Autowired
+    public DictionaryImporter(WordService wordService, KanjiService kanjiService,
+                              @Value("${study-srs.import.batch-size:1000}") int batchSize,
+                              @Value("${study-srs.import.writers:4}") int writers,
+                              @Value("${study-srs.import.queue-capacity:8}") int queueCapacity) {
+        this.wordService = wordService;
+        this.kanjiService = kanjiService;
+        this.batchSize = batchSize;
+        this.writers = writers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportReport importJmdict(Path file) throws IOException, XMLStreamException, InterruptedException {
+        try (InputStream source = open(file); JmdictReader reader = new JmdictReader(source)) {
+            ImportReport report = new ImportPipeline<>(wordService::saveNewWords, batchSize, writers, queueCapacity, checkpointOf(file))
+                    .run(reader);
+            log.info("JMdict import of {} finished: {}", file, report);
+            return report;
+        }
+    }
+
+    public ImportReport importKanjidic(Path file) throws IOException, XMLStreamException, InterruptedException {
+        try (InputStream source = open(file); KanjidicReader reader = new KanjidicReader(source)) {
+            ImportReport report = new ImportPipeline<>(kanjiService::saveNewKanjis, batchSize, writers, queueCapacity, checkpointOf(file))
+                    .run(reader);
+            log.info("KANJIDIC import of {} finished: {}", file, report);
+            return report;
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream source = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(source, 1 << 16) : source;
+    }
+
+    private static Path checkpointOf(Path file) {
+        return file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+    }
+
+}
@@ -0,0 +1,18 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Pull style reader over the entries of a dictionary file.
+ */
+public interface EntryReader<T> extends AutoCloseable {
+
+    /**
+     * @return the next entry, or null once the document is exhausted
+     */
+    T next() throws XMLStreamException;
+
+    @Override
+    void close() throws XMLStreamException;
+
+}
@@ -0,0 +1,228 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Reads entries on the calling thread and hands them in batches to a pool of writers through
+ * a bounded queue, so the reader blocks instead of buffering when the database falls behind.
+ * <p>
+ * The checkpoint file holds the number of entries whose batches, and every batch before them,
+ * are committed. A rerun skips that many entries; anything written past it is reported as
+ * skipped by the sink, so the overlap is harmless. The file is removed once an import completes.
+ */
+@Slf4j
+public class ImportPipeline<T> {
+
+    private static final int LOG_EVERY_BATCHES = 20;
+
+    private final Function<List<T>, BulkResultDTO> sink;
+    private final int batchSize;
+    private final int writers;
+    private final int queueCapacity;
+    private final Path checkpoint;
+
+    public ImportPipeline(Function<List<T>, BulkResultDTO> sink, int batchSize, int writers, int queueCapacity, Path checkpoint) {
+        if (batchSize < 1 || writers < 1 || queueCapacity < 1)
+            throw new IllegalArgumentException("Batch size, writers and queue capacity must be positive");
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.writers = writers;
+        this.queueCapacity = queueCapacity;
+        this.checkpoint = checkpoint;
+    }
+
+    public ImportReport run(EntryReader<T> reader) throws XMLStreamException, IOException, InterruptedException {
+        long resumeFrom = readCheckpoint();
+        Progress progress = new Progress(resumeFrom);
+        BlockingQueue<Batch<T>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService pool = Executors.newFixedThreadPool(writers, new WriterThreadFactory());
+        long start = System.nanoTime();
+        if (resumeFrom > 0)
+            log.info("Resuming import from entry {}", resumeFrom);
+
+        try {
+            for (int i = 0; i < writers; i++)
+                pool.execute( () -> write(queue, progress) );
+
+            long position = 0, sequence = 0;
+            List<T> entries = new ArrayList<>(batchSize);
+            T entry;
+            while (progress.failure.get() == null && (entry = reader.next()) != null) {
+                if (++position <= resumeFrom)
+                    continue;
+                entries.add(entry);
+                if (entries.size() == batchSize) {
+                    queue.put(new Batch<>(sequence++, position, entries));
+                    entries = new ArrayList<>(batchSize);
+                }
+            }
+            if (!entries.isEmpty() && progress.failure.get() == null)
+                queue.put(new Batch<>(sequence, position, entries));
+        } finally {
+            for (int i = 0; i < writers; i++)
+                queue.put(Batch.end());
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES))
+                log.info("Waiting for import writers, {} batches queued", queue.size());
+        }
+
+        Throwable failure = progress.failure.get();
+        if (failure != null)
+            throw new IllegalStateException("Import stopped after " + progress.committed
+                    + " entries, run it again to resume from the checkpoint", failure);
+        if (checkpoint != null)
+            Files.deleteIfExists(checkpoint);
+        return progress.report(System.nanoTime() - start);
+    }
+
+    private void write(BlockingQueue<Batch<T>> queue, Progress progress) {
+        try {
+            Batch<T> batch;
+            while ((batch = queue.take()) != Batch.END) {
+                if (progress.failure.get() != null)
+                    continue;
+                try {
+                    progress.completed(batch, save(batch));
+                } catch (RuntimeException | IOException ex) {
+                    progress.failure.compareAndSet(null, ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            progress.failure.compareAndSet(null, ex);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A batch can race a concurrent one for the same unique key; retrying once lets the sink
+     * see the row the other writer committed and skip it.
+     */
+    private BulkResultDTO save(Batch<T> batch) {
+        try {
+            return sink.apply(batch.entries);
+        } catch (RuntimeException ex) {
+            log.debug("Retrying import batch {}", batch.sequence, ex);
+            return sink.apply(batch.entries);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (checkpoint == null || !Files.exists(checkpoint))
+            return 0;
+        String content = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException ex) {
+            throw new IOException("Invalid import checkpoint " + checkpoint + ": " + content, ex);
+        }
+    }
+
+    private void writeCheckpoint(long committed) throws IOException {
+        if (checkpoint == null)
+            return;
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.write(temp, Long.toString(committed).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class Batch<T> {
+
+        private static final Batch<?> END = new Batch<>(-1, -1, Collections.emptyList());
+
+        private final long sequence;
+        private final long endPosition;
+        private final List<T> entries;
+
+        private Batch(long sequence, long endPosition, List<T> entries) {
+            this.sequence = sequence;
+            this.endPosition = endPosition;
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Batch<T> end() {
+            return (Batch<T>) END;
+        }
+
+    }
+
+    private final class Progress {
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final Map<Long, Long> pending = new HashMap<>();
+        private final long resumedFrom;
+        private long nextSequence;
+        private long committed;
+        private long read, inserted, skipped, rejected;
+        private final long start = System.nanoTime();
+
+        private Progress(long resumedFrom) {
+            this.resumedFrom = resumedFrom;
+            this.committed = resumedFrom;
+        }
+
+        /**
+         * Batches finish out of order; the checkpoint only moves over a contiguous prefix of them.
+         */
+        private synchronized void completed(Batch<T> batch, BulkResultDTO result) throws IOException {
+            read += batch.entries.size();
+            inserted += result.getInserted();
+            skipped += result.getSkipped();
+            rejected += result.getRejected();
+
+            pending.put(batch.sequence, batch.endPosition);
+            long before = committed;
+            Long end;
+            while ((end = pending.remove(nextSequence)) != null) {
+                committed = end;
+                if (++nextSequence % LOG_EVERY_BATCHES == 0)
+                    log.info("Imported {} entries, {} entries/s", committed, String.format("%.0f", perSecond(System.nanoTime() - start)));
+            }
+            if (committed != before)
+                writeCheckpoint(committed);
+        }
+
+        private synchronized ImportReport report(long elapsedNanos) {
+            return new ImportReport()
+                    .setResumedFrom(resumedFrom)
+                    .setRead(read)
+                    .setInserted(inserted)
+                    .setSkipped(skipped)
+                    .setRejected(rejected)
+                    .setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .setEntriesPerSecond(perSecond(elapsedNanos));
+        }
+
+        private double perSecond(long elapsedNanos) {
+            return elapsedNanos <= 0 ? 0 : read * 1_000_000_000.0 / elapsedNanos;
+        }
+
+    }
+
+    private static final class WriterThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dictionary-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@ToString
+public class ImportReport {
+
+    private long resumedFrom, read, inserted, skipped, rejected, elapsedMillis;
+
+    private double entriesPerSecond;
+
+}
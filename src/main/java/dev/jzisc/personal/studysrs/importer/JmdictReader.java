@@ -0,0 +1,66 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.join;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Reads JMdict entries as words: the first kanji spelling (or the first reading for kana only
+ * entries), the first reading and every English gloss joined as the meaning.
+ */
+public class JmdictReader extends XmlEntryReader<WordDTO> {
+
+    public static final int MAX_MEANING_LENGTH = 255;
+
+    public JmdictReader(InputStream source) throws XMLStreamException {
+        super(source);
+    }
+
+    @Override
+    protected String entryElement() {
+        return "entry";
+    }
+
+    @Override
+    protected WordDTO readEntry() throws XMLStreamException {
+        String word = null, reading = null;
+        List<String> glosses = new ArrayList<>();
+        int event;
+        while (!isEnd(event = reader.next(), "entry")) {
+            if (event != START_ELEMENT)
+                continue;
+            switch (reader.getLocalName()) {
+                case "keb":
+                    String keb = readText();
+                    if (word == null)
+                        word = keb;
+                    break;
+                case "reb":
+                    String reb = readText();
+                    if (reading == null)
+                        reading = reb;
+                    break;
+                case "gloss":
+                    String lang = reader.getAttributeValue(XMLConstants.XML_NS_URI, "lang");
+                    String gloss = readText();
+                    if (lang == null || "eng".equals(lang))
+                        glosses.add(gloss);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new WordDTO()
+                .setWord(word != null ? word : reading)
+                .setReading(reading)
+                .setMeaning(join(glosses, MAX_MEANING_LENGTH));
+    }
+
+}
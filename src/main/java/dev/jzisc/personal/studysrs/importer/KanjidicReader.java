@@ -0,0 +1,51 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.join;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Reads KANJIDIC2 characters as kanjis, joining their English meanings.
+ */
+public class KanjidicReader extends XmlEntryReader<KanjiDTO> {
+
+    public static final int MAX_MEANING_LENGTH = 50;
+
+    public KanjidicReader(InputStream source) throws XMLStreamException {
+        super(source);
+    }
+
+    @Override
+    protected String entryElement() {
+        return "character";
+    }
+
+    @Override
+    protected KanjiDTO readEntry() throws XMLStreamException {
+        String literal = null;
+        List<String> meanings = new ArrayList<>();
+        int event;
+        while (!isEnd(event = reader.next(), "character")) {
+            if (event != START_ELEMENT)
+                continue;
+            if ("literal".equals(reader.getLocalName())) {
+                literal = readText();
+            } else if ("meaning".equals(reader.getLocalName())) {
+                String lang = reader.getAttributeValue(null, "m_lang");
+                String meaning = readText();
+                if (lang == null || "en".equals(lang))
+                    meanings.add(meaning);
+            }
+        }
+        return new KanjiDTO()
+                .setKanji(literal)
+                .setMeaning(join(meanings, MAX_MEANING_LENGTH));
+    }
+
+}
@@ -0,0 +1,81 @@
+package dev.jzisc.personal.studysrs.importer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+
+/**
+ * Base StAX reader: only the current element is ever held in memory.
+ * The dictionaries declare their entities in an internal DTD subset and use them heavily
+ * in tags we don't import, so entity references are left unexpanded instead of running
+ * into the parser's expansion limit.
+ */
+abstract class XmlEntryReader<T> implements EntryReader<T> {
+
+    protected final XMLStreamReader reader;
+
+    protected XmlEntryReader(InputStream source) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        this.reader = factory.createXMLStreamReader(source, "UTF-8");
+    }
+
+    @Override
+    public T next() throws XMLStreamException {
+        while (reader.hasNext())
+            if (reader.next() == START_ELEMENT && entryElement().equals(reader.getLocalName()))
+                return readEntry();
+        return null;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    /**
+     * Name of the element wrapping a single entry.
+     */
+    protected abstract String entryElement();
+
+    /**
+     * Reads the entry the reader is positioned at, up to and including its end element.
+     */
+    protected abstract T readEntry() throws XMLStreamException;
+
+    /**
+     * Reads the text of the current element, skipping nested entity references.
+     */
+    protected String readText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case START_ELEMENT:
+                    depth++;
+                    break;
+                case END_ELEMENT:
+                    depth--;
+                    break;
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    text.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString().trim();
+    }
+
+    protected boolean isEnd(int event, String element){
+        return event == END_ELEMENT && element.equals(reader.getLocalName());
+    }
+
+}
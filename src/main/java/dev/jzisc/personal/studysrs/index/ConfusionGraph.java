@@ -0,0 +1,97 @@
+package dev.jzisc.personal.studysrs.index;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, undirected graph of the kanjis confused with each other, over their short ids.
+ * <p>
+ * Kanji id's confusions are neighbours[start[id] .. start[id + 1]], sorted and each one once, so
+ * a row is walked by index without allocating. Ids past the largest one seen have no confusions.
+ */
+public final class ConfusionGraph {
+
+    private static final ConfusionGraph EMPTY = new ConfusionGraph(new int[1], new short[0]);
+
+    private final int[] start;
+    private final short[] neighbours;
+
+    private ConfusionGraph(int[] start, short[] neighbours) {
+        this.start = start;
+        this.neighbours = neighbours;
+    }
+
+    public static ConfusionGraph empty(){
+        return EMPTY;
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    public int degree(int id){
+        return id >= 0 && id < start.length - 1 ? start[id + 1] - start[id] : 0;
+    }
+
+    /**
+     * The index-th confusion of the kanji, in id order, for index below degree(id).
+     */
+    public short confusionAt(int id, int index){
+        return neighbours[start[id] + index];
+    }
+
+    public static final class Builder {
+
+        //Both ends of every edge, packed as low << 16 | high
+        private int[] edges = new int[64];
+        private int count;
+
+        private Builder(){}
+
+        /**
+         * Adds the confusion in both directions. Self confusions and negative ids are ignored,
+         * a confusion added twice is kept once.
+         */
+        public Builder addConfusion(short kanjiId, short confusionId){
+            if (kanjiId == confusionId || kanjiId < 0 || confusionId < 0)
+                return this;
+            if (count == edges.length)
+                edges = Arrays.copyOf(edges, count * 2);
+            edges[count++] = (Math.min(kanjiId, confusionId) << 16) | Math.max(kanjiId, confusionId);
+            return this;
+        }
+
+        public ConfusionGraph build(){
+            //Sorted packed edges drop their duplicates in one pass and lay the rows out in two
+            int[] sorted = Arrays.copyOf(edges, count);
+            Arrays.sort(sorted);
+            int distinct = 0, maxId = -1;
+            for (int e = 0; e < sorted.length; e++)
+                if (e == 0 || sorted[e] != sorted[e - 1]) {
+                    sorted[distinct++] = sorted[e];
+                    maxId = Math.max(maxId, sorted[e] & 0xFFFF);
+                }
+            if (distinct == 0)
+                return EMPTY;
+
+            int[] start = new int[maxId + 2];
+            for (int e = 0; e < distinct; e++) {
+                start[(sorted[e] >>> 16) + 1]++;
+                start[(sorted[e] & 0xFFFF) + 1]++;
+            }
+            for (int id = 0; id <= maxId; id++)
+                start[id + 1] += start[id];
+            short[] neighbours = new short[2 * distinct];
+            //In edge order a row gets its lower confusions, increasing, before its higher ones,
+            //increasing too: every row comes out sorted
+            int[] cursor = Arrays.copyOf(start, maxId + 1);
+            for (int e = 0; e < distinct; e++) {
+                short low = (short) (sorted[e] >>> 16), high = (short) (sorted[e] & 0xFFFF);
+                neighbours[cursor[low]++] = high;
+                neighbours[cursor[high]++] = low;
+            }
+            return new ConfusionGraph(start, neighbours);
+        }
+
+    }
+
+}
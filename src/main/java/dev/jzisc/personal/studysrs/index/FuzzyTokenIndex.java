@@ -0,0 +1,224 @@
+package dev.jzisc.personal.studysrs.index;
+
+import java.util.*;
+
+/**
+ * Immutable n-gram index over tokens, for typo tolerant lookups.
+ * <p>
+ * Token t is chars[tokenStart[t] .. tokenStart[t + 1]] and owns the ids ids[idsStart[t] .. idsStart[t + 1]].
+ * Every token is listed under the distinct bigrams of its padded form (^token$): grams is sorted and
+ * gram g is held by the tokens postings[gramStart[g] .. gramStart[g + 1]].
+ * An edit touches at most two bigrams, so a token within k edits of a query shares at least
+ * (distinct bigrams of the query - 2k) of them: only the tokens reaching that count are compared
+ * with the query. Trigrams would lose that bound below seven chars at two edits.
+ */
+public final class FuzzyTokenIndex {
+
+    public static final int MAX_DISTANCE = 2;
+
+    private static final char PAD = '\0';
+
+    private final char[] chars;
+    private final int[] tokenStart;
+    private final int[] idsStart;
+    private final int[] ids;
+    private final int[] grams;
+    private final int[] gramStart;
+    private final int[] postings;
+
+    private FuzzyTokenIndex(char[] chars, int[] tokenStart, int[] idsStart, int[] ids) {
+        this.chars = chars;
+        this.tokenStart = tokenStart;
+        this.idsStart = idsStart;
+        this.ids = ids;
+
+        //(gram, token) pairs sorted by gram and then token give the posting lists in one pass
+        int size = tokenStart.length - 1;
+        long[] pairs = new long[chars.length + size];
+        int count = 0;
+        for (int t = 0; t < size; t++)
+            for (int gram : distinctGrams(chars, tokenStart[t], tokenStart[t + 1]))
+                pairs[count++] = ((long) gram << 32) | t;
+        Arrays.sort(pairs, 0, count);
+        int distinct = 0;
+        for (int p = 0; p < count; p++)
+            if (p == 0 || (pairs[p] >>> 32) != (pairs[p - 1] >>> 32))
+                distinct++;
+        this.grams = new int[distinct];
+        this.gramStart = new int[distinct + 1];
+        this.postings = new int[count];
+        for (int p = 0, g = -1; p < count; p++) {
+            if (p == 0 || (pairs[p] >>> 32) != (pairs[p - 1] >>> 32)) {
+                grams[++g] = (int) (pairs[p] >>> 32);
+                gramStart[g] = p;
+            }
+            postings[p] = (int) pairs[p];
+        }
+        gramStart[distinct] = count;
+    }
+
+    /**
+     * Edits tolerated in a query: none below three chars, where any two edits reach unrelated
+     * tokens, one up to five chars, MAX_DISTANCE beyond.
+     */
+    public static int maxDistanceOf(String query){
+        int length = query == null ? 0 : query.length();
+        return length < 3 ? 0 : length <= 5 ? 1 : MAX_DISTANCE;
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    public int size(){
+        return tokenStart.length - 1;
+    }
+
+    /**
+     * The ids of the tokens within maxDistance edits of the query, closest tokens first and then in
+     * token order, each id once and at most limit of them.
+     */
+    public int[] search(String query, int maxDistance, int limit){
+        if (query == null || size() == 0 || limit < 1)
+            return new int[0];
+        char[] text = query.toCharArray();
+        int[] queryGrams = distinctGrams(text, 0, text.length);
+        int threshold = queryGrams.length - 2 * maxDistance;
+
+        int[] candidates;
+        int candidateCount = 0;
+        if (threshold <= 0) {
+            //Too short to filter on: every token is a candidate
+            candidates = new int[size()];
+            for (int t = 0; t < candidates.length; t++)
+                candidates[candidateCount++] = t;
+        } else {
+            //Counts saturate, which only lets more candidates through to the comparison
+            byte[] shared = new byte[size()];
+            int needed = Math.min(threshold, Byte.MAX_VALUE);
+            candidates = new int[16];
+            for (int gram : queryGrams) {
+                int g = Arrays.binarySearch(grams, gram);
+                if (g < 0)
+                    continue;
+                for (int p = gramStart[g]; p < gramStart[g + 1]; p++) {
+                    int token = postings[p];
+                    if (shared[token] < Byte.MAX_VALUE && ++shared[token] == needed) {
+                        if (candidateCount == candidates.length)
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        candidates[candidateCount++] = token;
+                    }
+                }
+            }
+        }
+
+        //Matches are packed as distance << 32 | token, so sorting them ranks them
+        long[] matches = new long[16];
+        int found = 0;
+        int[] row = new int[text.length + 1], previous = new int[text.length + 1];
+        for (int c = 0; c < candidateCount; c++) {
+            int token = candidates[c];
+            if (Math.abs(tokenStart[token + 1] - tokenStart[token] - text.length) > maxDistance)
+                continue;
+            int distance = distance(text, token, maxDistance, row, previous);
+            if (distance <= maxDistance) {
+                if (found == matches.length)
+                    matches = Arrays.copyOf(matches, found * 2);
+                matches[found++] = ((long) distance << 32) | token;
+            }
+        }
+        Arrays.sort(matches, 0, found);
+
+        Set<Integer> result = new LinkedHashSet<>();
+        for (int m = 0; m < found && result.size() < limit; m++) {
+            int token = (int) matches[m];
+            for (int i = idsStart[token]; i < idsStart[token + 1] && result.size() < limit; i++)
+                result.add(ids[i]);
+        }
+        int[] ranked = new int[result.size()];
+        int i = 0;
+        for (int id : result)
+            ranked[i++] = id;
+        return ranked;
+    }
+
+    /**
+     * Levenshtein distance between the text and a token, on two rows given by the caller.
+     * Stops at maxDistance + 1 once a whole row is past maxDistance.
+     */
+    private int distance(char[] text, int token, int maxDistance, int[] row, int[] previous){
+        int start = tokenStart[token], length = tokenStart[token + 1] - start;
+        for (int i = 0; i <= text.length; i++)
+            previous[i] = i;
+        for (int j = 1; j <= length; j++) {
+            row[0] = j;
+            char c = chars[start + j - 1];
+            int best = row[0];
+            for (int i = 1; i <= text.length; i++) {
+                int substitution = previous[i - 1] + (text[i - 1] == c ? 0 : 1);
+                row[i] = Math.min(substitution, Math.min(previous[i], row[i - 1]) + 1);
+                best = Math.min(best, row[i]);
+            }
+            if (best > maxDistance)
+                return maxDistance + 1;
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return previous[text.length];
+    }
+
+    /**
+     * The distinct bigrams of ^text[from, to)$, each packed as first << 16 | second, sorted.
+     */
+    private static int[] distinctGrams(char[] text, int from, int to){
+        int[] grams = new int[to - from + 1];
+        char previous = PAD;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? text[i] : PAD;
+            grams[i - from] = (previous << 16) | c;
+            previous = c;
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int g = 0; g < grams.length; g++)
+            if (g == 0 || grams[g] != grams[g - 1])
+                grams[distinct++] = grams[g];
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Set<Integer>> tokens = new HashMap<>();
+
+        private Builder(){}
+
+        public Builder addToken(String token, int id){
+            if (token != null && !token.isEmpty())
+                tokens.computeIfAbsent(token, t -> new TreeSet<>()).add(id);
+            return this;
+        }
+
+        public FuzzyTokenIndex build(){
+            String[] sorted = tokens.keySet().toArray(new String[0]);
+            Arrays.sort(sorted);
+            int[] tokenStart = new int[sorted.length + 1];
+            int[] idsStart = new int[sorted.length + 1];
+            for (int t = 0; t < sorted.length; t++) {
+                tokenStart[t + 1] = tokenStart[t] + sorted[t].length();
+                idsStart[t + 1] = idsStart[t] + tokens.get(sorted[t]).size();
+            }
+            char[] chars = new char[tokenStart[sorted.length]];
+            int[] ids = new int[idsStart[sorted.length]];
+            for (int t = 0; t < sorted.length; t++) {
+                sorted[t].getChars(0, sorted[t].length(), chars, tokenStart[t]);
+                int i = idsStart[t];
+                for (int id : tokens.get(sorted[t]))
+                    ids[i++] = id;
+            }
+            return new FuzzyTokenIndex(chars, tokenStart, idsStart, ids);
+        }
+
+    }
+
+}
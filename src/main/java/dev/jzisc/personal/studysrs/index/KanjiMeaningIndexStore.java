@@ -0,0 +1,37 @@
+package dev.jzisc.personal.studysrs.index;
+
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KanjiMeaningIndexStore extends VersionedIndexStore<FuzzyTokenIndex> {
+
+    private final KanjiRepository repository;
+
+    @Autowired
+    public KanjiMeaningIndexStore(KanjiRepository repository,
+                                  DataVersionRepository versions,
+                                  @Value("${study-srs.index.refresh-interval-ms:1000}") long refreshMillis,
+                                  @Value("${study-srs.index.min-rebuild-interval-ms:5000}") long minRebuildMillis,
+                                  @Value("${study-srs.index.warm-up:true}") boolean warmUp) {
+        super(versions, DataVersionRepository.KANJIS, "kanji-meaning-index", refreshMillis, minRebuildMillis, warmUp);
+        this.repository = repository;
+    }
+
+    @Override
+    protected FuzzyTokenIndex build(long dataVersion) {
+        FuzzyTokenIndex.Builder builder = FuzzyTokenIndex.builder();
+        for (Object[] row : repository.findAllMeaningTokens())
+            builder.addToken((String) row[1], (Short) row[0]);
+        return builder.build();
+    }
+
+    @Override
+    protected String describe(FuzzyTokenIndex index) {
+        return index.size() + " tokens";
+    }
+
+}
@@ -0,0 +1,226 @@
+package dev.jzisc.personal.studysrs.index;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+
+import java.util.*;
+
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.normalize;
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.tokenize;
+
+/**
+ * Immutable, array based copy of the kanjis table and its confusions.
+ * Rows are stored densely by kanji id, confusions in a ConfusionGraph.
+ */
+public final class KanjiSnapshot {
+
+    private final String[] kanjis;
+    private final String[] meanings;
+    private final int[] versions;
+    private final int[] codePoints;
+    private final short[] codePointIds;
+    private final ConfusionGraph confusions;
+    private final Map<String, short[]> meaningTokens;
+    private final int size;
+    private final long dataVersion;
+
+    private KanjiSnapshot(String[] kanjis, String[] meanings, int[] versions,
+                          int[] codePoints, short[] codePointIds,
+                          ConfusionGraph confusions,
+                          Map<String, short[]> meaningTokens, int size, long dataVersion) {
+        this.kanjis = kanjis;
+        this.meanings = meanings;
+        this.versions = versions;
+        this.codePoints = codePoints;
+        this.codePointIds = codePointIds;
+        this.confusions = confusions;
+        this.meaningTokens = meaningTokens;
+        this.size = size;
+        this.dataVersion = dataVersion;
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @return the kanjis table version this snapshot was read at
+     */
+    public long dataVersion(){
+        return dataVersion;
+    }
+
+    public boolean contains(int id){
+        return id >= 0 && id < kanjis.length && kanjis[id] != null;
+    }
+
+    public int idOf(String kanji){
+        if (kanji == null || kanji.isEmpty() || kanji.codePointCount(0, kanji.length()) != 1)
+            return -1;
+        int index = Arrays.binarySearch(codePoints, kanji.codePointAt(0));
+        return index < 0 ? -1 : codePointIds[index];
+    }
+
+    public List<KanjiDTO> findByMeaning(String meaning){
+        short[] ids = meaning == null ? null : meaningTokens.get(normalize(meaning));
+        if (ids == null)
+            return new ArrayList<>();
+        List<KanjiDTO> result = new ArrayList<>(ids.length);
+        for (short id : ids)
+            result.add(toKanjiDTO(id));
+        return result;
+    }
+
+    /**
+     * Up to limit kanjis with an id greater than after, in id order.
+     */
+    public List<KanjiDTO> findPage(int after, int limit){
+        List<KanjiDTO> result = new ArrayList<>(Math.min(limit, size));
+        for (int id = Math.max(0, after + 1); id < kanjis.length && result.size() < limit; id++)
+            if (kanjis[id] != null)
+                result.add(toKanjiDTO(id));
+        return result;
+    }
+
+    public List<KanjiDTO> findPageByMeaning(String meaning, int after, int limit){
+        short[] ids = meaning == null ? null : meaningTokens.get(normalize(meaning));
+        List<KanjiDTO> result = new ArrayList<>();
+        if (ids == null)
+            return result;
+        //Token ids are stored in increasing order
+        int from = Arrays.binarySearch(ids, (short) Math.max(Short.MIN_VALUE, Math.min(after, Short.MAX_VALUE)));
+        from = from < 0 ? -from - 1 : from + 1;
+        for (int i = from; i < ids.length && result.size() < limit; i++)
+            result.add(toKanjiDTO(ids[i]));
+        return result;
+    }
+
+    public ConfusionGraph confusions(){
+        return confusions;
+    }
+
+    public int confusionCount(int id){
+        return contains(id) ? confusions.degree(id) : 0;
+    }
+
+    public short confusionAt(int id, int index){
+        return confusions.confusionAt(id, index);
+    }
+
+    public int versionOf(int id){
+        return versions[id];
+    }
+
+    public KanjiDTO toKanjiDTO(int id){
+        if (!contains(id))
+            return new KanjiDTO();
+        int degree = confusions.degree(id);
+        List<Short> confused = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++)
+            confused.add(confusions.confusionAt(id, i));
+        return new KanjiDTO()
+                .setId((short) id)
+                .setKanji(kanjis[id])
+                .setMeaning(meanings[id])
+                .setVersion(versions[id])
+                .setConfusions(confused);
+    }
+
+    public static final class Builder {
+
+        private short[] ids = new short[64];
+        private String[] kanjis = new String[64];
+        private String[] meanings = new String[64];
+        private int[] versions = new int[64];
+        private int count;
+        private short[] pairs = new short[64];
+        private int pairsCount;
+        private long dataVersion;
+
+        private Builder(){}
+
+        public Builder addKanji(short id, String kanji, String meaning){
+            return addKanji(id, kanji, meaning, 0);
+        }
+
+        public Builder addKanji(short id, String kanji, String meaning, int version){
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                kanjis = Arrays.copyOf(kanjis, count * 2);
+                meanings = Arrays.copyOf(meanings, count * 2);
+                versions = Arrays.copyOf(versions, count * 2);
+            }
+            ids[count] = id;
+            kanjis[count] = kanji;
+            meanings[count] = meaning;
+            versions[count] = version;
+            count++;
+            return this;
+        }
+
+        public Builder dataVersion(long dataVersion){
+            this.dataVersion = dataVersion;
+            return this;
+        }
+
+        public Builder addConfusion(short kanjiId, short confusionId){
+            if (pairsCount == pairs.length)
+                pairs = Arrays.copyOf(pairs, pairsCount * 2);
+            pairs[pairsCount++] = kanjiId;
+            pairs[pairsCount++] = confusionId;
+            return this;
+        }
+
+        public KanjiSnapshot build(){
+            int maxId = -1;
+            for (int i = 0; i < count; i++)
+                maxId = Math.max(maxId, ids[i]);
+
+            String[] denseKanjis = new String[maxId + 1];
+            String[] denseMeanings = new String[maxId + 1];
+            int[] denseVersions = new int[maxId + 1];
+            long[] packedCodePoints = new long[count];
+            for (int i = 0; i < count; i++) {
+                denseKanjis[ids[i]] = kanjis[i];
+                denseMeanings[ids[i]] = meanings[i];
+                denseVersions[ids[i]] = versions[i];
+                packedCodePoints[i] = ((long) kanjis[i].codePointAt(0) << 16) | ids[i];
+            }
+
+            Arrays.sort(packedCodePoints);
+            int[] codePoints = new int[count];
+            short[] codePointIds = new short[count];
+            for (int i = 0; i < count; i++) {
+                codePoints[i] = (int) (packedCodePoints[i] >>> 16);
+                codePointIds[i] = (short) (packedCodePoints[i] & 0xFFFF);
+            }
+
+            //Pairs read after rows the snapshot missed would list confusions it doesn't hold
+            ConfusionGraph.Builder confusions = ConfusionGraph.builder();
+            for (int i = 0; i < pairsCount; i += 2)
+                if (pairs[i] <= maxId && pairs[i + 1] <= maxId)
+                    confusions.addConfusion(pairs[i], pairs[i + 1]);
+
+            Map<String, short[]> meaningTokens = new HashMap<>();
+            Map<String, Integer> tokensCount = new HashMap<>();
+            for (int id = 0; id <= maxId; id++)
+                if (denseKanjis[id] != null)
+                    for (String token : tokenize(denseMeanings[id]))
+                        tokensCount.merge(token, 1, Integer::sum);
+            tokensCount.forEach( (token, tokenCount) -> meaningTokens.put(token, new short[tokenCount]) );
+            tokensCount.clear();
+            for (int id = 0; id <= maxId; id++)
+                if (denseKanjis[id] != null)
+                    for (String token : tokenize(denseMeanings[id]))
+                        meaningTokens.get(token)[tokensCount.merge(token, 1, Integer::sum) - 1] = (short) id;
+
+            return new KanjiSnapshot(denseKanjis, denseMeanings, denseVersions, codePoints, codePointIds,
+                    confusions.build(), Collections.unmodifiableMap(meaningTokens), count, dataVersion);
+        }
+
+    }
+
+}
@@ -0,0 +1,155 @@
+package dev.jzisc.personal.studysrs.index;
+
+import dev.jzisc.personal.studysrs.event.KanjiChangedEvent;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the kanji snapshot. The first read builds it; afterwards it is only rebuilt on a
+ * background thread, never by a reader or a writer.
+ * <p>
+ * Every write counts as a change when published and again when its transaction completes. A
+ * snapshot built before the last change is out of date: reads then return null and go to the
+ * database until the rebuild the change scheduled replaces it, so a write is never hidden by the
+ * snapshot. A failed rebuild keeps the last snapshot and is retried with an exponential backoff.
+ */
+@Slf4j
+@Component
+public class KanjiSnapshotStore {
+
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final KanjiRepository repository;
+    private final DataVersionRepository versions;
+    private final boolean enabled;
+    private final ScheduledExecutorService rebuilder;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean firstRead = new AtomicBoolean(true);
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile KanjiSnapshot snapshot;
+    //Changes counted when the snapshot started reading the table
+    private volatile long snapshotChanges = -1;
+    private volatile long backoffMillis = MIN_BACKOFF_MILLIS;
+
+    @Autowired
+    public KanjiSnapshotStore(KanjiRepository repository,
+                              DataVersionRepository versions,
+                              @Value("${study-srs.kanji.snapshot.enabled:false}") boolean enabled) {
+        this.repository = repository;
+        this.versions = versions;
+        this.enabled = enabled;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread(runnable, "kanji-snapshot-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * @return the snapshot, or null when reads have to go to the database: disabled, not built
+     * yet or out of date
+     */
+    public KanjiSnapshot current(){
+        if (!enabled)
+            return null;
+        KanjiSnapshot current = snapshot;
+        if (current == null)
+            return firstRead.getAndSet(false) ? rebuild() : null;
+        return snapshotChanges == changes.get() ? current : null;
+    }
+
+    @EventListener
+    public void onKanjiChanged(KanjiChangedEvent event){
+        if (!enabled)
+            return;
+        changes.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            scheduleRebuild(0);
+            return;
+        }
+        //Rebuilt once the write is visible to the rebuilder, or rolled back
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                changes.incrementAndGet();
+                scheduleRebuild(0);
+            }
+        });
+    }
+
+    /**
+     * Builds a snapshot of the table now.
+     * @return the new snapshot, or the last one when the build failed
+     */
+    public KanjiSnapshot rebuild(){
+        if (!build())
+            scheduleRebuild(backoffMillis);
+        return snapshot;
+    }
+
+    private synchronized boolean build(){
+        long changesRead = changes.get();
+        try {
+            KanjiSnapshot.Builder builder = KanjiSnapshot.builder()
+                    .dataVersion(versions.find(DataVersionRepository.KANJIS));
+            for (Object[] row : repository.findAllRows())
+                builder.addKanji((Short) row[0], (String) row[1], (String) row[2], (Integer) row[3]);
+            for (Object[] pair : repository.findAllConfusionPairs())
+                builder.addConfusion((Short) pair[0], (Short) pair[1]);
+            snapshot = builder.build();
+            snapshotChanges = changesRead;
+            backoffMillis = MIN_BACKOFF_MILLIS;
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Kanji snapshot rebuild failed, retrying in {} ms", backoffMillis, ex);
+            return false;
+        }
+    }
+
+    private void scheduleRebuild(long delayMillis){
+        if (!rebuilding.compareAndSet(false, true))
+            return;
+        rebuilder.schedule( () -> {
+            boolean built = false;
+            try {
+                built = build();
+            } finally {
+                rebuilding.set(false);
+            }
+            if (!built) {
+                long backoff = backoffMillis;
+                backoffMillis = Math.min(MAX_BACKOFF_MILLIS, 2 * backoff);
+                scheduleRebuild(backoff);
+            } else if (snapshotChanges != changes.get()) {
+                //Changes counted during the build couldn't schedule another one
+                scheduleRebuild(0);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop(){
+        rebuilder.shutdownNow();
+    }
+
+}
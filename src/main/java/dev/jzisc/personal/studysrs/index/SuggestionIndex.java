@@ -0,0 +1,173 @@
+package dev.jzisc.personal.studysrs.index;
+
+import dev.jzisc.personal.studysrs.dto.SuggestionDTO;
+
+import java.util.*;
+
+/**
+ * Immutable completion index over words, readings and meaning tokens.
+ * <p>
+ * The distinct keys are sorted and packed into one char array, key k being
+ * chars[keyStart[k] .. keyStart[k + 1]]; the keys starting with a prefix are then a contiguous
+ * range found by two binary searches. tree is a segment tree holding the best key of every
+ * range, shortest first and then in key order, so the top completions of a range are popped
+ * from a small heap without visiting the rest of it.
+ * A key owns the word ids wordIds[wordsStart[k] .. wordsStart[k + 1]].
+ */
+public final class SuggestionIndex {
+
+    private static final int NONE = -1;
+
+    private final char[] chars;
+    private final int[] keyStart;
+    private final int[] wordsStart;
+    private final int[] wordIds;
+    private final int[] tree;
+    private final int leaves;
+
+    private SuggestionIndex(char[] chars, int[] keyStart, int[] wordsStart, int[] wordIds) {
+        this.chars = chars;
+        this.keyStart = keyStart;
+        this.wordsStart = wordsStart;
+        this.wordIds = wordIds;
+        int size = keyStart.length - 1, leaves = 1;
+        while (leaves < size)
+            leaves <<= 1;
+        this.leaves = leaves;
+        this.tree = new int[2 * leaves];
+        Arrays.fill(tree, NONE);
+        for (int k = 0; k < size; k++)
+            tree[leaves + k] = k;
+        for (int node = leaves - 1; node > 0; node--)
+            tree[node] = best(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    public int size(){
+        return keyStart.length - 1;
+    }
+
+    /**
+     * Up to limit keys starting with the prefix, shortest first and then in key order.
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit){
+        List<SuggestionDTO> suggestions = new ArrayList<>();
+        if (prefix == null || prefix.isEmpty() || limit < 1)
+            return suggestions;
+        int from = lowerBound(prefix, 0), to = lowerBound(prefix, 1);
+        if (from >= to)
+            return suggestions;
+
+        //Every range in the heap is disjoint from the others and keyed by its best key
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                (left, right) -> left[2] == right[2] ? 0 : best(left[2], right[2]) == left[2] ? -1 : 1);
+        ranges.add(new int[]{ from, to, bestIn(from, to) });
+        while (!ranges.isEmpty() && suggestions.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            suggestions.add(toSuggestionDTO(key));
+            if (range[0] < key)
+                ranges.add(new int[]{ range[0], key, bestIn(range[0], key) });
+            if (key + 1 < range[1])
+                ranges.add(new int[]{ key + 1, range[1], bestIn(key + 1, range[1]) });
+        }
+        return suggestions;
+    }
+
+    private SuggestionDTO toSuggestionDTO(int key){
+        SuggestionDTO suggestion = new SuggestionDTO()
+                .setText(new String(chars, keyStart[key], keyStart[key + 1] - keyStart[key]));
+        for (int i = wordsStart[key]; i < wordsStart[key + 1]; i++)
+            suggestion.getWordIds().add(wordIds[i]);
+        return suggestion;
+    }
+
+    /**
+     * First key whose comparison with the prefix is at least bound: 0 finds the first key
+     * starting with it, 1 the first key after those.
+     */
+    private int lowerBound(String prefix, int bound){
+        int low = 0, high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(middle, prefix) < bound)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Negative when the key sorts before the keys starting with the prefix, 0 when it starts
+     * with it, positive when it sorts after them.
+     */
+    private int comparePrefix(int key, String prefix){
+        int start = keyStart[key], length = keyStart[key + 1] - start;
+        int common = Math.min(length, prefix.length());
+        for (int i = 0; i < common; i++) {
+            char c = chars[start + i], p = prefix.charAt(i);
+            if (c != p)
+                return c < p ? -1 : 1;
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private int bestIn(int from, int to){
+        int best = NONE;
+        for (int low = from + leaves, high = to + leaves; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1)
+                best = best(best, tree[low++]);
+            if ((high & 1) == 1)
+                best = best(best, tree[--high]);
+        }
+        return best;
+    }
+
+    private int best(int left, int right){
+        if (left == NONE || right == NONE)
+            return left == NONE ? right : left;
+        int leftLength = keyStart[left + 1] - keyStart[left], rightLength = keyStart[right + 1] - keyStart[right];
+        if (leftLength != rightLength)
+            return leftLength < rightLength ? left : right;
+        return Math.min(left, right);
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Set<Integer>> keys = new HashMap<>();
+
+        private Builder(){}
+
+        public Builder addKey(String key, int wordId){
+            if (key != null && !key.isEmpty())
+                keys.computeIfAbsent(key, k -> new TreeSet<>()).add(wordId);
+            return this;
+        }
+
+        public SuggestionIndex build(){
+            String[] sorted = keys.keySet().toArray(new String[0]);
+            Arrays.sort(sorted);
+            int[] keyStart = new int[sorted.length + 1];
+            int[] wordsStart = new int[sorted.length + 1];
+            for (int k = 0; k < sorted.length; k++) {
+                keyStart[k + 1] = keyStart[k] + sorted[k].length();
+                wordsStart[k + 1] = wordsStart[k] + keys.get(sorted[k]).size();
+            }
+            char[] chars = new char[keyStart[sorted.length]];
+            int[] wordIds = new int[wordsStart[sorted.length]];
+            for (int k = 0; k < sorted.length; k++) {
+                sorted[k].getChars(0, sorted[k].length(), chars, keyStart[k]);
+                int i = wordsStart[k];
+                for (int wordId : keys.get(sorted[k]))
+                    wordIds[i++] = wordId;
+            }
+            return new SuggestionIndex(chars, keyStart, wordsStart, wordIds);
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package dev.jzisc.personal.studysrs.index;
+
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds an immutable index built from a table, with one background thread per table that builds it
+ * once the application is ready; a read before that waits for the one build in progress, or runs
+ * it when there is none. Afterwards it compares the index version with the table version
+ * every refreshMillis and rebuilds it when they differ, at most once every minRebuildMillis, while
+ * the previous index keeps answering. Reads only return the current index, so they never touch the
+ * database, and an index lags the table by up to minRebuildMillis plus its rebuild. Checking the
+ * table version instead of listening to the writes also picks up the writes of other instances.
+ */
+@Slf4j
+public abstract class VersionedIndexStore<T> {
+
+    private final DataVersionRepository versions;
+    private final String table;
+    private final String name;
+    private final long minRebuildNanos;
+    private final boolean warmUp;
+    private final ScheduledExecutorService rebuilder;
+
+    private volatile T index;
+    private volatile long indexVersion;
+    private volatile long builtAt;
+    //The build the reads before the first index wait for
+    private final AtomicReference<CompletableFuture<T>> firstBuild = new AtomicReference<>();
+
+    protected VersionedIndexStore(DataVersionRepository versions, String table, String name,
+                                  long refreshMillis, long minRebuildMillis, boolean warmUp) {
+        this.versions = versions;
+        this.table = table;
+        this.name = name;
+        this.minRebuildNanos = TimeUnit.MILLISECONDS.toNanos(minRebuildMillis);
+        this.warmUp = warmUp;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread(runnable, name + "-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilder.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the table into a new index; called by one thread at a time.
+     */
+    protected abstract T build(long dataVersion);
+
+    protected abstract String describe(T index);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm(){
+        if (warmUp)
+            firstBuild(rebuilder);
+    }
+
+    /**
+     * @return the current index; only a read before the first one is built waits, for that build
+     */
+    public T current(){
+        T current = index;
+        if (current != null)
+            return current;
+        try {
+            return firstBuild(Runnable::run).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+        }
+    }
+
+    public synchronized T rebuild(){
+        try {
+            long start = System.nanoTime();
+            long version = versions.find(table);
+            T built = build(version);
+            indexVersion = version;
+            index = built;
+            builtAt = System.nanoTime();
+            log.info("Built the {}: {} in {} ms", name, describe(built), (builtAt - start) / 1_000_000);
+            return built;
+        } catch (RuntimeException ex) {
+            //Keeps answering with the previous index, the next refresh retries
+            log.warn("Rebuilding the {} failed", name, ex);
+            if (index == null)
+                throw ex;
+            return index;
+        }
+    }
+
+    private CompletableFuture<T> firstBuild(Executor executor){
+        CompletableFuture<T> build = firstBuild.get();
+        //A failed first build is retried by the next read
+        if (build != null && !build.isCompletedExceptionally())
+            return build;
+        CompletableFuture<T> next = new CompletableFuture<>();
+        if (!firstBuild.compareAndSet(build, next))
+            return firstBuild.get();
+        executor.execute( () -> {
+            try {
+                next.complete(rebuild());
+            } catch (RuntimeException ex) {
+                next.completeExceptionally(ex);
+            }
+        });
+        return next;
+    }
+
+    private void refresh(){
+        //Built by the warm up or the first read
+        if (index == null || System.nanoTime() - builtAt < minRebuildNanos)
+            return;
+        try {
+            if (indexVersion != versions.find(table))
+                rebuild();
+        } catch (RuntimeException ex) {
+            //An exception would cancel the next refreshes
+            log.warn("Checking the {} version failed", name, ex);
+        }
+    }
+
+    @PreDestroy
+    public void stop(){
+        rebuilder.shutdownNow();
+    }
+
+}
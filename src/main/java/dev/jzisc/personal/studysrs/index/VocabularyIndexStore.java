@@ -0,0 +1,57 @@
+package dev.jzisc.personal.studysrs.index;
+
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Suggestions, meaning tokens and word automaton of the vocabulary, refreshed together: one check of
+ * the table version and one read of its rows for the three of them.
+ */
+@Component
+public class VocabularyIndexStore extends VersionedIndexStore<VocabularyIndexes> {
+
+    private final VocabRepository repository;
+    private final boolean readings;
+
+    @Autowired
+    public VocabularyIndexStore(VocabRepository repository,
+                                DataVersionRepository versions,
+                                @Value("${study-srs.analyzer.readings:false}") boolean readings,
+                                @Value("${study-srs.index.refresh-interval-ms:1000}") long refreshMillis,
+                                @Value("${study-srs.index.min-rebuild-interval-ms:5000}") long minRebuildMillis,
+                                @Value("${study-srs.index.warm-up:true}") boolean warmUp) {
+        super(versions, DataVersionRepository.VOCABULARY, "vocabulary-indexes", refreshMillis, minRebuildMillis, warmUp);
+        this.repository = repository;
+        this.readings = readings;
+    }
+
+    @Override
+    protected VocabularyIndexes build(long dataVersion) {
+        SuggestionIndex.Builder suggestions = SuggestionIndex.builder();
+        FuzzyTokenIndex.Builder meanings = FuzzyTokenIndex.builder();
+        WordAutomaton.Builder automaton = WordAutomaton.builder().dataVersion(dataVersion);
+        for (Object[] row : repository.findAllSurfaces()) {
+            suggestions.addKey((String) row[1], (Integer) row[0]);
+            suggestions.addKey((String) row[2], (Integer) row[0]);
+            automaton.addWord((Integer) row[0], (String) row[1]);
+            if (readings)
+                automaton.addWord((Integer) row[0], (String) row[2]);
+        }
+        //Tokens are stored normalized, the same way the queries are
+        for (Object[] row : repository.findAllMeaningTokens()) {
+            suggestions.addKey((String) row[1], (Integer) row[0]);
+            meanings.addToken((String) row[1], (Integer) row[0]);
+        }
+        return new VocabularyIndexes(suggestions.build(), meanings.build(), automaton.build());
+    }
+
+    @Override
+    protected String describe(VocabularyIndexes indexes) {
+        return indexes.suggestions().size() + " keys, " + indexes.meanings().size() + " tokens, "
+                + indexes.automaton().patterns() + " patterns, " + indexes.automaton().states() + " states";
+    }
+
+}
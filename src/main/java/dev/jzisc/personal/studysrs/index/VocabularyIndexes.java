@@ -0,0 +1,31 @@
+package dev.jzisc.personal.studysrs.index;
+
+/**
+ * The in-memory indexes of the vocabulary table, built together from one read of it so they always
+ * answer from the same version.
+ */
+public final class VocabularyIndexes {
+
+    private final SuggestionIndex suggestions;
+    private final FuzzyTokenIndex meanings;
+    private final WordAutomaton automaton;
+
+    public VocabularyIndexes(SuggestionIndex suggestions, FuzzyTokenIndex meanings, WordAutomaton automaton) {
+        this.suggestions = suggestions;
+        this.meanings = meanings;
+        this.automaton = automaton;
+    }
+
+    public SuggestionIndex suggestions(){
+        return suggestions;
+    }
+
+    public FuzzyTokenIndex meanings(){
+        return meanings;
+    }
+
+    public WordAutomaton automaton(){
+        return automaton;
+    }
+
+}
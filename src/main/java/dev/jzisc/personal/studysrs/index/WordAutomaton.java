@@ -0,0 +1,269 @@
+package dev.jzisc.personal.studysrs.index;
+
+import java.util.*;
+
+/**
+ * Immutable Aho-Corasick automaton over the vocabulary, compiled into flat arrays.
+ * <p>
+ * States are numbered breadth first and the children of a state are consecutive and sorted by
+ * label, so a transition is a binary search of label[childStart[s] .. childStart[s + 1]] and no
+ * target array is needed. pattern[s] is the pattern ending at s or -1, outputLink[s] the nearest
+ * state on the failure chain of s where a pattern ends, 0 when there is none.
+ * A pattern owns the word ids wordIds[wordsStart[p] .. wordsStart[p + 1]].
+ */
+public final class WordAutomaton {
+
+    private static final int NONE = -1;
+
+    private final int[] childStart;
+    private final char[] label;
+    private final int[] fail;
+    private final int[] outputLink;
+    private final int[] pattern;
+    private final int[] patternLength;
+    private final int[] wordsStart;
+    private final int[] wordIds;
+    private final long dataVersion;
+
+    private WordAutomaton(int[] childStart, char[] label, int[] fail, int[] outputLink, int[] pattern,
+                          int[] patternLength, int[] wordsStart, int[] wordIds, long dataVersion) {
+        this.childStart = childStart;
+        this.label = label;
+        this.fail = fail;
+        this.outputLink = outputLink;
+        this.pattern = pattern;
+        this.patternLength = patternLength;
+        this.wordsStart = wordsStart;
+        this.wordIds = wordIds;
+        this.dataVersion = dataVersion;
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    public int states(){
+        return label.length;
+    }
+
+    public int patterns(){
+        return patternLength.length;
+    }
+
+    /**
+     * @return the vocabulary table version this automaton was built at
+     */
+    public long dataVersion(){
+        return dataVersion;
+    }
+
+    /**
+     * Every occurrence of every pattern in the text, overlapping ones included,
+     * ordered by start and then by end.
+     */
+    public Matches match(CharSequence text){
+        Matches matches = new Matches();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = child(state, c)) == NONE && state != 0)
+                state = fail[state];
+            state = next == NONE ? 0 : next;
+            for (int out = pattern[state] != NONE ? state : outputLink[state]; out != 0; out = outputLink[out])
+                matches.add(i + 1 - patternLength[pattern[out]], i + 1, pattern[out]);
+        }
+        matches.sort();
+        return matches;
+    }
+
+    public int wordCount(int patternId){
+        return wordsStart[patternId + 1] - wordsStart[patternId];
+    }
+
+    public int wordAt(int patternId, int index){
+        return wordIds[wordsStart[patternId] + index];
+    }
+
+    private int child(int state, char c){
+        int low = childStart[state], high = childStart[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char candidate = label[middle];
+            if (candidate < c)
+                low = middle + 1;
+            else if (candidate > c)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return NONE;
+    }
+
+    /**
+     * Matches as parallel arrays: match i covers text[start(i), end(i)) and is pattern(i).
+     */
+    public static final class Matches {
+
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] patterns = new int[16];
+        private int size;
+
+        private Matches(){}
+
+        public int size(){
+            return size;
+        }
+
+        public int start(int index){
+            return starts[index];
+        }
+
+        public int end(int index){
+            return ends[index];
+        }
+
+        public int pattern(int index){
+            return patterns[index];
+        }
+
+        private void add(int start, int end, int patternId){
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                patterns = Arrays.copyOf(patterns, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            patterns[size] = patternId;
+            size++;
+        }
+
+        /**
+         * Matches are found in end order; sorting (start, index) keys keeps the end order within a start.
+         */
+        private void sort(){
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++)
+                keys[i] = ((long) starts[i] << 32) | i;
+            Arrays.sort(keys);
+            int[] sortedEnds = new int[size], sortedPatterns = new int[size];
+            for (int i = 0; i < size; i++) {
+                int from = (int) keys[i];
+                starts[i] = (int) (keys[i] >>> 32);
+                sortedEnds[i] = ends[from];
+                sortedPatterns[i] = patterns[from];
+            }
+            ends = sortedEnds;
+            patterns = sortedPatterns;
+        }
+
+    }
+
+    public static final class Builder {
+
+        private final Map<String, int[]> words = new HashMap<>();
+        private int count;
+        private long dataVersion;
+
+        private Builder(){}
+
+        /**
+         * Adds a surface form of a word; words sharing a surface share its pattern.
+         */
+        public Builder addWord(int wordId, String surface){
+            if (surface == null || surface.isEmpty())
+                return this;
+            int[] ids = words.get(surface);
+            if (ids == null)
+                ids = new int[]{ 0, 0 };
+            else if (ids[0] + 1 == ids.length)
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            //ids[0] holds the count, duplicates come from a surface that is both a word and a reading
+            for (int i = 1; i <= ids[0]; i++)
+                if (ids[i] == wordId)
+                    return this;
+            ids[++ids[0]] = wordId;
+            words.put(surface, ids);
+            count++;
+            return this;
+        }
+
+        public Builder dataVersion(long dataVersion){
+            this.dataVersion = dataVersion;
+            return this;
+        }
+
+        public WordAutomaton build(){
+            String[] patterns = words.keySet().toArray(new String[0]);
+            Arrays.sort(patterns);
+
+            int[] patternLength = new int[patterns.length];
+            int[] wordsStart = new int[patterns.length + 1];
+            int[] wordIds = new int[count];
+            int maxStates = 1;
+            for (int p = 0; p < patterns.length; p++) {
+                int[] ids = words.get(patterns[p]);
+                patternLength[p] = patterns[p].length();
+                System.arraycopy(ids, 1, wordIds, wordsStart[p], ids[0]);
+                Arrays.sort(wordIds, wordsStart[p], wordsStart[p] + ids[0]);
+                wordsStart[p + 1] = wordsStart[p] + ids[0];
+                maxStates += patterns[p].length();
+            }
+
+            //Breadth first over the sorted patterns: the state at depth d owns the range of patterns
+            //sharing its prefix, its children are the runs of that range with the same char at d
+            int[] rangeStart = new int[maxStates], rangeEnd = new int[maxStates], depth = new int[maxStates];
+            int[] parent = new int[maxStates];
+            char[] label = new char[maxStates];
+            int[] pattern = new int[maxStates];
+            int[] childStart = new int[maxStates + 1];
+            rangeEnd[0] = patterns.length;
+            int states = 1;
+            for (int s = 0; s < states; s++) {
+                int from = rangeStart[s], to = rangeEnd[s], d = depth[s];
+                pattern[s] = NONE;
+                if (from < to && patterns[from].length() == d)
+                    pattern[s] = from++;
+                childStart[s] = states;
+                while (from < to) {
+                    char c = patterns[from].charAt(d);
+                    int run = from + 1;
+                    while (run < to && patterns[run].charAt(d) == c)
+                        run++;
+                    label[states] = c;
+                    parent[states] = s;
+                    depth[states] = d + 1;
+                    rangeStart[states] = from;
+                    rangeEnd[states] = run;
+                    states++;
+                    from = run;
+                }
+            }
+            childStart[states] = states;
+
+            WordAutomaton automaton = new WordAutomaton(
+                    Arrays.copyOf(childStart, states + 1), Arrays.copyOf(label, states),
+                    new int[states], new int[states], Arrays.copyOf(pattern, states),
+                    patternLength, wordsStart, wordIds, dataVersion);
+            //Parents come before their children, so their links are set when a child needs them
+            for (int s = 1; s < states; s++) {
+                int p = parent[s];
+                int link = 0;
+                if (p != 0) {
+                    int candidate = automaton.fail[p];
+                    while ((link = automaton.child(candidate, label[s])) == NONE && candidate != 0)
+                        candidate = automaton.fail[candidate];
+                    if (link == NONE)
+                        link = 0;
+                }
+                automaton.fail[s] = link;
+                automaton.outputLink[s] = automaton.pattern[link] != NONE ? link : automaton.outputLink[link];
+            }
+            return automaton;
+        }
+
+    }
+
+}
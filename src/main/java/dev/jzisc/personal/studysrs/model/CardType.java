@@ -0,0 +1,5 @@
+package dev.jzisc.personal.studysrs.model;
+
+public enum CardType {
+    WORD, KANJI
+}
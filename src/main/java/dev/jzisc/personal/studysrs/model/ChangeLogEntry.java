@@ -0,0 +1,20 @@
+package dev.jzisc.personal.studysrs.model;
+
+import dev.jzisc.personal.studysrs.event.ChangeType;
+import lombok.*;
+
+/**
+ * Latest change of one word or kanji as read from change_log.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ChangeLogEntry {
+
+    private final long changeId;
+    private final CardType entityType;
+    private final int entityId;
+    private final ChangeType changeType;
+
+}
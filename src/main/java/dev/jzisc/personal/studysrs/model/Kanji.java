@@ -5,8 +5,13 @@ import lombok.experimental.Accessors;
 
 import javax.persistence.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.tokenize;
+import static lombok.AccessLevel.NONE;
 import static lombok.AccessLevel.PRIVATE;
 
 @NoArgsConstructor
@@ -30,7 +35,20 @@ public class Kanji {
     private String kanji;
     private String meaning;
 
-    //Kanjis Confusions relation
+    @Version
+    @EqualsAndHashCode.Exclude
+    private int version;
+
+    //Normalized meaning tokens, indexed for meaning searches
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "kanjis_meanings", joinColumns = @JoinColumn(name = "kanji_id"))
+    @Column(name = "token")
+    @Getter(PRIVATE) @Setter(PRIVATE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private Set<String> meaningTokens = new LinkedHashSet<>();
+
+    //Kanjis Confusions relation, left out of equals, hashCode and toString: both sides list each other
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
@@ -39,15 +57,25 @@ public class Kanji {
             inverseJoinColumns = @JoinColumn(name = "confusion_id")
     )
     @Getter(PRIVATE) @Setter(PRIVATE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private List<Kanji> priorKanjisConfused = new ArrayList<>();
 
     @ManyToMany( fetch = FetchType.LAZY, mappedBy = "priorKanjisConfused" )
     @Getter(PRIVATE) @Setter(PRIVATE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private List<Kanji> createdLaterKanjisConfused = new ArrayList<>();
 
+    //Membership index of the relation, built on the first check and again whenever Hibernate
+    //replaces the lists, which it fills without going through addConfusion
+
+    @Transient
+    @Getter(NONE) @Setter(NONE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private ConfusionIndex confusionIndex;
+
     public boolean addConfusion(Kanji confusion){
         if (confusion != null
-                && confusion.kanji_id != this.kanji_id
+                && !isSameKanji(confusion)
                 && !this.containsConfusion(confusion))
         {
             if ( confusion.kanji_id != null && ( this.kanji_id == null || confusion.kanji_id < this.kanji_id )) {
@@ -59,12 +87,22 @@ public class Kanji {
                     this.createdLaterKanjisConfused = new ArrayList<>();
                 this.createdLaterKanjisConfused.add(confusion);
             }
+            if (confusionIndex != null && confusionIndex.isOf(priorKanjisConfused, createdLaterKanjisConfused))
+                confusionIndex.add(confusion);
+            else
+                confusionIndex = null;
             confusion.addConfusion(this);
             return true;
         }
         return false;
     }
 
+    public Kanji setMeaning(String meaning){
+        this.meaning = meaning;
+        this.meaningTokens = tokenize(meaning);
+        return this;
+    }
+
     public List<Kanji> getConfusions(){
         if (priorKanjisConfused == null) {
             if (createdLaterKanjisConfused == null)
@@ -79,23 +117,101 @@ public class Kanji {
         }
     }
 
+    /**
+     * Confusions count, for walking them with confusionAt without copying them as getConfusions does.
+     */
+    public int confusionCount(){
+        return (priorKanjisConfused == null ? 0 : priorKanjisConfused.size())
+                + (createdLaterKanjisConfused == null ? 0 : createdLaterKanjisConfused.size());
+    }
+
+    /**
+     * The index-th confusion, in the order getConfusions lists them.
+     */
+    public Kanji confusionAt(int index){
+        int prior = priorKanjisConfused == null ? 0 : priorKanjisConfused.size();
+        return index < prior ? priorKanjisConfused.get(index) : createdLaterKanjisConfused.get(index - prior);
+    }
+
     public Kanji setConfusions(List<Kanji> confusions){
         if (confusions != null)
             confusions.stream().forEach( confusion -> this.addConfusion(confusion) );
         else {
             this.priorKanjisConfused = null;
             this.createdLaterKanjisConfused = null;
+            this.confusionIndex = null;
         }
         return this;
     }
 
+    /**
+     * Compares ids, or instances for unsaved kanjis, never the confused kanjis themselves. A binary
+     * search for a saved kanji; the confusions are only walked when some were unsaved when added.
+     */
     public boolean containsConfusion(Kanji confusion){
-        boolean contained = false;
-        if (priorKanjisConfused != null)
-            contained = priorKanjisConfused.contains(confusion);
-        if(!contained && createdLaterKanjisConfused != null)
-            contained = createdLaterKanjisConfused.contains(confusion);
-        return contained;
+        if (confusion == null)
+            return false;
+        if (confusionIndex == null || !confusionIndex.isOf(priorKanjisConfused, createdLaterKanjisConfused)) {
+            confusionIndex = new ConfusionIndex(priorKanjisConfused, createdLaterKanjisConfused);
+            for (int i = 0, count = confusionCount(); i < count; i++)
+                confusionIndex.add(confusionAt(i));
+        }
+        if (confusion.kanji_id != null && confusionIndex.containsId(confusion.kanji_id))
+            return true;
+        if (confusionIndex.unsaved == 0)
+            return false;
+        //Unsaved when added, they may have an id by now
+        for (int i = 0, count = confusionCount(); i < count; i++)
+            if (confusionAt(i).isSameKanji(confusion))
+                return true;
+        return false;
+    }
+
+    private boolean isSameKanji(Kanji other){
+        return other == this || (kanji_id != null && kanji_id.equals(other.kanji_id));
+    }
+
+    /**
+     * Sorted ids of the saved confusions and the count of the unsaved ones, for the two lists it
+     * was built from.
+     */
+    private static final class ConfusionIndex {
+
+        private final List<Kanji> prior;
+        private final List<Kanji> later;
+        private short[] ids = new short[8];
+        private int size;
+        private int unsaved;
+
+        private ConfusionIndex(List<Kanji> prior, List<Kanji> later) {
+            this.prior = prior;
+            this.later = later;
+        }
+
+        private boolean isOf(List<Kanji> prior, List<Kanji> later){
+            return this.prior == prior && this.later == later;
+        }
+
+        private void add(Kanji confusion){
+            if (confusion.kanji_id == null) {
+                unsaved++;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, confusion.kanji_id);
+            if (at >= 0)
+                return;
+            at = -at - 1;
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, 2 * size);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = confusion.kanji_id;
+            size++;
+        }
+
+        private boolean containsId(short id){
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
     }
 
 }
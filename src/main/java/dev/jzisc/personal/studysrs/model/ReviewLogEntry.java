@@ -0,0 +1,23 @@
+package dev.jzisc.personal.studysrs.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One answered card as appended to review_log.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ReviewLogEntry {
+
+    private final CardType cardType;
+    private final int cardId;
+    private final int grade;
+    private final Instant reviewedAt;
+    private final int intervalDays;
+    private final Instant dueAt;
+
+}
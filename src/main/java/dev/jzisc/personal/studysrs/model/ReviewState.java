@@ -0,0 +1,31 @@
+package dev.jzisc.personal.studysrs.model;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.time.Instant;
+
+/**
+ * Scheduling state of a single word or kanji card, stored in vocabulary_reviews / kanjis_reviews.
+ */
+@NoArgsConstructor
+@Getter @Setter
+@Accessors(chain = true)
+@ToString
+@EqualsAndHashCode
+public class ReviewState {
+
+    private CardType cardType;
+    private int cardId;
+
+    private int intervalDays;
+    private double ease;
+    private double stability;
+    private double difficulty;
+    private int repetitions;
+    private int lapses;
+
+    private Instant dueAt;
+    private Instant reviewedAt;
+
+}
@@ -1,9 +1,16 @@
 package dev.jzisc.personal.studysrs.model;
 
+import dev.jzisc.personal.studysrs.util.KanaFolding;
+import dev.jzisc.personal.studysrs.util.KanjiCodePoints;
 import lombok.*;
 import lombok.experimental.Accessors;
 
 import javax.persistence.*;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.tokenize;
+import static lombok.AccessLevel.PRIVATE;
 
 @NoArgsConstructor
 @Getter @Setter
@@ -28,4 +35,51 @@ public class Word {
     private String reading;
     private String meaning;
 
+    @Version
+    @EqualsAndHashCode.Exclude
+    private int version;
+
+    //Script agnostic form of the reading, indexed for reading searches
+
+    @Column(name = "reading_key")
+    @Getter(PRIVATE) @Setter(PRIVATE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private String readingKey;
+
+    //Normalized meaning tokens, indexed for meaning searches
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "vocabulary_meanings", joinColumns = @JoinColumn(name = "word_id"))
+    @Column(name = "token")
+    @Getter(PRIVATE) @Setter(PRIVATE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private Set<String> meaningTokens = new LinkedHashSet<>();
+
+    //Code points of the kanjis of the word, indexed for the words containing a kanji
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "vocabulary_kanjis", joinColumns = @JoinColumn(name = "word_id"))
+    @Column(name = "code_point")
+    @Getter(PRIVATE) @Setter(PRIVATE)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private Set<Integer> kanjiCodePoints = new LinkedHashSet<>();
+
+    public Word setWord(String word){
+        this.word = word;
+        this.kanjiCodePoints = KanjiCodePoints.of(word);
+        return this;
+    }
+
+    public Word setReading(String reading){
+        this.reading = reading;
+        this.readingKey = KanaFolding.fold(reading);
+        return this;
+    }
+
+    public Word setMeaning(String meaning){
+        this.meaning = meaning;
+        this.meaningTokens = tokenize(meaning);
+        return this;
+    }
+
 }
@@ -0,0 +1,104 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.event.ChangeType;
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.model.ChangeLogEntry;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Compacted log of the dictionary writes: one row per word or kanji, holding its latest change.
+ * Appending a change removes the previous row of the entity, so the table grows with the number
+ * of entities ever written, never with the number of writes, and every token stays valid.
+ * <p>
+ * Appends first lock the change_log row of data_versions until the transaction ends. Change ids
+ * are therefore drawn in commit order, and a reader that saw id n will never see a smaller one
+ * committed later.
+ * <p>
+ * That lock is global: every dictionary write waits for the writes appended before it to commit.
+ * The services append last, after their own row and data_versions locks, so the lock is only held
+ * for the appends and the commit and is always taken in the same order. Allocating the ids from a
+ * sequence would not need it, but ids would then follow the order the writes started in and a
+ * reader could skip a change committed late.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Repository
+public class ChangeLogRepository {
+
+    public static final String CHANGE_LOG = "change_log";
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private DataVersionRepository versions;
+
+    public void append(CardType type, Collection<? extends Number> ids, ChangeType change){
+        if (ids == null || ids.isEmpty())
+            return;
+        versions.increment(CHANGE_LOG);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Integer> entityIds = ids.stream().filter(Objects::nonNull).map(Number::intValue).distinct()
+                .collect(Collectors.toList());
+        for (int from = 0; from < entityIds.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = entityIds.subList(from, Math.min(from + CHUNK_SIZE, entityIds.size()));
+            jdbcTemplate.update(
+                    "DELETE FROM change_log WHERE entity_type = :type AND entity_id IN (:ids)",
+                    new MapSqlParameterSource("type", type.name()).addValue("ids", chunk)
+            );
+            jdbcTemplate.getJdbcTemplate().batchUpdate(
+                    "INSERT INTO change_log(entity_type, entity_id, change_type, changed_at) VALUES (?, ?, ?, ?)",
+                    chunk.stream()
+                            .map( id -> new Object[]{ type.name(), id, change.name(), now } )
+                            .collect(Collectors.toList())
+            );
+        }
+    }
+
+    public void append(CardType type, Number id, ChangeType change){
+        append(type, Collections.singletonList(id), change);
+    }
+
+    /**
+     * Every kanji currently linked to the given one, to be read before its confusions are replaced
+     * or it is deleted and logged as updated with the other changes of the write. Reading takes no lock.
+     */
+    public List<Integer> findLinkedKanjis(short kanjiId){
+        return jdbcTemplate.queryForList(
+                "SELECT confusion_id FROM kanjis_confusions WHERE kanji_id = :id "
+                        + "UNION SELECT kanji_id FROM kanjis_confusions WHERE confusion_id = :id",
+                new MapSqlParameterSource("id", kanjiId),
+                Integer.class
+        );
+    }
+
+    /**
+     * Up to limit changes after the given change id, in change order.
+     */
+    public List<ChangeLogEntry> findSince(long since, int limit){
+        return jdbcTemplate.query(
+                "SELECT change_id, entity_type, entity_id, change_type FROM change_log "
+                        + "WHERE change_id > :since ORDER BY change_id LIMIT :limit",
+                new MapSqlParameterSource("since", since).addValue("limit", limit),
+                (rs, row) -> new ChangeLogEntry(
+                        rs.getLong(1),
+                        CardType.valueOf(rs.getString(2)),
+                        rs.getInt(3),
+                        ChangeType.valueOf(rs.getString(4)))
+        );
+    }
+
+    public long findLastChangeId(){
+        Long last = jdbcTemplate.queryForObject(
+                "SELECT MAX(change_id) FROM change_log", new MapSqlParameterSource(), Long.class);
+        return last == null ? 0 : last;
+    }
+
+}
@@ -0,0 +1,52 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * One counter per table, incremented in the same transaction as every write to it, so a
+ * listing can be validated without reading its rows.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Repository
+public class DataVersionRepository {
+
+    public static final String VOCABULARY = "vocabulary";
+    public static final String KANJIS = "kanjis";
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final SqlDialect dialect = SqlDialect.of(jdbcTemplate.getJdbcTemplate());
+
+    /**
+     * Read before the rows anything tagged with the version is built from: a write racing the
+     * build then leaves an older version on newer rows, never a newer version on older rows.
+     */
+    public long find(String table){
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM data_versions WHERE table_name = :table",
+                new MapSqlParameterSource("table", table),
+                Long.class
+        );
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * Also locks the row of the table until the transaction ends.
+     */
+    public void increment(String table){
+        jdbcTemplate.update(
+                getDialect().increment("data_versions", "table_name", "version", ":table"),
+                new MapSqlParameterSource("table", table)
+        );
+    }
+
+}
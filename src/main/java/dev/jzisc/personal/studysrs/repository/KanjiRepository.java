@@ -1,19 +1,77 @@
 package dev.jzisc.personal.studysrs.repository;
 
 import dev.jzisc.personal.studysrs.model.Kanji;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface KanjiRepository extends JpaRepository<Kanji, Short> {
+public interface KanjiRepository extends JpaRepository<Kanji, Short>, KanjiRepositoryCustom {
 
-    @Query(nativeQuery = true, value = "SELECT * FROM kanjis WHERE meaning ~* ?1")
-    List<Kanji> findByMeaningRegex(String meaning);
+    @Query("SELECT DISTINCT k FROM Kanji k JOIN k.meaningTokens t WHERE t = ?1 ORDER BY k.kanji_id")
+    List<Kanji> findByMeaningToken(String token);
+
+    @Query("SELECT k FROM Kanji k WHERE k.kanji_id > ?1 ORDER BY k.kanji_id")
+    List<Kanji> findPage(Short after, Pageable page);
+
+    @Query("SELECT k FROM Kanji k JOIN k.meaningTokens t WHERE t = ?1 AND k.kanji_id > ?2 ORDER BY k.kanji_id")
+    List<Kanji> findPageByMeaningToken(String token, Short after, Pageable page);
+
+    @Query("SELECT DISTINCT k FROM Kanji k LEFT JOIN FETCH k.priorKanjisConfused WHERE k IN ?1")
+    List<Kanji> fetchPriorConfusions(List<Kanji> kanjis);
+
+    @Query("SELECT DISTINCT k FROM Kanji k LEFT JOIN FETCH k.createdLaterKanjisConfused WHERE k IN ?1")
+    List<Kanji> fetchLaterConfusions(List<Kanji> kanjis);
+
+    @Query("SELECT k.kanji_id, k.kanji, k.meaning, k.version FROM Kanji k")
+    List<Object[]> findAllRows();
+
+    @Query("SELECT k.kanji_id, t FROM Kanji k JOIN k.meaningTokens t")
+    List<Object[]> findAllMeaningTokens();
+
+    @Query("SELECT k.kanji_id, c.kanji_id FROM Kanji k JOIN k.priorKanjisConfused c")
+    List<Object[]> findAllConfusionPairs();
+
+    @Query("SELECT k.version FROM Kanji k WHERE k.kanji_id = ?1")
+    Optional<Integer> findVersionById(Short id);
 
     Optional<Kanji> findByKanji(String kanji);
 
     boolean existsByKanji(String kanji);
 
+    @Query("SELECT k.kanji_id FROM Kanji k WHERE k.kanji IN ?1")
+    List<Short> findIdsByKanjiIn(Collection<String> kanjis);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Kanji k SET k.kanji = ?2, k.meaning = ?3, k.version = k.version + 1 WHERE k.kanji_id = ?1")
+    int updateById(Short id, String kanji, String meaning);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM kanjis WHERE kanji_id = ?1")
+    int removeById(Short id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM kanjis_meanings WHERE kanji_id = ?1")
+    int deleteMeaningTokens(Short id);
+
+    //A confusion shows up on both kanjis, so linking or unlinking one changes the other one too
+
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE kanjis SET version = version + 1 WHERE kanji_id IN "
+            + "(SELECT confusion_id FROM kanjis_confusions WHERE kanji_id = ?1 "
+            + "UNION SELECT kanji_id FROM kanjis_confusions WHERE confusion_id = ?1)")
+    int incrementConfusionsVersion(Short id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE kanjis SET version = version + 1 WHERE kanji_id IN ?1")
+    int incrementVersions(Collection<Short> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM kanjis_confusions WHERE kanji_id = ?1 OR confusion_id = ?1")
+    int deleteConfusions(Short id);
+
 }
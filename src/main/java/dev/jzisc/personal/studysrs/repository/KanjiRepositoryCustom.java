@@ -0,0 +1,44 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.model.Kanji;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface KanjiRepositoryCustom {
+
+    /**
+     * Inserts the kanjis not saved yet, then their meaning tokens and confusions, and adds them to
+     * the inserted count of result. The ones saved already, even by a concurrent transaction or
+     * another instance, are added to its skipped count and get no id.
+     * @return the kanjis inserted, with their ids
+     */
+    List<Kanji> insertAll(List<Kanji> kanjis, BulkResultDTO result);
+
+    /**
+     * Inserts the kanji unless its character is saved already, in one atomic statement, then its
+     * meaning tokens and its confusions with existing kanjis.
+     * @return the id given to the kanji, empty when it was a duplicate
+     */
+    Optional<Short> insertIfAbsent(Kanji kanji);
+
+    /**
+     * Writes the meaning tokens and the confusions of a saved kanji, one batch per table. The
+     * confusions with kanjis that don't exist are left out.
+     */
+    void insertDetails(Kanji kanji, List<Short> confusions);
+
+    /**
+     * Writes the meaning tokens of the kanjis that have none, the rows saved before the tokens
+     * table existed. The rows are read by id ranges of CHUNK_SIZE, each range written in one batch
+     * committed on its own.
+     * @return the tokens written
+     */
+    int backfillMeaningTokens();
+
+    void forEachWithConfusions(int fetchSize, Consumer<KanjiDTO> action);
+
+}
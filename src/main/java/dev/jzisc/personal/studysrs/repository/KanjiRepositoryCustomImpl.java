@@ -0,0 +1,190 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.model.Kanji;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.tokenize;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+public class KanjiRepositoryCustomImpl implements KanjiRepositoryCustom {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final SqlDialect dialect = SqlDialect.of(jdbcTemplate.getJdbcTemplate());
+
+    @Override
+    public List<Kanji> insertAll(List<Kanji> kanjis, BulkResultDTO result) {
+        List<Kanji> inserted = new ArrayList<>();
+        for (int from = 0; from < kanjis.size(); from += CHUNK_SIZE)
+            inserted.addAll(insertChunk(kanjis.subList(from, Math.min(from + CHUNK_SIZE, kanjis.size()))));
+        result.setInserted(result.getInserted() + inserted.size())
+                .setSkipped(result.getSkipped() + kanjis.size() - inserted.size());
+        return inserted;
+    }
+
+    @Override
+    public Optional<Short> insertIfAbsent(Kanji kanji) {
+        List<Short> ids = getDialect().insertIfAbsent(jdbcTemplate.getJdbcTemplate(), "kanjis",
+                new String[]{ "kanji", "meaning" },
+                new Object[]{ kanji.getKanji(), kanji.getMeaning() },
+                1, "kanji_id", Short.class);
+        if (ids.isEmpty())
+            return Optional.empty();
+        List<List<Short>> confusions = Collections.singletonList(confusionIdsOf(kanji));
+        kanji.setKanji_id(ids.get(0));
+        insertDetails(Collections.singletonList(kanji), confusions);
+        return Optional.of(kanji.getKanji_id());
+    }
+
+    @Override
+    public void insertDetails(Kanji kanji, List<Short> confusions) {
+        insertDetails(Collections.singletonList(kanji), Collections.singletonList(confusions));
+    }
+
+    @Override
+    public int backfillMeaningTokens() {
+        Integer maxId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(kanji_id) FROM kanjis", Integer.class);
+        int written = 0;
+        for (int after = 0; maxId != null && after < maxId; after += CHUNK_SIZE)
+            written += backfillMeaningTokens(after, after + CHUNK_SIZE);
+        return written;
+    }
+
+    private int backfillMeaningTokens(int after, int last) {
+        List<Object[]> tokens = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT kanji_id, meaning FROM kanjis k WHERE kanji_id > :after AND kanji_id <= :last "
+                        + "AND NOT EXISTS (SELECT 1 FROM kanjis_meanings m WHERE m.kanji_id = k.kanji_id)",
+                new MapSqlParameterSource("after", after).addValue("last", last),
+                (RowCallbackHandler) rs -> {
+                    short id = rs.getShort(1);
+                    tokenize(rs.getString(2)).forEach( token -> tokens.add(new Object[]{ id, token }) );
+                }
+        );
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO kanjis_meanings(kanji_id, token) VALUES (?, ?)", tokens);
+        return tokens.size();
+    }
+
+    /**
+     * Reads every kanji with its confusion ids through a single cursor, fetchSize rows at a time.
+     * Rows come sorted by kanji id so each kanji is handed to the action as soon as its last
+     * confusion is read, nothing else is kept.
+     */
+    @Override
+    public void forEachWithConfusions(int fetchSize, Consumer<KanjiDTO> action) {
+        String sql = "SELECT k.kanji_id, k.kanji, k.meaning, c.other_id FROM kanjis k "
+                + "LEFT JOIN (SELECT kanji_id, confusion_id AS other_id FROM kanjis_confusions "
+                + "UNION ALL SELECT confusion_id, kanji_id FROM kanjis_confusions) c ON c.kanji_id = k.kanji_id "
+                + "ORDER BY k.kanji_id, c.other_id";
+        ConfusionsGrouper grouper = new ConfusionsGrouper(action);
+        jdbcTemplate.getJdbcTemplate().query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                grouper
+        );
+        grouper.finish();
+    }
+
+    private List<Kanji> insertChunk(List<Kanji> kanjis) {
+        //Ids are drawn by the column default and returned by the insert, which skips the saved kanjis
+        Map<String, Kanji> byKanji = new HashMap<>();
+        kanjis.forEach( kanji -> byKanji.put(kanji.getKanji(), kanji) );
+        List<Kanji> inserted = getDialect().insertAllIfAbsent(jdbcTemplate.getJdbcTemplate(), "kanjis",
+                new String[]{ "kanji", "meaning" },
+                kanjis.stream()
+                        .map( kanji -> new Object[]{ kanji.getKanji(), kanji.getMeaning() } )
+                        .collect(Collectors.toList()),
+                1, "kanji_id, kanji",
+                (rs, row) -> byKanji.get(rs.getString(2).trim()).setKanji_id(rs.getShort(1))
+        );
+        insertDetails(inserted, inserted.stream()
+                .map(KanjiRepositoryCustomImpl::confusionIdsOf)
+                .collect(Collectors.toList()));
+        return inserted;
+    }
+
+    private static List<Short> confusionIdsOf(Kanji kanji){
+        List<Short> ids = new ArrayList<>(kanji.confusionCount());
+        for (int i = 0, count = kanji.confusionCount(); i < count; i++) {
+            Short id = kanji.confusionAt(i).getKanji_id();
+            //addConfusion already keeps the saved ids unique
+            if (id != null)
+                ids.add(id);
+        }
+        return ids;
+    }
+
+    private void insertDetails(List<Kanji> kanjis, List<List<Short>> confusions) {
+        List<Object[]> tokens = new ArrayList<>();
+        List<Object[]> pairs = new ArrayList<>();
+        for (int i = 0; i < kanjis.size(); i++) {
+            Kanji kanji = kanjis.get(i);
+            tokenize(kanji.getMeaning()).forEach( token -> tokens.add(new Object[]{ kanji.getKanji_id(), token }) );
+            confusions.get(i).stream()
+                    .filter( id -> !id.equals(kanji.getKanji_id()) )
+                    .forEach( id -> pairs.add(new Object[]{ kanji.getKanji_id(), kanji.getKanji_id(), id }) );
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO kanjis_meanings(kanji_id, token) VALUES (?, ?)", tokens);
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO kanjis_confusions(kanji_id, confusion_id) "
+                        + "SELECT GREATEST(?, kanji_id), LEAST(?, kanji_id) FROM kanjis WHERE kanji_id = ?",
+                pairs);
+    }
+
+    private static final class ConfusionsGrouper implements RowCallbackHandler {
+
+        private final Consumer<KanjiDTO> action;
+        private KanjiDTO current;
+
+        private ConfusionsGrouper(Consumer<KanjiDTO> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            short id = rs.getShort(1);
+            if (current == null || current.getId() != id) {
+                finish();
+                current = new KanjiDTO()
+                        .setId(id)
+                        .setKanji(rs.getString(2).trim())
+                        .setMeaning(rs.getString(3))
+                        .setConfusions(new ArrayList<>());
+            }
+            short confusion = rs.getShort(4);
+            if (!rs.wasNull())
+                current.getConfusions().add(confusion);
+        }
+
+        private void finish() {
+            if (current != null)
+                action.accept(current);
+            current = null;
+        }
+
+    }
+
+}
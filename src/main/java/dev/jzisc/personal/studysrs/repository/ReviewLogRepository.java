@@ -0,0 +1,49 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.model.ReviewLogEntry;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Append-only log of the answered cards. Rows don't reference the cards, so the history of a
+ * deleted word or kanji is kept.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Repository
+public class ReviewLogRepository {
+
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<ReviewLogEntry> entries){
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO review_log(card_type, card_id, grade, reviewed_at, interval_days, due_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ReviewLogEntry entry = entries.get(i);
+                        ps.setString(1, entry.getCardType().name());
+                        ps.setInt(2, entry.getCardId());
+                        ps.setInt(3, entry.getGrade());
+                        ps.setTimestamp(4, Timestamp.from(entry.getReviewedAt()));
+                        ps.setInt(5, entry.getIntervalDays());
+                        ps.setTimestamp(6, Timestamp.from(entry.getDueAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                }
+        );
+    }
+
+}
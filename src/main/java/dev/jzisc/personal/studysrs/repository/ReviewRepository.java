@@ -0,0 +1,335 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.dto.DueCardDTO;
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.model.ReviewState;
+import dev.jzisc.personal.studysrs.scheduling.CardStates;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Review states live in one table per card type so deleting a word or kanji cascades to its state.
+ * Due cards are read through the (due_at, id) index of each table, the cards never answered
+ * through the (reviewed, id) index of the card table, whose flag is set with the first state.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Repository
+public class ReviewRepository {
+
+    private static final String STATE_COLUMNS =
+            "interval_days, ease, stability, difficulty, repetitions, lapses, due_at, reviewed_at";
+
+    private static final String[] STATE_PARAMETERS = { ":id", ":interval", ":ease", ":stability", ":difficulty",
+            ":repetitions", ":lapses", ":dueAt", ":reviewedAt" };
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final SqlDialect dialect = SqlDialect.of(jdbcTemplate.getJdbcTemplate());
+
+    public Optional<ReviewState> findState(CardType type, int cardId){
+        List<ReviewState> states = jdbcTemplate.query(
+                "SELECT " + idColumn(type) + ", " + STATE_COLUMNS + " FROM " + reviewsTable(type)
+                        + " WHERE " + idColumn(type) + " = :id",
+                new MapSqlParameterSource("id", cardId),
+                stateMapper(type)
+        );
+        return states.stream().findFirst();
+    }
+
+    public boolean cardExists(CardType type, int cardId){
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + cardsTable(type) + " WHERE " + idColumn(type) + " = :id",
+                new MapSqlParameterSource("id", cardId),
+                Integer.class
+        );
+        return count != null && count > 0;
+    }
+
+    /**
+     * Writes the state in one upsert, so two first answers to the same card racing each other
+     * don't fail on the primary key: the last one wins.
+     */
+    public void saveState(ReviewState state){
+        jdbcTemplate.update(upsertState(state.getCardType()), stateParams(state));
+        markReviewed(state.getCardType(), Collections.singletonList(state.getCardId()));
+    }
+
+    /**
+     * Set based read of the states of the given cards, CHUNK_SIZE ids per query.
+     */
+    public Map<Integer, ReviewState> findStatesByIds(CardType type, Collection<Integer> cardIds){
+        Map<Integer, ReviewState> states = new HashMap<>();
+        forEachChunk(cardIds, chunk -> jdbcTemplate.query(
+                "SELECT " + idColumn(type) + ", " + STATE_COLUMNS + " FROM " + reviewsTable(type)
+                        + " WHERE " + idColumn(type) + " IN (:ids)",
+                new MapSqlParameterSource("ids", chunk),
+                stateMapper(type)
+        ).forEach( state -> states.put(state.getCardId(), state) ));
+        return states;
+    }
+
+    public Set<Integer> findExistingCards(CardType type, Collection<Integer> cardIds){
+        Set<Integer> existing = new HashSet<>();
+        forEachChunk(cardIds, chunk -> existing.addAll(jdbcTemplate.queryForList(
+                "SELECT " + idColumn(type) + " FROM " + cardsTable(type) + " WHERE " + idColumn(type) + " IN (:ids)",
+                new MapSqlParameterSource("ids", chunk),
+                Integer.class
+        )));
+        return existing;
+    }
+
+    public void updateStates(CardType type, List<ReviewState> states){
+        if (!states.isEmpty())
+            jdbcTemplate.batchUpdate(
+                    "UPDATE " + reviewsTable(type) + " SET interval_days = :interval, ease = :ease, "
+                            + "stability = :stability, difficulty = :difficulty, repetitions = :repetitions, "
+                            + "lapses = :lapses, due_at = :dueAt, reviewed_at = :reviewedAt "
+                            + "WHERE " + idColumn(type) + " = :id",
+                    states.stream().map(ReviewRepository::stateParams).toArray(SqlParameterSource[]::new)
+            );
+    }
+
+    /**
+     * Writes the states of cards that had none, as upserts like {@link #saveState}.
+     */
+    public void insertStates(CardType type, List<ReviewState> states){
+        if (states.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(
+                upsertState(type),
+                states.stream().map(ReviewRepository::stateParams).toArray(SqlParameterSource[]::new)
+        );
+        markReviewed(type, states.stream().map(ReviewState::getCardId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Takes the cards off the never answered ones. Only the cards still flagged are written.
+     */
+    private void markReviewed(CardType type, Collection<Integer> cardIds){
+        forEachChunk(cardIds, chunk -> jdbcTemplate.update(
+                "UPDATE " + cardsTable(type) + " SET reviewed = TRUE "
+                        + "WHERE " + idColumn(type) + " IN (:ids) AND reviewed = FALSE",
+                new MapSqlParameterSource("ids", chunk)
+        ));
+    }
+
+    /**
+     * Flags the cards answered before the reviewed column existed, by ranges of CHUNK_SIZE ids of
+     * their states, each range committed on its own outside a transaction.
+     * @return the cards flagged
+     */
+    public int backfillReviewed(CardType type){
+        Integer maxId = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT MAX(" + idColumn(type) + ") FROM " + reviewsTable(type), Integer.class);
+        int flagged = 0;
+        for (int after = 0; maxId != null && after < maxId; after += CHUNK_SIZE)
+            flagged += jdbcTemplate.update(
+                    "UPDATE " + cardsTable(type) + " SET reviewed = TRUE WHERE reviewed = FALSE AND "
+                            + idColumn(type) + " IN (SELECT " + idColumn(type) + " FROM " + reviewsTable(type)
+                            + " WHERE " + idColumn(type) + " > :after AND " + idColumn(type) + " <= :last)",
+                    new MapSqlParameterSource("after", after).addValue("last", after + CHUNK_SIZE)
+            );
+        return flagged;
+    }
+
+    /**
+     * Records the events not applied yet, so that a batch retried while the first attempt is still
+     * running replays as duplicates instead of failing on the primary key. The ids are inserted in
+     * order so that two batches sharing events wait for each other rather than deadlock.
+     * @return the events recorded by this call
+     */
+    public Set<String> claimEvents(Collection<String> eventIds, Instant appliedAt){
+        Timestamp timestamp = Timestamp.from(appliedAt);
+        Set<String> claimed = new HashSet<>();
+        forEachChunk(new TreeSet<>(eventIds), chunk -> claimed.addAll(getDialect().insertAllIfAbsent(
+                jdbcTemplate.getJdbcTemplate(), "review_events", new String[]{ "event_id", "applied_at" },
+                chunk.stream().map( id -> new Object[]{ id, timestamp } ).collect(Collectors.toList()),
+                String.class
+        )));
+        return claimed;
+    }
+
+    public void deleteEvents(Collection<String> eventIds){
+        forEachChunk(eventIds, chunk -> jdbcTemplate.update(
+                "DELETE FROM review_events WHERE event_id IN (:ids)",
+                new MapSqlParameterSource("ids", chunk)
+        ));
+    }
+
+    /**
+     * The cards due now in due order, followed by the cards never answered, which have no state
+     * and no due date, in id order. Both are range scans: of the (due_at, id) index of the states,
+     * then of the (reviewed, id) index of the cards, only read when fewer than limit cards are due.
+     */
+    public List<DueCardDTO> findDue(CardType type, Instant now, int limit){
+        String sql = type == CardType.WORD
+                ? "SELECT r.word_id, w.word, w.reading, w.meaning, r.due_at FROM vocabulary_reviews r "
+                    + "JOIN vocabulary w ON w.word_id = r.word_id "
+                    + "WHERE r.due_at <= :now ORDER BY r.due_at, r.word_id LIMIT :limit"
+                : "SELECT r.kanji_id, k.kanji, NULL, k.meaning, r.due_at FROM kanjis_reviews r "
+                    + "JOIN kanjis k ON k.kanji_id = r.kanji_id "
+                    + "WHERE r.due_at <= :now ORDER BY r.due_at, r.kanji_id LIMIT :limit";
+        List<DueCardDTO> due = jdbcTemplate.query(
+                sql,
+                new MapSqlParameterSource("now", Timestamp.from(now)).addValue("limit", limit),
+                dueCardMapper(type)
+        );
+        if (due.size() < limit)
+            due.addAll(findNew(type, limit - due.size()));
+        return due;
+    }
+
+    /**
+     * The state lookup only drops the cards answered before the flag existed and not backfilled
+     * yet: every other card read from the index has no state.
+     */
+    private List<DueCardDTO> findNew(CardType type, int limit){
+        String sql = type == CardType.WORD
+                ? "SELECT w.word_id, w.word, w.reading, w.meaning, NULL FROM vocabulary w WHERE w.reviewed = FALSE "
+                    + "AND NOT EXISTS (SELECT 1 FROM vocabulary_reviews r WHERE r.word_id = w.word_id) "
+                    + "ORDER BY w.word_id LIMIT :limit"
+                : "SELECT k.kanji_id, k.kanji, NULL, k.meaning, NULL FROM kanjis k WHERE k.reviewed = FALSE "
+                    + "AND NOT EXISTS (SELECT 1 FROM kanjis_reviews r WHERE r.kanji_id = k.kanji_id) "
+                    + "ORDER BY k.kanji_id LIMIT :limit";
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("limit", limit), dueCardMapper(type));
+    }
+
+    private static RowMapper<DueCardDTO> dueCardMapper(CardType type){
+        return (rs, row) -> {
+            Timestamp dueAt = rs.getTimestamp(5);
+            return new DueCardDTO()
+                    .setCardType(type)
+                    .setCardId(rs.getInt(1))
+                    .setText(rs.getString(2))
+                    .setReading(rs.getString(3))
+                    .setMeaning(rs.getString(4))
+                    .setDueAt(dueAt != null ? dueAt.toInstant() : null);
+        };
+    }
+
+    /**
+     * Reads up to limit states with an id greater than afterId, in id order, straight into arrays.
+     */
+    public CardStates findStates(CardType type, int afterId, int limit){
+        CardStates states = new CardStates(limit);
+        jdbcTemplate.query(
+                "SELECT " + idColumn(type) + ", " + STATE_COLUMNS + " FROM " + reviewsTable(type)
+                        + " WHERE " + idColumn(type) + " > :after ORDER BY " + idColumn(type) + " LIMIT :limit",
+                new MapSqlParameterSource("after", afterId).addValue("limit", limit),
+                rs -> {
+                    int index = states.add(rs.getInt(1));
+                    states.intervalDays[index] = rs.getInt(2);
+                    states.ease[index] = rs.getDouble(3);
+                    states.stability[index] = rs.getDouble(4);
+                    states.difficulty[index] = rs.getDouble(5);
+                    states.repetitions[index] = rs.getInt(6);
+                    states.lapses[index] = rs.getInt(7);
+                    states.dueAt[index] = rs.getTimestamp(8).getTime();
+                    states.reviewedAt[index] = rs.getTimestamp(9).getTime();
+                }
+        );
+        return states;
+    }
+
+    /**
+     * Writes back the schedule of every state in one JDBC batch. A card answered since it was
+     * read keeps its newer state.
+     */
+    public int updateSchedules(CardType type, CardStates states){
+        int[] updated = jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE " + reviewsTable(type) + " SET interval_days = ?, ease = ?, stability = ?, difficulty = ?, "
+                        + "due_at = ? WHERE " + idColumn(type) + " = ? AND reviewed_at = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, states.intervalDays[i]);
+                        ps.setDouble(2, states.ease[i]);
+                        ps.setDouble(3, states.stability[i]);
+                        ps.setDouble(4, states.difficulty[i]);
+                        ps.setTimestamp(5, new Timestamp(states.dueAt[i]));
+                        ps.setInt(6, states.cardIds[i]);
+                        ps.setTimestamp(7, new Timestamp(states.reviewedAt[i]));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return states.size();
+                    }
+                }
+        );
+        int count = 0;
+        for (int rows : updated)
+            count += rows == Statement.SUCCESS_NO_INFO ? 1 : rows;
+        return count;
+    }
+
+    private static <T> void forEachChunk(Collection<T> values, Consumer<List<T>> action){
+        List<T> list = new ArrayList<>(values);
+        for (int from = 0; from < list.size(); from += CHUNK_SIZE)
+            action.accept(list.subList(from, Math.min(from + CHUNK_SIZE, list.size())));
+    }
+
+    private String upsertState(CardType type){
+        return getDialect().upsert(reviewsTable(type), idColumn(type),
+                (idColumn(type) + ", " + STATE_COLUMNS).split(", "), STATE_PARAMETERS);
+    }
+
+    private static MapSqlParameterSource stateParams(ReviewState state){
+        return new MapSqlParameterSource("id", state.getCardId())
+                .addValue("interval", state.getIntervalDays())
+                .addValue("ease", state.getEase())
+                .addValue("stability", state.getStability())
+                .addValue("difficulty", state.getDifficulty())
+                .addValue("repetitions", state.getRepetitions())
+                .addValue("lapses", state.getLapses())
+                .addValue("dueAt", Timestamp.from(state.getDueAt()))
+                .addValue("reviewedAt", Timestamp.from(state.getReviewedAt()));
+    }
+
+    private static RowMapper<ReviewState> stateMapper(CardType type){
+        return (rs, row) -> new ReviewState()
+                .setCardType(type)
+                .setCardId(rs.getInt(1))
+                .setIntervalDays(rs.getInt(2))
+                .setEase(rs.getDouble(3))
+                .setStability(rs.getDouble(4))
+                .setDifficulty(rs.getDouble(5))
+                .setRepetitions(rs.getInt(6))
+                .setLapses(rs.getInt(7))
+                .setDueAt(rs.getTimestamp(8).toInstant())
+                .setReviewedAt(rs.getTimestamp(9).toInstant());
+    }
+
+    static String reviewsTable(CardType type){
+        return type == CardType.WORD ? "vocabulary_reviews" : "kanjis_reviews";
+    }
+
+    static String cardsTable(CardType type){
+        return type == CardType.WORD ? "vocabulary" : "kanjis";
+    }
+
+    static String idColumn(CardType type){
+        return type == CardType.WORD ? "word_id" : "kanji_id";
+    }
+
+}
@@ -0,0 +1,168 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The statements written differently on PostgreSQL and on H2, which the tests run on.
+ */
+enum SqlDialect {
+
+    POSTGRESQL, H2;
+
+    static SqlDialect of(JdbcTemplate jdbcTemplate){
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "H2".equals(product) ? H2 : POSTGRESQL;
+        } catch (MetaDataAccessException ex) {
+            throw new IllegalStateException("Unable to read the database product", ex);
+        }
+    }
+
+    /**
+     * Inserts a row unless one with the same key, its first keyColumns columns, exists, in one
+     * statement returning the generated id.
+     * <p>
+     * PostgreSQL skips the conflicting row atomically with ON CONFLICT DO NOTHING RETURNING. H2
+     * has neither outside its PostgreSQL mode: it inserts from a NOT EXISTS select and returns
+     * the id from the FINAL TABLE of the insert; a row inserted by a concurrent transaction fails
+     * the unique constraint instead, which is reported as a duplicate too.
+     * @return the id, or none when the key was taken
+     */
+    <T> List<T> insertIfAbsent(JdbcTemplate jdbcTemplate, String table, String[] columns, Object[] values,
+                               int keyColumns, String idColumn, Class<T> idType){
+        String columnList = String.join(", ", columns);
+        String parameters = String.join(", ", Collections.nCopies(columns.length, "?"));
+        if (this == POSTGRESQL)
+            return jdbcTemplate.queryForList(
+                    "INSERT INTO " + table + "(" + columnList + ") VALUES (" + parameters + ") "
+                            + "ON CONFLICT DO NOTHING RETURNING " + idColumn,
+                    idType, values);
+
+        String key = Arrays.stream(columns, 0, keyColumns)
+                .map( column -> column + " = ?" )
+                .collect(Collectors.joining(" AND "));
+        Object[] arguments = Arrays.copyOf(values, values.length + keyColumns);
+        System.arraycopy(values, 0, arguments, values.length, keyColumns);
+        try {
+            return jdbcTemplate.queryForList(
+                    "SELECT " + idColumn + " FROM FINAL TABLE (INSERT INTO " + table + "(" + columnList + ") "
+                            + "SELECT " + parameters + " WHERE NOT EXISTS (SELECT 1 FROM " + table + " WHERE " + key + "))",
+                    idType, arguments);
+        } catch (DuplicateKeyException ex) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Inserts the rows whose key, their first column, isn't taken yet, like
+     * {@link #insertAllIfAbsent(JdbcTemplate, String, String[], List, int, String, RowMapper)}.
+     * @return the keys of the rows inserted
+     */
+    <T> List<T> insertAllIfAbsent(JdbcTemplate jdbcTemplate, String table, String[] columns, List<Object[]> rows,
+                                  Class<T> keyType){
+        return insertAllIfAbsent(jdbcTemplate, table, columns, rows, 1, columns[0],
+                SingleColumnRowMapper.newInstance(keyType));
+    }
+
+    /**
+     * Inserts the rows whose key, their first keyColumns columns, isn't taken yet, in one statement
+     * returning the given columns of the rows inserted.
+     * <p>
+     * On PostgreSQL a row whose key a concurrent transaction inserted waits for it and is skipped
+     * once it commits. On H2 such a row fails the whole statement: the rows are then inserted one
+     * at a time, the ones failing the unique constraint being skipped.
+     * @param returned the columns read from each inserted row, comma separated
+     * @return the rows inserted, in no particular order
+     */
+    <T> List<T> insertAllIfAbsent(JdbcTemplate jdbcTemplate, String table, String[] columns, List<Object[]> rows,
+                                  int keyColumns, String returned, RowMapper<T> mapper){
+        if (rows.isEmpty())
+            return Collections.emptyList();
+        String columnList = String.join(", ", columns);
+        String row = "(" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        if (this == POSTGRESQL)
+            return jdbcTemplate.query(
+                    "INSERT INTO " + table + "(" + columnList + ") VALUES "
+                            + String.join(", ", Collections.nCopies(rows.size(), row)) + " "
+                            + "ON CONFLICT DO NOTHING RETURNING " + returned,
+                    mapper, rows.stream().flatMap(Arrays::stream).toArray());
+
+        try {
+            return insertAllAbsentH2(jdbcTemplate, table, columns, row, rows, keyColumns, returned, mapper);
+        } catch (DuplicateKeyException ex) {
+            List<T> inserted = new ArrayList<>();
+            for (Object[] values : rows) {
+                try {
+                    inserted.addAll(insertAllAbsentH2(jdbcTemplate, table, columns, row,
+                            Collections.singletonList(values), keyColumns, returned, mapper));
+                } catch (DuplicateKeyException duplicate) {
+                    //Inserted meanwhile by another transaction
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static <T> List<T> insertAllAbsentH2(JdbcTemplate jdbcTemplate, String table, String[] columns, String row,
+                                                 List<Object[]> rows, int keyColumns, String returned, RowMapper<T> mapper){
+        String valueColumns = IntStream.rangeClosed(1, columns.length)
+                .mapToObj( column -> "v.C" + column )
+                .collect(Collectors.joining(", "));
+        String key = IntStream.range(0, keyColumns)
+                .mapToObj( column -> "t." + columns[column] + " = v.C" + (column + 1) )
+                .collect(Collectors.joining(" AND "));
+        return jdbcTemplate.query(
+                "SELECT " + returned + " FROM FINAL TABLE (INSERT INTO " + table + "(" + String.join(", ", columns) + ") "
+                        + "SELECT " + valueColumns + " FROM (VALUES " + String.join(", ", Collections.nCopies(rows.size(), row)) + ") v "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM " + table + " t WHERE " + key + "))",
+                mapper, rows.stream().flatMap(Arrays::stream).toArray());
+    }
+
+    /**
+     * Writes a row whether or not one with the same key exists, as one statement: ON CONFLICT DO
+     * UPDATE on PostgreSQL, MERGE on H2.
+     * @param values the SQL expression written to each column, e.g. a named parameter
+     */
+    String upsert(String table, String keyColumn, String[] columns, String[] values){
+        String columnList = String.join(", ", columns);
+        String valueList = String.join(", ", values);
+        if (this == H2)
+            return "MERGE INTO " + table + "(" + columnList + ") KEY(" + keyColumn + ") VALUES (" + valueList + ")";
+        return "INSERT INTO " + table + "(" + columnList + ") VALUES (" + valueList + ") "
+                + "ON CONFLICT (" + keyColumn + ") DO UPDATE SET "
+                + Arrays.stream(columns)
+                        .filter( column -> !column.equals(keyColumn) )
+                        .map( column -> column + " = EXCLUDED." + column )
+                        .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Adds one to the counter of the row with the given key, or inserts it with a count of 1, as
+     * one statement: two first increments racing each other both count instead of one failing on
+     * the key.
+     * @param key the SQL expression of the key, a VARCHAR, e.g. a named parameter
+     */
+    String increment(String table, String keyColumn, String counterColumn, String key){
+        if (this == H2)
+            return "MERGE INTO " + table + " t USING (SELECT CAST(" + key + " AS VARCHAR) k FROM DUAL) v ON t." + keyColumn + " = v.k "
+                    + "WHEN MATCHED THEN UPDATE SET " + counterColumn + " = t." + counterColumn + " + 1 "
+                    + "WHEN NOT MATCHED THEN INSERT (" + keyColumn + ", " + counterColumn + ") VALUES (v.k, 1)";
+        return "INSERT INTO " + table + "(" + keyColumn + ", " + counterColumn + ") VALUES (" + key + ", 1) "
+                + "ON CONFLICT (" + keyColumn + ") DO UPDATE SET " + counterColumn + " = " + table + "." + counterColumn + " + 1";
+    }
+
+}
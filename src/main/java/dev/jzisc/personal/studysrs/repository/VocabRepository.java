@@ -1,19 +1,82 @@
 package dev.jzisc.personal.studysrs.repository;
 
 import dev.jzisc.personal.studysrs.model.Word;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-public interface VocabRepository extends JpaRepository<Word, Integer> {
+public interface VocabRepository extends JpaRepository<Word, Integer>, VocabRepositoryCustom {
 
     List<Word> findByWord(String word);
+    //Exact stored spelling, through vocabulary_reading_idx
     List<Word> findByReading(String reading);
 
-    @Query(nativeQuery = true, value = "SELECT * FROM vocabulary WHERE meaning ~* ?1")
-    List<Word> findByMeaningRegex(String regex);
+    //The key is the reading folded by KanaFolding
+    @Query("SELECT w FROM Word w WHERE w.readingKey = ?1 ORDER BY w.word_id")
+    List<Word> findByReadingKey(String readingKey);
+
+    @Query("SELECT DISTINCT w FROM Word w JOIN w.meaningTokens t WHERE t = ?1 ORDER BY w.word_id")
+    List<Word> findByMeaningToken(String token);
+
+    @Query("SELECT w FROM Word w WHERE w.word_id > ?1 ORDER BY w.word_id")
+    List<Word> findPage(Integer after, Pageable page);
+
+    @Query("SELECT w FROM Word w WHERE w.readingKey = ?1 AND w.word_id > ?2 ORDER BY w.word_id")
+    List<Word> findPageByReadingKey(String readingKey, Integer after, Pageable page);
+
+    @Query("SELECT w FROM Word w JOIN w.meaningTokens t WHERE t = ?1 AND w.word_id > ?2 ORDER BY w.word_id")
+    List<Word> findPageByMeaningToken(String token, Integer after, Pageable page);
+
+    @Query("SELECT w FROM Word w JOIN w.kanjiCodePoints c WHERE c = ?1 AND w.word_id > ?2 ORDER BY w.word_id")
+    List<Word> findPageByKanji(Integer codePoint, Integer after, Pageable page);
+
+    //Merges the postings of the kanjis: only the words listed under all of them reach the count
+    @Query(nativeQuery = true, value = "SELECT word_id FROM vocabulary_kanjis WHERE code_point IN ?1 AND word_id > ?2 "
+            + "GROUP BY word_id HAVING COUNT(*) = ?3 ORDER BY word_id LIMIT ?4")
+    List<Integer> findPageIdsByKanjis(Collection<Integer> codePoints, Integer after, long count, int limit);
+
+    //Backed by a scrollable cursor, the caller must close it inside a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT w FROM Word w ORDER BY w.word_id")
+    Stream<Word> streamAll();
+
+    @Query("SELECT w.word_id, w.word, w.reading FROM Word w")
+    List<Object[]> findAllSurfaces();
+
+    @Query("SELECT w.word_id, t FROM Word w JOIN w.meaningTokens t")
+    List<Object[]> findAllMeaningTokens();
+
+    @Query("SELECT w.version FROM Word w WHERE w.word_id = ?1")
+    Optional<Integer> findVersionById(Integer id);
 
     boolean existsByWordAndReading(String word, String reading);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Word w SET w.word = ?2, w.reading = ?3, w.readingKey = ?4, w.meaning = ?5, w.version = w.version + 1 "
+            + "WHERE w.word_id = ?1")
+    int updateById(Integer id, String word, String reading, String readingKey, String meaning);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM vocabulary WHERE word_id = ?1")
+    int removeById(Integer id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM vocabulary_meanings WHERE word_id = ?1")
+    int deleteMeaningTokens(Integer id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM vocabulary_kanjis WHERE word_id = ?1")
+    int deleteKanjiCodePoints(Integer id);
+
 }
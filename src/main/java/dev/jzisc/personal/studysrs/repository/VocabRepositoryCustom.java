@@ -0,0 +1,54 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.model.Word;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VocabRepositoryCustom {
+
+    /**
+     * Inserts the words whose word and reading aren't saved yet, then their meaning tokens and
+     * kanjis, and adds them to the inserted count of result. The ones saved already, even by a
+     * concurrent transaction or another instance, are added to its skipped count and get no id.
+     * @return the words inserted, with their ids
+     */
+    List<Word> insertAll(List<Word> words, BulkResultDTO result);
+
+    /**
+     * Inserts the word unless its word and reading are saved already, in one atomic statement,
+     * then its meaning tokens and kanjis.
+     * @return the id given to the word, empty when it was a duplicate
+     */
+    Optional<Integer> insertIfAbsent(Word word);
+
+    /**
+     * Writes the meaning tokens and the kanji code points of a saved word, one batch per table.
+     */
+    void insertDetails(Word word);
+
+    /**
+     * Writes the meaning tokens of the words that have none, the rows saved before the tokens
+     * table existed. The rows are read by id ranges of CHUNK_SIZE, each range written in one batch
+     * committed on its own.
+     * @return the tokens written
+     */
+    int backfillMeaningTokens();
+
+    /**
+     * Writes the folded reading key of the words saved before the column existed, which have an
+     * empty one, by id ranges like {@link #backfillMeaningTokens()}.
+     * @return the words written
+     */
+    int backfillReadingKeys();
+
+    /**
+     * Writes the kanji code points of the words saved before the vocabulary_kanjis table existed,
+     * by id ranges like {@link #backfillMeaningTokens()}. The words without kanjis are read again
+     * on each run but write nothing.
+     * @return the code points written
+     */
+    int backfillKanjis();
+
+}
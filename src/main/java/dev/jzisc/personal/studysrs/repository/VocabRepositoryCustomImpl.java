@@ -0,0 +1,160 @@
+package dev.jzisc.personal.studysrs.repository;
+
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.model.Word;
+import dev.jzisc.personal.studysrs.util.KanjiCodePoints;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.Collectors;
+
+import static dev.jzisc.personal.studysrs.util.KanaFolding.fold;
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.tokenize;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+public class VocabRepositoryCustomImpl implements VocabRepositoryCustom {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final SqlDialect dialect = SqlDialect.of(jdbcTemplate.getJdbcTemplate());
+
+    @Override
+    public List<Word> insertAll(List<Word> words, BulkResultDTO result) {
+        List<Word> inserted = new ArrayList<>();
+        for (int from = 0; from < words.size(); from += CHUNK_SIZE)
+            inserted.addAll(insertChunk(words.subList(from, Math.min(from + CHUNK_SIZE, words.size()))));
+        result.setInserted(result.getInserted() + inserted.size())
+                .setSkipped(result.getSkipped() + words.size() - inserted.size());
+        return inserted;
+    }
+
+    @Override
+    public Optional<Integer> insertIfAbsent(Word word) {
+        List<Integer> ids = getDialect().insertIfAbsent(jdbcTemplate.getJdbcTemplate(), "vocabulary",
+                new String[]{ "word", "reading", "reading_key", "meaning" },
+                new Object[]{ word.getWord(), word.getReading(), fold(word.getReading()), word.getMeaning() },
+                2, "word_id", Integer.class);
+        if (ids.isEmpty())
+            return Optional.empty();
+        word.setWord_id(ids.get(0));
+        insertDetails(Collections.singletonList(word));
+        return Optional.of(word.getWord_id());
+    }
+
+    @Override
+    public void insertDetails(Word word) {
+        insertDetails(Collections.singletonList(word));
+    }
+
+    @Override
+    public int backfillMeaningTokens() {
+        return forEachIdRange(this::backfillMeaningTokens);
+    }
+
+    @Override
+    public int backfillReadingKeys() {
+        return forEachIdRange(this::backfillReadingKeys);
+    }
+
+    @Override
+    public int backfillKanjis() {
+        return forEachIdRange(this::backfillKanjis);
+    }
+
+    /**
+     * Calls the action on every range of CHUNK_SIZE word ids up to the greatest one saved.
+     * @return the sum of the counts returned by the action
+     */
+    private int forEachIdRange(IntBinaryOperator action) {
+        Integer maxId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(word_id) FROM vocabulary", Integer.class);
+        int written = 0;
+        for (int after = 0; maxId != null && after < maxId; after += CHUNK_SIZE)
+            written += action.applyAsInt(after, after + CHUNK_SIZE);
+        return written;
+    }
+
+    private int backfillMeaningTokens(int after, int last) {
+        List<Object[]> tokens = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT word_id, meaning FROM vocabulary v WHERE word_id > :after AND word_id <= :last "
+                        + "AND NOT EXISTS (SELECT 1 FROM vocabulary_meanings m WHERE m.word_id = v.word_id)",
+                new MapSqlParameterSource("after", after).addValue("last", last),
+                (RowCallbackHandler) rs -> {
+                    int id = rs.getInt(1);
+                    tokenize(rs.getString(2)).forEach( token -> tokens.add(new Object[]{ id, token }) );
+                }
+        );
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO vocabulary_meanings(word_id, token) VALUES (?, ?)", tokens);
+        return tokens.size();
+    }
+
+    private int backfillReadingKeys(int after, int last) {
+        List<Object[]> keys = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT word_id, reading FROM vocabulary WHERE word_id > :after AND word_id <= :last "
+                        + "AND (reading_key IS NULL OR reading_key = '')",
+                new MapSqlParameterSource("after", after).addValue("last", last),
+                (RowCallbackHandler) rs -> keys.add(new Object[]{ fold(rs.getString(2)), rs.getInt(1) })
+        );
+        jdbcTemplate.getJdbcTemplate().batchUpdate("UPDATE vocabulary SET reading_key = ? WHERE word_id = ?", keys);
+        return keys.size();
+    }
+
+    private int backfillKanjis(int after, int last) {
+        List<Object[]> codePoints = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT word_id, word FROM vocabulary v WHERE word_id > :after AND word_id <= :last "
+                        + "AND NOT EXISTS (SELECT 1 FROM vocabulary_kanjis k WHERE k.word_id = v.word_id)",
+                new MapSqlParameterSource("after", after).addValue("last", last),
+                (RowCallbackHandler) rs -> {
+                    int id = rs.getInt(1);
+                    KanjiCodePoints.of(rs.getString(2)).forEach( codePoint -> codePoints.add(new Object[]{ id, codePoint }) );
+                }
+        );
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES (?, ?)", codePoints);
+        return codePoints.size();
+    }
+
+    private List<Word> insertChunk(List<Word> words) {
+        //Ids are drawn by the column default and returned by the insert, which skips the saved words
+        Map<List<String>, Word> byKey = new HashMap<>();
+        words.forEach( word -> byKey.put(Arrays.asList(word.getWord(), word.getReading()), word) );
+        List<Word> inserted = getDialect().insertAllIfAbsent(jdbcTemplate.getJdbcTemplate(), "vocabulary",
+                new String[]{ "word", "reading", "reading_key", "meaning" },
+                words.stream()
+                        .map( word -> new Object[]{ word.getWord(), word.getReading(), fold(word.getReading()), word.getMeaning() } )
+                        .collect(Collectors.toList()),
+                2, "word_id, word, reading",
+                (rs, row) -> byKey.get(Arrays.asList(rs.getString(2), rs.getString(3))).setWord_id(rs.getInt(1))
+        );
+        insertDetails(inserted);
+        return inserted;
+    }
+
+    private void insertDetails(List<Word> words) {
+        List<Object[]> tokens = new ArrayList<>();
+        words.forEach( word -> tokenize(word.getMeaning())
+                .forEach( token -> tokens.add(new Object[]{ word.getWord_id(), token }) ) );
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO vocabulary_meanings(word_id, token) VALUES (?, ?)", tokens);
+
+        List<Object[]> codePoints = new ArrayList<>();
+        words.forEach( word -> KanjiCodePoints.of(word.getWord())
+                .forEach( codePoint -> codePoints.add(new Object[]{ word.getWord_id(), codePoint }) ) );
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES (?, ?)", codePoints);
+    }
+
+}
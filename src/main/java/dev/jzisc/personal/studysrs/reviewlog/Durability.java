@@ -0,0 +1,16 @@
+package dev.jzisc.personal.studysrs.reviewlog;
+
+public enum Durability {
+
+    /**
+     * The entry is queued once the answer commits; queued entries are lost if the process dies.
+     */
+    ASYNC,
+
+    /**
+     * The entry is written in the transaction of the answer, which fails with it. Outside a
+     * transaction the answer waits until the group commit holding its entry is written.
+     */
+    SYNC
+
+}
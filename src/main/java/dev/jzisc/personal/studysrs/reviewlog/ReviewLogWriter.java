@@ -0,0 +1,224 @@
+package dev.jzisc.personal.studysrs.reviewlog;
+
+import dev.jzisc.personal.studysrs.dto.ReviewLogStatsDTO;
+import dev.jzisc.personal.studysrs.model.ReviewLogEntry;
+import dev.jzisc.personal.studysrs.repository.ReviewLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind for the review log: answers are queued in a bounded ring buffer and a single
+ * writer thread appends them in group commits of up to batchSize entries. An asynchronous writer
+ * lingers up to flushInterval for a batch to fill; a synchronous one flushes whatever queued
+ * while the previous commit ran, since its callers are waiting. A full buffer blocks the callers.
+ * <p>
+ * Within a transaction, asynchronous entries are only queued once it commits, so rolled back
+ * answers are never logged. Synchronous ones are written by the caller on the connection of the
+ * transaction, so they commit or roll back with the answer and a failed write rolls the answer
+ * back. Waiting for the writer thread there would hold that connection while the writer needs
+ * another one from the same pool.
+ */
+@Slf4j
+@Component
+public class ReviewLogWriter {
+
+    private final ReviewLogRepository repository;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long pollMillis;
+    private final Durability durability;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public ReviewLogWriter(ReviewLogRepository repository,
+                           @Value("${study-srs.review-log.capacity:8192}") int capacity,
+                           @Value("${study-srs.review-log.batch-size:256}") int batchSize,
+                           @Value("${study-srs.review-log.flush-interval-ms:50}") long flushIntervalMs,
+                           @Value("${study-srs.review-log.durability:ASYNC}") Durability durability) {
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.pollMillis = Math.max(1, flushIntervalMs);
+        this.lingerNanos = durability == Durability.SYNC ? 0 : TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.durability = durability;
+    }
+
+    @PostConstruct
+    public synchronized void start(){
+        if (running)
+            return;
+        running = true;
+        writer = new Thread(this::run, "review-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops taking entries and waits for the queued ones to be written.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (writer != null)
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public void append(ReviewLogEntry entry){
+        appendAll(Collections.singletonList(entry));
+    }
+
+    /**
+     * Queues every entry before waiting, so a synchronous batch outside a transaction shares its
+     * group commits.
+     */
+    public void appendAll(List<ReviewLogEntry> entries){
+        if (!running)
+            throw new IllegalStateException("The review log writer is stopped");
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            enqueue(entries);
+        else if (durability == Durability.SYNC)
+            write(entries);
+        else
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entries);
+                }
+            });
+    }
+
+    private void write(List<ReviewLogEntry> entries){
+        appended.addAndGet(entries.size());
+        try {
+            repository.insertAll(entries);
+        } catch (RuntimeException ex) {
+            failed.addAndGet(entries.size());
+            throw ex;
+        }
+        written.addAndGet(entries.size());
+    }
+
+    private void enqueue(List<ReviewLogEntry> entries){
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        try {
+            for (ReviewLogEntry entry : entries) {
+                Pending pending = new Pending(entry, durability == Durability.SYNC ? new CompletableFuture<>() : null);
+                queue.put(pending);
+                appended.incrementAndGet();
+                if (pending.written != null)
+                    written.add(pending.written);
+            }
+            for (CompletableFuture<Void> future : written)
+                future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while logging a review", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("The review log could not be written", ex.getCause());
+        }
+    }
+
+    public ReviewLogStatsDTO getStats(){
+        long count = flushes.get();
+        return new ReviewLogStatsDTO()
+                .setDurability(durability)
+                .setQueueDepth(queue.size())
+                .setQueueCapacity(queue.size() + queue.remainingCapacity())
+                .setAppended(appended.get())
+                .setWritten(written.get())
+                .setFailed(failed.get())
+                .setFlushes(count)
+                .setLastFlushMillis(lastFlushNanos / 1e6)
+                .setMaxFlushMillis(maxFlushNanos / 1e6)
+                .setAverageFlushMillis(count == 0 ? 0 : flushNanos.get() / 1e6 / count);
+    }
+
+    private void run(){
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0)
+                        continue;
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                log.warn("Review log writer interrupted, {} entries still queued", queue.size());
+                flush(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch){
+        if (batch.isEmpty())
+            return;
+        List<ReviewLogEntry> entries = new ArrayList<>(batch.size());
+        batch.forEach( pending -> entries.add(pending.entry) );
+        long start = System.nanoTime();
+        try {
+            repository.insertAll(entries);
+            written.addAndGet(entries.size());
+            batch.forEach( pending -> { if (pending.written != null) pending.written.complete(null); } );
+        } catch (RuntimeException ex) {
+            log.error("Could not write {} review log entries", entries.size(), ex);
+            failed.addAndGet(entries.size());
+            batch.forEach( pending -> { if (pending.written != null) pending.written.completeExceptionally(ex); } );
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            flushNanos.addAndGet(elapsed);
+            lastFlushNanos = elapsed;
+            if (elapsed > maxFlushNanos)
+                maxFlushNanos = elapsed;
+        }
+    }
+
+    private static final class Pending {
+
+        private final ReviewLogEntry entry;
+        private final CompletableFuture<Void> written;
+
+        private Pending(ReviewLogEntry entry, CompletableFuture<Void> written) {
+            this.entry = entry;
+            this.written = written;
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package dev.jzisc.personal.studysrs.scheduling;
+
+import java.util.Arrays;
+
+/**
+ * Review states of a batch of cards of the same type, one array per column.
+ * Timestamps are epoch milliseconds, a reviewedAt of 0 marks a card that was never answered.
+ */
+public final class CardStates {
+
+    public final int[] cardIds;
+    public final int[] intervalDays;
+    public final double[] ease;
+    public final double[] stability;
+    public final double[] difficulty;
+    public final int[] repetitions;
+    public final int[] lapses;
+    public final long[] dueAt;
+    public final long[] reviewedAt;
+
+    private int size;
+
+    public CardStates(int capacity) {
+        cardIds = new int[capacity];
+        intervalDays = new int[capacity];
+        ease = new double[capacity];
+        stability = new double[capacity];
+        difficulty = new double[capacity];
+        repetitions = new int[capacity];
+        lapses = new int[capacity];
+        dueAt = new long[capacity];
+        reviewedAt = new long[capacity];
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int capacity(){
+        return cardIds.length;
+    }
+
+    /**
+     * @return the index of a new, zeroed card state
+     */
+    public int add(int cardId){
+        if (size == cardIds.length)
+            throw new IllegalStateException("Card states are full: " + size);
+        cardIds[size] = cardId;
+        return size++;
+    }
+
+    public boolean isNew(int index){
+        return reviewedAt[index] == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CardStates(size=" + size + ", cardIds=" + Arrays.toString(Arrays.copyOf(cardIds, Math.min(size, 10))) + ")";
+    }
+
+}
@@ -0,0 +1,128 @@
+package dev.jzisc.personal.studysrs.scheduling;
+
+import java.util.Arrays;
+
+/**
+ * FSRS 4.5: the memory of a card is modelled by its stability (days until recall probability
+ * drops to 90%) and difficulty (1 to 10), the interval is the time at which the recall
+ * probability reaches the desired retention.
+ * <p>
+ * Parameters: the 17 model weights, the desired retention and the maximum interval in days.
+ * Cards scheduled by SM-2 have no stability yet; their current interval is taken as stability.
+ */
+public class FsrsAlgorithm implements SchedulingAlgorithm {
+
+    public static final String NAME = "fsrs";
+    public static final double[] DEFAULT_PARAMETERS = {
+            0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031, 1.6474,
+            0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755,
+            0.9, 36500
+    };
+
+    private static final int WEIGHTS = 17;
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = Math.pow(0.9, 1 / DECAY) - 1;
+
+    private final double[] w;
+    private final double retention;
+    private final double maxInterval;
+    private final double intervalFactor;
+
+    public FsrsAlgorithm() {
+        this(DEFAULT_PARAMETERS);
+    }
+
+    public FsrsAlgorithm(double[] parameters) {
+        if (parameters == null || parameters.length != DEFAULT_PARAMETERS.length)
+            throw new IllegalArgumentException("FSRS takes " + DEFAULT_PARAMETERS.length + " parameters");
+        if (parameters[WEIGHTS] <= 0 || parameters[WEIGHTS] >= 1 || parameters[WEIGHTS + 1] < 1)
+            throw new IllegalArgumentException("Invalid FSRS parameters " + Arrays.toString(parameters));
+        this.w = Arrays.copyOf(parameters, WEIGHTS);
+        this.retention = parameters[WEIGHTS];
+        this.maxInterval = parameters[WEIGHTS + 1];
+        this.intervalFactor = (Math.pow(retention, 1 / DECAY) - 1) / FACTOR;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double[] parameters() {
+        double[] parameters = Arrays.copyOf(w, WEIGHTS + 2);
+        parameters[WEIGHTS] = retention;
+        parameters[WEIGHTS + 1] = maxInterval;
+        return parameters;
+    }
+
+    @Override
+    public void review(CardStates states, int index, int grade, long reviewedAt) {
+        double stability, difficulty;
+        if (states.isNew(index)) {
+            stability = w[grade - 1];
+            difficulty = clampDifficulty(initialDifficulty(grade));
+        } else {
+            adopt(states, index);
+            double elapsedDays = Math.max(0, reviewedAt - states.reviewedAt[index]) / (double) DAY_MILLIS;
+            double retrievability = Math.pow(1 + FACTOR * elapsedDays / states.stability[index], DECAY);
+            difficulty = clampDifficulty(w[7] * initialDifficulty(4)
+                    + (1 - w[7]) * (states.difficulty[index] - w[6] * (grade - 3)));
+            stability = grade == 1
+                    ? forgetStability(difficulty, states.stability[index], retrievability)
+                    : recallStability(difficulty, states.stability[index], retrievability, grade);
+        }
+        if (grade == 1) {
+            states.repetitions[index] = 0;
+            states.lapses[index]++;
+        } else {
+            states.repetitions[index]++;
+        }
+        states.stability[index] = stability;
+        states.difficulty[index] = difficulty;
+        states.reviewedAt[index] = reviewedAt;
+        schedule(states, index);
+    }
+
+    @Override
+    public void recompute(CardStates states, int index) {
+        if (states.isNew(index))
+            return;
+        adopt(states, index);
+        schedule(states, index);
+    }
+
+    private void adopt(CardStates states, int index){
+        if (states.stability[index] <= 0)
+            states.stability[index] = Math.max(0.1, states.intervalDays[index]);
+        if (states.difficulty[index] <= 0)
+            states.difficulty[index] = 5;
+    }
+
+    private void schedule(CardStates states, int index){
+        long interval = (long) Math.max(1, Math.min(Math.round(states.stability[index] * intervalFactor), maxInterval));
+        states.intervalDays[index] = (int) interval;
+        states.dueAt[index] = states.reviewedAt[index] + interval * DAY_MILLIS;
+    }
+
+    private double initialDifficulty(int grade){
+        return w[4] - Math.exp(w[5] * (grade - 1)) + 1;
+    }
+
+    private double recallStability(double difficulty, double stability, double retrievability, int grade){
+        double hardPenalty = grade == 2 ? w[15] : 1;
+        double easyBonus = grade == 4 ? w[16] : 1;
+        return stability * (1 + Math.exp(w[8]) * (11 - difficulty) * Math.pow(stability, -w[9])
+                * (Math.exp(w[10] * (1 - retrievability)) - 1) * hardPenalty * easyBonus);
+    }
+
+    private double forgetStability(double difficulty, double stability, double retrievability){
+        return Math.min(stability, w[11] * Math.pow(difficulty, -w[12])
+                * (Math.pow(stability + 1, w[13]) - 1) * Math.exp(w[14] * (1 - retrievability)));
+    }
+
+    private static double clampDifficulty(double difficulty){
+        return Math.max(1, Math.min(10, difficulty));
+    }
+
+}
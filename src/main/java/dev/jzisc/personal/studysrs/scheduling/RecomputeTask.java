@@ -0,0 +1,40 @@
+package dev.jzisc.personal.studysrs.scheduling;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join pass recomputing every card of a batch, split in halves down to THRESHOLD cards.
+ */
+public class RecomputeTask extends RecursiveAction {
+
+    static final int THRESHOLD = 4096;
+
+    private final SchedulingAlgorithm algorithm;
+    private final CardStates states;
+    private final int from;
+    private final int to;
+
+    public RecomputeTask(SchedulingAlgorithm algorithm, CardStates states) {
+        this(algorithm, states, 0, states.size());
+    }
+
+    private RecomputeTask(SchedulingAlgorithm algorithm, CardStates states, int from, int to) {
+        this.algorithm = algorithm;
+        this.states = states;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            for (int i = from; i < to; i++)
+                algorithm.recompute(states, i);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new RecomputeTask(algorithm, states, from, middle),
+                  new RecomputeTask(algorithm, states, middle, to));
+    }
+
+}
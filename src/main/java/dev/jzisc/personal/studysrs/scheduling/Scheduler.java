@@ -0,0 +1,74 @@
+package dev.jzisc.personal.studysrs.scheduling;
+
+import dev.jzisc.personal.studysrs.model.ReviewState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Holds the algorithm in use. It starts from the study-srs.scheduling properties and can be
+ * replaced at runtime; the replacement is not persisted.
+ */
+@Component
+public class Scheduler {
+
+    private volatile SchedulingAlgorithm algorithm;
+
+    @Autowired
+    public Scheduler(@Value("${study-srs.scheduling.algorithm:sm2}") String name,
+                     @Value("${study-srs.scheduling.parameters:}") String parameters) {
+        this.algorithm = create(name, parameters.trim().isEmpty() ? null
+                : Arrays.stream(parameters.split(",")).mapToDouble( p -> Double.parseDouble(p.trim()) ).toArray());
+    }
+
+    public static SchedulingAlgorithm create(String name, double[] parameters){
+        if (Sm2Algorithm.NAME.equalsIgnoreCase(name))
+            return parameters == null ? new Sm2Algorithm() : new Sm2Algorithm(parameters);
+        if (FsrsAlgorithm.NAME.equalsIgnoreCase(name))
+            return parameters == null ? new FsrsAlgorithm() : new FsrsAlgorithm(parameters);
+        throw new IllegalArgumentException("Unknown scheduling algorithm " + name);
+    }
+
+    public SchedulingAlgorithm current(){
+        return algorithm;
+    }
+
+    public void use(SchedulingAlgorithm algorithm){
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Applies an answer to a single state through the current algorithm.
+     */
+    public void review(ReviewState state, int grade, Instant reviewedAt){
+        CardStates states = new CardStates(1);
+        int index = states.add(state.getCardId());
+        states.intervalDays[index] = state.getIntervalDays();
+        states.ease[index] = state.getEase();
+        states.stability[index] = state.getStability();
+        states.difficulty[index] = state.getDifficulty();
+        states.repetitions[index] = state.getRepetitions();
+        states.lapses[index] = state.getLapses();
+        states.reviewedAt[index] = state.getReviewedAt() == null ? 0 : state.getReviewedAt().toEpochMilli();
+
+        algorithm.review(states, index, grade, reviewedAt.toEpochMilli());
+
+        state.setIntervalDays(states.intervalDays[index])
+                .setEase(states.ease[index])
+                .setStability(states.stability[index])
+                .setDifficulty(states.difficulty[index])
+                .setRepetitions(states.repetitions[index])
+                .setLapses(states.lapses[index])
+                .setReviewedAt(Instant.ofEpochMilli(states.reviewedAt[index]))
+                .setDueAt(Instant.ofEpochMilli(states.dueAt[index]));
+    }
+
+    public static void recompute(SchedulingAlgorithm algorithm, CardStates states){
+        ForkJoinPool.commonPool().invoke(new RecomputeTask(algorithm, states));
+    }
+
+}
@@ -0,0 +1,29 @@
+package dev.jzisc.personal.studysrs.scheduling;
+
+/**
+ * Spaced repetition algorithm working directly on the arrays of a {@link CardStates} batch.
+ * Implementations are immutable: changing parameters creates a new instance.
+ */
+public interface SchedulingAlgorithm {
+
+    long DAY_MILLIS = 86_400_000L;
+
+    String name();
+
+    /**
+     * @return a copy of the parameters of this instance
+     */
+    double[] parameters();
+
+    /**
+     * Applies an answer (1 again, 2 hard, 3 good, 4 easy) given at reviewedAt to the card at index.
+     */
+    void review(CardStates states, int index, int grade, long reviewedAt);
+
+    /**
+     * Recomputes the interval and due time of the card at index from its current state,
+     * typically after the parameters changed. Cards never answered are left untouched.
+     */
+    void recompute(CardStates states, int index);
+
+}
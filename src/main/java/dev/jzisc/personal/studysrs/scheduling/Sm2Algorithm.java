@@ -0,0 +1,86 @@
+package dev.jzisc.personal.studysrs.scheduling;
+
+import java.util.Arrays;
+
+/**
+ * SM-2 with four answer buttons: again resets the repetitions, hard/good/easy map to the
+ * qualities 3/4/5 of the original algorithm. The stored interval is the unmodified SM-2 interval,
+ * the interval modifier is only applied to the due time so it can be changed and recomputed.
+ * <p>
+ * Parameters: initial ease, minimum ease, ease penalty on lapses, interval modifier, maximum interval in days.
+ */
+public class Sm2Algorithm implements SchedulingAlgorithm {
+
+    public static final String NAME = "sm2";
+    public static final double[] DEFAULT_PARAMETERS = { 2.5, 1.3, 0.2, 1.0, 36500 };
+
+    private final double initialEase;
+    private final double minEase;
+    private final double lapsePenalty;
+    private final double intervalModifier;
+    private final double maxInterval;
+
+    public Sm2Algorithm() {
+        this(DEFAULT_PARAMETERS);
+    }
+
+    public Sm2Algorithm(double[] parameters) {
+        if (parameters == null || parameters.length != DEFAULT_PARAMETERS.length)
+            throw new IllegalArgumentException("SM-2 takes " + DEFAULT_PARAMETERS.length + " parameters");
+        if (parameters[1] <= 0 || parameters[0] < parameters[1] || parameters[3] <= 0 || parameters[4] < 1)
+            throw new IllegalArgumentException("Invalid SM-2 parameters " + Arrays.toString(parameters));
+        this.initialEase = parameters[0];
+        this.minEase = parameters[1];
+        this.lapsePenalty = parameters[2];
+        this.intervalModifier = parameters[3];
+        this.maxInterval = parameters[4];
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double[] parameters() {
+        return new double[]{ initialEase, minEase, lapsePenalty, intervalModifier, maxInterval };
+    }
+
+    @Override
+    public void review(CardStates states, int index, int grade, long reviewedAt) {
+        //New cards and cards scheduled by another algorithm start from the initial ease
+        double ease = states.ease[index] <= 0 ? initialEase : states.ease[index];
+        if (grade == 1) {
+            states.repetitions[index] = 0;
+            states.lapses[index]++;
+            states.intervalDays[index] = 1;
+            ease -= lapsePenalty;
+        } else {
+            int quality = grade + 1;
+            int repetitions = states.repetitions[index] + 1;
+            long interval = repetitions == 1 ? 1
+                    : repetitions == 2 ? 6
+                    : Math.round(states.intervalDays[index] * ease);
+            states.repetitions[index] = repetitions;
+            states.intervalDays[index] = (int) Math.max(1, Math.min(interval, (long) maxInterval));
+            ease += 0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02);
+        }
+        states.ease[index] = Math.max(minEase, ease);
+        states.reviewedAt[index] = reviewedAt;
+        states.dueAt[index] = reviewedAt + scheduledDays(states.intervalDays[index]) * DAY_MILLIS;
+    }
+
+    @Override
+    public void recompute(CardStates states, int index) {
+        if (states.isNew(index))
+            return;
+        states.ease[index] = Math.max(minEase, states.ease[index] <= 0 ? initialEase : states.ease[index]);
+        states.intervalDays[index] = Math.max(1, states.intervalDays[index]);
+        states.dueAt[index] = states.reviewedAt[index] + scheduledDays(states.intervalDays[index]) * DAY_MILLIS;
+    }
+
+    private long scheduledDays(int interval){
+        return (long) Math.max(1, Math.min(Math.round(interval * intervalModifier), maxInterval));
+    }
+
+}
@@ -0,0 +1,9 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.AnalysisDTO;
+
+public interface AnalyzerService {
+
+    AnalysisDTO analyze(String text);
+
+}
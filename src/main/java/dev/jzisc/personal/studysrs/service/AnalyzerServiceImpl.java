@@ -0,0 +1,59 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.AnalysisDTO;
+import dev.jzisc.personal.studysrs.dto.WordMatchDTO;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.index.WordAutomaton;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static dev.jzisc.personal.studysrs.dto.mapper.WordMapper.toWordDTO;
+import static dev.jzisc.personal.studysrs.repository.VocabRepositoryCustomImpl.CHUNK_SIZE;
+
+/**
+ * Matches the text against the in-memory automaton, then reads the matched words in one query
+ * per CHUNK_SIZE distinct ids: the database isn't touched per token.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Service
+public class AnalyzerServiceImpl implements AnalyzerService{
+
+    private VocabularyIndexStore indexes;
+    private VocabRepository repository;
+
+    @Override
+    public AnalysisDTO analyze(String text) {
+        AnalysisDTO analysis = new AnalysisDTO();
+        if (text == null || text.isEmpty())
+            return analysis;
+        WordAutomaton automaton = indexes.current().automaton();
+        WordAutomaton.Matches matches = automaton.match(text);
+
+        Set<Integer> matchedIds = new TreeSet<>();
+        for (int i = 0; i < matches.size(); i++) {
+            int pattern = matches.pattern(i);
+            WordMatchDTO match = new WordMatchDTO()
+                    .setStart(matches.start(i))
+                    .setEnd(matches.end(i))
+                    .setSurface(text.substring(matches.start(i), matches.end(i)));
+            for (int w = 0; w < automaton.wordCount(pattern); w++) {
+                match.getWordIds().add(automaton.wordAt(pattern, w));
+                matchedIds.add(automaton.wordAt(pattern, w));
+            }
+            analysis.getMatches().add(match);
+        }
+
+        //Words deleted since the automaton was built are left out
+        List<Integer> ids = new ArrayList<>(matchedIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE)
+            repository.findAllById(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))
+                    .forEach( word -> analysis.getWords().add(toWordDTO(word)) );
+        analysis.getWords().sort(Comparator.comparing( word -> word.getId() ));
+        return analysis;
+    }
+
+}
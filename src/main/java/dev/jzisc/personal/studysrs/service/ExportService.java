@@ -0,0 +1,10 @@
+package dev.jzisc.personal.studysrs.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    void exportNdjson(OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,89 @@
+package dev.jzisc.personal.studysrs.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.model.Word;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes one JSON object per line, words first and then kanjis, straight from the database cursors.
+ * Every row is written and dropped before the next one is read, so memory use doesn't depend on
+ * the size of the tables.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Service
+public class ExportServiceImpl implements ExportService{
+
+    public static final int FETCH_SIZE = 1000;
+
+    private static final JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private VocabRepository vocabRepository;
+    private KanjiRepository kanjiRepository;
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            writeWords(generator);
+            try {
+                kanjiRepository.forEachWithConfusions(FETCH_SIZE, kanji -> writeKanji(generator, kanji));
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+    private void writeWords(JsonGenerator generator) throws IOException {
+        try (Stream<Word> words = vocabRepository.streamAll()) {
+            Iterator<Word> iterator = words.iterator();
+            while (iterator.hasNext()) {
+                Word word = iterator.next();
+                generator.writeStartObject();
+                generator.writeStringField("type", "word");
+                generator.writeNumberField("id", word.getWord_id());
+                generator.writeStringField("word", word.getWord());
+                generator.writeStringField("reading", word.getReading());
+                generator.writeStringField("meaning", word.getMeaning());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                //Keeps the persistence context from holding every streamed word
+                entityManager.detach(word);
+            }
+        }
+    }
+
+    private static void writeKanji(JsonGenerator generator, KanjiDTO kanji) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "kanji");
+            generator.writeNumberField("id", kanji.getId());
+            generator.writeStringField("kanji", kanji.getKanji());
+            generator.writeStringField("meaning", kanji.getMeaning());
+            generator.writeArrayFieldStart("confusions");
+            for (Short confusion : kanji.getConfusions())
+                generator.writeNumber(confusion);
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package dev.jzisc.personal.studysrs.service;
 
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,12 +12,18 @@ public interface KanjiService {
     Optional<KanjiDTO> getKanjiById(Short id);
     Optional<KanjiDTO> getKanjiByKanjiString(String kanji);
     List<KanjiDTO> getKanjiListByMeaning(String meaning);
+    List<KanjiDTO> getKanjiListByFuzzyMeaning(String meaning, int size);
+    PageDTO<KanjiDTO> getKanjiPage(Short after, int size);
+    PageDTO<KanjiDTO> getKanjiPageByMeaning(String meaning, Short after, int size);
+    Optional<Integer> getKanjiVersion(Short id);
+    long getKanjisVersion();
 
     KanjiDTO saveNewKanji(KanjiDTO kanji);
     KanjiDTO saveNewKanji(KanjiDTO kanji, String... confusedKanjis);
     KanjiDTO saveNewKanji(String kanji, String meaning);
     KanjiDTO saveNewKanji(String kanji, String meaning, String... confusedKanjis);
     KanjiDTO saveNewKanji(String kanji, String meaning, Short... confusedIds);
+    BulkResultDTO saveNewKanjis(List<KanjiDTO> kanjis);
 
     KanjiDTO updateKanji(KanjiDTO kanji);
 
@@ -1,75 +1,188 @@
 package dev.jzisc.personal.studysrs.service;
 
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
+import dev.jzisc.personal.studysrs.event.KanjiChangedEvent;
 import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
+import dev.jzisc.personal.studysrs.index.FuzzyTokenIndex;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshot;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
+import dev.jzisc.personal.studysrs.model.CardType;
 import dev.jzisc.personal.studysrs.model.Kanji;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
 import dev.jzisc.personal.studysrs.repository.KanjiRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static dev.jzisc.personal.studysrs.dto.mapper.KanjiMapper.toKanji;
 import static dev.jzisc.personal.studysrs.dto.mapper.KanjiMapper.toKanjiDTO;
+import static dev.jzisc.personal.studysrs.dto.mapper.PageMapper.toPage;
+import static dev.jzisc.personal.studysrs.event.ChangeType.*;
+import static dev.jzisc.personal.studysrs.repository.DataVersionRepository.KANJIS;
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.normalize;
 
 @AllArgsConstructor(onConstructor = @__({@Autowired}))
 @Service
 public class KanjiServiceImpl implements KanjiService{
 
     private KanjiRepository repository;
+    private KanjiSnapshotStore snapshots;
+    private KanjiMeaningIndexStore meanings;
+    private LookupCaches caches;
+    private DataVersionRepository versions;
+    private ChangeLogRepository changes;
+    private ApplicationEventPublisher publisher;
 
     @Override
     public Optional<KanjiDTO> getKanjiById(Short id) {
-        Optional<Kanji> kanji = repository.findById(id);
-        if (kanji.isPresent())
-            return Optional.of( toKanjiDTO(kanji.get()) );
-        return Optional.empty();
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null) {
+            if (id != null && snapshot.contains(id))
+                return Optional.of( snapshot.toKanjiDTO(id) );
+            return Optional.empty();
+        }
+        return caches.kanji(id, () -> repository.findById(id).map( kanji -> toKanjiDTO(kanji) ));
     }
 
     @Override
     public Optional<KanjiDTO> getKanjiByKanjiString(String kanjiStr) {
-        Optional<Kanji> kanji = repository.findByKanji(kanjiStr);
-        if (kanji.isPresent())
-            return Optional.of( toKanjiDTO(kanji.get()) );
-        return Optional.empty();
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null) {
+            int id = snapshot.idOf(kanjiStr);
+            if (id >= 0)
+                return Optional.of( snapshot.toKanjiDTO(id) );
+            return Optional.empty();
+        }
+        return findByKanji(kanjiStr);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<KanjiDTO> getKanjiListByMeaning(String meaning) {
-        String regex = "(^|.*/)" + meaning + "(/.*$|$)";
-        List<Kanji> kanjis = repository.findByMeaningRegex(regex);
-        return kanjis.stream()
-                .map( kanji -> toKanjiDTO(kanji) )
+        if (meaning == null)
+            return new ArrayList<>();
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null)
+            return snapshot.findByMeaning(meaning);
+        String token = normalize(meaning);
+        return caches.kanjisByMeaning(token, () -> {
+            List<Kanji> kanjis = repository.findByMeaningToken(token);
+            fetchConfusions(kanjis);
+            return kanjis.stream()
+                    .map( kanji -> toKanjiDTO(kanji) )
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Kanjis with a meaning token within a few typos of the meaning, closest first. The tokens are
+     * matched in memory, then the ranked kanjis are read from the snapshot or in one query.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<KanjiDTO> getKanjiListByFuzzyMeaning(String meaning, int size) {
+        if (meaning == null || meaning.trim().isEmpty())
+            return new ArrayList<>();
+        String token = normalize(meaning.trim());
+        int[] ranked = meanings.current().search(token, FuzzyTokenIndex.maxDistanceOf(token), Math.max(1, size));
+        //Kanjis deleted since the index was built are left out
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null)
+            return Arrays.stream(ranked)
+                    .filter(snapshot::contains)
+                    .mapToObj(snapshot::toKanjiDTO)
+                    .collect(Collectors.toList());
+        List<Short> ids = Arrays.stream(ranked).mapToObj( id -> (short) id ).collect(Collectors.toList());
+        List<Kanji> kanjis = repository.findAllById(ids);
+        fetchConfusions(kanjis);
+        Map<Short, Kanji> byId = new HashMap<>();
+        kanjis.forEach( kanji -> byId.put(kanji.getKanji_id(), kanji) );
+        return ids.stream()
+                .filter(byId::containsKey)
+                .map( id -> toKanjiDTO(byId.get(id)) )
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageDTO<KanjiDTO> getKanjiPage(Short after, int size) {
+        int pageSize = Math.max(1, size);
+        int from = after == null ? 0 : after;
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null)
+            return toPage(snapshot.findPage(from, pageSize + 1), pageSize, KanjiDTO::getId);
+        return toKanjiPage(repository.findPage((short) from, PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDTO<KanjiDTO> getKanjiPageByMeaning(String meaning, Short after, int size) {
+        if (meaning == null)
+            return new PageDTO<>();
+        int pageSize = Math.max(1, size);
+        int from = after == null ? 0 : after;
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null)
+            return toPage(snapshot.findPageByMeaning(meaning, from, pageSize + 1), pageSize, KanjiDTO::getId);
+        return toKanjiPage(
+                repository.findPageByMeaningToken(normalize(meaning), (short) from, PageRequest.of(0, pageSize + 1)),
+                pageSize);
+    }
+
+    @Override
+    public Optional<Integer> getKanjiVersion(Short id) {
+        if (id == null)
+            return Optional.empty();
+        KanjiSnapshot snapshot = snapshots.current();
+        if (snapshot != null)
+            return snapshot.contains(id) ? Optional.of(snapshot.versionOf(id)) : Optional.empty();
+        return repository.findVersionById(id);
+    }
+
+    @Override
+    public long getKanjisVersion() {
+        KanjiSnapshot snapshot = snapshots.current();
+        return snapshot != null ? snapshot.dataVersion() : versions.find(KANJIS);
+    }
+
+    @Override
+    @Transactional
     public KanjiDTO saveNewKanji(KanjiDTO kanji) {
         if (kanji == null)
             return new KanjiDTO();
-        if (!repository.existsByKanji(kanji.getKanji())){
-            Kanji toSave = toKanji(kanji);
-            Kanji saved = repository.save(toSave);
-            return toKanjiDTO(saved);
-        }
-        throw new DuplicatedDataException("Kanji already saved on DB");
+        //Checked and inserted in one statement, concurrent saves of the same kanji can't both pass
+        Kanji toSave = toKanji(kanji).setKanji_id(null).setVersion(0);
+        if (!repository.insertIfAbsent(toSave).isPresent())
+            throw new DuplicatedDataException("Kanji already saved on DB");
+        KanjiDTO saved = toKanjiDTO(toSave);
+        evict(saved.getId(), saved.getConfusions(), saved.getKanji());
+        incrementVersions(saved.getConfusions());
+        versions.increment(KANJIS);
+        changes.append(CardType.KANJI, saved.getId(), CREATED);
+        changes.append(CardType.KANJI, saved.getConfusions(), UPDATED);
+        publisher.publishEvent(new KanjiChangedEvent(CREATED, saved));
+        return saved;
     }
 
     @Override
     public KanjiDTO saveNewKanji(KanjiDTO kanji, String... confusedKanjis) {
         if (kanji == null)
             return new KanjiDTO();
-        if (repository.existsByKanji(kanji.getKanji()))
-            throw new DuplicatedDataException("Kanji already saved on DB");
-        List<Short> confusedIds = Arrays.stream(confusedKanjis)
-                                        .filter(kanjiStr -> repository.existsByKanji(kanjiStr))
-                                        .map( kanjiStr -> repository.findByKanji(kanjiStr).get().getKanji_id())
-                                        .collect(Collectors.toList());
+        //The kanjis not saved are left out, a duplicate kanji is still rejected by its insert
+        List<Short> confusedIds = confusedKanjis.length == 0
+                ? new ArrayList<>()
+                : repository.findIdsByKanjiIn(Arrays.asList(confusedKanjis));
         kanji.setConfusions(confusedIds);
         return saveNewKanji(kanji);
     }
@@ -97,30 +210,156 @@ public class KanjiServiceImpl implements KanjiService{
     }
 
     @Override
+    @Transactional
+    public BulkResultDTO saveNewKanjis(List<KanjiDTO> kanjis) {
+        BulkResultDTO result = new BulkResultDTO();
+        if (kanjis == null)
+            return result;
+        Map<String, Kanji> toSave = new LinkedHashMap<>();
+        for (KanjiDTO kanji : kanjis) {
+            if (!isValid(kanji))
+                result.setRejected(result.getRejected() + 1);
+            else if (toSave.putIfAbsent(kanji.getKanji(), toKanji(kanji).setKanji_id(null)) != null)
+                result.setSkipped(result.getSkipped() + 1);
+        }
+
+        if (!toSave.isEmpty()) {
+            List<Kanji> saved = repository.insertAll(new ArrayList<>(toSave.values()), result);
+            if (saved.isEmpty())
+                return result;
+            Set<Short> confused = new HashSet<>();
+            for (Kanji kanji : saved)
+                for (int i = 0, count = kanji.confusionCount(); i < count; i++)
+                    if (kanji.confusionAt(i).getKanji_id() != null)
+                        confused.add(kanji.confusionAt(i).getKanji_id());
+            List<Short> written = saved.stream().map(Kanji::getKanji_id).collect(Collectors.toList());
+            written.addAll(confused);
+            caches.evictKanjis(written, toSave.keySet());
+            incrementVersions(confused);
+            versions.increment(KANJIS);
+            changes.append(CardType.KANJI, saved.stream().map(Kanji::getKanji_id).collect(Collectors.toList()), CREATED);
+            changes.append(CardType.KANJI, confused, UPDATED);
+            publisher.publishEvent(new KanjiChangedEvent(CREATED,
+                    saved.stream().map( kanji -> toKanjiDTO(kanji) ).collect(Collectors.toList())));
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
     public KanjiDTO updateKanji(KanjiDTO kanji) {
-        if (kanji == null || kanji.getId() == null || !repository.existsById(kanji.getId()))
+        if (kanji == null || kanji.getId() == null)
+            return new KanjiDTO();
+        Short id = kanji.getId();
+        if (repository.updateById(id, kanji.getKanji(), kanji.getMeaning()) == 0)
             return new KanjiDTO();
-        Kanji toSave = toKanji(kanji);
-        return toKanjiDTO( repository.save(toSave) );
+
+        repository.deleteMeaningTokens(id);
+
+        List<Short> confusions = kanji.getConfusions() == null
+                ? new ArrayList<>()
+                : kanji.getConfusions().stream()
+                        .filter( confusion -> confusion != null && !confusion.equals(id) )
+                        .distinct()
+                        .collect(Collectors.toList());
+        repository.incrementConfusionsVersion(id);
+        List<Integer> linked = changes.findLinkedKanjis(id);
+        repository.deleteConfusions(id);
+        repository.insertDetails(new Kanji().setKanji_id(id).setKanji(kanji.getKanji()).setMeaning(kanji.getMeaning()),
+                confusions);
+
+        //Kanjis listing it among their confusions before the update are found by the eviction itself
+        evict(id, confusions, kanji.getKanji());
+        KanjiDTO updated = new KanjiDTO()
+                .setId(id)
+                .setKanji(kanji.getKanji())
+                .setMeaning(kanji.getMeaning())
+                .setConfusions(confusions);
+        incrementVersions(confusions);
+        versions.increment(KANJIS);
+        changes.append(CardType.KANJI, id, UPDATED);
+        changes.append(CardType.KANJI, linked, UPDATED);
+        changes.append(CardType.KANJI, confusions, UPDATED);
+        publisher.publishEvent(new KanjiChangedEvent(UPDATED, updated));
+        return updated;
     }
 
     @Override
+    @Transactional
     public KanjiDTO deleteKanjiById(Short id) {
-        if (id != null && repository.existsById(id)){
-            Kanji kanji = repository.findById(id).get();
-            repository.delete(kanji);
-            return toKanjiDTO(kanji);
-        }
-        return new KanjiDTO();
+        if (id == null)
+            return new KanjiDTO();
+        Optional<Kanji> kanji = repository.findById(id);
+        if (!kanji.isPresent())
+            return new KanjiDTO();
+        KanjiDTO deleted = toKanjiDTO(kanji.get());
+        evict(id, deleted.getConfusions(), deleted.getKanji());
+        incrementVersions(deleted.getConfusions());
+        if (repository.removeById(id) == 0)
+            return new KanjiDTO();
+        versions.increment(KANJIS);
+        changes.append(CardType.KANJI, id, DELETED);
+        changes.append(CardType.KANJI, deleted.getConfusions(), UPDATED);
+        publisher.publishEvent(new KanjiChangedEvent(DELETED, deleted));
+        return deleted;
     }
 
     @Override
+    @Transactional
     public KanjiDTO deleteKanji(KanjiDTO kanji) {
-        Kanji toDelete = toKanji(kanji);
-        if (kanji == null || !repository.exists(Example.of(toDelete)) )
+        if (kanji == null || kanji.getId() == null
+                || !repository.exists(Probes.ignoringVersion(toKanji(kanji))) )
+            return new KanjiDTO();
+        evict(kanji.getId(), kanji.getConfusions(), kanji.getKanji());
+        repository.incrementConfusionsVersion(kanji.getId());
+        List<Integer> linked = changes.findLinkedKanjis(kanji.getId());
+        if (repository.removeById(kanji.getId()) == 0)
             return new KanjiDTO();
-        repository.delete(toDelete);
+        versions.increment(KANJIS);
+        changes.append(CardType.KANJI, kanji.getId(), DELETED);
+        changes.append(CardType.KANJI, linked, UPDATED);
+        publisher.publishEvent(new KanjiChangedEvent(DELETED, kanji));
         return kanji;
     }
 
+    private Optional<KanjiDTO> findByKanji(String kanjiStr){
+        return caches.kanjiByCharacter(kanjiStr,
+                () -> repository.findByKanji(kanjiStr).map( kanji -> toKanjiDTO(kanji) ));
+    }
+
+    private void evict(Short id, Collection<Short> confusions, String kanjiStr){
+        List<Short> written = new ArrayList<>();
+        written.add(id);
+        if (confusions != null)
+            written.addAll(confusions);
+        caches.evictKanjis(written, kanjiStr == null ? Collections.emptyList() : Collections.singletonList(kanjiStr));
+    }
+
+    private void incrementVersions(Collection<Short> ids){
+        if (ids != null && !ids.isEmpty())
+            repository.incrementVersions(ids);
+    }
+
+    private PageDTO<KanjiDTO> toKanjiPage(List<Kanji> kanjis, int size){
+        fetchConfusions(kanjis);
+        return toPage(
+                kanjis.stream().map( kanji -> toKanjiDTO(kanji) ).collect(Collectors.toList()),
+                size, KanjiDTO::getId);
+    }
+
+    private void fetchConfusions(List<Kanji> kanjis){
+        //Initializes both confusion lists of every kanji with one query per side instead of two per kanji
+        if (kanjis == null || kanjis.isEmpty())
+            return;
+        repository.fetchPriorConfusions(kanjis);
+        repository.fetchLaterConfusions(kanjis);
+    }
+
+    private boolean isValid(KanjiDTO kanji){
+        return kanji != null
+                && kanji.getKanji() != null && !kanji.getKanji().isEmpty()
+                && kanji.getKanji().codePointCount(0, kanji.getKanji().length()) == 1
+                && kanji.getMeaning() != null && !kanji.getMeaning().isEmpty() && kanji.getMeaning().length() <= 50;
+    }
+
 }
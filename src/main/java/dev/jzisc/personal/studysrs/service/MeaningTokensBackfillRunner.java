@@ -0,0 +1,55 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tokenizes the meanings of the words and kanjis saved before the meaning token tables existed,
+ * which meaning searches would otherwise never find. It runs at startup, once the web server is
+ * already accepting requests: until it finishes, meaning searches miss the rows not yet filled.
+ * <p>
+ * The rows are scanned by id ranges, each one committed on its own, so a large table is never
+ * held in memory or in one transaction. The first run finding nothing to fill records it in
+ * data_versions, and later boots skip the scan.
+ */
+@Slf4j
+@Component
+public class MeaningTokensBackfillRunner implements ApplicationRunner {
+
+    public static final String BACKFILLED = "meaning_tokens";
+
+    private final VocabRepository vocabRepository;
+    private final KanjiRepository kanjiRepository;
+    private final DataVersionRepository versions;
+    private final boolean enabled;
+
+    @Autowired
+    public MeaningTokensBackfillRunner(VocabRepository vocabRepository, KanjiRepository kanjiRepository,
+                                       DataVersionRepository versions,
+                                       @Value("${study-srs.meaning-tokens.backfill:true}") boolean enabled) {
+        this.vocabRepository = vocabRepository;
+        this.kanjiRepository = kanjiRepository;
+        this.versions = versions;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || versions.find(BACKFILLED) > 0)
+            return;
+        int words = vocabRepository.backfillMeaningTokens();
+        int kanjis = kanjiRepository.backfillMeaningTokens();
+        if (words > 0 || kanjis > 0)
+            log.info("Backfilled {} word and {} kanji meaning tokens", words, kanjis);
+        else
+            versions.increment(BACKFILLED);
+    }
+
+}
@@ -0,0 +1,20 @@
+package dev.jzisc.personal.studysrs.service;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+
+/**
+ * Examples of the rows a client sent back, to check that they are still the stored ones.
+ */
+final class Probes {
+
+    //A probe's version is never null, matching on it would miss every updated row
+    private static final ExampleMatcher IGNORE_VERSION = ExampleMatcher.matching().withIgnorePaths("version");
+
+    private Probes(){}
+
+    static <T> Example<T> ignoringVersion(T probe){
+        return Example.of(probe, IGNORE_VERSION);
+    }
+
+}
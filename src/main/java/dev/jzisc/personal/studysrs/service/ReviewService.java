@@ -0,0 +1,25 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.BatchReviewResultDTO;
+import dev.jzisc.personal.studysrs.dto.DueCardDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewLogStatsDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewStateDTO;
+import dev.jzisc.personal.studysrs.dto.SchedulingDTO;
+import dev.jzisc.personal.studysrs.model.CardType;
+
+import java.util.List;
+
+public interface ReviewService {
+
+    List<DueCardDTO> getDueCards(CardType type, int limit);
+
+    ReviewStateDTO answerCard(ReviewDTO review);
+    BatchReviewResultDTO answerCards(List<ReviewDTO> reviews);
+
+    ReviewLogStatsDTO getReviewLogStats();
+
+    SchedulingDTO getScheduling();
+    SchedulingDTO changeScheduling(SchedulingDTO scheduling);
+
+}
@@ -0,0 +1,204 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.BatchReviewResultDTO;
+import dev.jzisc.personal.studysrs.dto.DueCardDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewLogStatsDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewStateDTO;
+import dev.jzisc.personal.studysrs.dto.SchedulingDTO;
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.model.ReviewLogEntry;
+import dev.jzisc.personal.studysrs.model.ReviewState;
+import dev.jzisc.personal.studysrs.repository.ReviewRepository;
+import dev.jzisc.personal.studysrs.reviewlog.ReviewLogWriter;
+import dev.jzisc.personal.studysrs.scheduling.CardStates;
+import dev.jzisc.personal.studysrs.scheduling.Scheduler;
+import dev.jzisc.personal.studysrs.scheduling.SchedulingAlgorithm;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static dev.jzisc.personal.studysrs.dto.mapper.ReviewMapper.toReviewStateDTO;
+
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Service
+public class ReviewServiceImpl implements ReviewService {
+
+    public static final int MAX_DUE_LIMIT = 500;
+
+    public static final int RECOMPUTE_CHUNK = 50_000;
+
+    public static final int MAX_EVENT_ID_LENGTH = 64;
+
+    private ReviewRepository repository;
+    private Scheduler scheduler;
+    private ReviewLogWriter reviewLog;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DueCardDTO> getDueCards(CardType type, int limit) {
+        int size = Math.max(0, Math.min(limit, MAX_DUE_LIMIT));
+        if (size == 0)
+            return new ArrayList<>();
+        Instant now = Instant.now();
+        if (type != null)
+            return repository.findDue(type, now, size);
+
+        //Each table returns its own first cards in due order, merging them keeps the global order.
+        //New cards have no due date and come last, words first
+        List<DueCardDTO> due = new ArrayList<>(repository.findDue(CardType.WORD, now, size));
+        due.addAll(repository.findDue(CardType.KANJI, now, size));
+        return due.stream()
+                .sorted(Comparator.comparing(DueCardDTO::getDueAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public ReviewStateDTO answerCard(ReviewDTO review) {
+        if (!isValid(review))
+            return new ReviewStateDTO();
+        CardType type = review.getCardType();
+        int cardId = review.getCardId();
+        Instant reviewedAt = review.getReviewedAt() != null ? review.getReviewedAt() : Instant.now();
+
+        ReviewState state = repository.findState(type, cardId).orElse(null);
+        if (state == null) {
+            if (!repository.cardExists(type, cardId))
+                return new ReviewStateDTO();
+            state = new ReviewState().setCardType(type).setCardId(cardId);
+        }
+        scheduler.review(state, review.getGrade(), reviewedAt);
+        repository.saveState(state);
+        reviewLog.append(new ReviewLogEntry(type, cardId, review.getGrade(), reviewedAt,
+                state.getIntervalDays(), state.getDueAt()));
+        return toReviewStateDTO(state);
+    }
+
+    /**
+     * Applies the answers in order within one transaction: the event ids are claimed first, the current
+     * states are read with a few IN queries, the answers are replayed in memory and the new states and the
+     * log entries are written in batches. Events already applied are counted as duplicates; a retry racing
+     * the first attempt waits for its claims and replays as duplicates too.
+     */
+    @Override
+    @Transactional
+    public BatchReviewResultDTO answerCards(List<ReviewDTO> reviews) {
+        BatchReviewResultDTO result = new BatchReviewResultDTO();
+        if (reviews == null)
+            return result;
+        Map<String, ReviewDTO> events = new LinkedHashMap<>();
+        for (ReviewDTO review : reviews) {
+            if (!isValid(review) || review.getEventId() == null
+                    || review.getEventId().isEmpty() || review.getEventId().length() > MAX_EVENT_ID_LENGTH)
+                result.setRejected(result.getRejected() + 1);
+            else if (events.putIfAbsent(review.getEventId(), review) != null)
+                result.setDuplicates(result.getDuplicates() + 1);
+        }
+        Instant now = Instant.now();
+        Set<String> claimed = repository.claimEvents(events.keySet(), now);
+        result.setDuplicates(result.getDuplicates() + events.size() - claimed.size());
+        events.keySet().retainAll(claimed);
+        if (events.isEmpty())
+            return result;
+
+        Map<CardType, Map<Integer, ReviewState>> states = new EnumMap<>(CardType.class);
+        Map<CardType, Set<Integer>> newCards = new EnumMap<>(CardType.class);
+        for (CardType type : CardType.values()) {
+            Set<Integer> ids = events.values().stream()
+                    .filter( review -> review.getCardType() == type )
+                    .map(ReviewDTO::getCardId)
+                    .collect(Collectors.toSet());
+            states.put(type, repository.findStatesByIds(type, ids));
+            ids.removeAll(states.get(type).keySet());
+            newCards.put(type, ids.isEmpty() ? ids : repository.findExistingCards(type, ids));
+        }
+
+        List<String> applied = new ArrayList<>(), missing = new ArrayList<>();
+        List<ReviewLogEntry> entries = new ArrayList<>();
+        Map<CardType, Map<Integer, ReviewState>> changed = new EnumMap<>(CardType.class);
+        for (ReviewDTO review : events.values()) {
+            CardType type = review.getCardType();
+            int cardId = review.getCardId();
+            ReviewState state = states.get(type).get(cardId);
+            if (state == null) {
+                if (!newCards.get(type).contains(cardId)) {
+                    result.setRejected(result.getRejected() + 1);
+                    missing.add(review.getEventId());
+                    continue;
+                }
+                state = new ReviewState().setCardType(type).setCardId(cardId);
+                states.get(type).put(cardId, state);
+            }
+            Instant reviewedAt = review.getReviewedAt() != null ? review.getReviewedAt() : now;
+            scheduler.review(state, review.getGrade(), reviewedAt);
+            changed.computeIfAbsent(type, key -> new LinkedHashMap<>()).put(cardId, state);
+            applied.add(review.getEventId());
+            entries.add(new ReviewLogEntry(type, cardId, review.getGrade(), reviewedAt,
+                    state.getIntervalDays(), state.getDueAt()));
+        }
+
+        changed.forEach( (type, cards) -> {
+            List<ReviewState> updated = new ArrayList<>(), inserted = new ArrayList<>();
+            cards.values().forEach( state ->
+                    (newCards.get(type).contains(state.getCardId()) ? inserted : updated).add(state) );
+            repository.updateStates(type, updated);
+            repository.insertStates(type, inserted);
+            cards.values().forEach( state -> result.getStates().add(toReviewStateDTO(state)) );
+        });
+        //Answers to missing cards may be sent again once the card exists
+        repository.deleteEvents(missing);
+        reviewLog.appendAll(entries);
+        return result.setApplied(applied.size());
+    }
+
+    @Override
+    public ReviewLogStatsDTO getReviewLogStats() {
+        return reviewLog.getStats();
+    }
+
+    @Override
+    public SchedulingDTO getScheduling() {
+        SchedulingAlgorithm algorithm = scheduler.current();
+        return new SchedulingDTO().setAlgorithm(algorithm.name()).setParameters(algorithm.parameters());
+    }
+
+    /**
+     * Switches the algorithm and reschedules every card, RECOMPUTE_CHUNK states at a time:
+     * each chunk is read by id into arrays, recomputed in a fork-join pass and written back in one batch.
+     */
+    @Override
+    public synchronized SchedulingDTO changeScheduling(SchedulingDTO scheduling) {
+        if (scheduling == null)
+            throw new IllegalArgumentException("Missing scheduling algorithm");
+        SchedulingAlgorithm algorithm = Scheduler.create(scheduling.getAlgorithm(), scheduling.getParameters());
+        scheduler.use(algorithm);
+
+        long recomputed = 0;
+        for (CardType type : CardType.values()) {
+            CardStates states;
+            int after = 0;
+            do {
+                states = repository.findStates(type, after, RECOMPUTE_CHUNK);
+                if (states.size() == 0)
+                    break;
+                Scheduler.recompute(algorithm, states);
+                recomputed += repository.updateSchedules(type, states);
+                after = states.cardIds[states.size() - 1];
+            } while (states.size() == RECOMPUTE_CHUNK);
+        }
+        return getScheduling().setRecomputed(recomputed);
+    }
+
+    private boolean isValid(ReviewDTO review){
+        return review != null && review.getCardType() != null && review.getCardId() != null
+                && review.getGrade() != null && review.getGrade() >= 1 && review.getGrade() <= 4;
+    }
+
+}
@@ -0,0 +1,49 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.ReviewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flags the cards answered before the reviewed column existed. Until it finishes they are still
+ * left out of the new cards, by their state, but each due cards read walks over them. Like
+ * {@link MeaningTokensBackfillRunner}, it runs at startup by id ranges and is skipped on the boots
+ * after a run finding nothing to flag.
+ */
+@Slf4j
+@Component
+public class ReviewedCardsBackfillRunner implements ApplicationRunner {
+
+    public static final String BACKFILLED = "reviewed_cards";
+
+    private final ReviewRepository repository;
+    private final DataVersionRepository versions;
+    private final boolean enabled;
+
+    @Autowired
+    public ReviewedCardsBackfillRunner(ReviewRepository repository, DataVersionRepository versions,
+                                       @Value("${study-srs.reviewed-cards.backfill:true}") boolean enabled) {
+        this.repository = repository;
+        this.versions = versions;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || versions.find(BACKFILLED) > 0)
+            return;
+        int words = repository.backfillReviewed(CardType.WORD);
+        int kanjis = repository.backfillReviewed(CardType.KANJI);
+        if (words > 0 || kanjis > 0)
+            log.info("Flagged {} words and {} kanjis as reviewed", words, kanjis);
+        else
+            versions.increment(BACKFILLED);
+    }
+
+}
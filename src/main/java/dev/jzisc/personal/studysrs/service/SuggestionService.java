@@ -0,0 +1,11 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.SuggestionDTO;
+
+import java.util.List;
+
+public interface SuggestionService {
+
+    List<SuggestionDTO> suggest(String prefix, int limit);
+
+}
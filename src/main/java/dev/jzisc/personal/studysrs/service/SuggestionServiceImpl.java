@@ -0,0 +1,45 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.SuggestionDTO;
+import dev.jzisc.personal.studysrs.index.SuggestionIndex;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.util.MeaningTokens;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers from the in-memory index only: the database isn't touched per keystroke.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Service
+public class SuggestionServiceImpl implements SuggestionService{
+
+    private VocabularyIndexStore indexes;
+
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty())
+            return new ArrayList<>();
+        String trimmed = prefix.trim();
+        String normalized = MeaningTokens.normalize(trimmed);
+        SuggestionIndex suggestions = indexes.current().suggestions();
+        if (normalized.equals(trimmed))
+            return suggestions.suggest(trimmed, limit);
+
+        //Words and readings keep their case, meaning tokens are lower case: look both up
+        Map<String, SuggestionDTO> merged = new LinkedHashMap<>();
+        for (SuggestionDTO suggestion : suggestions.suggest(trimmed, limit))
+            merged.put(suggestion.getText(), suggestion);
+        for (SuggestionDTO suggestion : suggestions.suggest(normalized, limit))
+            merged.putIfAbsent(suggestion.getText(), suggestion);
+        List<SuggestionDTO> result = new ArrayList<>(merged.values());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+}
@@ -0,0 +1,11 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.SyncDTO;
+
+public interface SyncService {
+
+    SyncDTO getChangesSince(long since, int limit);
+
+    long getCurrentToken();
+
+}
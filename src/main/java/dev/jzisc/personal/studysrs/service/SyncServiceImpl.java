@@ -0,0 +1,94 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.dto.SyncDTO;
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.model.ChangeLogEntry;
+import dev.jzisc.personal.studysrs.model.Kanji;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static dev.jzisc.personal.studysrs.dto.mapper.KanjiMapper.toKanjiDTO;
+import static dev.jzisc.personal.studysrs.dto.mapper.WordMapper.toWordDTO;
+import static dev.jzisc.personal.studysrs.event.ChangeType.DELETED;
+import static dev.jzisc.personal.studysrs.repository.ChangeLogRepository.CHUNK_SIZE;
+
+/**
+ * Reads the change log after the token and only the rows it names, so a sync costs the number
+ * of changes, not the size of the dictionary. The log holds one row per entity, so every entity
+ * shows up at most once per response.
+ */
+@AllArgsConstructor(onConstructor = @__({@Autowired}))
+@Service
+public class SyncServiceImpl implements SyncService{
+
+    private ChangeLogRepository changes;
+    private VocabRepository vocabRepository;
+    private KanjiRepository kanjiRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public SyncDTO getChangesSince(long since, int limit) {
+        int size = Math.max(1, limit);
+        List<ChangeLogEntry> entries = changes.findSince(since, size);
+        SyncDTO sync = new SyncDTO()
+                .setNext(entries.isEmpty() ? since : entries.get(entries.size() - 1).getChangeId())
+                .setMore(entries.size() == size);
+
+        List<Integer> wordIds = new ArrayList<>();
+        List<Short> kanjiIds = new ArrayList<>();
+        for (ChangeLogEntry entry : entries) {
+            boolean word = entry.getEntityType() == CardType.WORD;
+            if (entry.getChangeType() == DELETED) {
+                if (word)
+                    sync.getDeletedWords().add(entry.getEntityId());
+                else
+                    sync.getDeletedKanjis().add((short) entry.getEntityId());
+            } else if (word)
+                wordIds.add(entry.getEntityId());
+            else
+                kanjiIds.add((short) entry.getEntityId());
+        }
+
+        //A row deleted after the log was read is sent as a tombstone, its delete is logged past next
+        Set<Integer> foundWords = new HashSet<>();
+        forEachChunk(wordIds, chunk -> vocabRepository.findAllById(chunk).forEach( word -> {
+            foundWords.add(word.getWord_id());
+            sync.getWords().add(toWordDTO(word));
+        }));
+        wordIds.stream().filter( id -> !foundWords.contains(id) ).forEach(sync.getDeletedWords()::add);
+
+        Set<Short> foundKanjis = new HashSet<>();
+        forEachChunk(kanjiIds, chunk -> {
+            List<Kanji> kanjis = kanjiRepository.findAllById(chunk);
+            if (kanjis.isEmpty())
+                return;
+            kanjiRepository.fetchPriorConfusions(kanjis);
+            kanjiRepository.fetchLaterConfusions(kanjis);
+            kanjis.forEach( kanji -> {
+                foundKanjis.add(kanji.getKanji_id());
+                sync.getKanjis().add(toKanjiDTO(kanji));
+            });
+        });
+        kanjiIds.stream().filter( id -> !foundKanjis.contains(id) ).forEach(sync.getDeletedKanjis()::add);
+        return sync;
+    }
+
+    @Override
+    public long getCurrentToken() {
+        return changes.findLastChangeId();
+    }
+
+    private static <T> void forEachChunk(List<T> values, Consumer<List<T>> action){
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE)
+            action.accept(values.subList(from, Math.min(from + CHUNK_SIZE, values.size())));
+    }
+
+}
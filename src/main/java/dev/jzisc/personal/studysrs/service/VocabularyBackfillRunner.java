@@ -0,0 +1,57 @@
+package dev.jzisc.personal.studysrs.service;
+
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Fills the reading keys and the kanji postings of the words saved before their columns and
+ * tables existed, which reading and kanji lookups would otherwise never find. Like {@link MeaningTokensBackfillRunner}, it runs at startup by id
+ * ranges and is skipped on the boots after a run finding nothing to fill.
+ */
+@Slf4j
+@Component
+public class VocabularyBackfillRunner implements ApplicationRunner {
+
+    public static final String READING_KEYS_BACKFILLED = "reading_keys";
+    public static final String KANJIS_BACKFILLED = "vocabulary_kanjis";
+
+    private final VocabRepository repository;
+    private final DataVersionRepository versions;
+    private final boolean enabled;
+
+    @Autowired
+    public VocabularyBackfillRunner(VocabRepository repository, DataVersionRepository versions,
+                                    @Value("${study-srs.vocabulary.backfill:true}") boolean enabled) {
+        this.repository = repository;
+        this.versions = versions;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled)
+            return;
+        int readingKeys = backfill(READING_KEYS_BACKFILLED, repository::backfillReadingKeys);
+        int codePoints = backfill(KANJIS_BACKFILLED, repository::backfillKanjis);
+        if (readingKeys > 0 || codePoints > 0)
+            log.info("Backfilled {} word reading keys and {} word kanjis", readingKeys, codePoints);
+    }
+
+    private int backfill(String marker, IntSupplier backfill){
+        if (versions.find(marker) > 0)
+            return 0;
+        int written = backfill.getAsInt();
+        if (written == 0)
+            versions.increment(marker);
+        return written;
+    }
+
+}
@@ -1,7 +1,10 @@
 package dev.jzisc.personal.studysrs.service;
 
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 import dev.jzisc.personal.studysrs.dto.WordDTO;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,8 +14,16 @@ public interface WordService {
     List<WordDTO> getWordListByWordString(String word);
     List<WordDTO> getWordListByReading(String reading);
     List<WordDTO> getWordListByMeaning(String meaning);
+    List<WordDTO> getWordListByFuzzyMeaning(String meaning, int size);
+    PageDTO<WordDTO> getWordPage(Integer after, int size);
+    PageDTO<WordDTO> getWordPageByReading(String reading, Integer after, int size);
+    PageDTO<WordDTO> getWordPageByMeaning(String meaning, Integer after, int size);
+    PageDTO<WordDTO> getWordPageByKanjis(Collection<String> kanjis, Integer after, int size);
+    Optional<Integer> getWordVersion(Integer id);
+    long getVocabularyVersion();
 
     WordDTO saveNewWord(WordDTO word);
+    BulkResultDTO saveNewWords(List<WordDTO> words);
 
     WordDTO updateWord(WordDTO word);
 
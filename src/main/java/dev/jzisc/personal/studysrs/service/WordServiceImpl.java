@@ -1,102 +1,282 @@
 package dev.jzisc.personal.studysrs.service;
 
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 import dev.jzisc.personal.studysrs.dto.WordDTO;
 import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
+import dev.jzisc.personal.studysrs.index.FuzzyTokenIndex;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.model.CardType;
 import dev.jzisc.personal.studysrs.model.Word;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
 import dev.jzisc.personal.studysrs.repository.VocabRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
+import static dev.jzisc.personal.studysrs.dto.mapper.PageMapper.toPage;
 import static dev.jzisc.personal.studysrs.dto.mapper.WordMapper.*;
+import static dev.jzisc.personal.studysrs.event.ChangeType.*;
+import static dev.jzisc.personal.studysrs.repository.DataVersionRepository.VOCABULARY;
+import static dev.jzisc.personal.studysrs.util.KanaFolding.fold;
+import static dev.jzisc.personal.studysrs.util.KanjiCodePoints.codePointOf;
+import static dev.jzisc.personal.studysrs.util.MeaningTokens.normalize;
 
 @AllArgsConstructor(onConstructor = @__({@Autowired}))
 @Service
 public class WordServiceImpl implements WordService{
 
     private VocabRepository repository;
+    private VocabularyIndexStore indexes;
+    private LookupCaches caches;
+    private DataVersionRepository versions;
+    private ChangeLogRepository changes;
 
     @Override
     public Optional<WordDTO> getWordById(Integer id) {
-        if (id != null && repository.existsById(id)){
-            return Optional.of(toWordDTO(repository.findById(id).get()));
-        }
-        return Optional.empty();
+        if (id == null)
+            return Optional.empty();
+        return caches.word(id, () -> repository.findById(id).map( word -> toWordDTO(word) ));
     }
 
     @Override
     public List<WordDTO> getWordListByWordString(String wordStr) {
         if (wordStr == null)
             return new ArrayList<>();
-        List<Word> words = repository.findByWord(wordStr);
-        return words.stream()
-                    .map(word -> toWordDTO(word))
-                    .collect(Collectors.toList());
+        return caches.wordsByWord(wordStr, () -> toWordDTOList(repository.findByWord(wordStr)));
     }
 
     @Override
     public List<WordDTO> getWordListByReading(String reading) {
         if (reading == null)
             return new ArrayList<>();
-        List<Word> words = repository.findByReading(reading);
-        return words.stream()
-                .map(word -> toWordDTO(word))
-                .collect(Collectors.toList());
+        String readingKey = fold(reading);
+        return caches.wordsByReading(readingKey, () -> toWordDTOList(repository.findByReadingKey(readingKey)));
     }
 
     @Override
     public List<WordDTO> getWordListByMeaning(String meaning) {
         if (meaning == null)
             return new ArrayList<>();
-        String regex = "(^|.*/)" + meaning + "(/.*$|$)";
-        List<Word> words = repository.findByMeaningRegex(regex);
-        return words.stream()
-                .map(word -> toWordDTO(word))
+        String token = normalize(meaning);
+        return caches.wordsByMeaning(token, () -> toWordDTOList(repository.findByMeaningToken(token)));
+    }
+
+    /**
+     * Words with a meaning token within a few typos of the meaning, closest first. The tokens are
+     * matched in memory, then the ranked words are read in one query.
+     */
+    @Override
+    public List<WordDTO> getWordListByFuzzyMeaning(String meaning, int size) {
+        if (meaning == null || meaning.trim().isEmpty())
+            return new ArrayList<>();
+        String token = normalize(meaning.trim());
+        int[] ranked = indexes.current().meanings().search(token, FuzzyTokenIndex.maxDistanceOf(token), Math.max(1, size));
+        List<Integer> ids = Arrays.stream(ranked).boxed().collect(Collectors.toList());
+        Map<Integer, Word> words = new HashMap<>();
+        repository.findAllById(ids).forEach( word -> words.put(word.getWord_id(), word) );
+        //Words deleted since the index was built are left out
+        return ids.stream()
+                .filter(words::containsKey)
+                .map( id -> toWordDTO(words.get(id)) )
                 .collect(Collectors.toList());
     }
 
     @Override
+    public PageDTO<WordDTO> getWordPage(Integer after, int size) {
+        int pageSize = Math.max(1, size);
+        return toWordPage(
+                repository.findPage(after == null ? 0 : after, PageRequest.of(0, pageSize + 1)),
+                pageSize);
+    }
+
+    @Override
+    public PageDTO<WordDTO> getWordPageByReading(String reading, Integer after, int size) {
+        if (reading == null)
+            return new PageDTO<>();
+        int pageSize = Math.max(1, size);
+        return toWordPage(
+                repository.findPageByReadingKey(fold(reading), after == null ? 0 : after, PageRequest.of(0, pageSize + 1)),
+                pageSize);
+    }
+
+    @Override
+    public PageDTO<WordDTO> getWordPageByMeaning(String meaning, Integer after, int size) {
+        if (meaning == null)
+            return new PageDTO<>();
+        int pageSize = Math.max(1, size);
+        return toWordPage(
+                repository.findPageByMeaningToken(normalize(meaning), after == null ? 0 : after, PageRequest.of(0, pageSize + 1)),
+                pageSize);
+    }
+
+    /**
+     * Words containing every one of the kanjis. A single kanji pages its postings directly, several
+     * ones page the ids found under all of them and then read those words.
+     */
+    @Override
+    public PageDTO<WordDTO> getWordPageByKanjis(Collection<String> kanjis, Integer after, int size) {
+        if (kanjis == null || kanjis.isEmpty())
+            return new PageDTO<>();
+        Set<Integer> codePoints = new TreeSet<>();
+        for (String kanji : kanjis) {
+            int codePoint = codePointOf(kanji);
+            if (codePoint < 0)
+                return new PageDTO<>();
+            codePoints.add(codePoint);
+        }
+        int pageSize = Math.max(1, size);
+        int from = after == null ? 0 : after;
+        if (codePoints.size() == 1)
+            return toWordPage(
+                    repository.findPageByKanji(codePoints.iterator().next(), from, PageRequest.of(0, pageSize + 1)),
+                    pageSize);
+        List<Integer> ids = repository.findPageIdsByKanjis(codePoints, from, codePoints.size(), pageSize + 1);
+        List<Word> words = ids.isEmpty() ? new ArrayList<>() : repository.findAllById(ids);
+        words.sort(Comparator.comparing(Word::getWord_id));
+        return toWordPage(words, pageSize);
+    }
+
+    @Override
+    public Optional<Integer> getWordVersion(Integer id) {
+        if (id == null)
+            return Optional.empty();
+        return repository.findVersionById(id);
+    }
+
+    @Override
+    public long getVocabularyVersion() {
+        return versions.find(VOCABULARY);
+    }
+
+    @Override
+    @Transactional
     public WordDTO saveNewWord(WordDTO word) {
         if (word == null
                 || word.getWord() == null
                 || word.getReading() == null
         )
             return new WordDTO();
-        if (repository.existsByWordAndReading(word.getWord(), word.getReading()))
+        //Checked and inserted in one statement, concurrent saves of the same word can't both pass
+        Word toSave = toWord(word).setWord_id(null).setVersion(0);
+        if (!repository.insertIfAbsent(toSave).isPresent())
             throw new DuplicatedDataException("Word \"" + word.getWord()
                     + "\" with reading \"" + word.getReading() + "already saved on DB");
-        return toWordDTO(repository.save(toWord(word)));
+        WordDTO saved = toWordDTO(toSave);
+        evict(saved.getId(), saved.getWord(), saved.getReading());
+        versions.increment(VOCABULARY);
+        changes.append(CardType.WORD, saved.getId(), CREATED);
+        return saved;
     }
 
     @Override
+    @Transactional
+    public BulkResultDTO saveNewWords(List<WordDTO> words) {
+        BulkResultDTO result = new BulkResultDTO();
+        if (words == null)
+            return result;
+        Map<List<String>, Word> toSave = new LinkedHashMap<>();
+        for (WordDTO word : words) {
+            if (!isValid(word))
+                result.setRejected(result.getRejected() + 1);
+            else if (toSave.putIfAbsent(Arrays.asList(word.getWord(), word.getReading()), toWord(word).setWord_id(null)) != null)
+                result.setSkipped(result.getSkipped() + 1);
+        }
+
+        if (!toSave.isEmpty()) {
+            List<Word> saved = repository.insertAll(new ArrayList<>(toSave.values()), result);
+            if (saved.isEmpty())
+                return result;
+            caches.evictWords(
+                    saved.stream().map(Word::getWord_id).collect(Collectors.toList()),
+                    saved.stream().map(Word::getWord).collect(Collectors.toSet()),
+                    saved.stream().map( word -> fold(word.getReading()) ).collect(Collectors.toSet()));
+            versions.increment(VOCABULARY);
+            changes.append(CardType.WORD, saved.stream().map(Word::getWord_id).collect(Collectors.toList()), CREATED);
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
     public WordDTO updateWord(WordDTO word) {
-        if (word == null || !repository.existsById(word.getId()))
+        if (word == null || word.getId() == null)
+            return new WordDTO();
+        Integer id = word.getId();
+        if (repository.updateById(id, word.getWord(), word.getReading(), fold(word.getReading()), word.getMeaning()) == 0)
             return new WordDTO();
-        return toWordDTO(repository.save(toWord(word)));
+        repository.deleteMeaningTokens(id);
+        repository.deleteKanjiCodePoints(id);
+        repository.insertDetails(new Word().setWord_id(id).setWord(word.getWord()).setMeaning(word.getMeaning()));
+        //Listings holding it under its previous word or reading are found by the eviction itself
+        evict(id, word.getWord(), word.getReading());
+        versions.increment(VOCABULARY);
+        changes.append(CardType.WORD, id, UPDATED);
+        //The new row version isn't read back, the next GET returns it
+        return new WordDTO()
+                .setId(id)
+                .setWord(word.getWord())
+                .setReading(word.getReading())
+                .setMeaning(word.getMeaning());
     }
 
     @Override
+    @Transactional
     public WordDTO deleteWordById(Integer id) {
-        if (id == null || !repository.existsById(id))
+        if (id == null)
             return new WordDTO();
-        Word toDelete = repository.findById(id).get();
-        repository.delete(toDelete);
-        return toWordDTO(toDelete);
+        Optional<Word> toDelete = repository.findById(id);
+        if (!toDelete.isPresent() || repository.removeById(id) == 0)
+            return new WordDTO();
+        evict(id, toDelete.get().getWord(), toDelete.get().getReading());
+        versions.increment(VOCABULARY);
+        changes.append(CardType.WORD, id, DELETED);
+        return toWordDTO(toDelete.get());
     }
 
     @Override
+    @Transactional
     public WordDTO deleteWord(WordDTO word) {
-        Word toDelete = toWord(word);
-        if (word == null || !repository.exists(Example.of(toDelete)))
+        if (word == null || word.getId() == null
+                || !repository.exists(Probes.ignoringVersion(toWord(word)))
+                || repository.removeById(word.getId()) == 0)
             return new WordDTO();
-        repository.delete(toDelete);
+        evict(word.getId(), word.getWord(), word.getReading());
+        versions.increment(VOCABULARY);
+        changes.append(CardType.WORD, word.getId(), DELETED);
         return word;
     }
 
+    private void evict(Integer id, String wordStr, String reading){
+        caches.evictWords(Collections.singletonList(id),
+                wordStr == null ? Collections.emptyList() : Collections.singletonList(wordStr),
+                reading == null ? Collections.emptyList() : Collections.singletonList(fold(reading)));
+    }
+
+    private List<WordDTO> toWordDTOList(List<Word> words){
+        return words.stream()
+                .map(word -> toWordDTO(word))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isValid(WordDTO word){
+        return word != null
+                && word.getWord() != null && !word.getWord().isEmpty() && word.getWord().length() <= 30
+                && word.getReading() != null && !word.getReading().isEmpty() && word.getReading().length() <= 50
+                && word.getMeaning() != null && !word.getMeaning().isEmpty() && word.getMeaning().length() <= 255;
+    }
+
+    private PageDTO<WordDTO> toWordPage(List<Word> words, int size){
+        return toPage(
+                words.stream().map( word -> toWordDTO(word) ).collect(Collectors.toList()),
+                size, WordDTO::getId);
+    }
+
 }
@@ -0,0 +1,58 @@
+package dev.jzisc.personal.studysrs.util;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+
+public class ETags {
+
+    private ETags(){}
+
+    public static String of(Number version){
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Tag of a response built from two tables, which changes when either of them does.
+     */
+    public static String of(Number first, Number second){
+        return first == null || second == null ? null : "\"" + first + "-" + second + "\"";
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so W/ prefixes are ignored.
+     */
+    public static boolean matches(String ifNoneMatch, String etag){
+        if (ifNoneMatch == null || etag == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Answers Not Modified when the tag matches, otherwise builds the response and tags it when it
+     * succeeds. Taking the tag as an argument reads it before the rows, as DataVersionRepository#find
+     * requires.
+     */
+    public static ResponseEntity<?> respond(String ifNoneMatch, String etag, Supplier<ResponseEntity<?>> response){
+        if (matches(ifNoneMatch, etag))
+            return notModified(etag);
+        ResponseEntity<?> built = response.get();
+        if (etag == null || !built.getStatusCode().is2xxSuccessful())
+            return built;
+        return ResponseEntity.status(built.getStatusCode()).headers(built.getHeaders()).eTag(etag).body(built.getBody());
+    }
+
+    public static ResponseEntity<?> notModified(String etag){
+        return ResponseEntity.status(NOT_MODIFIED).eTag(etag).build();
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.jzisc.personal.studysrs.util;
+
+/**
+ * Folds a reading into the key it is indexed and searched by, so the same word is found
+ * whichever way the reading was written: katakana becomes hiragana and every lengthened vowel,
+ * whether written ー, repeated (おお), or spelled おう / えい, becomes ー.
+ */
+public class KanaFolding {
+
+    public static final char LONG_VOWEL = 'ー';
+
+    private static final char HIRAGANA_FIRST = 'ぁ';
+    private static final char HIRAGANA_LAST = 'ゖ';
+    private static final int KATAKANA_OFFSET = 'ァ' - 'ぁ';
+
+    //The vowel each hiragana ends with, indexed from HIRAGANA_FIRST, 0 for ん and っ
+    private static final char[] VOWELS = new char[HIRAGANA_LAST - HIRAGANA_FIRST + 1];
+
+    static {
+        String[] rows = {
+                "あぁあかがさざただなはばぱまゃやらゎわゕ",
+                "いぃいきぎしじちぢにひびぴみりゐ",
+                "うぅうくぐすずつづぬふぶぷむゅゆるゔ",
+                "えぇえけげせぜてでねへべぺめれゑゖ",
+                "おぉおこごそぞとどのほぼぽもょよろを"
+        };
+        for (String row : rows)
+            for (int i = 1; i < row.length(); i++)
+                VOWELS[row.charAt(i) - HIRAGANA_FIRST] = row.charAt(0);
+    }
+
+    private KanaFolding(){}
+
+    /**
+     * @return the folded reading, the same instance when there is nothing to fold
+     */
+    public static String fold(String reading){
+        if (reading == null)
+            return null;
+        int length = reading.length();
+        char[] folded = null;
+        char vowel = 0;
+        for (int i = 0; i < length; i++) {
+            char c = reading.charAt(i), f = c;
+            if (c >= 'ァ' && c <= 'ヶ')
+                f = (char) (c - KATAKANA_OFFSET);
+            if (isLengthening(f, vowel))
+                f = LONG_VOWEL;
+            else
+                vowel = f >= HIRAGANA_FIRST && f <= HIRAGANA_LAST ? VOWELS[f - HIRAGANA_FIRST] : 0;
+            //Copies on the first change only: readings already folded aren't reallocated
+            if (f != c && folded == null)
+                folded = reading.toCharArray();
+            if (folded != null)
+                folded[i] = f;
+        }
+        return folded == null ? reading : new String(folded);
+    }
+
+    private static boolean isLengthening(char c, char vowel){
+        if (vowel == 0)
+            return false;
+        return c == LONG_VOWEL || c == vowel
+                || (c == 'う' && vowel == 'お')
+                || (c == 'い' && vowel == 'え');
+    }
+
+}
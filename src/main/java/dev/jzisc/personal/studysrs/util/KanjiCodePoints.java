@@ -0,0 +1,32 @@
+package dev.jzisc.personal.studysrs.util;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public class KanjiCodePoints {
+
+    private KanjiCodePoints(){}
+
+    /**
+     * @return the distinct code points of the Han characters of the text, in increasing order
+     */
+    public static Set<Integer> of(String text){
+        Set<Integer> codePoints = new TreeSet<>();
+        if (text == null)
+            return codePoints;
+        text.codePoints()
+                .filter( codePoint -> Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN )
+                .forEach(codePoints::add);
+        return codePoints;
+    }
+
+    /**
+     * @return the code point of a single character kanji, or -1
+     */
+    public static int codePointOf(String kanji){
+        if (kanji == null || kanji.isEmpty() || kanji.codePointCount(0, kanji.length()) != 1)
+            return -1;
+        return kanji.codePointAt(0);
+    }
+
+}
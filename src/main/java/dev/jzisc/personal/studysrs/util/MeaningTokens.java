@@ -0,0 +1,55 @@
+package dev.jzisc.personal.studysrs.util;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class MeaningTokens {
+
+    public static final char SEPARATOR = '/';
+
+    private MeaningTokens(){}
+
+    public static Set<String> tokenize(String meaning){
+        Set<String> tokens = new LinkedHashSet<>();
+        if (meaning == null)
+            return tokens;
+        int start = 0;
+        for (int i = 0; i <= meaning.length(); i++) {
+            if (i == meaning.length() || meaning.charAt(i) == SEPARATOR) {
+                if (i > start)
+                    tokens.add(normalize(meaning.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Joins meanings with the separator, dropping the ones that would take the result over maxLength.
+     * A separator inside a meaning is replaced by a space so it stays a single token.
+     */
+    public static String join(Collection<String> meanings, int maxLength){
+        StringBuilder joined = new StringBuilder();
+        for (String meaning : meanings) {
+            if (meaning == null || meaning.trim().isEmpty())
+                continue;
+            String token = meaning.trim().replace(SEPARATOR, ' ');
+            int length = joined.length() == 0 ? token.length() : joined.length() + 1 + token.length();
+            if (length > maxLength)
+                continue;
+            if (joined.length() > 0)
+                joined.append(SEPARATOR);
+            joined.append(token);
+        }
+        return joined.toString();
+    }
+
+    public static String normalize(String token){
+        if (token == null)
+            return null;
+        return token.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,88 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.AnalysisDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.dto.WordMatchDTO;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.index.WordAutomaton;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import dev.jzisc.personal.studysrs.service.AnalyzerService;
+import dev.jzisc.personal.studysrs.service.AnalyzerServiceImpl;
+import dev.jzisc.personal.studysrs.service.WordService;
+import dev.jzisc.personal.studysrs.service.WordServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
+
+@DataJpaTest
+@Import({AnalyzerServiceImpl.class, VocabularyIndexStore.class, WordServiceImpl.class,
+        LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class})
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-vocab-schema.sql", "/japaneseDB-vocab-data-insertion.sql"})
+@DisplayName("Analyzer Service Integration Tests")
+class AnalyzerServiceTests {
+
+    @Autowired
+    AnalyzerService service;
+
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    VocabRepository repository;
+
+    @Autowired
+    DataVersionRepository versions;
+
+    @Test
+    @DisplayName("Successfully find the known words of a text")
+    void analyze(){
+        AnalysisDTO result = service.analyze("一日は早い。");
+
+        assertThat(result.getMatches()).extracting(WordMatchDTO::getStart, WordMatchDTO::getEnd, WordMatchDTO::getSurface)
+                .containsExactly(
+                        tuple(0, 1, "一"),
+                        tuple(0, 2, "一日"),
+                        tuple(1, 2, "日"),
+                        tuple(3, 5, "早い"));
+        assertThat(result.getMatches().get(1).getWordIds()).containsExactly(1, 2);
+        assertThat(result.getWords()).extracting(WordDTO::getId).containsExactly(1, 2, 7, 9, 10);
+    }
+
+    @Test
+    @DisplayName("A text without known words has no matches")
+    void analyzeUnknownText(){
+        assertThat(service.analyze("ありがとう")).isEqualTo(new AnalysisDTO());
+        assertThat(service.analyze("")).isEqualTo(new AnalysisDTO());
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("A rebuild picks up the vocabulary writes")
+    void rebuildAfterWrites(){
+        //A store of its own: the shared one must not keep words the test transaction rolls back
+        VocabularyIndexStore store = new VocabularyIndexStore(repository, versions, false, 60_000, 60_000, false);
+        long before = store.current().automaton().dataVersion();
+        wordService.saveNewWord(new WordDTO().setWord("有難う").setReading("ありがとう").setMeaning("Thanks"));
+
+        WordAutomaton rebuilt = store.rebuild().automaton();
+
+        assertThat(rebuilt.dataVersion()).isEqualTo(before + 1);
+        assertThat(rebuilt.match("有難う").size()).isEqualTo(1);
+        store.stop();
+    }
+
+}
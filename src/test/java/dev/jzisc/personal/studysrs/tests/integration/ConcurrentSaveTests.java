@@ -0,0 +1,170 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BatchReviewResultDTO;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import dev.jzisc.personal.studysrs.repository.ReviewLogRepository;
+import dev.jzisc.personal.studysrs.repository.ReviewRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import dev.jzisc.personal.studysrs.reviewlog.ReviewLogWriter;
+import dev.jzisc.personal.studysrs.scheduling.Scheduler;
+import dev.jzisc.personal.studysrs.service.KanjiService;
+import dev.jzisc.personal.studysrs.service.KanjiServiceImpl;
+import dev.jzisc.personal.studysrs.service.ReviewService;
+import dev.jzisc.personal.studysrs.service.ReviewServiceImpl;
+import dev.jzisc.personal.studysrs.service.WordService;
+import dev.jzisc.personal.studysrs.service.WordServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static dev.jzisc.personal.studysrs.model.CardType.KANJI;
+import static dev.jzisc.personal.studysrs.model.CardType.WORD;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saves run in their own committed transactions here, as they do behind the controllers, so
+ * the concurrent saves of the same key really race each other on the database.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({WordServiceImpl.class, KanjiServiceImpl.class, KanjiSnapshotStore.class, VocabularyIndexStore.class,
+        KanjiMeaningIndexStore.class, LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class, ReviewServiceImpl.class, ReviewRepository.class,
+        Scheduler.class, ReviewLogWriter.class, ReviewLogRepository.class})
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-full-schema.sql",
+        "/japaneseDB-vocab-data-insertion.sql", "/japaneseDB-kanji-data-insertion.sql"})
+@Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100",
+        "ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 100"})
+@DisplayName("Concurrent Save Integration Tests")
+class ConcurrentSaveTests {
+
+    private static final int THREADS = 8;
+    private static final String KANJIS = "山海空雨花木火水金土石田竹糸耳";
+
+    @Autowired
+    WordService words;
+
+    @Autowired
+    KanjiService kanjis;
+
+    @Autowired
+    ReviewService reviews;
+
+    @Autowired
+    VocabRepository vocabRepository;
+
+    @Autowired
+    KanjiRepository kanjiRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Concurrent saves of the same words insert each one once and report the rest as duplicates")
+    void concurrentWordSaves() throws Exception {
+        long before = vocabRepository.count();
+        int keys = 20;
+
+        int[] outcomes = hammer(keys, key -> words.saveNewWord(new WordDTO()
+                .setWord("語" + key).setReading("ご" + key).setMeaning("Word " + key)));
+
+        assertThat(outcomes[0]).isEqualTo(keys);
+        assertThat(outcomes[1]).isEqualTo(keys * (THREADS - 1));
+        assertThat(vocabRepository.count()).isEqualTo(before + keys);
+        assertThat(words.getWordListByReading("ご7")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Concurrent saves of the same kanjis insert each one once and report the rest as duplicates")
+    void concurrentKanjiSaves() throws Exception {
+        long before = kanjiRepository.count();
+        int keys = KANJIS.length();
+
+        int[] outcomes = hammer(keys, key -> kanjis.saveNewKanji(new KanjiDTO()
+                .setKanji(String.valueOf(KANJIS.charAt(key))).setMeaning("Kanji " + key)));
+
+        assertThat(outcomes[0]).isEqualTo(keys);
+        assertThat(outcomes[1]).isEqualTo(keys * (THREADS - 1));
+        assertThat(kanjiRepository.count()).isEqualTo(before + keys);
+        assertThat(kanjiRepository.existsByKanji("山")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Concurrent retries of the same batch of answers apply it once and replay the rest as duplicates")
+    void concurrentBatchRetries() throws Exception {
+        Instant now = Instant.now();
+        List<ReviewDTO> batch = Arrays.asList(
+                new ReviewDTO().setEventId("r1").setCardType(WORD).setCardId(5).setGrade(3).setReviewedAt(now),
+                new ReviewDTO().setEventId("r2").setCardType(KANJI).setCardId(7).setGrade(3).setReviewedAt(now),
+                new ReviewDTO().setEventId("r3").setCardType(WORD).setCardId(5).setGrade(3).setReviewedAt(now)
+        );
+        List<BatchReviewResultDTO> results = new CopyOnWriteArrayList<>();
+
+        hammer(1, key -> results.add(reviews.answerCards(batch)));
+
+        assertThat(results).hasSize(THREADS);
+        assertThat(results.stream().mapToInt(BatchReviewResultDTO::getApplied).sum()).isEqualTo(3);
+        assertThat(results).allMatch( result -> result.getApplied() + result.getDuplicates() == 3 );
+        assertThat(jdbcTemplate.queryForObject("SELECT repetitions FROM vocabulary_reviews WHERE word_id = 5",
+                Integer.class)).isEqualTo(2);
+    }
+
+    /**
+     * Every thread saves every key, starting at a different one, all released at once.
+     * @return the saves that succeeded and the ones rejected as duplicates; any other failure
+     * fails the test
+     */
+    private static int[] hammer(int keys, IntConsumer save) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger saved = new AtomicInteger(), duplicated = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                workers.add(executor.submit( () -> {
+                    start.await();
+                    for (int i = 0; i < keys; i++) {
+                        try {
+                            save.accept((i + offset) % keys);
+                            saved.incrementAndGet();
+                        } catch (DuplicatedDataException ex) {
+                            duplicated.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers)
+                worker.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        return new int[]{ saved.get(), duplicated.get() };
+    }
+
+}
@@ -0,0 +1,90 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jzisc.personal.studysrs.service.ExportService;
+import dev.jzisc.personal.studysrs.service.ExportServiceImpl;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ExportServiceImpl.class)
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-full-schema.sql",
+        "/japaneseDB-vocab-data-insertion.sql", "/japaneseDB-kanji-data-insertion.sql"})
+@DisplayName("Export Service Integration Tests")
+class ExportServiceTests {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    ExportService service;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Successfully export every word and kanji as one JSON object per line")
+    void exportNdjson() throws IOException {
+        List<JsonNode> lines = export();
+
+        assertThat(lines).hasSize(25);
+        assertThat(lines.subList(0, 11)).allSatisfy( line -> assertThat(line.get("type").asText()).isEqualTo("word") );
+        assertThat(lines.get(4).get("id").asInt()).isEqualTo(5);
+        assertThat(lines.get(4).get("word").asText()).isEqualTo("丸い");
+        assertThat(lines.get(4).get("reading").asText()).isEqualTo("まるい");
+        assertThat(lines.get(4).get("meaning").asText()).isEqualTo("Round/Circular");
+
+        assertThat(lines.subList(11, 25)).allSatisfy( line -> assertThat(line.get("type").asText()).isEqualTo("kanji") );
+        assertThat(lines.get(11).get("kanji").asText()).isEqualTo("牲");
+        assertThat(lines.get(11).get("confusions")).extracting(JsonNode::asInt).containsExactly(2);
+        assertThat(lines.get(12).get("confusions")).extracting(JsonNode::asInt).containsExactly(1);
+        assertThat(lines.get(24).get("confusions")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Exported words aren't kept in the persistence context")
+    void exportDoesNotRetainWords() throws IOException {
+        List<Object[]> words = new ArrayList<>();
+        for (int i = 0; i < 3000; i++)
+            words.add(new Object[]{ 100 + i, "語" + i, "ご" + i, "ご" + i, "Word " + i });
+        jdbcTemplate.batchUpdate("INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES (?, ?, ?, ?, ?)", words);
+        entityManager.clear();
+
+        List<JsonNode> lines = export();
+
+        assertThat(lines).hasSize(3025);
+        assertThat(lines.get(3010).get("meaning").asText()).isEqualTo("Word 2999");
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+    List<JsonNode> export() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportNdjson(out);
+        String content = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(content).endsWith("\n");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : content.split("\n"))
+            lines.add(MAPPER.readTree(line));
+        return lines;
+    }
+
+}
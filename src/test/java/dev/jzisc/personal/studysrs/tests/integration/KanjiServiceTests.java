@@ -1,7 +1,14 @@
 package dev.jzisc.personal.studysrs.tests.integration;
 
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
 import dev.jzisc.personal.studysrs.model.Kanji;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
 import dev.jzisc.personal.studysrs.service.KanjiService;
 import dev.jzisc.personal.studysrs.service.KanjiServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,10 +18,14 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Example;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -22,12 +33,15 @@ import java.util.stream.Collectors;
 
 import static dev.jzisc.personal.studysrs.dto.mapper.KanjiMapper.toKanjiDTO;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doReturn;
 
 @DataJpaTest
-@Import(KanjiServiceImpl.class)
+@Import({KanjiServiceImpl.class, KanjiSnapshotStore.class, KanjiMeaningIndexStore.class,
+        LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class})
 @Sql({"/japaneseDB-drop.sql", "/japaneseDB-kanji-schema.sql", "/japaneseDB-kanji-data-insertion.sql"})
 @DisplayName("Kanji Service Integration Tests")
 public class KanjiServiceTests {
@@ -35,6 +49,12 @@ public class KanjiServiceTests {
     @Autowired
     KanjiService service;
 
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("Successfully autowired service")
     void autowiredService(){
@@ -75,6 +95,77 @@ public class KanjiServiceTests {
         assertThat(result).hasSize(expectedDTOs.size()).containsSubsequence(expectedDTOs);
     }
 
+    @Test
+    @DisplayName("Meaning search loads the confusions of 500 kanjis with a constant number of statements")
+    void getKanjiListByMeaningFetchesConfusionsInBatch(){
+        int size = 500;
+        short firstId = 100;
+        List<Object[]> kanjis = new ArrayList<>();
+        List<Object[]> tokens = new ArrayList<>();
+        List<Object[]> confusions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            short id = (short) (firstId + i);
+            kanjis.add(new Object[]{ id, new String(Character.toChars(0x4E00 + i)), "Test" });
+            tokens.add(new Object[]{ id, "test" });
+            if (i > 0)
+                confusions.add(new Object[]{ id, (short) (id - 1) });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (?, ?, ?)", kanjis);
+        jdbcTemplate.batchUpdate("INSERT INTO kanjis_meanings VALUES (?, ?)", tokens);
+        jdbcTemplate.batchUpdate("INSERT INTO kanjis_confusions VALUES (?, ?)", confusions);
+        List<List<KanjiDTO>> result = new ArrayList<>();
+        long statements = StatementCounter.count(entityManager,
+                () -> result.add(service.getKanjiListByMeaning("Test")) );
+
+        assertThat(result.get(0)).hasSize(size);
+        assertThat(result.get(0)).allSatisfy( kanji -> assertThat(kanji.getConfusions()).isNotEmpty() );
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Walking the kanji pages returns every kanji once with its confusions")
+    void getKanjiPages(){
+        List<KanjiDTO> result = new ArrayList<>();
+        Short after = null;
+        do {
+            PageDTO<KanjiDTO> page = service.getKanjiPage(after, 5);
+            result.addAll(page.getItems());
+            after = page.getNext() == null ? null : page.getNext().shortValue();
+        } while (after != null);
+
+        assertThat(result).extracting(KanjiDTO::getId).containsExactly(
+                (short) 1, (short) 2, (short) 3, (short) 4, (short) 5, (short) 6, (short) 7,
+                (short) 8, (short) 9, (short) 10, (short) 11, (short) 12, (short) 13, (short) 14);
+        assertThat(result.get(0).getConfusions()).containsExactly((short) 2);
+    }
+
+    @Test
+    @DisplayName("Successfully find the kanjis of a misspelled meaning, closest first")
+    void getKanjiListByFuzzyMeaning(){
+        List<KanjiDTO> result = service.getKanjiListByFuzzyMeaning("personallity", 10);
+
+        assertThat(result).extracting(KanjiDTO::getId).containsExactly((short) 2);
+        assertThat(result.get(0).getConfusions()).containsExactly((short) 1);
+        assertThat(service.getKanjiListByFuzzyMeaning("Rivr", 10)).extracting(KanjiDTO::getId)
+                .containsExactly((short) 7, (short) 8);
+        //"origin" is exact, "orig" would need two edits from four chars
+        assertThat(service.getKanjiListByFuzzyMeaning("origin", 10)).extracting(KanjiDTO::getId)
+                .containsExactly((short) 11, (short) 12);
+        assertThat(service.getKanjiListByFuzzyMeaning("orig", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Successfully page the kanjis that share a meaning token")
+    void getKanjiPagesByMeaning(){
+        PageDTO<KanjiDTO> first = service.getKanjiPageByMeaning("River", null, 1);
+        PageDTO<KanjiDTO> last = service.getKanjiPageByMeaning("River", first.getNext().shortValue(), 1);
+
+        assertThat(first.getItems()).extracting(KanjiDTO::getKanji).containsExactly("川");
+        assertThat(last.getItems()).extracting(KanjiDTO::getKanji).containsExactly("河");
+        assertThat(last.getNext()).isNull();
+        assertThat(service.getKanjiPageByMeaning(null, null, 1).getItems()).isEmpty();
+    }
+
     @ParameterizedTest
     @MethodSource("getNoConfusionsData")
     @Sql(statements = {"DELETE FROM kanjis"})
@@ -207,6 +298,91 @@ public class KanjiServiceTests {
         assertThat(service.getKanjiById(kanji.getKanji_id())).isEmpty();
     }
 
+    @Test
+    @DisplayName("Updating a kanji doesn't look it up before writing")
+    void updateKanjiStatements(){
+        KanjiDTO toUpdate = new KanjiDTO()
+                .setId((short) 2).setKanji("性").setMeaning("Meaning example")
+                .setConfusions(Arrays.asList((short) 1));
+        long statements = StatementCounter.count(entityManager, () -> service.updateKanji(toUpdate) );
+
+        //Plus one version bump for the old confusions and one for the new ones, the tokens and the
+        //confusions being written by one JDBC batch each
+        assertThat(statements).isEqualTo(5);
+        assertThat(service.getKanjiById((short) 2)).hasValue(toUpdate);
+        assertThat(service.getKanjiById((short) 2).get().getVersion()).isEqualTo(1);
+        assertThat(service.getKanjiById((short) 1).get().getConfusions()).containsExactly((short) 2);
+        assertThat(service.getKanjiById((short) 1).get().getVersion()).isEqualTo(2);
+        assertThat(service.getKanjisVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Updating a missing kanji runs a single statement")
+    void updateMissingKanjiStatements(){
+        KanjiDTO toUpdate = new KanjiDTO().setId((short) 100).setKanji("一").setMeaning("One");
+        List<KanjiDTO> result = new ArrayList<>();
+        long statements = StatementCounter.count(entityManager, () -> result.add(service.updateKanji(toUpdate)) );
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(result.get(0).getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deleting a kanji by id loads it once and deletes it with one statement")
+    void deleteKanjiByIdStatements(){
+        List<KanjiDTO> result = new ArrayList<>();
+        long statements = StatementCounter.count(entityManager,
+                () -> result.add(service.deleteKanjiById((short) 2)) );
+
+        //Plus the version bump of the kanjis it was confused with
+        assertThat(statements).isEqualTo(5);
+        assertThat(result.get(0).getConfusions()).containsExactly((short) 1);
+        assertThat(service.getKanjiById((short) 2)).isEmpty();
+        assertThat(service.getKanjiById((short) 1).get().getConfusions()).isEmpty();
+        assertThat(service.getKanjiById((short) 1).get().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("Bulk saving kanjis skips existing ones and links the confusions of the new ones")
+    void saveNewKanjis(){
+        List<KanjiDTO> kanjis = Arrays.asList(
+                new KanjiDTO().setKanji("牲").setMeaning("Sacrifice"),
+                new KanjiDTO().setKanji("体").setMeaning("Body"),
+                new KanjiDTO().setKanji("休").setMeaning("Rest/Holiday").setConfusions(Arrays.asList((short) 9)),
+                new KanjiDTO().setKanji("休").setMeaning("Rest"),
+                new KanjiDTO().setKanji("木木").setMeaning("Tree")
+        );
+
+        BulkResultDTO result = service.saveNewKanjis(kanjis);
+        List<KanjiDTO> holidays = service.getKanjiListByMeaning("Holiday");
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(2).setSkipped(2).setRejected(1));
+        assertThat(service.getKanjiByKanjiString("体")).isNotEmpty();
+        assertThat(holidays).hasSize(1);
+        assertThat(holidays.get(0).getConfusions()).containsExactly((short) 9);
+        assertThat(service.getKanjiById((short) 9).get().getConfusions()).containsExactly(holidays.get(0).getId());
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("Bulk saving counts a kanji saved outside the service, which the insert skips, as skipped")
+    void saveNewKanjisSavedElsewhere(){
+        jdbcTemplate.update("INSERT INTO kanjis(kanji, meaning) VALUES ('森', 'Forest')");
+
+        BulkResultDTO result = service.saveNewKanjis(Arrays.asList(
+                new KanjiDTO().setKanji("森").setMeaning("Forest"),
+                new KanjiDTO().setKanji("林").setMeaning("Grove")));
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(1).setSkipped(1));
+        assertThat(service.getKanjiByKanjiString("森")).isNotEmpty();
+        assertThat(service.getKanjiListByMeaning("Grove")).extracting(KanjiDTO::getKanji).containsExactly("林");
+    }
+
     static List<Kanji> getAllData(){
         Kanji k1 = new Kanji().setKanji_id((short) 1).setKanji("牲").setMeaning( "Sacrifice");
         Kanji k2 = new Kanji().setKanji_id((short) 2).setKanji("性").setMeaning( "Personality/Gender");
@@ -0,0 +1,85 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.service.KanjiService;
+import dev.jzisc.personal.studysrs.service.KanjiServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
+
+@DataJpaTest
+@Import({KanjiServiceImpl.class, KanjiSnapshotStore.class, KanjiMeaningIndexStore.class,
+        LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class})
+@TestPropertySource(properties = "study-srs.kanji.snapshot.enabled=true")
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-kanji-schema.sql", "/japaneseDB-kanji-data-insertion.sql"})
+@DisplayName("Kanji Snapshot Service Integration Tests")
+class KanjiSnapshotServiceTests {
+
+    @Autowired
+    KanjiService service;
+
+    @Autowired
+    KanjiSnapshotStore snapshots;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Reads are served from the snapshot without any statement")
+    void readsWithoutStatements(){
+        snapshots.rebuild();
+        List<KanjiDTO> gender = new ArrayList<>();
+        List<KanjiDTO> sacrifice = new ArrayList<>();
+        List<KanjiDTO> rivers = new ArrayList<>();
+        List<Boolean> missing = new ArrayList<>();
+        long statements = StatementCounter.count(entityManager, () -> {
+            gender.add(service.getKanjiById((short) 2).get());
+            sacrifice.add(service.getKanjiByKanjiString("牲").get());
+            rivers.addAll(service.getKanjiListByMeaning("River"));
+            missing.add(service.getKanjiById((short) 100).isPresent());
+        });
+
+        assertThat(gender.get(0).getKanji()).isEqualTo("性");
+        assertThat(gender.get(0).getConfusions()).containsExactly((short) 1);
+        assertThat(sacrifice.get(0).getConfusions()).containsExactly((short) 2);
+        assertThat(rivers).hasSize(2);
+        assertThat(missing).containsExactly(false);
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 100"})
+    @SqlMergeMode(MERGE)
+    @DisplayName("Reads after a write see it, whether or not the snapshot was rebuilt yet")
+    void snapshotFollowsWrites(){
+        KanjiDTO saved = service.saveNewKanji("一", "One", (short) 9);
+
+        assertThat(service.getKanjiByKanjiString("一")).hasValue(saved);
+        assertThat(service.getKanjiById((short) 9).get().getConfusions()).contains(saved.getId());
+
+        service.updateKanji(saved.setMeaning("One/Single"));
+        assertThat(service.getKanjiListByMeaning("single")).containsExactly(saved);
+
+        service.deleteKanjiById(saved.getId());
+        assertThat(service.getKanjiById(saved.getId())).isEmpty();
+        assertThat(service.getKanjiByKanjiString("一")).isEmpty();
+    }
+
+}
@@ -0,0 +1,143 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.CacheStatsDTO;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.service.KanjiService;
+import dev.jzisc.personal.studysrs.service.KanjiServiceImpl;
+import dev.jzisc.personal.studysrs.service.WordService;
+import dev.jzisc.personal.studysrs.service.WordServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
+
+@DataJpaTest
+@Import({WordServiceImpl.class, KanjiServiceImpl.class, KanjiSnapshotStore.class, VocabularyIndexStore.class,
+        KanjiMeaningIndexStore.class, LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class})
+@TestPropertySource(properties = "study-srs.cache.enabled=true")
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-full-schema.sql",
+        "/japaneseDB-vocab-data-insertion.sql", "/japaneseDB-kanji-data-insertion.sql"})
+@DisplayName("Lookup Caches Integration Tests")
+class LookupCachesServiceTests {
+
+    @Autowired
+    WordService words;
+
+    @Autowired
+    KanjiService kanjis;
+
+    @Autowired
+    LookupCaches caches;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @BeforeEach
+    void clearCaches(){
+        //The caches outlive the data every test reloads
+        caches.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Repeated lookups are served without any statement")
+    void cachedLookups(){
+        WordDTO word = words.getWordById(1).get();
+        kanjis.getKanjiById((short) 2);
+        kanjis.getKanjiByKanjiString("牲");
+        words.getWordListByWordString(word.getWord());
+        words.getWordListByReading(word.getReading());
+
+        List<Object> results = new ArrayList<>();
+        long statements = StatementCounter.count(entityManager, () -> {
+            results.add(words.getWordById(1).get());
+            results.add(kanjis.getKanjiById((short) 2).get());
+            results.add(kanjis.getKanjiByKanjiString("牲").get());
+            results.addAll(words.getWordListByWordString(word.getWord()));
+            results.addAll(words.getWordListByReading(word.getReading()));
+        });
+
+        assertThat(statements).isZero();
+        assertThat(results.get(0)).isEqualTo(word);
+        assertThat(((KanjiDTO) results.get(1)).getKanji()).isEqualTo("性");
+        assertThat(((KanjiDTO) results.get(2)).getConfusions()).containsExactly((short) 2);
+        assertThat(results).contains(word);
+    }
+
+    @Test
+    @DisplayName("Callers get copies they may modify")
+    void returnsCopies(){
+        kanjis.getKanjiById((short) 2).get().setMeaning("Changed").getConfusions().clear();
+
+        KanjiDTO cached = kanjis.getKanjiById((short) 2).get();
+        assertThat(cached.getMeaning()).isNotEqualTo("Changed");
+        assertThat(cached.getConfusions()).containsExactly((short) 1);
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE kanjis_kanji_id_seq RESTART WITH 100",
+            "ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100"})
+    @SqlMergeMode(MERGE)
+    @DisplayName("Writes evict the cached entries they change, absent ones included")
+    void writesEvict(){
+        assertThat(kanjis.getKanjiByKanjiString("一")).isEmpty();
+        assertThat(kanjis.getKanjiById((short) 9).get().getConfusions()).doesNotContain((short) 100);
+        assertThat(words.getWordListByReading("れい")).isEmpty();
+
+        KanjiDTO saved = kanjis.saveNewKanji("一", "One", (short) 9);
+        WordDTO word = words.saveNewWord(new WordDTO().setWord("零").setReading("れい").setMeaning("Zero"));
+        //Rereads must reach the database, not the entities of this test's own session
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(kanjis.getKanjiByKanjiString("一")).hasValue(saved);
+        assertThat(kanjis.getKanjiById((short) 9).get().getConfusions()).contains(saved.getId());
+        assertThat(words.getWordListByReading("レイ")).containsExactly(word);
+
+        words.updateWord(word.setReading("ぜろ"));
+        assertThat(words.getWordListByReading("れい")).isEmpty();
+        assertThat(words.getWordById(word.getId()).get().getReading()).isEqualTo("ぜろ");
+
+        kanjis.deleteKanjiById(saved.getId());
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(kanjis.getKanjiById((short) 9).get().getConfusions()).doesNotContain(saved.getId());
+        assertThat(kanjis.getKanjiByKanjiString("一")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Counts the hits and misses of every cache")
+    void stats(){
+        for (int i = 0; i < 4; i++)
+            kanjis.getKanjiById((short) 2);
+
+        Optional<CacheStatsDTO> stats = caches.stats().stream()
+                .filter( cache -> cache.getName().equals(LookupCaches.KANJIS) )
+                .findFirst();
+
+        assertThat(stats).isPresent();
+        assertThat(stats.get().getSize()).isEqualTo(1);
+        assertThat(stats.get().getHitRatio()).isGreaterThan(0);
+        assertThat(caches.stats()).hasSize(7);
+    }
+
+}
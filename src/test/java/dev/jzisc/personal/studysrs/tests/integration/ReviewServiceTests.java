@@ -0,0 +1,247 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.dto.BatchReviewResultDTO;
+import dev.jzisc.personal.studysrs.dto.DueCardDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewStateDTO;
+import dev.jzisc.personal.studysrs.model.CardType;
+import dev.jzisc.personal.studysrs.model.ReviewState;
+import dev.jzisc.personal.studysrs.dto.SchedulingDTO;
+import dev.jzisc.personal.studysrs.repository.ReviewLogRepository;
+import dev.jzisc.personal.studysrs.repository.ReviewRepository;
+import dev.jzisc.personal.studysrs.reviewlog.ReviewLogWriter;
+import dev.jzisc.personal.studysrs.scheduling.FsrsAlgorithm;
+import dev.jzisc.personal.studysrs.scheduling.Scheduler;
+import dev.jzisc.personal.studysrs.scheduling.Sm2Algorithm;
+import dev.jzisc.personal.studysrs.service.ReviewService;
+import dev.jzisc.personal.studysrs.service.ReviewServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static dev.jzisc.personal.studysrs.model.CardType.KANJI;
+import static dev.jzisc.personal.studysrs.model.CardType.WORD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({ReviewServiceImpl.class, ReviewRepository.class, Scheduler.class,
+        ReviewLogWriter.class, ReviewLogRepository.class})
+@TestPropertySource(properties = "study-srs.review-log.durability=SYNC")
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-full-schema.sql",
+        "/japaneseDB-vocab-data-insertion.sql", "/japaneseDB-kanji-data-insertion.sql"})
+@DisplayName("Review Service Integration Tests")
+class ReviewServiceTests {
+
+    static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    ReviewService service;
+
+    @Autowired
+    ReviewRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Successfully schedule a card on its first answers")
+    void answerNewCard(){
+        ReviewStateDTO first = service.answerCard(review(WORD, 5, 3, NOW));
+        ReviewStateDTO second = service.answerCard(review(WORD, 5, 3, NOW.plus(1, ChronoUnit.DAYS)));
+
+        assertThat(first.getIntervalDays()).isEqualTo(1);
+        assertThat(first.getDueAt()).isEqualTo(NOW.plus(1, ChronoUnit.DAYS));
+        assertThat(second.getIntervalDays()).isEqualTo(6);
+        assertThat(second.getRepetitions()).isEqualTo(2);
+        assertThat(second.getDueAt()).isEqualTo(NOW.plus(7, ChronoUnit.DAYS));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vocabulary_reviews", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT interval_days FROM review_log WHERE card_id = 5 ORDER BY log_id", Integer.class))
+                .containsExactly(1, 6);
+    }
+
+    @Test
+    @DisplayName("Successfully reset a card answered again")
+    void answerAgain(){
+        service.answerCard(review(KANJI, 2, 3, NOW));
+        service.answerCard(review(KANJI, 2, 3, NOW));
+        ReviewStateDTO lapsed = service.answerCard(review(KANJI, 2, 1, NOW));
+
+        assertThat(lapsed.getRepetitions()).isZero();
+        assertThat(lapsed.getLapses()).isEqualTo(1);
+        assertThat(lapsed.getIntervalDays()).isEqualTo(1);
+        assertThat(lapsed.getEase()).isCloseTo(2.3, offset(0.0001));
+    }
+
+    @Test
+    @DisplayName("Reject answers to missing cards or with an unknown grade")
+    void rejectInvalidAnswers(){
+        assertThat(service.answerCard(review(WORD, 100, 3, NOW)).getCardId()).isNull();
+        assertThat(service.answerCard(review(WORD, 5, 5, NOW)).getCardId()).isNull();
+        assertThat(service.answerCard(null).getCardId()).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM review_log", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Successfully return the due cards of both types in due order, then the new ones")
+    void getDueCards(){
+        service.answerCard(review(WORD, 5, 3, NOW.minus(3, ChronoUnit.DAYS)));
+        service.answerCard(review(KANJI, 7, 3, NOW.minus(4, ChronoUnit.DAYS)));
+        service.answerCard(review(WORD, 1, 3, NOW.minus(2, ChronoUnit.DAYS)));
+        service.answerCard(review(WORD, 2, 3, NOW));
+
+        List<DueCardDTO> due = service.getDueCards(null, 6);
+
+        assertThat(due).extracting(DueCardDTO::getCardType, DueCardDTO::getCardId)
+                .containsExactly(tuple(KANJI, 7), tuple(WORD, 5), tuple(WORD, 1),
+                        tuple(WORD, 3), tuple(WORD, 4), tuple(WORD, 6));
+        assertThat(due.get(3).getDueAt()).isNull();
+        assertThat(service.getDueCards(KANJI, 3)).extracting(DueCardDTO::getCardId).containsExactly(7, 1, 2);
+        assertThat(due.get(0).getText()).isEqualTo("川");
+        assertThat(due.get(1).getReading()).isEqualTo("まるい");
+        assertThat(service.getDueCards(WORD, 1)).extracting(DueCardDTO::getCardId).containsExactly(5);
+        assertThat(service.getDueCards(null, 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The first answer of a card takes it off the new ones, which the backfill does for older states")
+    void flagReviewedCards(){
+        service.answerCard(review(WORD, 3, 3, NOW));
+        assertThat(jdbcTemplate.queryForList("SELECT word_id FROM vocabulary WHERE reviewed", Integer.class))
+                .containsExactly(3);
+
+        jdbcTemplate.update("INSERT INTO vocabulary_reviews(word_id, interval_days, ease, stability, difficulty, "
+                + "repetitions, lapses, due_at, reviewed_at) VALUES (4, 30, 2.5, 0, 0, 1, 0, ?, ?)",
+                Timestamp.from(NOW.plus(30, ChronoUnit.DAYS)), Timestamp.from(NOW));
+        assertThat(service.getDueCards(WORD, 2)).extracting(DueCardDTO::getCardId).containsExactly(1, 2);
+
+        assertThat(repository.backfillReviewed(WORD)).isEqualTo(1);
+        assertThat(repository.backfillReviewed(WORD)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT word_id FROM vocabulary WHERE reviewed", Integer.class))
+                .containsExactlyInAnyOrder(3, 4);
+    }
+
+    @Test
+    @DisplayName("An answer saved over a state written since it was read replaces it")
+    void saveStateOverConcurrentFirstAnswer(){
+        ReviewState state = new ReviewState().setCardType(WORD).setCardId(5).setIntervalDays(1).setEase(2.5)
+                .setDueAt(NOW).setReviewedAt(NOW);
+        repository.saveState(state);
+        repository.saveState(state.setIntervalDays(6));
+
+        assertThat(jdbcTemplate.queryForList("SELECT interval_days FROM vocabulary_reviews", Integer.class))
+                .containsExactly(6);
+    }
+
+    @Test
+    @DisplayName("Deleting a card removes its review state")
+    void deleteCardState(){
+        service.answerCard(review(KANJI, 7, 3, NOW.minus(4, ChronoUnit.DAYS)));
+
+        jdbcTemplate.update("DELETE FROM kanjis WHERE kanji_id = 7");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM kanjis_reviews", Integer.class)).isZero();
+        assertThat(service.getDueCards(KANJI, 100)).extracting(DueCardDTO::getCardId).doesNotContain(7);
+    }
+
+    @Test
+    @DisplayName("Changing the algorithm reschedules every reviewed card")
+    void changeScheduling(){
+        service.answerCard(review(WORD, 5, 3, NOW));
+        service.answerCard(review(WORD, 5, 3, NOW));
+        service.answerCard(review(KANJI, 7, 3, NOW));
+        double[] parameters = Arrays.copyOf(FsrsAlgorithm.DEFAULT_PARAMETERS, FsrsAlgorithm.DEFAULT_PARAMETERS.length);
+        parameters[17] = 0.8;
+
+        SchedulingDTO result = service.changeScheduling(new SchedulingDTO().setAlgorithm("fsrs").setParameters(parameters));
+
+        assertThat(result.getRecomputed()).isEqualTo(2);
+        assertThat(result.getParameters()).isEqualTo(parameters);
+        assertThat(jdbcTemplate.queryForObject("SELECT interval_days FROM vocabulary_reviews WHERE word_id = 5", Integer.class))
+                .isEqualTo(14);
+        assertThat(jdbcTemplate.queryForObject("SELECT interval_days FROM kanjis_reviews WHERE kanji_id = 7", Integer.class))
+                .isEqualTo(2);
+        assertThat(service.answerCard(review(WORD, 1, 3, NOW)).getIntervalDays()).isEqualTo(9);
+
+        service.changeScheduling(new SchedulingDTO().setAlgorithm(Sm2Algorithm.NAME));
+
+        assertThat(service.getScheduling().getParameters()).isEqualTo(Sm2Algorithm.DEFAULT_PARAMETERS);
+    }
+
+    @Test
+    @DisplayName("Successfully apply a batch of answers in order and ignore it when retried")
+    void answerCards(){
+        service.answerCard(review(KANJI, 7, 3, NOW.minus(2, ChronoUnit.DAYS)));
+        List<ReviewDTO> reviews = Arrays.asList(
+                review(WORD, 5, 3, NOW.minus(1, ChronoUnit.DAYS)).setEventId("e1"),
+                review(KANJI, 7, 1, NOW).setEventId("e2"),
+                review(WORD, 5, 3, NOW).setEventId("e3")
+        );
+
+        BatchReviewResultDTO first = service.answerCards(reviews);
+        BatchReviewResultDTO retry = service.answerCards(reviews);
+
+        assertThat(first.getApplied()).isEqualTo(3);
+        assertThat(first.getStates()).extracting(ReviewStateDTO::getCardId, ReviewStateDTO::getRepetitions, ReviewStateDTO::getDueAt)
+                .containsExactlyInAnyOrder(
+                        tuple(5, 2, NOW.plus(6, ChronoUnit.DAYS)),
+                        tuple(7, 0, NOW.plus(1, ChronoUnit.DAYS)));
+        assertThat(retry.getApplied()).isZero();
+        assertThat(retry.getDuplicates()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT repetitions FROM vocabulary_reviews WHERE word_id = 5", Integer.class))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM review_log", Integer.class)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Reject batch answers without event id, with an unknown grade or for missing cards")
+    void answerCardsRejected(){
+        BatchReviewResultDTO result = service.answerCards(Arrays.asList(
+                review(WORD, 5, 3, NOW).setEventId("e1"),
+                review(WORD, 6, 3, NOW).setEventId("e1"),
+                review(WORD, 6, 3, NOW),
+                review(WORD, 6, 0, NOW).setEventId("e2"),
+                review(KANJI, 100, 3, NOW).setEventId("e3")
+        ));
+
+        assertThat(result.getApplied()).isEqualTo(1);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT event_id FROM review_events", String.class)).containsExactly("e1");
+    }
+
+    @Test
+    @DisplayName("Successfully apply a thousand answers in a single call")
+    void answerThousandCards(){
+        List<ReviewDTO> reviews = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            reviews.add(i % 2 == 0
+                    ? review(WORD, 1 + (i / 2) % 11, 3, NOW.plusSeconds(i)).setEventId("w" + i)
+                    : review(KANJI, 1 + (i / 2) % 14, 3, NOW.plusSeconds(i)).setEventId("k" + i));
+
+        BatchReviewResultDTO result = service.answerCards(reviews);
+
+        assertThat(result.getApplied()).isEqualTo(1000);
+        assertThat(result.getStates()).hasSize(25);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(repetitions) FROM vocabulary_reviews", Integer.class)).isEqualTo(500);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM review_events", Integer.class)).isEqualTo(1000);
+    }
+
+    static ReviewDTO review(CardType type, int id, int grade, Instant at){
+        return new ReviewDTO().setCardType(type).setCardId(id).setGrade(grade).setReviewedAt(at);
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.SuggestionDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.index.SuggestionIndex;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import dev.jzisc.personal.studysrs.service.SuggestionService;
+import dev.jzisc.personal.studysrs.service.SuggestionServiceImpl;
+import dev.jzisc.personal.studysrs.service.WordService;
+import dev.jzisc.personal.studysrs.service.WordServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
+
+@DataJpaTest
+@Import({SuggestionServiceImpl.class, VocabularyIndexStore.class, WordServiceImpl.class,
+        LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class})
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-vocab-schema.sql", "/japaneseDB-vocab-data-insertion.sql"})
+@DisplayName("Suggestion Service Integration Tests")
+class SuggestionServiceTests {
+
+    @Autowired
+    SuggestionService service;
+
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    VocabRepository repository;
+
+    @Autowired
+    DataVersionRepository versions;
+
+    @Test
+    @DisplayName("Successfully complete words, readings and meanings")
+    void suggest(){
+        assertThat(service.suggest("一", 10)).extracting(SuggestionDTO::getText, SuggestionDTO::getWordIds)
+                .containsExactly(
+                        tuple("一", Arrays.asList(9)),
+                        tuple("一日", Arrays.asList(1, 2)),
+                        tuple("一月", Arrays.asList(3, 4)));
+        assertThat(service.suggest("はや", 10)).extracting(SuggestionDTO::getText, SuggestionDTO::getWordIds)
+                .containsExactly(tuple("はやい", Arrays.asList(10, 11)));
+        assertThat(service.suggest(" One", 2)).extracting(SuggestionDTO::getText)
+                .containsExactly("one", "one day");
+    }
+
+    @Test
+    @DisplayName("Nothing to complete")
+    void suggestNothing(){
+        assertThat(service.suggest("ありがとう", 10)).isEmpty();
+        assertThat(service.suggest(" ", 10)).isEmpty();
+        assertThat(service.suggest(null, 10)).isEmpty();
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("A rebuild picks up the vocabulary writes")
+    void rebuildAfterWrites(){
+        //A store of its own: the shared one must not keep words the test transaction rolls back
+        VocabularyIndexStore store = new VocabularyIndexStore(repository, versions, false, 60_000, 60_000, false);
+        assertThat(store.current().suggestions().suggest("有", 10)).isEmpty();
+        wordService.saveNewWord(new WordDTO().setWord("有難う").setReading("ありがとう").setMeaning("Thanks"));
+
+        SuggestionIndex rebuilt = store.rebuild().suggestions();
+
+        assertThat(rebuilt.suggest("有", 10)).extracting(SuggestionDTO::getText).containsExactly("有難う");
+        assertThat(rebuilt.suggest("than", 10)).extracting(SuggestionDTO::getText).containsExactly("thanks");
+        store.stop();
+    }
+
+}
@@ -0,0 +1,128 @@
+package dev.jzisc.personal.studysrs.tests.integration;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.SyncDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.service.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({SyncServiceImpl.class, WordServiceImpl.class, KanjiServiceImpl.class, KanjiSnapshotStore.class,
+        VocabularyIndexStore.class, KanjiMeaningIndexStore.class, LookupCaches.class,
+        DataVersionRepository.class, ChangeLogRepository.class})
+@Sql({"/japaneseDB-drop.sql", "/japaneseDB-full-schema.sql",
+        "/japaneseDB-vocab-data-insertion.sql", "/japaneseDB-kanji-data-insertion.sql"})
+@DisplayName("Sync Service Integration Tests")
+class SyncServiceTests {
+
+    @Autowired
+    SyncService service;
+
+    @Autowired
+    WordService wordService;
+
+    @Autowired
+    KanjiService kanjiService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Nothing to sync before the first write")
+    void getChangesSinceWithoutWrites(){
+        SyncDTO result = service.getChangesSince(0, 100);
+
+        assertThat(service.getCurrentToken()).isZero();
+        assertThat(result).isEqualTo(new SyncDTO());
+    }
+
+    @Test
+    @DisplayName("Successfully sync the latest state of every written entity, with tombstones for the deleted ones")
+    void getChangesSince(){
+        wordService.updateWord(new WordDTO().setId(5).setWord("丸い").setReading("まるい").setMeaning("Round"));
+        wordService.updateWord(new WordDTO().setId(5).setWord("丸い").setReading("まるい").setMeaning("Spherical"));
+        wordService.deleteWordById(6);
+        kanjiService.updateKanji(new KanjiDTO().setId((short) 2).setKanji("性").setMeaning("Gender")
+                .setConfusions(Arrays.asList((short) 3)));
+        entityManager.clear();
+
+        SyncDTO result = service.getChangesSince(0, 100);
+
+        assertThat(result.getWords()).extracting(WordDTO::getId, WordDTO::getMeaning)
+                .containsExactly(tuple(5, "Spherical"));
+        assertThat(result.getDeletedWords()).containsExactly(6);
+        //The old and the new neighbours of kanji 2 changed with it
+        assertThat(result.getKanjis()).extracting(KanjiDTO::getId).containsExactlyInAnyOrder((short) 1, (short) 2, (short) 3);
+        assertThat(result.getKanjis()).filteredOn( kanji -> kanji.getId() == 1 )
+                .allSatisfy( kanji -> assertThat(kanji.getConfusions()).isEmpty() );
+        assertThat(result.getKanjis()).filteredOn( kanji -> kanji.getId() == 3 )
+                .allSatisfy( kanji -> assertThat(kanji.getConfusions()).containsExactlyInAnyOrder((short) 2, (short) 4) );
+        assertThat(result.getDeletedKanjis()).isEmpty();
+        assertThat(result.getNext()).isEqualTo(service.getCurrentToken());
+        assertThat(result.isMore()).isFalse();
+        //Five entities written, one row each
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log", Integer.class)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Syncing from a token only returns the changes written after it")
+    void getChangesSinceToken(){
+        wordService.updateWord(new WordDTO().setId(5).setWord("丸い").setReading("まるい").setMeaning("Spherical"));
+        long token = service.getChangesSince(0, 100).getNext();
+
+        kanjiService.deleteKanjiById((short) 3);
+        entityManager.clear();
+        SyncDTO result = service.getChangesSince(token, 100);
+
+        assertThat(result.getWords()).isEmpty();
+        assertThat(result.getDeletedKanjis()).containsExactly((short) 3);
+        assertThat(result.getKanjis()).extracting(KanjiDTO::getId, KanjiDTO::getConfusions)
+                .containsExactly(tuple((short) 4, new ArrayList<>()));
+        assertThat(service.getChangesSince(result.getNext(), 100)).isEqualTo(new SyncDTO().setNext(result.getNext()));
+    }
+
+    @Test
+    @DisplayName("Walking the sync pages through their next token returns every change once")
+    void getChangesSincePages(){
+        for (int id = 1; id <= 5; id++)
+            wordService.deleteWordById(id);
+
+        List<Integer> deleted = new ArrayList<>();
+        long token = 0;
+        int pages = 0;
+        SyncDTO page;
+        do {
+            page = service.getChangesSince(token, 2);
+            deleted.addAll(page.getDeletedWords());
+            token = page.getNext();
+            pages++;
+        } while (page.isMore());
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(deleted).containsExactly(1, 2, 3, 4, 5);
+    }
+
+}
@@ -1,8 +1,15 @@
 package dev.jzisc.personal.studysrs.tests.integration;
 
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 import dev.jzisc.personal.studysrs.dto.WordDTO;
 import dev.jzisc.personal.studysrs.dto.mapper.WordMapper;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
 import dev.jzisc.personal.studysrs.model.Word;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
 import dev.jzisc.personal.studysrs.service.WordService;
 import dev.jzisc.personal.studysrs.service.WordServiceImpl;
 import org.junit.jupiter.api.DisplayName;
@@ -11,19 +18,27 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static dev.jzisc.personal.studysrs.dto.mapper.WordMapper.*;
+import static dev.jzisc.personal.studysrs.repository.DataVersionRepository.VOCABULARY;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+import static org.springframework.test.context.jdbc.SqlMergeMode.MergeMode.MERGE;
 
 @DataJpaTest
-@Import(WordServiceImpl.class)
+@Import({WordServiceImpl.class, VocabularyIndexStore.class, LookupCaches.class, DataVersionRepository.class, ChangeLogRepository.class})
 @Sql({"/japaneseDB-drop.sql", "/japaneseDB-vocab-schema.sql", "/japaneseDB-vocab-data-insertion.sql"})
 @DisplayName("Word Service Integration tests")
 class WordServiceTest {
@@ -31,6 +46,18 @@ class WordServiceTest {
     @Autowired
     WordService service;
 
+    @Autowired
+    VocabRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataVersionRepository versions;
+
     @Test
     @DisplayName("Successfully autowired service")
     void successfullyAutowiredService(){
@@ -139,6 +166,198 @@ class WordServiceTest {
         assertThat(foundWord).isEmpty();
     }
 
+    @Test
+    @DisplayName("Getting a word by its id runs a single statement")
+    void getWordByIdStatements(){
+        long statements = StatementCounter.count(entityManager, () -> service.getWordById(5) );
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Updating a word doesn't look it up before writing")
+    void updateWordStatements(){
+        WordDTO toUpdate = new WordDTO().setId(5).setWord("丸い").setReading("まるい").setMeaning("Round/Spherical");
+        long statements = StatementCounter.count(entityManager, () -> service.updateWord(toUpdate) );
+
+        //The tokens and the kanjis are then written by one JDBC batch each, whatever their count
+        assertThat(statements).isEqualTo(3);
+        assertThat(service.getWordListByMeaning("Spherical")).containsExactly(toUpdate);
+        assertThat(service.getWordVersion(5)).hasValue(1);
+        assertThat(service.getWordVersion(6)).hasValue(0);
+        assertThat(service.getVocabularyVersion()).isEqualTo(1);
+        assertThat(service.getWordListByMeaning("Circular")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Updating a missing word runs a single statement")
+    void updateMissingWordStatements(){
+        WordDTO toUpdate = new WordDTO().setId(100).setWord("丸い").setReading("まるい").setMeaning("Round");
+        List<WordDTO> result = new ArrayList<>();
+        long statements = StatementCounter.count(entityManager, () -> result.add(service.updateWord(toUpdate)) );
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(result.get(0).getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deleting a word by its id loads it once and deletes it with one statement")
+    void deleteWordByIdStatements(){
+        long statements = StatementCounter.count(entityManager, () -> service.deleteWordById(5) );
+
+        assertThat(statements).isEqualTo(2);
+        assertThat(service.getWordById(5)).isEmpty();
+        assertThat(service.getWordListByMeaning("Round")).hasSize(1);
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("Bulk saving words skips existing pairs and indexes the meanings of the new ones")
+    void saveNewWords(){
+        List<WordDTO> words = asList(
+                new WordDTO().setWord("一日").setReading("イチニチ").setMeaning("One day"),
+                new WordDTO().setWord("一日").setReading("いちじつ").setMeaning("One day/Some day"),
+                new WordDTO().setWord("丸").setReading("まる").setMeaning("Circle/Round"),
+                new WordDTO().setWord("丸").setReading("まる").setMeaning("Circle"),
+                new WordDTO().setWord("丸").setReading("")
+        );
+
+        BulkResultDTO result = service.saveNewWords(words);
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(2).setSkipped(2).setRejected(1));
+        assertThat(service.getWordListByWordString("一日")).hasSize(3);
+        assertThat(service.getWordListByMeaning("Round")).hasSize(3);
+        assertThat(service.getWordListByMeaning("Some day")).extracting(WordDTO::getReading).containsExactly("いちじつ");
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("Bulk saving counts a pair saved outside the service, which the insert skips, as skipped")
+    void saveNewWordsSavedElsewhere(){
+        jdbcTemplate.update("INSERT INTO vocabulary(word, reading, reading_key, meaning) VALUES ('森', 'もり', 'もり', 'Forest')");
+
+        BulkResultDTO result = service.saveNewWords(asList(
+                new WordDTO().setWord("森").setReading("もり").setMeaning("Forest"),
+                new WordDTO().setWord("森").setReading("シン").setMeaning("Forest")));
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(1).setSkipped(1));
+        assertThat(service.getWordListByWordString("森")).extracting(WordDTO::getReading).containsExactlyInAnyOrder("もり", "シン");
+    }
+
+    @Test
+    @DisplayName("Walking the pages through their next id returns every word once, in id order")
+    void getWordPages(){
+        List<WordDTO> expected = getAllData().stream().map(WordMapper::toWordDTO).collect(Collectors.toList());
+        List<WordDTO> result = new ArrayList<>();
+        Integer after = null;
+        int pages = 0;
+        do {
+            PageDTO<WordDTO> page = service.getWordPage(after, 4);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(4);
+            result.addAll(page.getItems());
+            after = page.getNext();
+            pages++;
+        } while (after != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(result).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Successfully page the words that share a reading or a meaning token")
+    void getWordPagesByReadingAndMeaning(){
+        PageDTO<WordDTO> first = service.getWordPageByReading("まるい", null, 1);
+        PageDTO<WordDTO> last = service.getWordPageByReading("まるい", first.getNext(), 1);
+        PageDTO<WordDTO> fast = service.getWordPageByMeaning("FAST", 10, 5);
+
+        assertThat(first.getItems()).extracting(WordDTO::getId).containsExactly(5);
+        assertThat(first.getNext()).isEqualTo(5);
+        assertThat(last.getItems()).extracting(WordDTO::getId).containsExactly(6);
+        assertThat(last.getNext()).isNull();
+        assertThat(fast.getItems()).extracting(WordDTO::getId).containsExactly(11);
+        assertThat(fast.getNext()).isNull();
+    }
+
+    @Test
+    @DisplayName("Successfully find the words of a misspelled meaning, closest first")
+    void getWordListByFuzzyMeaning(){
+        assertThat(service.getWordListByFuzzyMeaning("Circuler", 10)).extracting(WordDTO::getId).containsExactly(5, 6);
+        assertThat(service.getWordListByFuzzyMeaning("quik", 10)).extracting(WordDTO::getId).containsExactly(10, 11);
+        assertThat(service.getWordListByFuzzyMeaning("firts day of month", 10)).extracting(WordDTO::getId).containsExactly(2);
+        //"one" is one edit away, "one day" and "one month" too far
+        assertThat(service.getWordListByFuzzyMeaning("onr", 10)).extracting(WordDTO::getId).containsExactly(9);
+        assertThat(service.getWordListByFuzzyMeaning("quik", 1)).extracting(WordDTO::getId).containsExactly(10);
+        assertThat(service.getWordListByFuzzyMeaning("dy", 10)).isEmpty();
+        assertThat(service.getWordListByFuzzyMeaning(" ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Successfully find the words of a reading written in either kana script")
+    void getWordListByReadingInAnyScript(){
+        assertThat(service.getWordListByReading("いちにち")).extracting(WordDTO::getId).containsExactly(1);
+        assertThat(service.getWordListByReading("イチ")).extracting(WordDTO::getId).containsExactly(9);
+        assertThat(service.getWordPageByReading("マルイ", null, 5).getItems()).extracting(WordDTO::getId)
+                .containsExactly(5, 6);
+
+        service.updateWord(new WordDTO().setId(4).setWord("一月").setReading("ヒトツキ").setMeaning("One month"));
+        entityManager.clear();
+
+        assertThat(service.getWordListByReading("ひとつき")).extracting(WordDTO::getId, WordDTO::getReading)
+                .containsExactly(tuple(4, "ヒトツキ"));
+    }
+
+    @Test
+    @DisplayName("Successfully page the words containing one kanji or all of several ones")
+    void getWordPagesByKanjis(){
+        PageDTO<WordDTO> first = service.getWordPageByKanjis(asList("一"), null, 3);
+        PageDTO<WordDTO> last = service.getWordPageByKanjis(asList("一"), first.getNext(), 3);
+        PageDTO<WordDTO> both = service.getWordPageByKanjis(asList("日", "一"), null, 5);
+        PageDTO<WordDTO> none = service.getWordPageByKanjis(asList("日", "月"), null, 5);
+
+        assertThat(first.getItems()).extracting(WordDTO::getId).containsExactly(1, 2, 3);
+        assertThat(first.getNext()).isEqualTo(3);
+        assertThat(last.getItems()).extracting(WordDTO::getId).containsExactly(4, 9);
+        assertThat(last.getNext()).isNull();
+        assertThat(both.getItems()).extracting(WordDTO::getId).containsExactly(1, 2);
+        assertThat(none.getItems()).isEmpty();
+        assertThat(service.getWordPageByKanjis(asList("一日"), null, 5).getItems()).isEmpty();
+    }
+
+    @Test
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 100"})
+    @Sql(statements = {"ALTER SEQUENCE vocabulary_word_id_seq RESTART WITH 1"}, executionPhase = AFTER_TEST_METHOD)
+    @SqlMergeMode(MERGE)
+    @DisplayName("The kanjis of a word are indexed when it's saved or updated")
+    void indexWordKanjis(){
+        WordDTO saved = service.saveNewWord(new WordDTO().setWord("自己").setReading("じこ").setMeaning("Self"));
+        service.saveNewWords(asList(new WordDTO().setWord("自由").setReading("じゆう").setMeaning("Freedom")));
+        service.updateWord(new WordDTO().setId(7).setWord("月日").setReading("つきひ").setMeaning("Time"));
+        entityManager.flush();
+
+        assertThat(service.getWordPageByKanjis(asList("自"), null, 5).getItems())
+                .extracting(WordDTO::getWord).containsExactly("自己", "自由");
+        assertThat(service.getWordPageByKanjis(asList("己", "自"), null, 5).getItems())
+                .extracting(WordDTO::getId).containsExactly(saved.getId());
+        assertThat(service.getWordPageByKanjis(asList("月", "日"), null, 5).getItems())
+                .extracting(WordDTO::getId).containsExactly(7);
+    }
+
+    @Test
+    @Sql(statements = {"DELETE FROM data_versions WHERE table_name = 'vocabulary'"})
+    @SqlMergeMode(MERGE)
+    @DisplayName("The version of a table without its row yet starts at 1")
+    void incrementMissingVersion(){
+        versions.increment(VOCABULARY);
+        assertThat(versions.find(VOCABULARY)).isEqualTo(1);
+
+        versions.increment(VOCABULARY);
+        assertThat(versions.find(VOCABULARY)).isEqualTo(2);
+    }
+
     static List<Word> getAllData(){
         return asList(
                 new Word().setWord_id(1).setWord("一日").setReading("イチニチ").setMeaning("One day"),
@@ -0,0 +1,81 @@
+package dev.jzisc.personal.studysrs.tests.unit.cache;
+
+import dev.jzisc.personal.studysrs.cache.SingleFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Single Flight Unit Tests")
+class SingleFlightTests {
+
+    @Test
+    @DisplayName("Callers arriving during a load share its result")
+    void shareRunningLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1), release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<Integer> leader = executor.submit( () -> flight.run("key", () -> {
+                loading.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            loading.await();
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++)
+                followers.add(executor.submit( () -> flight.run("key", loads::incrementAndGet) ));
+            while (flight.shared() < 7)
+                Thread.yield();
+            release.countDown();
+
+            assertThat(leader.get()).isEqualTo(1);
+            for (Future<Integer> follower : followers)
+                assertThat(follower.get()).isEqualTo(1);
+            assertThat(loads).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Sequential callers and other keys load on their own")
+    void nothingKept(){
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.run("a", loads::incrementAndGet);
+        flight.run("a", loads::incrementAndGet);
+        flight.run("b", loads::incrementAndGet);
+
+        assertThat(loads).hasValue(3);
+        assertThat(flight.shared()).isZero();
+    }
+
+    @Test
+    @DisplayName("A failed load fails its caller and lets the next one retry")
+    void failedLoad(){
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+        assertThatThrownBy( () -> flight.run("key", () -> { throw new IllegalStateException("down"); }) )
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("down");
+        assertThat(flight.run("key", () -> 1)).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
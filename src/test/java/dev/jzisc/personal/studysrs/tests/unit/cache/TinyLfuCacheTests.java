@@ -0,0 +1,146 @@
+package dev.jzisc.personal.studysrs.tests.unit.cache;
+
+import dev.jzisc.personal.studysrs.cache.TinyLfuCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TinyLFU Cache Unit Tests")
+class TinyLfuCacheTests {
+
+    @Test
+    @DisplayName("Loads a key once and then serves it from the cache")
+    void loadOnce(){
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++)
+            assertThat(cache.get(1, key -> { loads.incrementAndGet(); return "one"; })).isEqualTo("one");
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(4);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Never holds more than its maximum size")
+    void boundedSize(){
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10_000; i++)
+            cache.get(i, key -> key);
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.evictions()).isEqualTo(10_000 - 100);
+    }
+
+    @Test
+    @DisplayName("Keeps the keys read over and over through a scan of one-off keys")
+    void scanResistance(){
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100, Duration.ofMinutes(1));
+        for (int round = 0; round < 5; round++)
+            for (int hot = 0; hot < 50; hot++)
+                cache.get(hot, key -> key);
+
+        for (int cold = 1000; cold < 20_000; cold++) {
+            cache.get(cold, key -> key);
+            cache.get(cold % 50, key -> key);
+        }
+
+        int kept = 0;
+        for (int hot = 0; hot < 50; hot++)
+            if (cache.getIfPresent(hot) != null)
+                kept++;
+        assertThat(kept).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Entries expire once their time to live after the write has passed")
+    void expiry(){
+        AtomicLong now = new AtomicLong();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, Duration.ofSeconds(10), now::get);
+        cache.put("a", "first");
+
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertThat(cache.getIfPresent("a")).isEqualTo("first");
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.get("a", key -> "second")).isEqualTo("second");
+        assertThat(cache.expirations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Invalidates the matching entries only")
+    void invalidateIf(){
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, Duration.ofMinutes(1));
+        cache.put(1, "odd");
+        cache.put(2, "even");
+        cache.put(3, "odd");
+
+        cache.invalidateIf( (key, value) -> value.equals("odd") );
+
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.getIfPresent(2)).isEqualTo("even");
+        assertThat(cache.getIfPresent(3)).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Invalidates the entries tagged with the given tags, whatever their key")
+    void invalidateTagged(){
+        TinyLfuCache<String, List<Integer>> cache = new TinyLfuCache<>(10, Duration.ofMinutes(1), list -> list);
+        cache.put("a", Arrays.asList(1, 2));
+        cache.put("b", Arrays.asList(2, 3));
+        cache.put("c", Arrays.asList(4));
+        cache.put("c", Arrays.asList(5));
+
+        cache.invalidateTagged(Arrays.asList(1, 4));
+
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.getIfPresent("b")).containsExactly(2, 3);
+        assertThat(cache.getIfPresent("c")).containsExactly(5);
+
+        cache.invalidateTagged(Collections.singletonList(2));
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Entries evicted by the policy drop their tags")
+    void evictedEntriesUntagged(){
+        TinyLfuCache<Integer, List<Integer>> cache = new TinyLfuCache<>(5, Duration.ofMinutes(1), list -> list);
+        for (int i = 0; i < 100; i++)
+            cache.put(i, Collections.singletonList(i % 3));
+
+        cache.invalidateTagged(Arrays.asList(0, 1, 2));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.evictions()).isEqualTo(95);
+    }
+
+    @Test
+    @DisplayName("A load racing an invalidation isn't cached")
+    void loadRacingInvalidation(){
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10, Duration.ofMinutes(1));
+
+        String loaded = cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.get(1, key -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.getIfPresent(1)).isEqualTo("fresh");
+    }
+
+}
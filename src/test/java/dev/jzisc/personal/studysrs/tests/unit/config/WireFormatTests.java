@@ -0,0 +1,100 @@
+package dev.jzisc.personal.studysrs.tests.unit.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes on the wire of a 10k words response in each negotiated format, and its round trip.
+ * The serialization time is only measured when run with {@code -Dstudy-srs.benchmark=true}.
+ */
+@Slf4j
+@DisplayName("Wire Format Unit Tests")
+class WireFormatTests {
+
+    static final int WORDS = 10_000;
+    static final int WARMUP = 20;
+    static final int RUNS = 50;
+
+    @Test
+    @DisplayName("Binary formats are smaller than JSON for a 10k words response")
+    void compareFormats() throws IOException {
+        PageDTO<WordDTO> page = new PageDTO<WordDTO>().setItems(words()).setNext(WORDS);
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> format : mappers().entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] bytes = mapper.writeValueAsBytes(page);
+
+            sizes.put(format.getKey(), bytes.length);
+            assertThat(mapper.readValue(bytes, new TypeReference<PageDTO<WordDTO>>(){})).isEqualTo(page);
+        }
+
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "study-srs.benchmark", matches = "true")
+    @DisplayName("Serialization time of a 10k words response in each format")
+    void timeFormats() throws IOException {
+        PageDTO<WordDTO> page = new PageDTO<WordDTO>().setItems(words()).setNext(WORDS);
+        TypeReference<PageDTO<WordDTO>> type = new TypeReference<PageDTO<WordDTO>>(){};
+
+        for (Map.Entry<String, ObjectMapper> format : mappers().entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] bytes = mapper.writeValueAsBytes(page);
+            for (int i = 0; i < WARMUP; i++)
+                mapper.readValue(mapper.writeValueAsBytes(page), type);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++)
+                bytes = mapper.writeValueAsBytes(page);
+            long written = System.nanoTime();
+            for (int i = 0; i < RUNS; i++)
+                assertThat(mapper.readValue(bytes, type).getItems()).hasSize(WORDS);
+            long read = System.nanoTime();
+
+            log.info("{}: {} bytes, {} us to write, {} us to read", format.getKey(), bytes.length,
+                    (written - start) / RUNS / 1000, (read - written) / RUNS / 1000);
+        }
+    }
+
+    static Map<String, ObjectMapper> mappers(){
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+        return mappers;
+    }
+
+    static List<WordDTO> words(){
+        String[] kana = { "あ", "い", "う", "え", "お", "か", "き", "く", "け", "こ" };
+        String[] kanji = { "日", "月", "火", "水", "木", "金", "土", "山", "川", "田" };
+        List<WordDTO> words = new ArrayList<>(WORDS);
+        for (int i = 0; i < WORDS; i++)
+            words.add(new WordDTO()
+                    .setId(i + 1)
+                    .setWord(kanji[i % 10] + kanji[i / 10 % 10] + kanji[i / 100 % 10])
+                    .setReading(kana[i % 10] + kana[i / 10 % 10] + kana[i / 100 % 10] + kana[i / 1000 % 10])
+                    .setMeaning("Meaning " + i + "/Other meaning"));
+        return words;
+    }
+
+}
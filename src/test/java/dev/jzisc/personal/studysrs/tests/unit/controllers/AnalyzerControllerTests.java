@@ -0,0 +1,80 @@
+package dev.jzisc.personal.studysrs.tests.unit.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jzisc.personal.studysrs.controller.AnalyzerController;
+import dev.jzisc.personal.studysrs.dto.AnalysisDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.dto.WordMatchDTO;
+import dev.jzisc.personal.studysrs.service.AnalyzerService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static dev.jzisc.personal.studysrs.controller.AnalyzerController.MAX_TEXT_LENGTH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.http.MediaType.TEXT_PLAIN;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AnalyzerController.class)
+@DisplayName("Analyzer Controller Unit Tests")
+class AnalyzerControllerTests {
+
+    static final String BASE_URL = "/api/analyze";
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @MockBean
+    AnalyzerService service;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Successfully analyze a plain text")
+    void analyze() throws Exception {
+        String text = "早い";
+        AnalysisDTO expected = new AnalysisDTO()
+                .setMatches(Arrays.asList(new WordMatchDTO().setStart(0).setEnd(2).setSurface(text).setWordIds(Arrays.asList(10))))
+                .setWords(Arrays.asList(new WordDTO().setId(10).setWord(text).setReading("はやい").setMeaning("Early/Fast")));
+        doReturn(expected).when(service).analyze(text);
+
+        MvcResult mvcResult = mockMvc.perform(post(BASE_URL)
+                        .contentType(new MediaType(TEXT_PLAIN, StandardCharsets.UTF_8))
+                        .content(text.getBytes(StandardCharsets.UTF_8)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        AnalysisDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), AnalysisDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Reject a text over the maximum length")
+    void rejectLongText() throws Exception {
+        char[] text = new char[MAX_TEXT_LENGTH + 1];
+        Arrays.fill(text, 'あ');
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(new MediaType(TEXT_PLAIN, StandardCharsets.UTF_8))
+                        .content(new String(text).getBytes(StandardCharsets.UTF_8)))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+}
@@ -0,0 +1,57 @@
+package dev.jzisc.personal.studysrs.tests.unit.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.controller.CacheController;
+import dev.jzisc.personal.studysrs.dto.CacheStatsDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheController.class)
+@DisplayName("Cache Controller Unit Tests")
+class CacheControllerTests {
+
+    static final String BASE_URL = "/api/cache";
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @MockBean
+    LookupCaches caches;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Successfully return the statistics of every cache")
+    void getCacheStats() throws Exception {
+        List<CacheStatsDTO> expected = Arrays.asList(
+                new CacheStatsDTO().setName(LookupCaches.KANJIS).setSize(2).setMaximumSize(100)
+                        .setHits(3).setMisses(1).setHitRatio(0.75),
+                new CacheStatsDTO().setName(LookupCaches.WORDS).setMaximumSize(100));
+        doReturn(expected).when(caches).stats();
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        CacheStatsDTO[] response = mapper.readValue(mvcResult.getResponse().getContentAsString(), CacheStatsDTO[].class);
+
+        assertThat(response).containsExactlyElementsOf(expected);
+    }
+
+}
@@ -0,0 +1,66 @@
+package dev.jzisc.personal.studysrs.tests.unit.controllers;
+
+import dev.jzisc.personal.studysrs.controller.ExportController;
+import dev.jzisc.personal.studysrs.service.ExportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+@DisplayName("Export Controller Unit Tests")
+class ExportControllerTests {
+
+    static final String BASE_URL = "/api/export";
+
+    @MockBean
+    ExportService service;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Successfully stream the export as NDJSON")
+    void exportNdjson() throws Exception {
+        String content = "{\"type\":\"word\",\"id\":1}\n{\"type\":\"kanji\",\"id\":1}\n";
+        doAnswer( invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(content.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(service).exportNdjson(any());
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_NDJSON))
+                .andExpect(content().string(content));
+    }
+
+    @Test
+    @DisplayName("Reject an unsupported export format")
+    void rejectUnsupportedFormat() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("format", "xml"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+}
@@ -1,9 +1,15 @@
 package dev.jzisc.personal.studysrs.tests.unit.controllers;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import dev.jzisc.personal.studysrs.controller.KanjiController;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
 import dev.jzisc.personal.studysrs.service.KanjiService;
+import dev.jzisc.personal.studysrs.service.WordService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -20,12 +26,15 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(KanjiController.class)
 @DisplayName("Kanji Controller Unit Tests")
@@ -39,6 +48,9 @@ public class KanjiControllerTests {
     @MockBean
     KanjiService service;
 
+    @MockBean
+    WordService wordService;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -155,6 +167,199 @@ public class KanjiControllerTests {
         assertThat(response).isEqualTo(kanji);
     }
 
+    @Test
+    @DisplayName("Successfully save a list of kanjis and get the import counts")
+    void saveNewKanjis() throws Exception{
+        String url = BASE_URL + "/bulk";
+        List<KanjiDTO> kanjis = getAllData();
+        BulkResultDTO expected = new BulkResultDTO().setInserted(4).setSkipped(1);
+        doReturn(expected).when(service).saveNewKanjis(kanjis);
+
+        MvcResult mvcResult = mockMvc.perform(post(url).contentType(APPLICATION_JSON).content(mapper.writeValueAsString(kanjis)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BulkResultDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), BulkResultDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Reject an empty list of kanjis to save")
+    void saveEmptyKanjiList() throws Exception{
+        mockMvc.perform(post(BASE_URL + "/bulk").contentType(APPLICATION_JSON).content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Successfully get a page of Kanjis that share a meaning")
+    void getKanjiPageByMeaning() throws Exception{
+        PageDTO<KanjiDTO> expected = new PageDTO<KanjiDTO>().setItems(getAllData().subList(0, 2)).setNext(2);
+        doReturn(expected).when(service).getKanjiPageByMeaning("Sacrifice", null, 2);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("meaning", "Sacrifice").param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        PageDTO<KanjiDTO> response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageDTO<KanjiDTO>>(){});
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Successfully get the ranked Kanjis of a misspelled meaning")
+    void getKanjiListByFuzzyMeaning() throws Exception{
+        List<KanjiDTO> expected = getAllData().subList(1, 2);
+        doReturn(expected).when(service).getKanjiListByFuzzyMeaning("Personallity", 20);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("meaning", "Personallity").param("fuzzy", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andReturn();
+        PageDTO<KanjiDTO> response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageDTO<KanjiDTO>>(){});
+
+        assertThat(response).isEqualTo(new PageDTO<KanjiDTO>().setItems(expected));
+        verify(service, never()).getKanjiPageByMeaning(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Kanji page size defaults when missing")
+    void getKanjiPageDefaultSize() throws Exception{
+        doReturn(new PageDTO<KanjiDTO>()).when(service).getKanjiPage((short) 5, 20);
+
+        mockMvc.perform(get(BASE_URL).param("after", "5"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(service).getKanjiPage((short) 5, 20);
+    }
+
+    @Test
+    @DisplayName("Successfully return Kanjis as Smile when the client asks for it, JSON otherwise")
+    void smileNegotiation() throws Exception{
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        KanjiDTO kanji = getAllData().get(0);
+        doReturn(Optional.of(kanji)).when(service).getKanjiById(kanji.getId());
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/{id}", kanji.getId()).accept("application/x-jackson-smile"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+        KanjiDTO response = smile.readValue(mvcResult.getResponse().getContentAsByteArray(), KanjiDTO.class);
+
+        assertThat(response).isEqualTo(kanji);
+        mockMvc.perform(get(BASE_URL + "/{id}", kanji.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Answer a revalidated Kanji with 304 and a changed one with its new version")
+    void getKanjiByIdNotModified() throws Exception{
+        KanjiDTO kanji = getAllData().get(0).setVersion(2);
+        doReturn(Optional.of(2)).when(service).getKanjiVersion(kanji.getId());
+        doReturn(Optional.of(kanji)).when(service).getKanjiById(kanji.getId());
+
+        mockMvc.perform(get(BASE_URL + "/{id}", kanji.getId()).header("If-None-Match", "\"1\", \"2\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2\""));
+        verify(service, never()).getKanjiById(any());
+
+        mockMvc.perform(get(BASE_URL + "/{id}", kanji.getId()).header("If-None-Match", "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+    }
+
+    @Test
+    @DisplayName("Validate Kanji searches with the kanjis table version")
+    void searchKanjiNotModified() throws Exception{
+        doReturn(4L).when(service).getKanjisVersion();
+
+        mockMvc.perform(get(BASE_URL + "/search").param("meaning", "River").header("If-None-Match", "\"4\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(service, never()).getKanjiListByMeaning(any());
+    }
+
+    @Test
+    @DisplayName("Successfully page the words containing a kanji")
+    void getWordsByKanji() throws Exception{
+        KanjiDTO kanji = getAllData().get(0);
+        PageDTO<WordDTO> expected = new PageDTO<WordDTO>()
+                .setItems(Arrays.asList(new WordDTO().setId(9).setWord("一").setReading("イチ").setMeaning("One")))
+                .setNext(9);
+        doReturn(Optional.of(kanji)).when(service).getKanjiById(kanji.getId());
+        doReturn(3L).when(service).getKanjisVersion();
+        doReturn(7L).when(wordService).getVocabularyVersion();
+        doReturn(expected).when(wordService).getWordPageByKanjis(Arrays.asList("一"), 3, 1);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/{id}/words", kanji.getId()).param("after", "3").param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-7\""))
+                .andReturn();
+        PageDTO<WordDTO> response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageDTO<WordDTO>>(){});
+
+        assertThat(response).isEqualTo(expected);
+
+        doReturn(4L).when(service).getKanjisVersion();
+        mockMvc.perform(get(BASE_URL + "/{id}/words", kanji.getId()).header("If-None-Match", "\"3-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4-7\""));
+    }
+
+    @Test
+    @DisplayName("Validate the words of a kanji with the versions read before the kanji")
+    void getWordsByKanjiNotModified() throws Exception{
+        doReturn(3L).when(service).getKanjisVersion();
+        doReturn(7L).when(wordService).getVocabularyVersion();
+
+        mockMvc.perform(get(BASE_URL + "/{id}/words", 1).header("If-None-Match", "\"3-7\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3-7\""));
+
+        verify(service, never()).getKanjiById(any());
+        verify(wordService, never()).getWordPageByKanjis(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Successfully page the words containing every given kanji")
+    void getWordsByKanjis() throws Exception{
+        KanjiDTO first = getAllData().get(3), second = getAllData().get(4);
+        doReturn(Optional.of(first)).when(service).getKanjiById(first.getId());
+        doReturn(Optional.of(second)).when(service).getKanjiById(second.getId());
+        doReturn(new PageDTO<WordDTO>()).when(wordService).getWordPageByKanjis(Arrays.asList("人", "入"), null, 20);
+
+        mockMvc.perform(get(BASE_URL + "/words").param("ids", "4,5"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(wordService).getWordPageByKanjis(Arrays.asList("人", "入"), null, 20);
+    }
+
+    @Test
+    @DisplayName("Reject the words of a missing kanji")
+    void getWordsByMissingKanji() throws Exception{
+        doReturn(Optional.empty()).when(service).getKanjiById((short) 100);
+
+        mockMvc.perform(get(BASE_URL + "/{id}/words", 100))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(wordService, never()).getWordPageByKanjis(any(), any(), anyInt());
+    }
+
     static List<KanjiDTO> getAllData(){
         return Arrays.asList(
                 new KanjiDTO().setId((short)1).setKanji("一").setMeaning("One"),
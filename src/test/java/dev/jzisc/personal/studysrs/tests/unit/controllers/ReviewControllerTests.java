@@ -0,0 +1,172 @@
+package dev.jzisc.personal.studysrs.tests.unit.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jzisc.personal.studysrs.controller.ReviewController;
+import dev.jzisc.personal.studysrs.dto.BatchReviewResultDTO;
+import dev.jzisc.personal.studysrs.dto.DueCardDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewLogStatsDTO;
+import dev.jzisc.personal.studysrs.dto.ReviewStateDTO;
+import dev.jzisc.personal.studysrs.dto.SchedulingDTO;
+import dev.jzisc.personal.studysrs.reviewlog.Durability;
+import dev.jzisc.personal.studysrs.service.ReviewService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static dev.jzisc.personal.studysrs.model.CardType.KANJI;
+import static dev.jzisc.personal.studysrs.model.CardType.WORD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReviewController.class)
+@DisplayName("Review Controller Unit Tests")
+class ReviewControllerTests {
+
+    static final String BASE_URL = "/api/reviews";
+    static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @MockBean
+    ReviewService service;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Successfully return the due cards")
+    void getDueCards() throws Exception {
+        List<DueCardDTO> expected = Arrays.asList(
+                new DueCardDTO().setCardType(KANJI).setCardId(7).setText("川").setMeaning("River").setDueAt(NOW),
+                new DueCardDTO().setCardType(WORD).setCardId(5).setText("丸い").setReading("まるい").setMeaning("Round/Circular").setDueAt(NOW)
+        );
+        doReturn(expected).when(service).getDueCards(null, 2);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/due").param("limit", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        DueCardDTO[] response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), DueCardDTO[].class);
+
+        assertThat(response).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Successfully answer a card and get its new state")
+    void answerCard() throws Exception {
+        ReviewDTO review = new ReviewDTO().setCardType(WORD).setCardId(5).setGrade(3);
+        ReviewStateDTO expected = new ReviewStateDTO().setCardType(WORD).setCardId(5)
+                .setIntervalDays(1).setRepetitions(1).setEase(2.5)
+                .setReviewedAt(NOW).setDueAt(NOW.plus(1, ChronoUnit.DAYS));
+        doReturn(expected).when(service).answerCard(review);
+
+        MvcResult mvcResult = mockMvc.perform(post(BASE_URL).contentType(APPLICATION_JSON).content(mapper.writeValueAsString(review)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        ReviewStateDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), ReviewStateDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Return a bad request when the card can't be answered")
+    void answerMissingCard() throws Exception {
+        doReturn(new ReviewStateDTO()).when(service).answerCard(any());
+
+        mockMvc.perform(post(BASE_URL).contentType(APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new ReviewDTO().setCardType(KANJI).setCardId(100).setGrade(3))))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Successfully change the scheduling algorithm")
+    void changeScheduling() throws Exception {
+        SchedulingDTO scheduling = new SchedulingDTO().setAlgorithm("sm2").setParameters(new double[]{ 2.5, 1.3, 0.2, 1.2, 365 });
+        SchedulingDTO expected = new SchedulingDTO().setAlgorithm("sm2").setParameters(scheduling.getParameters()).setRecomputed(10);
+        doReturn(expected).when(service).changeScheduling(scheduling);
+
+        MvcResult mvcResult = mockMvc.perform(put(BASE_URL + "/algorithm").contentType(APPLICATION_JSON).content(mapper.writeValueAsString(scheduling)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        SchedulingDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), SchedulingDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Return a bad request for an unknown scheduling algorithm")
+    void changeUnknownScheduling() throws Exception {
+        doThrow(new IllegalArgumentException("Unknown scheduling algorithm leitner")).when(service).changeScheduling(any());
+
+        mockMvc.perform(put(BASE_URL + "/algorithm").contentType(APPLICATION_JSON).content("{\"algorithm\":\"leitner\"}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Successfully return the review log metrics")
+    void getReviewLogStats() throws Exception {
+        ReviewLogStatsDTO expected = new ReviewLogStatsDTO().setDurability(Durability.ASYNC)
+                .setQueueDepth(3).setQueueCapacity(8192).setAppended(120).setWritten(117).setFlushes(4)
+                .setLastFlushMillis(1.5).setMaxFlushMillis(3).setAverageFlushMillis(2);
+        doReturn(expected).when(service).getReviewLogStats();
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/log/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        ReviewLogStatsDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), ReviewLogStatsDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Successfully submit a batch of answers")
+    void answerCards() throws Exception {
+        List<ReviewDTO> reviews = Arrays.asList(
+                new ReviewDTO().setEventId("e1").setCardType(WORD).setCardId(5).setGrade(3).setReviewedAt(NOW),
+                new ReviewDTO().setEventId("e2").setCardType(KANJI).setCardId(7).setGrade(1).setReviewedAt(NOW)
+        );
+        BatchReviewResultDTO expected = new BatchReviewResultDTO().setApplied(1).setDuplicates(1);
+        doReturn(expected).when(service).answerCards(reviews);
+
+        MvcResult mvcResult = mockMvc.perform(post(BASE_URL + "/batch").contentType(APPLICATION_JSON).content(mapper.writeValueAsString(reviews)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        BatchReviewResultDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), BatchReviewResultDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Reject an empty batch of answers")
+    void answerEmptyBatch() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/batch").contentType(APPLICATION_JSON).content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+}
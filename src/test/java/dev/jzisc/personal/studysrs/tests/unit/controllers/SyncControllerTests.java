@@ -0,0 +1,88 @@
+package dev.jzisc.personal.studysrs.tests.unit.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jzisc.personal.studysrs.controller.SyncController;
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.SyncDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.service.SyncService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SyncController.class)
+@DisplayName("Sync Controller Unit Tests")
+class SyncControllerTests {
+
+    static final String BASE_URL = "/api/sync";
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @MockBean
+    SyncService service;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Successfully return the changes since a token")
+    void sync() throws Exception {
+        SyncDTO expected = new SyncDTO()
+                .setWords(Arrays.asList(new WordDTO().setId(5).setWord("丸い").setReading("まるい").setMeaning("Round")))
+                .setKanjis(Arrays.asList(new KanjiDTO().setId((short) 4).setKanji("買").setMeaning("Buy")))
+                .setDeletedWords(Arrays.asList(6))
+                .setDeletedKanjis(Arrays.asList((short) 3))
+                .setNext(42)
+                .setMore(true);
+        doReturn(expected).when(service).getChangesSince(10, 50);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("since", "10").param("size", "50"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        SyncDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), SyncDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Return only the current token when none is given")
+    void syncWithoutToken() throws Exception {
+        doReturn(42L).when(service).getCurrentToken();
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        SyncDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), SyncDTO.class);
+
+        assertThat(response).isEqualTo(new SyncDTO().setNext(42));
+        verify(service, never()).getChangesSince(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Reject a negative token")
+    void rejectNegativeToken() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("since", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+}
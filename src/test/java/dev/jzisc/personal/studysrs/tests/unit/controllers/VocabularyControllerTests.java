@@ -1,8 +1,14 @@
 package dev.jzisc.personal.studysrs.tests.unit.controllers;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import dev.jzisc.personal.studysrs.controller.VocabularyController;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.dto.PageDTO;
 import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.dto.SuggestionDTO;
+import dev.jzisc.personal.studysrs.service.SuggestionService;
 import dev.jzisc.personal.studysrs.service.WordService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,12 +25,19 @@ import java.util.Optional;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(VocabularyController.class)
 @DisplayName("Vocabulary Controller Unit Tests")
@@ -35,6 +48,9 @@ public class VocabularyControllerTests {
     @MockBean
     WordService service;
 
+    @MockBean
+    SuggestionService suggestionService;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -115,6 +131,178 @@ public class VocabularyControllerTests {
         assertThat(response).isEqualTo(word);
     }
 
+    @Test
+    @DisplayName("Successfully save a list of Words and get the import counts")
+    void saveNewWords() throws Exception{
+        String url = BASE_URL + "/bulk";
+        List<WordDTO> words = getAllData();
+        BulkResultDTO expected = new BulkResultDTO().setInserted(9).setSkipped(1).setRejected(1);
+        doReturn(expected).when(service).saveNewWords(words);
+
+        MvcResult mvcResult = mockMvc.perform(post(url).contentType(APPLICATION_JSON).content(mapper.writeValueAsString(words)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        BulkResultDTO response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(), BulkResultDTO.class);
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Reject an empty list of Words to save")
+    void saveEmptyWordList() throws Exception{
+        mockMvc.perform(post(BASE_URL + "/bulk").contentType(APPLICATION_JSON).content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Successfully get a page of Words with the cursor of the next one")
+    void getWordPage() throws Exception{
+        PageDTO<WordDTO> expected = new PageDTO<WordDTO>().setItems(getAllData().subList(3, 6)).setNext(6);
+        doReturn(expected).when(service).getWordPage(3, 3);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("after", "3").param("size", "3"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        PageDTO<WordDTO> response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageDTO<WordDTO>>(){});
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Page size defaults when missing and is capped to the maximum")
+    void getWordPageSizes() throws Exception{
+        doReturn(new PageDTO<WordDTO>()).when(service).getWordPageByReading(anyString(), any(), anyInt());
+        doReturn(new PageDTO<WordDTO>()).when(service).getWordPageByMeaning(anyString(), any(), anyInt());
+
+        mockMvc.perform(get(BASE_URL).param("reading", "まるい"))
+                .andDo(print())
+                .andExpect(status().isOk());
+        mockMvc.perform(get(BASE_URL).param("meaning", "Round").param("size", "100000"))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        verify(service).getWordPageByReading("まるい", null, 20);
+        verify(service).getWordPageByMeaning("Round", null, 100);
+    }
+
+    @Test
+    @DisplayName("Successfully exchange Words as CBOR when the client asks for it")
+    void cborNegotiation() throws Exception{
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        WordDTO word = getAllData().get(4);
+        PageDTO<WordDTO> expected = new PageDTO<WordDTO>().setItems(getAllData());
+        doReturn(word).when(service).saveNewWord(word);
+        doReturn(expected).when(service).getWordPage(null, 20);
+
+        mockMvc.perform(post(BASE_URL).contentType(APPLICATION_CBOR).accept(APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(word)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(APPLICATION_CBOR));
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn();
+        PageDTO<WordDTO> response = cbor.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageDTO<WordDTO>>(){});
+
+        assertThat(response).isEqualTo(expected);
+        assertThat(mvcResult.getResponse().getContentAsByteArray().length)
+                .isLessThan(mapper.writeValueAsBytes(expected).length);
+    }
+
+    @Test
+    @DisplayName("Answer a revalidated Word with 304 reading only its version")
+    void getWordByIdNotModified() throws Exception{
+        WordDTO word = getAllData().get(4).setVersion(3);
+        doReturn(Optional.of(3)).when(service).getWordVersion(5);
+        doReturn(Optional.of(word)).when(service).getWordById(5);
+
+        mockMvc.perform(get(BASE_URL + "/{id}", 5).header("If-None-Match", "W/\"3\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().bytes(new byte[0]));
+        verify(service, never()).getWordById(any());
+
+        mockMvc.perform(get(BASE_URL + "/{id}", 5).header("If-None-Match", "\"2\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @DisplayName("Validate Word listings with the vocabulary table version")
+    void getWordPageNotModified() throws Exception{
+        doReturn(7L).when(service).getVocabularyVersion();
+        doReturn(new PageDTO<WordDTO>().setItems(getAllData())).when(service).getWordPage(null, 20);
+
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+        mockMvc.perform(get(BASE_URL).header("If-None-Match", "\"7\""))
+                .andDo(print())
+                .andExpect(status().isNotModified());
+
+        verify(service, times(1)).getWordPage(null, 20);
+    }
+
+    @Test
+    @DisplayName("Successfully get the ranked Words of a misspelled meaning")
+    void getWordListByFuzzyMeaning() throws Exception{
+        List<WordDTO> expected = getAllData().subList(4, 6);
+        doReturn(expected).when(service).getWordListByFuzzyMeaning("Circuler", 20);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("meaning", "Circuler").param("fuzzy", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andReturn();
+        PageDTO<WordDTO> response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageDTO<WordDTO>>(){});
+
+        assertThat(response).isEqualTo(new PageDTO<WordDTO>().setItems(expected));
+        verify(service, never()).getWordPageByMeaning(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Successfully suggest completions of a prefix")
+    void suggest() throws Exception{
+        List<SuggestionDTO> expected = asList(
+                new SuggestionDTO().setText("一").setWordIds(asList(9)),
+                new SuggestionDTO().setText("一日").setWordIds(asList(1, 2)));
+        doReturn(expected).when(suggestionService).suggest("一", 10);
+        doReturn(expected).when(suggestionService).suggest("一", 50);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/suggest").param("q", "一"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn();
+        List<SuggestionDTO> response = mapper.readValue(mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<List<SuggestionDTO>>(){});
+        mockMvc.perform(get(BASE_URL + "/suggest").param("q", "一").param("limit", "500"))
+                .andExpect(status().isOk());
+
+        assertThat(response).isEqualTo(expected);
+        verify(suggestionService).suggest("一", 50);
+    }
+
+    @Test
+    @DisplayName("Reject a suggestion request without a prefix")
+    void suggestWithoutPrefix() throws Exception{
+        mockMvc.perform(get(BASE_URL + "/suggest"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(BASE_URL + "/suggest").param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(suggestionService);
+    }
+
     static List<WordDTO> getAllData(){
         return asList(
                 new WordDTO().setId(1).setWord("一日").setReading("イチニチ").setMeaning("One day"),
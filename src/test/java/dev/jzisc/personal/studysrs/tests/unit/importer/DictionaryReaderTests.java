@@ -0,0 +1,88 @@
+package dev.jzisc.personal.studysrs.tests.unit.importer;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.WordDTO;
+import dev.jzisc.personal.studysrs.importer.JmdictReader;
+import dev.jzisc.personal.studysrs.importer.KanjidicReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Dictionary Readers Unit Tests")
+class DictionaryReaderTests {
+
+    static final String JMDICT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<!DOCTYPE JMdict [\n" +
+            "<!ELEMENT JMdict (entry*)>\n" +
+            "<!ENTITY n \"noun (common) (futsuumeishi)\">\n" +
+            "<!ENTITY uk \"word usually written using kana alone\">\n" +
+            "]>\n" +
+            "<JMdict>\n" +
+            "<entry><ent_seq>1576260</ent_seq>\n" +
+            "<k_ele><keb>一日</keb></k_ele><k_ele><keb>1日</keb></k_ele>\n" +
+            "<r_ele><reb>ついたち</reb></r_ele>\n" +
+            "<sense><pos>&n;</pos><gloss>first day of the month</gloss><gloss xml:lang=\"ger\">Monatserster</gloss></sense>\n" +
+            "<sense><gloss xml:lang=\"eng\">and/or</gloss></sense>\n" +
+            "</entry>\n" +
+            "<entry><ent_seq>1000220</ent_seq>\n" +
+            "<r_ele><reb>あかん</reb></r_ele>\n" +
+            "<sense><misc>&uk;</misc><gloss>useless</gloss><gloss>no good</gloss></sense>\n" +
+            "</entry>\n" +
+            "</JMdict>";
+
+    static final String KANJIDIC = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<!DOCTYPE kanjidic2 [\n<!ELEMENT kanjidic2 (header,character*)>\n]>\n" +
+            "<kanjidic2><header><file_version>4</file_version></header>\n" +
+            "<character><literal>亜</literal>\n" +
+            "<reading_meaning><rmgroup><reading r_type=\"ja_on\">ア</reading>\n" +
+            "<meaning>Asia</meaning><meaning>rank next</meaning><meaning m_lang=\"fr\">Asie</meaning>\n" +
+            "<meaning>come after</meaning><meaning>prefix meaning sub- or -ous, used in chemistry words</meaning>\n" +
+            "</rmgroup></reading_meaning></character>\n" +
+            "<character><literal>𠮟</literal>\n" +
+            "<reading_meaning><rmgroup><meaning>scold</meaning></rmgroup></reading_meaning></character>\n" +
+            "</kanjidic2>";
+
+    @Test
+    @DisplayName("Successfully read JMdict entries as words without expanding the DTD entities")
+    void readJmdict() throws Exception {
+        List<WordDTO> words = new ArrayList<>();
+        try (JmdictReader reader = new JmdictReader(stream(JMDICT))) {
+            WordDTO word;
+            while ((word = reader.next()) != null)
+                words.add(word);
+        }
+
+        assertThat(words).containsExactly(
+                new WordDTO().setWord("一日").setReading("ついたち").setMeaning("first day of the month/and or"),
+                new WordDTO().setWord("あかん").setReading("あかん").setMeaning("useless/no good")
+        );
+    }
+
+    @Test
+    @DisplayName("Successfully read KANJIDIC characters keeping the English meanings that fit")
+    void readKanjidic() throws Exception {
+        List<KanjiDTO> kanjis = new ArrayList<>();
+        try (KanjidicReader reader = new KanjidicReader(stream(KANJIDIC))) {
+            KanjiDTO kanji;
+            while ((kanji = reader.next()) != null)
+                kanjis.add(kanji);
+        }
+
+        assertThat(kanjis).containsExactly(
+                new KanjiDTO().setKanji("亜").setMeaning("Asia/rank next/come after"),
+                new KanjiDTO().setKanji("𠮟").setMeaning("scold")
+        );
+    }
+
+    static InputStream stream(String xml){
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,96 @@
+package dev.jzisc.personal.studysrs.tests.unit.importer;
+
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
+import dev.jzisc.personal.studysrs.importer.EntryReader;
+import dev.jzisc.personal.studysrs.importer.ImportPipeline;
+import dev.jzisc.personal.studysrs.importer.ImportReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Import Pipeline Unit Tests")
+class ImportPipelineTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Successfully write every entry once through several writers and drop the checkpoint")
+    void importEverything() throws Exception {
+        Set<Integer> saved = ConcurrentHashMap.newKeySet();
+        Path checkpoint = directory.resolve("source.checkpoint");
+
+        ImportReport report = new ImportPipeline<>(saving(saved), 10, 4, 2, checkpoint).run(entries(1005));
+
+        assertThat(saved).hasSize(1005);
+        assertThat(report.getRead()).isEqualTo(1005);
+        assertThat(report.getInserted()).isEqualTo(1005);
+        assertThat(report.getResumedFrom()).isZero();
+        assertThat(report.getEntriesPerSecond()).isPositive();
+        assertThat(checkpoint).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Successfully resume an import after the entries of its checkpoint")
+    void resumeFromCheckpoint() throws Exception {
+        Set<Integer> saved = ConcurrentHashMap.newKeySet();
+        Path checkpoint = directory.resolve("source.checkpoint");
+        Files.write(checkpoint, "40".getBytes(StandardCharsets.UTF_8));
+
+        ImportReport report = new ImportPipeline<>(saving(saved), 10, 2, 2, checkpoint).run(entries(100));
+
+        assertThat(report.getResumedFrom()).isEqualTo(40);
+        assertThat(report.getRead()).isEqualTo(60);
+        assertThat(saved).hasSize(60).doesNotContain(40).contains(41, 100);
+    }
+
+    @Test
+    @DisplayName("Keep the checkpoint at the last contiguous committed batch when a writer fails")
+    void keepCheckpointOnFailure() throws Exception {
+        Set<Integer> saved = ConcurrentHashMap.newKeySet();
+        Path checkpoint = directory.resolve("source.checkpoint");
+        Function<List<Integer>, BulkResultDTO> failing = batch -> {
+            if (batch.contains(35))
+                throw new IllegalStateException("Database is gone");
+            return saving(saved).apply(batch);
+        };
+
+        assertThatThrownBy( () -> new ImportPipeline<>(failing, 10, 1, 1, checkpoint).run(entries(100)) )
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("resume");
+
+        assertThat(new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8)).isEqualTo("30");
+    }
+
+    static Function<List<Integer>, BulkResultDTO> saving(Set<Integer> saved){
+        return batch -> {
+            batch.forEach(saved::add);
+            return new BulkResultDTO().setInserted(batch.size());
+        };
+    }
+
+    static EntryReader<Integer> entries(int count){
+        return new EntryReader<Integer>() {
+            int next = 1;
+
+            @Override
+            public Integer next() {
+                return next <= count ? next++ : null;
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+}
@@ -0,0 +1,118 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.dto.mapper.KanjiMapper;
+import dev.jzisc.personal.studysrs.index.ConfusionGraph;
+import dev.jzisc.personal.studysrs.model.Kanji;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Confusion Graph Unit Tests")
+class ConfusionGraphTests {
+
+    @Test
+    @DisplayName("Confusions are symmetric, sorted and kept once")
+    void confusions(){
+        ConfusionGraph graph = ConfusionGraph.builder()
+                .addConfusion((short) 9, (short) 2)
+                .addConfusion((short) 2, (short) 1)
+                .addConfusion((short) 1, (short) 2)
+                .addConfusion((short) 4, (short) 4)
+                .addConfusion((short) 2, (short) 5)
+                .build();
+
+        assertThat(row(graph, 2)).containsExactly((short) 1, (short) 5, (short) 9);
+        assertThat(row(graph, 9)).containsExactly((short) 2);
+        assertThat(row(graph, 1)).containsExactly((short) 2);
+        assertThat(row(graph, 5)).containsExactly((short) 2);
+        assertThat(graph.degree(4)).isZero();
+        assertThat(graph.degree(100)).isZero();
+        assertThat(graph.degree(-1)).isZero();
+        assertThat(ConfusionGraph.builder().build()).isSameAs(ConfusionGraph.empty());
+    }
+
+    @Test
+    @DisplayName("Rows of a graph the size of the joyo list come out sorted")
+    void largeGraph(){
+        ConfusionGraph.Builder builder = ConfusionGraph.builder();
+        for (short id = 1; id < 3000; id++)
+            builder.addConfusion(id, (short) (id * 7 % 3000))
+                    .addConfusion((short) (id * 13 % 3000), id);
+        ConfusionGraph graph = builder.build();
+
+        for (int id = 1; id < 3000; id++) {
+            for (int i = 1; i < graph.degree(id); i++)
+                assertThat(graph.confusionAt(id, i)).isGreaterThan(graph.confusionAt(id, i - 1));
+            if (id * 7 % 3000 != id)
+                assertThat(row(graph, id)).contains((short) (id * 7 % 3000));
+        }
+    }
+
+    @Test
+    @DisplayName("Kanjis confusing each other compare, print and map without walking the relation")
+    void confusedKanjis(){
+        Kanji gender = new Kanji().setKanji_id((short) 2).setKanji("性").setMeaning("Gender");
+        Kanji sacrifice = new Kanji().setKanji_id((short) 1).setKanji("牲").setMeaning("Sacrifice");
+        gender.addConfusion(sacrifice);
+        Kanji copy = new Kanji().setKanji_id((short) 2).setKanji("性").setMeaning("Gender");
+        copy.addConfusion(new Kanji().setKanji_id((short) 1).setKanji("牲").setMeaning("Sacrifice"));
+
+        assertThat(gender).isEqualTo(copy).hasSameHashCodeAs(copy);
+        assertThat(gender.toString()).doesNotContain("牲");
+        assertThat(gender.addConfusion(new Kanji().setKanji_id((short) 1))).isFalse();
+        assertThat(sacrifice.containsConfusion(gender)).isTrue();
+        assertThat(KanjiMapper.toKanjiDTO(gender).getConfusions()).containsExactly((short) 1);
+        assertThat(KanjiMapper.toKanji(new KanjiDTO().setConfusions(asList((short) 1, (short) 1)))
+                .confusionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A kanji takes thousands of confusions, saved or not, each one once")
+    void manyConfusions(){
+        Kanji kanji = new Kanji().setKanji_id((short) 5000).setKanji("性").setMeaning("Gender");
+        List<Kanji> confusions = new ArrayList<>();
+        for (short id = 1; id <= 3000; id++)
+            confusions.add(new Kanji().setKanji_id(id).setKanji("牲").setMeaning("Sacrifice"));
+        Kanji unsaved = new Kanji().setKanji("生").setMeaning("Life");
+        confusions.add(unsaved);
+        kanji.setConfusions(confusions);
+        kanji.setConfusions(confusions);
+
+        assertThat(kanji.confusionCount()).isEqualTo(3001);
+        assertThat(kanji.containsConfusion(new Kanji().setKanji_id((short) 3000))).isTrue();
+        assertThat(kanji.containsConfusion(new Kanji().setKanji_id((short) 3001))).isFalse();
+        assertThat(kanji.containsConfusion(unsaved)).isTrue();
+        unsaved.setKanji_id((short) 4000);
+        assertThat(kanji.addConfusion(new Kanji().setKanji_id((short) 4000))).isFalse();
+        assertThat(kanji.setConfusions(null).containsConfusion(new Kanji().setKanji_id((short) 1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("A relation Hibernate replaces with one of the same size is indexed again")
+    void replacedConfusions(){
+        Kanji kanji = new Kanji().setKanji_id((short) 5).setKanji("性").setMeaning("Gender");
+        kanji.addConfusion(new Kanji().setKanji_id((short) 1).setKanji("牲").setMeaning("Sacrifice"));
+        assertThat(kanji.containsConfusion(new Kanji().setKanji_id((short) 1))).isTrue();
+
+        ReflectionTestUtils.setField(kanji, "priorKanjisConfused",
+                new ArrayList<>(asList(new Kanji().setKanji_id((short) 2).setKanji("生").setMeaning("Life"))));
+
+        assertThat(kanji.containsConfusion(new Kanji().setKanji_id((short) 1))).isFalse();
+        assertThat(kanji.containsConfusion(new Kanji().setKanji_id((short) 2))).isTrue();
+    }
+
+    private static List<Short> row(ConfusionGraph graph, int id){
+        List<Short> row = new ArrayList<>();
+        for (int i = 0; i < graph.degree(id); i++)
+            row.add(graph.confusionAt(id, i));
+        return row;
+    }
+
+}
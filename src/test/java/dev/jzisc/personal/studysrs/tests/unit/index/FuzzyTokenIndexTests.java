@@ -0,0 +1,114 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.index.FuzzyTokenIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Fuzzy Token Index Unit Tests")
+class FuzzyTokenIndexTests {
+
+    @Test
+    @DisplayName("Successfully rank the tokens within the distance, closest first and then in token order")
+    void search(){
+        FuzzyTokenIndex index = FuzzyTokenIndex.builder()
+                .addToken("personality", 2)
+                .addToken("personal", 5)
+                .addToken("person", 7)
+                .addToken("personally", 9)
+                .addToken("personally", 3)
+                .addToken("gender", 2)
+                .build();
+
+        assertThat(index.search("personallity", 2, 10)).containsExactly(2, 3, 9);
+        assertThat(index.search("personallity", 2, 2)).containsExactly(2, 3);
+        assertThat(index.search("persn", 1, 10)).containsExactly(7);
+        assertThat(index.search("gender", 0, 10)).containsExactly(2);
+        assertThat(index.search("xyz", 2, 10)).isEmpty();
+        assertThat(FuzzyTokenIndex.builder().build().search("xyz", 2, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Tolerates no typo in short queries and two in long ones")
+    void maxDistanceOf(){
+        assertThat(FuzzyTokenIndex.maxDistanceOf("ox")).isZero();
+        assertThat(FuzzyTokenIndex.maxDistanceOf("river")).isEqualTo(1);
+        assertThat(FuzzyTokenIndex.maxDistanceOf("personallity")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Finds the same tokens as comparing the query with every token")
+    void searchMatchesNaiveScan(){
+        Random random = new Random(42);
+        String alphabet = "abcde";
+        FuzzyTokenIndex.Builder builder = FuzzyTokenIndex.builder();
+        List<String> tokens = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            String token = WordAutomatonTests.randomText(random, alphabet, 1 + random.nextInt(8));
+            tokens.add(token);
+            builder.addToken(token, id);
+        }
+        FuzzyTokenIndex index = builder.build();
+
+        for (int i = 0; i < 100; i++) {
+            String query = WordAutomatonTests.randomText(random, alphabet, 1 + random.nextInt(8));
+            Set<Integer> expected = new TreeSet<>();
+            for (int id = 0; id < tokens.size(); id++)
+                if (levenshtein(query, tokens.get(id)) <= 2)
+                    expected.add(id);
+
+            int[] found = index.search(query, 2, Integer.MAX_VALUE);
+
+            assertThat(found).containsExactlyInAnyOrder(expected.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    @Test
+    @DisplayName("Search 200k tokens within two edits")
+    void searchLargeIndex(){
+        Random random = new Random(7);
+        String alphabet = "abcdefghijklmnopqrstuvwxyz";
+        FuzzyTokenIndex.Builder builder = FuzzyTokenIndex.builder();
+        List<String> tokens = new ArrayList<>();
+        for (int id = 0; id < 200_000; id++) {
+            String token = WordAutomatonTests.randomText(random, alphabet, 4 + random.nextInt(9));
+            tokens.add(token);
+            builder.addToken(token, id);
+        }
+        FuzzyTokenIndex index = builder.build();
+        for (int q = 0; q < 4; q++) {
+            //A known token with two typos
+            int source = random.nextInt(tokens.size());
+            StringBuilder typed = new StringBuilder(tokens.get(source));
+            typed.setCharAt(random.nextInt(typed.length()), 'x');
+            typed.insert(random.nextInt(typed.length()), 'y');
+            String query = typed.toString();
+            Set<Integer> expected = new TreeSet<>();
+            for (int id = 0; id < tokens.size(); id++)
+                if (levenshtein(query, tokens.get(id)) <= 2)
+                    expected.add(id);
+
+            int[] found = index.search(query, 2, Integer.MAX_VALUE);
+
+            assertThat(expected).contains(source);
+            assertThat(found).containsExactlyInAnyOrder(expected.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    static int levenshtein(String a, String b){
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++)
+            d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++)
+            d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++)
+            for (int j = 1; j <= b.length(); j++)
+                d[i][j] = Math.min(d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+        return d[a.length()][b.length()];
+    }
+
+}
@@ -0,0 +1,92 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.event.ChangeType;
+import dev.jzisc.personal.studysrs.event.KanjiChangedEvent;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshot;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.KanjiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Kanji Snapshot Store Unit Tests")
+class KanjiSnapshotStoreTests {
+
+    KanjiRepository repository;
+    KanjiSnapshotStore store;
+
+    @BeforeEach
+    void setUp(){
+        repository = mock(KanjiRepository.class);
+        store = new KanjiSnapshotStore(repository, mock(DataVersionRepository.class), true);
+    }
+
+    @AfterEach
+    void tearDown(){
+        store.stop();
+    }
+
+    @Test
+    @DisplayName("A failed rebuild keeps serving the last snapshot and isn't retried by the readers")
+    void failedRebuildKeepsLastSnapshot(){
+        doReturn(rows("川")).when(repository).findAllRows();
+        KanjiSnapshot first = store.current();
+        doThrow(new IllegalStateException("Database down")).when(repository).findAllRows();
+
+        assertThat(store.rebuild()).isSameAs(first);
+        for (int i = 0; i < 100; i++)
+            assertThat(store.current()).isSameAs(first);
+        //The first read and the explicit rebuild, the backoff keeps the retries away
+        verify(repository, times(2)).findAllRows();
+    }
+
+    @Test
+    @DisplayName("After a write, reads go to the database until the background rebuild replaces the snapshot")
+    void rebuildAfterWrite() throws InterruptedException {
+        doReturn(rows("川")).when(repository).findAllRows();
+        store.current();
+        doReturn(rows("川", "河")).when(repository).findAllRows();
+
+        store.onKanjiChanged(new KanjiChangedEvent(ChangeType.CREATED, new KanjiDTO().setId((short) 2)));
+
+        KanjiSnapshot current = store.current();
+        for (int i = 0; i < 200 && current == null; i++) {
+            Thread.sleep(10);
+            current = store.current();
+        }
+        assertThat(current).isNotNull();
+        assertThat(current.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A failed first build leaves the reads on the database and is retried in the background")
+    void failedFirstBuild() throws InterruptedException {
+        doThrow(new IllegalStateException("Database down")).doReturn(rows("川")).when(repository).findAllRows();
+
+        assertThat(store.current()).isNull();
+        KanjiSnapshot current = store.current();
+        for (int i = 0; i < 200 && current == null; i++) {
+            Thread.sleep(10);
+            current = store.current();
+        }
+        assertThat(current).isNotNull();
+    }
+
+    private static List<Object[]> rows(String... kanjis){
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < kanjis.length; i++)
+            rows.add(new Object[]{ (short) (i + 1), kanjis[i], "Meaning", 0 });
+        return Collections.unmodifiableList(rows);
+    }
+
+}
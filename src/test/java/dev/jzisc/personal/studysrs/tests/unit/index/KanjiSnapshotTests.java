@@ -0,0 +1,111 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Kanji Snapshot Unit Tests")
+class KanjiSnapshotTests {
+
+    KanjiSnapshot snapshot;
+
+    @BeforeEach
+    void setUp(){
+        snapshot = KanjiSnapshot.builder()
+                .addKanji((short) 1, "牲", "Sacrifice")
+                .addKanji((short) 2, "性", "Personality/Gender")
+                .addKanji((short) 7, "川", "River")
+                .addKanji((short) 8, "河", "River")
+                .addKanji((short) 9, "自", "Self")
+                .addConfusion((short) 2, (short) 1)
+                .addConfusion((short) 9, (short) 2)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Successfully look up kanjis by their id")
+    void findById(){
+        assertThat(snapshot.size()).isEqualTo(5);
+        assertThat(snapshot.contains(2)).isTrue();
+        assertThat(snapshot.contains(3)).isFalse();
+        assertThat(snapshot.contains(100)).isFalse();
+        assertThat(snapshot.toKanjiDTO(7))
+                .isEqualTo(new KanjiDTO().setId((short) 7).setKanji("川").setMeaning("River").setConfusions(asList()));
+    }
+
+    @Test
+    @DisplayName("Successfully look up kanjis by their character")
+    void findByKanji(){
+        assertThat(snapshot.idOf("河")).isEqualTo(8);
+        assertThat(snapshot.idOf("元")).isEqualTo(-1);
+        assertThat(snapshot.idOf("河川")).isEqualTo(-1);
+        assertThat(snapshot.idOf(null)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Confusions are symmetric and sorted by id")
+    void confusions(){
+        assertThat(snapshot.toKanjiDTO(2).getConfusions()).containsExactly((short) 1, (short) 9);
+        assertThat(snapshot.toKanjiDTO(1).getConfusions()).containsExactly((short) 2);
+        assertThat(snapshot.confusionCount(9)).isEqualTo(1);
+        assertThat(snapshot.confusionAt(9, 0)).isEqualTo((short) 2);
+    }
+
+    @Test
+    @DisplayName("Confusions with a kanji past the rows read are left out")
+    void confusionsPastTheRows(){
+        KanjiSnapshot partial = KanjiSnapshot.builder()
+                .addKanji((short) 1, "牲", "Sacrifice")
+                .addKanji((short) 2, "性", "Personality/Gender")
+                .addConfusion((short) 2, (short) 1)
+                .addConfusion((short) 12, (short) 2)
+                .addConfusion((short) 1, (short) 13)
+                .build();
+
+        assertThat(partial.toKanjiDTO(2).getConfusions()).containsExactly((short) 1);
+        assertThat(partial.toKanjiDTO(1).getConfusions()).containsExactly((short) 2);
+        assertThat(partial.confusionCount(12)).isZero();
+    }
+
+    @Test
+    @DisplayName("Successfully look up kanjis by a case-insensitive meaning token")
+    void findByMeaning(){
+        List<KanjiDTO> rivers = snapshot.findByMeaning("river");
+
+        assertThat(rivers).extracting(KanjiDTO::getId).containsExactly((short) 7, (short) 8);
+        assertThat(snapshot.findByMeaning("GENDER")).extracting(KanjiDTO::getKanji).containsExactly("性");
+        assertThat(snapshot.findByMeaning("Personality/Gender")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Row and table versions are kept for revalidation")
+    void versions(){
+        KanjiSnapshot versioned = KanjiSnapshot.builder()
+                .dataVersion(12)
+                .addKanji((short) 3, "員", "Member", 4)
+                .build();
+
+        assertThat(versioned.dataVersion()).isEqualTo(12);
+        assertThat(versioned.versionOf(3)).isEqualTo(4);
+        assertThat(versioned.toKanjiDTO(3).getVersion()).isEqualTo(4);
+        assertThat(snapshot.versionOf(7)).isZero();
+    }
+
+    @Test
+    @DisplayName("Pages skip the missing ids and resume after the given one")
+    void findPage(){
+        assertThat(snapshot.findPage(0, 3)).extracting(KanjiDTO::getId).containsExactly((short) 1, (short) 2, (short) 7);
+        assertThat(snapshot.findPage(7, 3)).extracting(KanjiDTO::getId).containsExactly((short) 8, (short) 9);
+        assertThat(snapshot.findPage(9, 3)).isEmpty();
+        assertThat(snapshot.findPageByMeaning("River", 7, 3)).extracting(KanjiDTO::getId).containsExactly((short) 8);
+        assertThat(snapshot.findPageByMeaning("River", 0, 1)).extracting(KanjiDTO::getId).containsExactly((short) 7);
+    }
+
+}
@@ -0,0 +1,94 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.dto.SuggestionDTO;
+import dev.jzisc.personal.studysrs.index.SuggestionIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("Suggestion Index Unit Tests")
+class SuggestionIndexTests {
+
+    @Test
+    @DisplayName("Successfully complete a prefix, shortest first and then in key order")
+    void suggest(){
+        SuggestionIndex index = SuggestionIndex.builder()
+                .addKey("one month", 4)
+                .addKey("one day", 1)
+                .addKey("one", 9)
+                .addKey("onion", 12)
+                .addKey("january", 3)
+                .addKey("one day", 2)
+                .build();
+
+        assertThat(index.suggest("on", 10)).extracting(SuggestionDTO::getText, SuggestionDTO::getWordIds)
+                .containsExactly(
+                        tuple("one", Arrays.asList(9)),
+                        tuple("onion", Arrays.asList(12)),
+                        tuple("one day", Arrays.asList(1, 2)),
+                        tuple("one month", Arrays.asList(4)));
+        assertThat(index.suggest("one ", 1)).extracting(SuggestionDTO::getText).containsExactly("one day");
+        assertThat(index.suggest("one month and more", 10)).isEmpty();
+        assertThat(index.suggest("x", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+        assertThat(SuggestionIndex.builder().build().suggest("a", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Returns the same completions as sorting every matching key")
+    void suggestMatchesNaiveSort(){
+        Random random = new Random(42);
+        String alphabet = "あいうかきく日月";
+        SuggestionIndex.Builder builder = SuggestionIndex.builder();
+        Set<String> keys = new TreeSet<>();
+        for (int id = 0; id < 2000; id++) {
+            String key = WordAutomatonTests.randomText(random, alphabet, 1 + random.nextInt(6));
+            keys.add(key);
+            builder.addKey(key, id);
+        }
+        SuggestionIndex index = builder.build();
+
+        for (int i = 0; i < 200; i++) {
+            String prefix = WordAutomatonTests.randomText(random, alphabet, 1 + random.nextInt(3));
+            List<String> expected = keys.stream()
+                    .filter( key -> key.startsWith(prefix) )
+                    .sorted(Comparator.comparing(String::length).thenComparing(Comparator.naturalOrder()))
+                    .limit(10)
+                    .collect(Collectors.toList());
+
+            assertThat(index.suggest(prefix, 10)).extracting(SuggestionDTO::getText).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Complete a prefix among 200k keys")
+    void suggestLargeIndex(){
+        Random random = new Random(7);
+        String alphabet = "abcdefghijklmnopqrstuvwxyz";
+        SuggestionIndex.Builder builder = SuggestionIndex.builder();
+        Set<String> keys = new HashSet<>();
+        for (int id = 0; id < 200_000; id++) {
+            String key = WordAutomatonTests.randomText(random, alphabet, 3 + random.nextInt(10));
+            keys.add(key);
+            builder.addKey(key, id);
+        }
+        SuggestionIndex index = builder.build();
+
+        for (String prefix : new String[]{ "a", "qu", "str", "e" }) {
+            List<String> expected = keys.stream()
+                    .filter( key -> key.startsWith(prefix) )
+                    .sorted(Comparator.comparing(String::length).thenComparing(Comparator.naturalOrder()))
+                    .limit(10)
+                    .collect(Collectors.toList());
+
+            assertThat(expected).hasSize(10);
+            assertThat(index.suggest(prefix, 10)).extracting(SuggestionDTO::getText).containsExactlyElementsOf(expected);
+        }
+    }
+
+}
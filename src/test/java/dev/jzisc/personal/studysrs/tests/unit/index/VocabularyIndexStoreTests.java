@@ -0,0 +1,84 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexes;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
+import dev.jzisc.personal.studysrs.repository.VocabRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Vocabulary Index Store Unit Tests")
+class VocabularyIndexStoreTests {
+
+    VocabRepository repository;
+    DataVersionRepository versions;
+    VocabularyIndexStore store;
+
+    @BeforeEach
+    void setUp(){
+        repository = mock(VocabRepository.class);
+        versions = mock(DataVersionRepository.class);
+        doReturn(Collections.singletonList(new Object[]{ 1, "川", "かわ" })).when(repository).findAllSurfaces();
+        doReturn(Collections.singletonList(new Object[]{ 1, "river" })).when(repository).findAllMeaningTokens();
+    }
+
+    @AfterEach
+    void tearDown(){
+        store.stop();
+    }
+
+    @Test
+    @DisplayName("One read of the vocabulary builds all of its indexes")
+    void buildFromOneRead(){
+        store = new VocabularyIndexStore(repository, versions, false, 60_000, 60_000, false);
+
+        VocabularyIndexes indexes = store.current();
+
+        assertThat(indexes.suggestions().suggest("川", 10)).hasSize(1);
+        assertThat(indexes.meanings().search("river", 0, 10)).containsExactly(1);
+        assertThat(indexes.automaton().match("川").size()).isEqualTo(1);
+        verify(repository, times(1)).findAllSurfaces();
+        verify(repository, times(1)).findAllMeaningTokens();
+    }
+
+    @Test
+    @DisplayName("The reads before the first index share the warm up build")
+    void readsShareWarmUp() throws Exception {
+        store = new VocabularyIndexStore(repository, versions, false, 60_000, 60_000, true);
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+
+        store.warm();
+        List<Future<VocabularyIndexes>> reads = new ArrayList<>();
+        for (int i = 0; i < 32; i++)
+            reads.add(readers.submit(store::current));
+        for (Future<VocabularyIndexes> read : reads)
+            assertThat(read.get(10, TimeUnit.SECONDS)).isSameAs(store.current());
+        readers.shutdown();
+
+        verify(repository, times(1)).findAllSurfaces();
+    }
+
+    @Test
+    @DisplayName("A changed version waits for the minimum interval before a rebuild")
+    void minRebuildInterval() throws InterruptedException {
+        doReturn(1L, 2L, 3L, 4L, 5L).when(versions).find(anyString());
+        store = new VocabularyIndexStore(repository, versions, false, 10, 60_000, false);
+
+        store.current();
+        Thread.sleep(200);
+
+        verify(repository, times(1)).findAllSurfaces();
+    }
+
+}
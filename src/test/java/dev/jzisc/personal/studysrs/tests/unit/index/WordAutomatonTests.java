@@ -0,0 +1,121 @@
+package dev.jzisc.personal.studysrs.tests.unit.index;
+
+import dev.jzisc.personal.studysrs.index.WordAutomaton;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Word Automaton Unit Tests")
+class WordAutomatonTests {
+
+    @Test
+    @DisplayName("Successfully find every overlapping occurrence, ordered by start then end")
+    void match(){
+        WordAutomaton automaton = WordAutomaton.builder()
+                .addWord(1, "he")
+                .addWord(2, "she")
+                .addWord(3, "his")
+                .addWord(4, "hers")
+                .build();
+
+        assertThat(matches(automaton, "ushers")).containsExactly("1-4:2", "2-4:1", "2-6:4");
+        assertThat(matches(automaton, "")).isEmpty();
+        assertThat(matches(automaton, "xyz")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Words sharing a surface share its match")
+    void sharedSurfaces(){
+        WordAutomaton automaton = WordAutomaton.builder()
+                .addWord(2, "一日")
+                .addWord(1, "一日")
+                .addWord(9, "一")
+                .addWord(7, "日")
+                .addWord(7, "日")
+                .build();
+
+        WordAutomaton.Matches matches = automaton.match("毎日一日");
+
+        assertThat(automaton.patterns()).isEqualTo(3);
+        assertThat(matches(automaton, "毎日一日")).containsExactly("1-2:7", "2-3:9", "2-4:1,2", "3-4:7");
+        assertThat(automaton.wordCount(matches.pattern(3))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Matches the same occurrences as a naive search")
+    void matchesNaiveSearch(){
+        Random random = new Random(42);
+        String alphabet = "あいうかきく日月";
+        WordAutomaton.Builder builder = WordAutomaton.builder();
+        List<String> words = new ArrayList<>();
+        for (int id = 0; id < 300; id++) {
+            String word = randomText(random, alphabet, 1 + random.nextInt(4));
+            words.add(word);
+            builder.addWord(id, word);
+        }
+        WordAutomaton automaton = builder.build();
+        String text = randomText(random, alphabet, 2000);
+
+        List<String> expected = new ArrayList<>();
+        for (int start = 0; start < text.length(); start++)
+            for (int end = start + 1; end <= text.length() && end - start <= 4; end++) {
+                String surface = text.substring(start, end);
+                StringJoiner ids = new StringJoiner(",");
+                for (int id = 0; id < words.size(); id++)
+                    if (words.get(id).equals(surface))
+                        ids.add(Integer.toString(id));
+                if (ids.length() > 0)
+                    expected.add(start + "-" + end + ":" + ids);
+            }
+
+        assertThat(matches(automaton, text)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Match a 10 KB text against 50k words")
+    void matchLargeText(){
+        String kanji = "日月火水木金土山川田";
+        WordAutomaton.Builder builder = WordAutomaton.builder();
+        Map<String, StringJoiner> words = new HashMap<>();
+        for (int id = 0; id < 50_000; id++) {
+            String word = "" + kanji.charAt(id % 10) + kanji.charAt(id / 10 % 10)
+                    + kanji.charAt(id / 100 % 10) + (id >= 1000 ? kanji.charAt(id / 1000 % 10) : "");
+            builder.addWord(id, word);
+            words.computeIfAbsent(word, key -> new StringJoiner(",")).add(Integer.toString(id));
+        }
+        WordAutomaton automaton = builder.build();
+        String text = randomText(new Random(7), kanji + "のはがを", 10 * 1024 / 3);
+
+        List<String> expected = new ArrayList<>();
+        for (int start = 0; start < text.length(); start++)
+            for (int end = start + 3; end <= Math.min(start + 4, text.length()); end++)
+                if (words.containsKey(text.substring(start, end)))
+                    expected.add(start + "-" + end + ":" + words.get(text.substring(start, end)));
+
+        assertThat(expected).isNotEmpty();
+        assertThat(matches(automaton, text)).containsExactlyElementsOf(expected);
+    }
+
+    static List<String> matches(WordAutomaton automaton, String text){
+        WordAutomaton.Matches matches = automaton.match(text);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            StringJoiner ids = new StringJoiner(",");
+            for (int w = 0; w < automaton.wordCount(matches.pattern(i)); w++)
+                ids.add(Integer.toString(automaton.wordAt(matches.pattern(i), w)));
+            result.add(matches.start(i) + "-" + matches.end(i) + ":" + ids);
+        }
+        return result;
+    }
+
+    static String randomText(Random random, String alphabet, int length){
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return text.toString();
+    }
+
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.util.Arrays;
@@ -32,6 +33,9 @@ public class KanjiRepositoryTests {
     @Autowired
     private KanjiRepository repository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("Kanji repository autowired successfully")
     void successfullyAutowiredRepo(){
@@ -138,23 +142,17 @@ public class KanjiRepositoryTests {
         assertThat(kanji.getConfusions().get(0), hasProperty("kanji", equalTo(secondKanji)));
     }
 
-    @ParameterizedTest
-    @MethodSource("sameMeaningKanjis")
+    @Test
     @Sql({"/japaneseDB-kanji-data-insertion.sql"})
-    @DisplayName("Find kanji object by a meaning regex")
-    void successfullyFindKanjiListByMeaning(List<String> kanjisAndMeaning){
-        String kanji1 = kanjisAndMeaning.get(0);
-        String kanji2 = kanjisAndMeaning.get(1);
-        String meaning = kanjisAndMeaning.get(2);
+    @DisplayName("Backfill the meaning tokens of the kanjis saved without them")
+    void successfullyBackfillMeaningTokens(){
+        jdbcTemplate.update("DELETE FROM kanjis_meanings WHERE kanji_id IN (7, 8)");
+        assertThat(repository.findByMeaningToken("river"), hasSize(0));
 
-        String riverRegex = "(^|.*/)" + meaning + "(/.*$|$)";
-        Kanji river1 = repository.findByKanji(kanji1).get();
-        Kanji river2 = repository.findByKanji(kanji2).get();
+        assertThat(repository.backfillMeaningTokens(), equalTo(2));
 
-        List<Kanji> riverKanjis = repository.findByMeaningRegex(riverRegex);
-
-        assertThat(riverKanjis, hasSize(2));
-        assertThat(riverKanjis, containsInAnyOrder(river1, river2));
+        assertThat(repository.findByMeaningToken("river"), hasSize(2));
+        assertThat(repository.backfillMeaningTokens(), equalTo(0));
     }
 
     @Test
@@ -162,12 +160,39 @@ public class KanjiRepositoryTests {
     @DisplayName("Assert that find by meaning doesn't return partial-word meaning")
     void successfullyFindFullWordMeanings(){
         Kanji cutOff = repository.findByKanji("絶").get();
-        List<Kanji> cutKanjis = repository.findByMeaningRegex("(^|.*/)Cut(/.*$|$)");
+        List<Kanji> cutKanjis = repository.findByMeaningToken("cut");
 
         assertThat(cutKanjis, hasSize(1));
         assertThat(cutKanjis, not(containsInAnyOrder(cutOff)));
     }
 
+    @ParameterizedTest
+    @MethodSource("sameMeaningKanjis")
+    @Sql({"/japaneseDB-kanji-data-insertion.sql"})
+    @DisplayName("Find kanji object by a meaning token")
+    void successfullyFindKanjiListByMeaningToken(List<String> kanjisAndMeaning){
+        Kanji kanji1 = repository.findByKanji(kanjisAndMeaning.get(0)).get();
+        Kanji kanji2 = repository.findByKanji(kanjisAndMeaning.get(1)).get();
+
+        List<Kanji> kanjis = repository.findByMeaningToken(kanjisAndMeaning.get(2).toLowerCase());
+
+        assertThat(kanjis, hasSize(2));
+        assertThat(kanjis, containsInAnyOrder(kanji1, kanji2));
+    }
+
+    @Test
+    @DisplayName("Meaning tokens of a new kanji are searchable")
+    void successfullySearchSavedKanjiByMeaningToken(){
+        Kanji kanji = repository.saveAndFlush(
+                            new Kanji()
+                                .setKanji("性")
+                                .setMeaning("Personality/Gender")
+                      );
+
+        assertThat(repository.findByMeaningToken("gender"), containsInAnyOrder(kanji));
+        assertThat(repository.findByMeaningToken("personality/gender"), hasSize(0));
+    }
+
     @ParameterizedTest
     @MethodSource("allKanjisAdded")
     @Sql({"/japaneseDB-kanji-data-insertion.sql"})
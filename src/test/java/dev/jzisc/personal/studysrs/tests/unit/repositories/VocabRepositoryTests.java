@@ -8,6 +8,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.util.Arrays;
@@ -17,6 +18,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.core.AnyOf.anyOf;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -30,6 +32,9 @@ public class VocabRepositoryTests {
     @Autowired
     private VocabRepository repository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("Vocabulary repository autowired successfully")
     void successfullyAutowiredRepo(){
@@ -114,23 +119,52 @@ public class VocabRepositoryTests {
 
     @Test
     @Sql({"/japaneseDB-vocab-data-insertion.sql"})
-    @DisplayName("Find a list of words with the same meaning")
-    void successfullyFindWordsByMeaning(){
-        String regexPrefix = "(^|.*/)";
-        String regexSuffix = "(/.*$|$)";
-        String day = regexPrefix + "Day" + regexSuffix;
-        String one = regexPrefix + "One" + regexSuffix;
-        String round = regexPrefix + "Round" + regexSuffix;
-
-        List<Word> words = repository.findByMeaningRegex(day);
+    @DisplayName("Find the words by reading once their reading keys are backfilled")
+    void successfullyBackfillReadingKeys(){
+        int emptied = jdbcTemplate.update("UPDATE vocabulary SET reading_key = ''");
+        assertThat(repository.findByReadingKey("いちにち"), hasSize(0));
+
+        assertThat(repository.backfillReadingKeys(), equalTo(emptied));
+        assertThat(repository.backfillReadingKeys(), equalTo(0));
+
+        List<Word> words = repository.findByReadingKey("いちにち");
+        assertThat(words, hasSize(1));
+        assertThat(words.get(0), hasProperty("reading", equalTo("イチニチ")));
+    }
+
+    @Test
+    @Sql({"/japaneseDB-vocab-data-insertion.sql"})
+    @DisplayName("Find the words by kanji once their kanjis are backfilled")
+    void successfullyBackfillKanjis(){
+        int postings = jdbcTemplate.update("DELETE FROM vocabulary_kanjis");
+        assertThat(postings, greaterThan(0));
+
+        assertThat(repository.backfillKanjis(), equalTo(postings));
+        assertThat(repository.backfillKanjis(), equalTo(0));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM vocabulary_kanjis WHERE code_point = ?", Integer.class, "一".codePointAt(0)),
+                greaterThan(0));
+    }
+
+    @Test
+    @Sql({"/japaneseDB-vocab-data-insertion.sql"})
+    @DisplayName("Find the words with the same meaning once their meaning tokens are backfilled")
+    void successfullyBackfillMeaningTokens(){
+        jdbcTemplate.update("DELETE FROM vocabulary_meanings");
+        assertThat(repository.findByMeaningToken("day"), hasSize(0));
+
+        assertThat(repository.backfillMeaningTokens(), greaterThan(0));
+        assertThat(repository.backfillMeaningTokens(), equalTo(0));
+
+        List<Word> words = repository.findByMeaningToken("day");
         assertThat(words, hasSize(1));
         assertThat(words.get(0), hasProperty("word", equalTo("日")));
 
-        words = repository.findByMeaningRegex(one);
+        words = repository.findByMeaningToken("one");
         assertThat(words, hasSize(1));
         assertThat(words.get(0), hasProperty("word", equalTo("一")));
 
-        words = repository.findByMeaningRegex(round);
+        words = repository.findByMeaningToken("round");
         assertThat(words, hasSize(2));
         words.stream().forEach(
                 word -> assertThat(
@@ -146,6 +180,43 @@ public class VocabRepositoryTests {
         );
     }
 
+    @Test
+    @Sql({"/japaneseDB-vocab-data-insertion.sql"})
+    @DisplayName("Find a list of words by a case-insensitive meaning token")
+    void successfullyFindWordsByMeaningToken(){
+        List<Word> words = repository.findByMeaningToken("day");
+        assertThat(words, hasSize(1));
+        assertThat(words.get(0), hasProperty("word", equalTo("日")));
+
+        words = repository.findByMeaningToken("fast");
+        assertThat(words, hasSize(2));
+        assertThat(words.get(0), hasProperty("word", equalTo("早い")));
+        assertThat(words.get(1), hasProperty("word", equalTo("速い")));
+
+        assertThat(repository.findByMeaningToken("fas"), hasSize(0));
+    }
+
+    @Test
+    @DisplayName("Meaning tokens follow the word's meaning on save, update and delete")
+    void successfullySyncMeaningTokens(){
+        Word word = repository.saveAndFlush(
+                new Word()
+                    .setWord("早い")
+                    .setReading("はやい")
+                    .setMeaning("Early/Fast")
+        );
+        assertThat(repository.findByMeaningToken("early"), hasSize(1));
+
+        repository.saveAndFlush(word.setMeaning("Quick/Fast"));
+        assertThat(repository.findByMeaningToken("early"), hasSize(0));
+        assertThat(repository.findByMeaningToken("quick"), hasSize(1));
+        assertThat(countTokens(word.getWord_id()), equalTo(2));
+
+        repository.delete(word);
+        repository.flush();
+        assertThat(countTokens(word.getWord_id()), equalTo(0));
+    }
+
     @ParameterizedTest
     @MethodSource("allWordsAdded")
     @Sql({"/japaneseDB-vocab-data-insertion.sql"})
@@ -154,6 +225,11 @@ public class VocabRepositoryTests {
         assertTrue(repository.existsByWordAndReading(words.get(0), words.get(1)));
     }
 
+    private int countTokens(Integer wordId){
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM vocabulary_meanings WHERE word_id = ?", Integer.class, wordId);
+    }
+
     static List<String> wordsWithSameKanjisDifferentReadings(){
         return Arrays.asList("一日", "一月");
     }
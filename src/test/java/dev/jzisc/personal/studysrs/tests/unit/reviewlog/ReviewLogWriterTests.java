@@ -0,0 +1,159 @@
+package dev.jzisc.personal.studysrs.tests.unit.reviewlog;
+
+import dev.jzisc.personal.studysrs.dto.ReviewLogStatsDTO;
+import dev.jzisc.personal.studysrs.model.ReviewLogEntry;
+import dev.jzisc.personal.studysrs.repository.ReviewLogRepository;
+import dev.jzisc.personal.studysrs.reviewlog.Durability;
+import dev.jzisc.personal.studysrs.reviewlog.ReviewLogWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static dev.jzisc.personal.studysrs.model.CardType.WORD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Review Log Writer Unit Tests")
+class ReviewLogWriterTests {
+
+    ReviewLogRepository repository = mock(ReviewLogRepository.class);
+
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    ReviewLogWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null)
+            writer.stop();
+    }
+
+    @Test
+    @DisplayName("Successfully write every queued entry in batches no bigger than the batch size")
+    void asyncGroupCommits() throws Exception {
+        recordBatches(0);
+        writer = new ReviewLogWriter(repository, 2048, 100, 20, Durability.ASYNC);
+        writer.start();
+
+        for (int i = 0; i < 1000; i++)
+            writer.append(entry(i));
+        writer.stop();
+        ReviewLogStatsDTO stats = writer.getStats();
+
+        assertThat(stats.getWritten()).isEqualTo(1000);
+        assertThat(stats.getQueueDepth()).isZero();
+        assertThat(stats.getQueueCapacity()).isEqualTo(2048);
+        assertThat(batchSizes).allMatch( size -> size <= 100 );
+        assertThat(stats.getFlushes()).isEqualTo(batchSizes.size()).isLessThan(1000);
+    }
+
+    @Test
+    @DisplayName("Synchronous appends return once written and share commits")
+    void syncGroupCommits() throws Exception {
+        recordBatches(20);
+        writer = new ReviewLogWriter(repository, 256, 256, 20, Durability.SYNC);
+        writer.start();
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+
+        List<Future<?>> answers = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            int id = i;
+            answers.add(callers.submit( () -> writer.append(entry(id)) ));
+        }
+        for (Future<?> answer : answers)
+            answer.get();
+        callers.shutdown();
+        ReviewLogStatsDTO stats = writer.getStats();
+
+        assertThat(stats.getWritten()).isEqualTo(64);
+        assertThat(stats.getFlushes()).isLessThan(64);
+        assertThat(stats.getMaxFlushMillis()).isGreaterThanOrEqualTo(stats.getAverageFlushMillis()).isPositive();
+    }
+
+    @Test
+    @DisplayName("A synchronous append fails with its group commit")
+    void syncFailure() {
+        doThrow(new IllegalStateException("Database is gone")).when(repository).insertAll(anyList());
+        writer = new ReviewLogWriter(repository, 16, 16, 20, Durability.SYNC);
+        writer.start();
+
+        assertThatThrownBy( () -> writer.append(entry(1)) )
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Database is gone");
+        assertThat(writer.getStats().getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Asynchronous entries are queued when their transaction commits, never when it rolls back")
+    void asyncAfterCommit() throws Exception {
+        recordBatches(0);
+        writer = new ReviewLogWriter(repository, 16, 16, 20, Durability.ASYNC);
+        writer.start();
+
+        List<TransactionSynchronization> transactions = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                writer.append(entry(i));
+                transactions.addAll(TransactionSynchronizationManager.getSynchronizations());
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+        assertThat(writer.getStats().getAppended()).isZero();
+
+        transactions.get(0).afterCommit();
+        transactions.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        writer.stop();
+
+        assertThat(writer.getStats().getWritten()).isEqualTo(1);
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("Synchronous entries are written by the caller within its transaction")
+    void syncInTransaction() {
+        recordBatches(0);
+        writer = new ReviewLogWriter(repository, 16, 16, 20, Durability.SYNC);
+        writer.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.appendAll(Arrays.asList(entry(1), entry(2)));
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(batchSizes).containsExactly(2);
+        assertThat(writer.getStats().getWritten()).isEqualTo(2);
+        assertThat(writer.getStats().getFlushes()).isZero();
+    }
+
+    void recordBatches(long sleepMillis){
+        doAnswer( invocation -> {
+            batchSizes.add(invocation.<List<ReviewLogEntry>>getArgument(0).size());
+            Thread.sleep(sleepMillis);
+            return null;
+        }).when(repository).insertAll(anyList());
+    }
+
+    static ReviewLogEntry entry(int id){
+        Instant now = Instant.now();
+        return new ReviewLogEntry(WORD, id, 3, now, 1, now.plusSeconds(86400));
+    }
+
+}
@@ -0,0 +1,140 @@
+package dev.jzisc.personal.studysrs.tests.unit.scheduling;
+
+import dev.jzisc.personal.studysrs.scheduling.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static dev.jzisc.personal.studysrs.scheduling.SchedulingAlgorithm.DAY_MILLIS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Scheduling Algorithms Unit Tests")
+class SchedulingAlgorithmTests {
+
+    static final long START = 1_600_000_000_000L;
+
+    @Test
+    @DisplayName("SM-2 schedules 1, 6 and then ease times the interval")
+    void sm2Intervals(){
+        SchedulingAlgorithm sm2 = new Sm2Algorithm();
+        CardStates states = new CardStates(1);
+        int card = states.add(1);
+
+        sm2.review(states, card, 3, START);
+        sm2.review(states, card, 3, START + DAY_MILLIS);
+        sm2.review(states, card, 3, START + 7 * DAY_MILLIS);
+
+        assertThat(states.intervalDays[card]).isEqualTo(15);
+        assertThat(states.ease[card]).isEqualTo(2.5);
+        assertThat(states.dueAt[card]).isEqualTo(START + 22 * DAY_MILLIS);
+
+        sm2.review(states, card, 1, START + 22 * DAY_MILLIS);
+
+        assertThat(states.repetitions[card]).isZero();
+        assertThat(states.lapses[card]).isEqualTo(1);
+        assertThat(states.intervalDays[card]).isEqualTo(1);
+        assertThat(states.ease[card]).isEqualTo(2.3);
+    }
+
+    @Test
+    @DisplayName("SM-2 applies a changed interval modifier on recompute")
+    void sm2Recompute(){
+        CardStates states = new CardStates(2);
+        int reviewed = states.add(1);
+        int fresh = states.add(2);
+        states.intervalDays[reviewed] = 10;
+        states.ease[reviewed] = 2.5;
+        states.reviewedAt[reviewed] = START;
+
+        new Sm2Algorithm(new double[]{ 2.5, 1.3, 0.2, 1.5, 36500 }).recompute(states, reviewed);
+        new Sm2Algorithm().recompute(states, fresh);
+
+        assertThat(states.intervalDays[reviewed]).isEqualTo(10);
+        assertThat(states.dueAt[reviewed]).isEqualTo(START + 15 * DAY_MILLIS);
+        assertThat(states.dueAt[fresh]).isZero();
+    }
+
+    @Test
+    @DisplayName("FSRS starts from the grade's initial stability and grows it on recall")
+    void fsrsReviews(){
+        SchedulingAlgorithm fsrs = new FsrsAlgorithm();
+        CardStates states = new CardStates(1);
+        int card = states.add(1);
+
+        fsrs.review(states, card, 3, START);
+
+        assertThat(states.stability[card]).isEqualTo(FsrsAlgorithm.DEFAULT_PARAMETERS[2]);
+        assertThat(states.intervalDays[card]).isEqualTo(4);
+        assertThat(states.difficulty[card]).isBetween(1.0, 10.0);
+
+        double stability = states.stability[card];
+        fsrs.review(states, card, 3, states.dueAt[card]);
+
+        assertThat(states.stability[card]).isGreaterThan(stability);
+        assertThat(states.repetitions[card]).isEqualTo(2);
+
+        stability = states.stability[card];
+        fsrs.review(states, card, 1, states.dueAt[card]);
+
+        assertThat(states.stability[card]).isLessThan(stability);
+        assertThat(states.lapses[card]).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("FSRS shortens intervals for a higher desired retention and adopts SM-2 cards")
+    void fsrsRecompute(){
+        double[] parameters = Arrays.copyOf(FsrsAlgorithm.DEFAULT_PARAMETERS, FsrsAlgorithm.DEFAULT_PARAMETERS.length);
+        parameters[17] = 0.95;
+        CardStates states = new CardStates(2);
+        int fsrsCard = states.add(1);
+        states.stability[fsrsCard] = 20;
+        states.difficulty[fsrsCard] = 5;
+        states.reviewedAt[fsrsCard] = START;
+        int sm2Card = states.add(2);
+        states.intervalDays[sm2Card] = 30;
+        states.ease[sm2Card] = 2.5;
+        states.reviewedAt[sm2Card] = START;
+
+        new FsrsAlgorithm(parameters).recompute(states, fsrsCard);
+        new FsrsAlgorithm().recompute(states, sm2Card);
+
+        assertThat(states.intervalDays[fsrsCard]).isEqualTo(9);
+        assertThat(states.stability[sm2Card]).isEqualTo(30);
+        assertThat(states.dueAt[sm2Card]).isEqualTo(START + 30 * DAY_MILLIS);
+    }
+
+    @Test
+    @DisplayName("The fork-join recompute matches a sequential pass")
+    void parallelRecompute(){
+        SchedulingAlgorithm fsrs = new FsrsAlgorithm();
+        Random random = new Random(7);
+        CardStates parallel = new CardStates(100_000), sequential = new CardStates(100_000);
+        for (int i = 0; i < parallel.capacity(); i++) {
+            for (CardStates states : Arrays.asList(parallel, sequential)) {
+                int card = states.add(i + 1);
+                states.intervalDays[card] = 1 + (i % 300);
+                states.reviewedAt[card] = i % 10 == 0 ? 0 : START + i;
+            }
+            parallel.stability[i] = sequential.stability[i] = i % 3 == 0 ? 0 : random.nextDouble() * 100;
+        }
+
+        Scheduler.recompute(fsrs, parallel);
+        for (int i = 0; i < sequential.size(); i++)
+            fsrs.recompute(sequential, i);
+
+        assertThat(parallel.dueAt).isEqualTo(sequential.dueAt);
+        assertThat(parallel.intervalDays).isEqualTo(sequential.intervalDays);
+    }
+
+    @Test
+    @DisplayName("Reject unknown algorithms and invalid parameters")
+    void rejectInvalidAlgorithms(){
+        assertThat(Scheduler.create("FSRS", null)).isInstanceOf(FsrsAlgorithm.class);
+        assertThatThrownBy( () -> Scheduler.create("leitner", null) ).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy( () -> Scheduler.create("sm2", new double[]{ 2.5 }) ).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
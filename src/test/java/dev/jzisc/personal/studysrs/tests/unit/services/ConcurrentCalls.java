@@ -0,0 +1,69 @@
+package dev.jzisc.personal.studysrs.tests.unit.services;
+
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.CacheStatsDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Makes the same call from several threads at once, for the request coalescing tests.
+ */
+class ConcurrentCalls {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private ConcurrentCalls(){}
+
+    /**
+     * Starts every caller at once, once all of them are ready.
+     */
+    static <T> List<T> run(int callers, Supplier<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch ready = new CountDownLatch(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++)
+                futures.add(executor.submit( () -> {
+                    ready.countDown();
+                    start.await();
+                    return call.get();
+                }));
+            ready.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures)
+                results.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A stubbed query: it only returns once the other callers joined it, the coalesced count of the
+     * cache went up by {@code joiners}, so none of them can come late and run its own.
+     */
+    static <T> T joinedQuery(LookupCaches caches, String cache, int joiners, T result){
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (coalesced(caches, cache) < joiners) {
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException("Only " + coalesced(caches, cache) + " of " + joiners + " callers joined the query");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return result;
+    }
+
+    static long coalesced(LookupCaches caches, String cache){
+        return caches.stats().stream()
+                .filter( stats -> stats.getName().equals(cache) )
+                .mapToLong(CacheStatsDTO::getCoalesced)
+                .findFirst()
+                .orElseThrow( () -> new IllegalArgumentException("No stats for " + cache) );
+    }
+
+}
@@ -1,16 +1,27 @@
 package dev.jzisc.personal.studysrs.tests.unit.services;
 
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
 import dev.jzisc.personal.studysrs.dto.KanjiDTO;
+import dev.jzisc.personal.studysrs.event.KanjiChangedEvent;
+import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
+import dev.jzisc.personal.studysrs.index.KanjiMeaningIndexStore;
+import dev.jzisc.personal.studysrs.index.KanjiSnapshotStore;
 import dev.jzisc.personal.studysrs.model.Kanji;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
 import dev.jzisc.personal.studysrs.repository.KanjiRepository;
 import dev.jzisc.personal.studysrs.service.KanjiService;
 import dev.jzisc.personal.studysrs.service.KanjiServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Example;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -18,7 +29,10 @@ import java.util.stream.Collectors;
 
 import static dev.jzisc.personal.studysrs.dto.mapper.KanjiMapper.toKanjiDTO;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @DisplayName("Kanji Service Unit Tests")
@@ -28,10 +42,18 @@ public class KanjiServiceTests {
 
     private KanjiService service;
 
+    private LookupCaches caches;
+
+    private ApplicationEventPublisher publisher;
+
     @BeforeEach
     void setUp(){
         repository = mock(KanjiRepository.class);
-        service = new KanjiServiceImpl(repository);
+        publisher = mock(ApplicationEventPublisher.class);
+        caches = new LookupCaches(false, 1, 1, true);
+        service = new KanjiServiceImpl(repository, mock(KanjiSnapshotStore.class), mock(KanjiMeaningIndexStore.class),
+                caches, mock(DataVersionRepository.class),
+                mock(ChangeLogRepository.class), publisher);
     }
 
     @ParameterizedTest
@@ -64,20 +86,101 @@ public class KanjiServiceTests {
     void successfullyGetKanjiListWithTheSameMeaning(List<Kanji> kanjis){
         List<KanjiDTO> expectedDTOs = kanjis.stream().map( kanji -> toKanjiDTO(kanji) ).collect(Collectors.toList());
         String meaning = kanjis.get(1).getMeaning();
-        String regexMeaning = "(^|.*/)" + meaning + "(/.*$|$)";
-        when(repository.findByMeaningRegex(regexMeaning)).thenReturn(kanjis);
+        when(repository.findByMeaningToken(meaning.toLowerCase())).thenReturn(kanjis);
 
         List<KanjiDTO> result = service.getKanjiListByMeaning(meaning);
 
         assertThat(result).hasSize(2).containsSubsequence(expectedDTOs);
     }
 
+    @Test
+    @DisplayName("Concurrent identical meaning searches share one query")
+    void coalesceConcurrentMeaningSearches() throws Exception {
+        int callers = 16;
+        List<Kanji> rivers = Arrays.asList(
+                new Kanji().setKanji_id((short) 7).setKanji("川").setMeaning("River"),
+                new Kanji().setKanji_id((short) 8).setKanji("河").setMeaning("River"));
+        when(repository.findByMeaningToken("river"))
+                .thenAnswer( invocation -> ConcurrentCalls.joinedQuery(caches, LookupCaches.KANJIS_BY_MEANING, callers - 1, rivers) );
+
+        List<List<KanjiDTO>> results = ConcurrentCalls.run(callers, () -> service.getKanjiListByMeaning("River"));
+
+        verify(repository, times(1)).findByMeaningToken("river");
+        List<KanjiDTO> expected = rivers.stream().map( kanji -> toKanjiDTO(kanji) ).collect(Collectors.toList());
+        assertThat(results).hasSize(callers).allSatisfy( result -> assertThat(result).isEqualTo(expected) );
+        //Every caller gets its own copy
+        assertThat(results.stream().distinct().count()).isEqualTo(1);
+        assertThat(results.stream().map(System::identityHashCode).distinct().count()).isEqualTo(callers);
+
+        service.getKanjiListByMeaning("River");
+        verify(repository, times(2)).findByMeaningToken("river");
+    }
+
+    @Test
+    @DisplayName("Resolve the confusion characters of a new kanji with one query, leaving the unsaved ones out")
+    void resolveConfusionCharacters(){
+        doReturn(Arrays.asList((short) 7, (short) 8)).when(repository).findIdsByKanjiIn(Arrays.asList("川", "河", "無"));
+        doAnswer( invocation -> Optional.of(invocation.getArgument(0, Kanji.class).setKanji_id((short) 20).getKanji_id()) )
+                .when(repository).insertIfAbsent(any());
+
+        KanjiDTO saved = service.saveNewKanji("州", "State", "川", "河", "無");
+
+        assertThat(saved.getConfusions()).containsExactlyInAnyOrder((short) 7, (short) 8);
+        verify(repository).findIdsByKanjiIn(anyList());
+        verify(repository, never()).existsByKanji(any());
+        verify(repository, never()).findByKanji(any());
+    }
+
+    @Test
+    @DisplayName("Rejecting a duplicate kanji is left to its insert")
+    void saveDuplicateKanjiWithConfusions(){
+        doReturn(Optional.empty()).when(repository).insertIfAbsent(any());
+
+        assertThatThrownBy( () -> service.saveNewKanji("川", "River", "河") ).isInstanceOf(DuplicatedDataException.class);
+        verify(repository, never()).existsByKanji(any());
+    }
+
+    @Test
+    @DisplayName("Count the kanjis the insert skips, saved meanwhile or by another instance, as skipped")
+    void skipKanjisSavedElsewhere(){
+        mockInsertAll("森");
+
+        BulkResultDTO result = service.saveNewKanjis(Arrays.asList(
+                new KanjiDTO().setKanji("山").setMeaning("Mountain"),
+                new KanjiDTO().setKanji("森").setMeaning("Forest")));
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(1).setSkipped(1));
+        verify(publisher).publishEvent(argThat( (KanjiChangedEvent event) -> event.getKanjis().size() == 1 ));
+    }
+
+    /**
+     * Gives ids to the kanjis inserted, the skipped ones being saved already.
+     */
+    private void mockInsertAll(String... skipped){
+        doAnswer( invocation -> {
+            List<Kanji> kanjis = invocation.getArgument(0);
+            List<Kanji> inserted = new ArrayList<>();
+            short id = 100;
+            for (Kanji kanji : kanjis)
+                if (!Arrays.asList(skipped).contains(kanji.getKanji()))
+                    inserted.add(kanji.setKanji_id(id++));
+            BulkResultDTO result = invocation.getArgument(1);
+            result.setInserted(result.getInserted() + inserted.size())
+                    .setSkipped(result.getSkipped() + kanjis.size() - inserted.size());
+            return inserted;
+        }).when(repository).insertAll(anyList(), any());
+    }
+
+    private void mockInsert(Kanji toSave, Kanji saved){
+        doAnswer( invocation -> Optional.of(invocation.getArgument(0, Kanji.class).setKanji_id(saved.getKanji_id()).getKanji_id()) )
+                .when(repository).insertIfAbsent(argThat( kanji -> kanji.getKanji().equals(toSave.getKanji()) ));
+    }
+
     @ParameterizedTest
     @MethodSource("getAllData")
     @DisplayName("Successfully save a new Kanji with its DTO definition")
     void successfullySaveANewKanji(Kanji kanji){
-        when(repository.existsByKanji(any(String.class))).thenReturn(false);
-        when(repository.save(kanji)).thenReturn(kanji);
+        mockInsert(kanji, kanji);
 
         KanjiDTO expected = toKanjiDTO(kanji);
         KanjiDTO result = service.saveNewKanji(expected);
@@ -94,12 +197,9 @@ public class KanjiServiceTests {
         List<Kanji> confusedKanjis = kanjis.subList(1, 1);
         String[] confusedKanjisStr = confusedKanjis.stream().map(k -> k.getKanji()).toArray(String[]::new);
 
-        confusedKanjis.forEach(kanji -> {
-            when(repository.existsByKanji(kanji.getKanji())).thenReturn(true);
-            when(repository.findByKanji(kanji.getKanji())).thenReturn(Optional.of(kanji));
-        });
-        when(repository.existsByKanji(toSave.getKanji())).thenReturn(false);
-        when(repository.save(toSave)).thenReturn(toSave);
+        doReturn(confusedKanjis.stream().map(Kanji::getKanji_id).collect(Collectors.toList()))
+                .when(repository).findIdsByKanjiIn(anyList());
+        mockInsert(toSave, toSave);
 
         KanjiDTO result = service.saveNewKanji(toKanjiDTO(toSave), confusedKanjisStr);
 
@@ -113,8 +213,7 @@ public class KanjiServiceTests {
         KanjiDTO expected = toKanjiDTO(kanji);
         Kanji toSave = new Kanji().setKanji(kanji.getKanji()).setMeaning(kanji.getMeaning());
 
-        when(repository.existsByKanji(any(String.class))).thenReturn(false);
-        when(repository.save(toSave)).thenReturn(kanji);
+        mockInsert(toSave, kanji);
 
         KanjiDTO result = service.saveNewKanji(kanji.getKanji(), kanji.getMeaning());
 
@@ -131,12 +230,9 @@ public class KanjiServiceTests {
         String[] confusedKanjisStr = new String[confusedKanjis.size()];
         confusedKanjis.toArray(confusedKanjisStr);
 
-        confusedKanjis.forEach(kanji -> {
-            when(repository.existsByKanji(kanji.getKanji())).thenReturn(true);
-            when(repository.findByKanji(kanji.getKanji())).thenReturn(Optional.of(kanji));
-        });
-        when(repository.existsByKanji(toSave.getKanji())).thenReturn(false);
-        when(repository.save(toSave)).thenReturn(savedResult);
+        doReturn(confusedKanjis.stream().map(Kanji::getKanji_id).collect(Collectors.toList()))
+                .when(repository).findIdsByKanjiIn(anyList());
+        mockInsert(toSave, savedResult);
 
         KanjiDTO result = service.saveNewKanji(toSave.getKanji(), toSave.getMeaning(), confusedKanjisStr);
         assertThat(result).isEqualTo(toKanjiDTO(savedResult));
@@ -152,13 +248,33 @@ public class KanjiServiceTests {
 
         for (short conf : confusedKanjis)
             when(repository.existsById(conf)).thenReturn(true);
-        when(repository.existsById(null)).thenReturn(false);
-        when(repository.save(toSave)).thenReturn(savedResult);
+        mockInsert(toSave, savedResult);
 
         KanjiDTO result = service.saveNewKanji(toSave.getKanji(), toSave.getMeaning(), confusedKanjis);
         assertThat(result).isEqualTo(toKanjiDTO(savedResult));
     }
 
+    @Test
+    @DisplayName("Successfully save a list of kanjis skipping duplicates and rejecting invalid ones")
+    void successfullySaveNewKanjis(){
+        List<KanjiDTO> kanjis = Arrays.asList(
+                new KanjiDTO().setKanji("牲").setMeaning("Sacrifice"),
+                new KanjiDTO().setKanji("性").setMeaning("Personality/Gender").setConfusions(Arrays.asList((short) 1)),
+                new KanjiDTO().setKanji("性").setMeaning("Gender"),
+                new KanjiDTO().setKanji("川川").setMeaning("River"),
+                new KanjiDTO().setKanji("河")
+        );
+        mockInsertAll("牲");
+
+        BulkResultDTO result = service.saveNewKanjis(kanjis);
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(1).setSkipped(2).setRejected(2));
+        verify(repository).insertAll(argThat( toSave -> toSave.size() == 2
+                && toSave.get(1).getKanji().equals("性")
+                && toSave.get(1).getConfusions().size() == 1 ), any());
+        verify(publisher).publishEvent(any(KanjiChangedEvent.class));
+    }
+
     @ParameterizedTest
     @MethodSource("getAllData")
     @DisplayName("Successfully update a new kanji")
@@ -169,14 +285,19 @@ public class KanjiServiceTests {
                 .setMeaning(kanji.getMeaning())
                 .setConfusions(kanji.getConfusions());
         updated.setMeaning("Meaning example");
-        when(repository.existsById(updated.getKanji_id())).thenReturn(true);
-        when(repository.save(updated)).thenReturn(updated);
+        when(repository.updateById(updated.getKanji_id(), updated.getKanji(), updated.getMeaning())).thenReturn(1);
 
         KanjiDTO toUpdate = toKanjiDTO(updated);
 
         KanjiDTO result = service.updateKanji(toUpdate);
 
         assertThat(result).isEqualTo(toKanjiDTO(updated));
+        verify(repository).deleteMeaningTokens(updated.getKanji_id());
+        verify(repository).deleteConfusions(updated.getKanji_id());
+        verify(repository).insertDetails(argThat( saved -> saved.getKanji_id().equals(updated.getKanji_id())
+                && saved.getMeaning().equals("Meaning example") ), anyList());
+        verify(repository, never()).existsById(any());
+        verify(repository, never()).save(any());
     }
 
     @ParameterizedTest
@@ -184,35 +305,33 @@ public class KanjiServiceTests {
     @DisplayName("Successfully delete a kanji by its id")
     void successfullyDeleteAnExistingKanjiById(Kanji kanji){
         short id = kanji.getKanji_id();
-        doReturn(true).when(repository).existsById(id);
         doReturn(Optional.of(kanji)).when(repository).findById(id);
         doAnswer(
                 invocation -> {
-                    doReturn(false).when(repository).existsById(id);
                     doReturn(Optional.empty()).when(repository).findById(id);
-                    return null;
+                    return 1;
                 }
-        ).when(repository).delete(kanji);
+        ).when(repository).removeById(id);
 
         KanjiDTO expected = toKanjiDTO(kanji);
         KanjiDTO result = service.deleteKanjiById(id);
 
         assertThat(result).isEqualTo(expected);
         assertThat(service.getKanjiById(id)).isEmpty();
+        verify(repository, never()).existsById(any());
     }
 
     @ParameterizedTest
     @MethodSource("getAllData")
     @DisplayName("Successfully delete a kanji")
     void successfullyDeleteAnExistingKanji(Kanji kanji){
-        doReturn(true).when(repository).exists(Example.of(kanji));
+        doReturn(true).when(repository).exists(argThat( example -> example.getProbe().equals(kanji) ));
         doAnswer(
                 invocation -> {
-                    doReturn(false).when(repository).exists(Example.of(kanji));
                     doReturn(Optional.empty()).when(repository).findById(kanji.getKanji_id());
-                    return null;
+                    return 1;
                 }
-        ).when(repository).delete(kanji);
+        ).when(repository).removeById(kanji.getKanji_id());
 
         KanjiDTO toDelete = toKanjiDTO(kanji);
         KanjiDTO result = service.deleteKanji(toDelete);
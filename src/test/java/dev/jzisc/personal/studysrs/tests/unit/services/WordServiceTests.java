@@ -1,17 +1,27 @@
 package dev.jzisc.personal.studysrs.tests.unit.services;
 
+import dev.jzisc.personal.studysrs.cache.LookupCaches;
+import dev.jzisc.personal.studysrs.dto.BulkResultDTO;
 import dev.jzisc.personal.studysrs.dto.WordDTO;
 import dev.jzisc.personal.studysrs.dto.mapper.WordMapper;
+import dev.jzisc.personal.studysrs.exception.DuplicatedDataException;
+import dev.jzisc.personal.studysrs.index.VocabularyIndexStore;
 import dev.jzisc.personal.studysrs.model.Word;
+import dev.jzisc.personal.studysrs.repository.ChangeLogRepository;
+import dev.jzisc.personal.studysrs.repository.DataVersionRepository;
 import dev.jzisc.personal.studysrs.repository.VocabRepository;
 import dev.jzisc.personal.studysrs.service.WordService;
 import dev.jzisc.personal.studysrs.service.WordServiceImpl;
+import dev.jzisc.personal.studysrs.util.KanaFolding;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.data.domain.Example;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -19,6 +29,11 @@ import java.util.stream.Collectors;
 import static dev.jzisc.personal.studysrs.dto.mapper.WordMapper.*;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @DisplayName("Word Service Unit Tests")
@@ -31,14 +46,14 @@ class WordServiceTests {
     @BeforeEach
     void setUp(){
         repository = mock(VocabRepository.class);
-        service = new WordServiceImpl(repository);
+        service = new WordServiceImpl(repository, mock(VocabularyIndexStore.class), new LookupCaches(false, 1, 1, true),
+                mock(DataVersionRepository.class), mock(ChangeLogRepository.class));
     }
 
     @ParameterizedTest
     @MethodSource("getAllData")
     @DisplayName("Successfully return a WordDTO by its id")
     void getWordById(Word word) {
-        doReturn(true).when(repository).existsById(word.getWord_id());
         doReturn(Optional.of(word)).when(repository).findById(word.getWord_id());
 
         WordDTO expected = toWordDTO(word);
@@ -68,7 +83,7 @@ class WordServiceTests {
     @DisplayName("Successfully return a list of WordDTO that shares same reading")
     void getWordListByReading(List<Word> words) {
         String reading  = words.get(0).getReading();
-        doReturn(words).when(repository).findByReading(reading);
+        doReturn(words).when(repository).findByReadingKey(KanaFolding.fold(reading));
 
         List<WordDTO> expected = words.stream().map(WordMapper::toWordDTO).collect(Collectors.toList());
 
@@ -78,6 +93,44 @@ class WordServiceTests {
         assertThat(result).containsSubsequence(expected);
     }
 
+    @Test
+    @DisplayName("Concurrent identical reading lookups share one query")
+    void coalesceConcurrentReadingLookups() throws Exception {
+        int callers = 16;
+        //Enabled, the coalesced reading lookups are counted in the stats
+        LookupCaches caches = new LookupCaches(true, 100, 600, true);
+        service = new WordServiceImpl(repository, mock(VocabularyIndexStore.class), caches,
+                mock(DataVersionRepository.class), mock(ChangeLogRepository.class));
+        List<Word> words = asList(new Word().setWord_id(1).setWord("川").setReading("かわ").setMeaning("River"));
+        when(repository.findByReadingKey("かわ"))
+                .thenAnswer( invocation -> ConcurrentCalls.joinedQuery(caches, LookupCaches.WORDS_BY_READING, callers - 1, words) );
+
+        List<List<WordDTO>> results = ConcurrentCalls.run(callers, () -> service.getWordListByReading("カワ"));
+
+        verify(repository, times(1)).findByReadingKey("かわ");
+        assertThat(results).hasSize(callers)
+                .allSatisfy( result -> assertThat(result).containsExactly(toWordDTO(words.get(0))) );
+    }
+
+    @Test
+    @DisplayName("Look readings up by one key whatever their script or long vowel spelling")
+    void getWordListByFoldedReading() {
+        doReturn(new ArrayList<>()).when(repository).findByReadingKey(any());
+
+        service.getWordListByReading("コーヒー");
+        service.getWordListByReading("こうひい");
+        service.getWordListByReading("センセイ");
+        service.getWordListByReading("せんせー");
+        service.getWordListByReading("おかあさん");
+        service.getWordListByReading("ー");
+
+        verify(repository, times(2)).findByReadingKey("こーひー");
+        verify(repository, times(2)).findByReadingKey("せんせー");
+        verify(repository).findByReadingKey("おかーさん");
+        verify(repository).findByReadingKey("ー");
+        verify(repository, never()).findByReading(any());
+    }
+
     @ParameterizedTest
     @MethodSource("getSameMeaningData")
     @DisplayName("Successfully return a List of WordDTO that shares same meaning")
@@ -85,7 +138,7 @@ class WordServiceTests {
         String meaning = preWords.get(0).getMeaning();
         List<Word> words = preWords.subList(1, preWords.size() - 1);
 
-        doReturn(words).when(repository).findByMeaningRegex("(^|.*/)" + meaning + "(/.*$|$)");
+        doReturn(words).when(repository).findByMeaningToken(meaning.toLowerCase());
 
         List<WordDTO> expected = words.stream().map(WordMapper::toWordDTO).collect(Collectors.toList());
 
@@ -103,8 +156,8 @@ class WordServiceTests {
                             .setWord(word.getWord())
                             .setReading(word.getReading())
                             .setMeaning(word.getMeaning());
-        doReturn(false).when(repository).existsByWordAndReading(word.getWord(), word.getReading());
-        doReturn(word).when(repository).save(toSave);
+        doAnswer( invocation -> Optional.of(invocation.getArgument(0, Word.class).setWord_id(word.getWord_id()).getWord_id()) )
+                .when(repository).insertIfAbsent(toSave);
 
         WordDTO result = service.saveNewWord(toWordDTO(toSave));
 
@@ -112,6 +165,62 @@ class WordServiceTests {
         assertThat(result).isEqualTo(toWordDTO(word));
     }
 
+    @Test
+    @DisplayName("Successfully save a list of words skipping duplicates and rejecting invalid ones")
+    void saveNewWords() {
+        List<WordDTO> words = asList(
+                new WordDTO().setWord("一日").setReading("イチニチ").setMeaning("One day"),
+                new WordDTO().setWord("一日").setReading("ついたち").setMeaning("First day of month"),
+                new WordDTO().setWord("一日").setReading("ついたち").setMeaning("First day of month"),
+                new WordDTO().setWord("一月").setReading("イチガツ").setMeaning("January"),
+                new WordDTO().setWord("一月").setReading("ひとつき"),
+                null
+        );
+        mockInsertAll("イチニチ");
+
+        BulkResultDTO result = service.saveNewWords(words);
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(2).setSkipped(2).setRejected(2));
+        verify(repository).insertAll(argThat( toSave -> toSave.size() == 3
+                && toSave.get(1).getReading().equals("ついたち")
+                && toSave.get(2).getWord().equals("一月") ), any());
+        verify(repository, never()).existsByWordAndReading(any(), any());
+    }
+
+    @Test
+    @DisplayName("Count the pairs the insert skips, saved meanwhile or by another instance, as skipped")
+    void skipPairsSavedElsewhere() {
+        ChangeLogRepository changes = mock(ChangeLogRepository.class);
+        service = new WordServiceImpl(repository, mock(VocabularyIndexStore.class), new LookupCaches(false, 1, 1, true),
+                mock(DataVersionRepository.class), changes);
+        mockInsertAll("まるい");
+
+        BulkResultDTO result = service.saveNewWords(asList(
+                new WordDTO().setWord("丸い").setReading("まるい").setMeaning("Round"),
+                new WordDTO().setWord("一月").setReading("イチガツ").setMeaning("January")));
+
+        assertThat(result).isEqualTo(new BulkResultDTO().setInserted(1).setSkipped(1));
+        verify(changes).append(any(), eq(Collections.singletonList(100)), any());
+    }
+
+    /**
+     * Gives ids to the words inserted, the ones with a skipped reading being saved already.
+     */
+    private void mockInsertAll(String... skippedReadings){
+        doAnswer( invocation -> {
+            List<Word> words = invocation.getArgument(0);
+            List<Word> inserted = new ArrayList<>();
+            int id = 100;
+            for (Word word : words)
+                if (!asList(skippedReadings).contains(word.getReading()))
+                    inserted.add(word.setWord_id(id++));
+            BulkResultDTO result = invocation.getArgument(1);
+            result.setInserted(result.getInserted() + inserted.size())
+                    .setSkipped(result.getSkipped() + words.size() - inserted.size());
+            return inserted;
+        }).when(repository).insertAll(anyList(), any());
+    }
+
     @ParameterizedTest
     @MethodSource("getAllData")
     @DisplayName("Successfully return a WordDTO after updating an existing word")
@@ -122,14 +231,20 @@ class WordServiceTests {
                             .setReading(word.getReading())
                             .setMeaning(word.getMeaning());
         updated.setMeaning("Meaning example");
-        doReturn(true).when(repository).existsById(word.getWord_id());
-        doReturn(updated).when(repository).save(updated);
+        doReturn(1).when(repository)
+                .updateById(updated.getWord_id(), updated.getWord(), updated.getReading(),
+                        KanaFolding.fold(updated.getReading()), updated.getMeaning());
 
         WordDTO toUpdate = toWordDTO(updated);
 
         WordDTO result = service.updateWord(toUpdate);
 
         assertThat(result).isEqualTo(toWordDTO(updated));
+        verify(repository).deleteMeaningTokens(updated.getWord_id());
+        verify(repository).insertDetails(argThat( saved -> saved.getWord_id().equals(updated.getWord_id())
+                && saved.getWord().equals(updated.getWord()) && saved.getMeaning().equals(updated.getMeaning()) ));
+        verify(repository, never()).existsById(any());
+        verify(repository, never()).save(any());
     }
 
     @ParameterizedTest
@@ -138,15 +253,13 @@ class WordServiceTests {
     void deleteWordById(Word word) {
         int id = word.getWord_id();
 
-        doReturn(true).when(repository).existsById(id);
         doReturn(Optional.of(word)).when(repository).findById(id);
         doAnswer(
                 invocation -> {
-                    doReturn(false).when(repository).existsById(id);
                     doReturn(Optional.empty()).when(repository).findById(id);
-                    return null;
+                    return 1;
                 }
-        ).when(repository).delete(word);
+        ).when(repository).removeById(id);
 
         WordDTO expected = toWordDTO(word);
 
@@ -154,20 +267,20 @@ class WordServiceTests {
 
         assertThat(result).isEqualTo(expected);
         assertThat(service.getWordById(id)).isEmpty();
+        verify(repository, never()).existsById(any());
     }
 
     @ParameterizedTest
     @MethodSource("getAllData")
     @DisplayName("Successfully delete an existing word and return its DTO")
     void deleteWord(Word word) {
-        doReturn(true).when(repository).exists(Example.of(word));
+        doReturn(true).when(repository).exists(argThat( example -> example.getProbe().equals(word) ));
         doAnswer(
                 invocation -> {
-                    doReturn(false).when(repository).exists(Example.of(word));
                     doReturn(Optional.empty()).when(repository).findById(word.getWord_id());
-                    return null;
+                    return 1;
                 }
-        ).when(repository).delete(word);
+        ).when(repository).removeById(word.getWord_id());
 
         WordDTO toDelete = toWordDTO(word);
         WordDTO result = service.deleteWord(toDelete);
@@ -1,5 +1,16 @@
+DROP TABLE IF EXISTS data_versions;
+DROP TABLE IF EXISTS change_log;
+DROP TABLE IF EXISTS review_events;
+DROP TABLE IF EXISTS review_log;
+DROP TABLE IF EXISTS vocabulary_reviews;
+DROP TABLE IF EXISTS kanjis_reviews;
+DROP TABLE IF EXISTS kanjis_meanings;
+DROP TABLE IF EXISTS vocabulary_meanings;
+DROP TABLE IF EXISTS vocabulary_kanjis;
 DROP TABLE IF EXISTS kanjis_confusions;
 DROP TABLE IF EXISTS kanjis;
 DROP TABLE IF EXISTS vocabulary;
 DROP SEQUENCE IF EXISTS kanjis_kanji_id_seq;
 DROP SEQUENCE IF EXISTS vocabulary_word_id_seq;
+DROP SEQUENCE IF EXISTS review_log_log_id_seq;
+DROP SEQUENCE IF EXISTS change_log_change_id_seq;
\ No newline at end of file
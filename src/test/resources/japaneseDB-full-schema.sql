@@ -4,9 +4,13 @@ CREATE SEQUENCE IF NOT EXISTS vocabulary_word_id_seq;
 CREATE TABLE IF NOT EXISTS kanjis(
 	kanji_id SMALLINT DEFAULT kanjis_kanji_id_seq.nextval PRIMARY KEY,
 	kanji CHAR(1) NOT NULL UNIQUE,
-	meaning VARCHAR(50) NOT NULL
+	meaning VARCHAR(50) NOT NULL,
+	version INTEGER DEFAULT 0 NOT NULL,
+	reviewed BOOLEAN DEFAULT FALSE NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS kanjis_new_idx ON kanjis(reviewed, kanji_id);
+
 CREATE TABLE IF NOT EXISTS 	kanjis_confusions(
 	kanji_id SMALLINT NOT NULL,
 	confusion_id SMALLINT NOT NULL,
@@ -18,10 +22,117 @@ CREATE TABLE IF NOT EXISTS 	kanjis_confusions(
 	CONSTRAINT chk_confusion_prior CHECK (kanji_id > confusion_id)
 );
 
+CREATE TABLE IF NOT EXISTS kanjis_meanings(
+	kanji_id SMALLINT NOT NULL,
+	token VARCHAR(50) NOT NULL,
+	CONSTRAINT fk_meaning_kanji_id FOREIGN KEY (kanji_id)
+		REFERENCES kanjis(kanji_id) ON DELETE CASCADE,
+	PRIMARY KEY (kanji_id, token)
+);
+
+CREATE INDEX IF NOT EXISTS kanjis_meanings_token_idx ON kanjis_meanings(token, kanji_id);
+
 CREATE TABLE IF NOT EXISTS vocabulary(
 	word_id INTEGER DEFAULT vocabulary_word_id_seq.nextval PRIMARY KEY,
 	word VARCHAR(30) NOT NULL,
 	reading VARCHAR(50) NOT NULL,
+	reading_key VARCHAR(50) NOT NULL,
 	meaning VARCHAR(255) NOT NULL,
+	version INTEGER DEFAULT 0 NOT NULL,
+	reviewed BOOLEAN DEFAULT FALSE NOT NULL,
 	UNIQUE (word, reading)
 );
+
+CREATE INDEX IF NOT EXISTS vocabulary_new_idx ON vocabulary(reviewed, word_id);
+
+CREATE TABLE IF NOT EXISTS vocabulary_meanings(
+	word_id INTEGER NOT NULL,
+	token VARCHAR(255) NOT NULL,
+	CONSTRAINT fk_meaning_word_id FOREIGN KEY (word_id)
+		REFERENCES vocabulary(word_id) ON DELETE CASCADE,
+	PRIMARY KEY (word_id, token)
+);
+
+CREATE TABLE IF NOT EXISTS vocabulary_kanjis(
+	word_id INTEGER NOT NULL,
+	code_point INTEGER NOT NULL,
+	CONSTRAINT fk_kanji_word_id FOREIGN KEY (word_id)
+		REFERENCES vocabulary(word_id) ON DELETE CASCADE,
+	PRIMARY KEY (code_point, word_id)
+);
+
+CREATE INDEX IF NOT EXISTS vocabulary_meanings_token_idx ON vocabulary_meanings(token, word_id);
+CREATE INDEX IF NOT EXISTS vocabulary_reading_idx ON vocabulary(reading, word_id);
+CREATE INDEX IF NOT EXISTS vocabulary_reading_key_idx ON vocabulary(reading_key, word_id);
+
+CREATE TABLE IF NOT EXISTS vocabulary_reviews(
+	word_id INTEGER PRIMARY KEY,
+	interval_days INTEGER NOT NULL,
+	ease REAL NOT NULL,
+	stability REAL NOT NULL,
+	difficulty REAL NOT NULL,
+	repetitions INTEGER NOT NULL,
+	lapses INTEGER NOT NULL,
+	due_at TIMESTAMP NOT NULL,
+	reviewed_at TIMESTAMP NOT NULL,
+	CONSTRAINT fk_review_word_id FOREIGN KEY (word_id)
+		REFERENCES vocabulary(word_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS vocabulary_reviews_due_idx ON vocabulary_reviews(due_at, word_id);
+
+CREATE TABLE IF NOT EXISTS kanjis_reviews(
+	kanji_id SMALLINT PRIMARY KEY,
+	interval_days INTEGER NOT NULL,
+	ease REAL NOT NULL,
+	stability REAL NOT NULL,
+	difficulty REAL NOT NULL,
+	repetitions INTEGER NOT NULL,
+	lapses INTEGER NOT NULL,
+	due_at TIMESTAMP NOT NULL,
+	reviewed_at TIMESTAMP NOT NULL,
+	CONSTRAINT fk_review_kanji_id FOREIGN KEY (kanji_id)
+		REFERENCES kanjis(kanji_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS kanjis_reviews_due_idx ON kanjis_reviews(due_at, kanji_id);
+
+CREATE SEQUENCE IF NOT EXISTS review_log_log_id_seq;
+
+CREATE TABLE IF NOT EXISTS review_log(
+	log_id BIGINT DEFAULT review_log_log_id_seq.nextval PRIMARY KEY,
+	card_type VARCHAR(5) NOT NULL,
+	card_id INTEGER NOT NULL,
+	grade SMALLINT NOT NULL,
+	reviewed_at TIMESTAMP NOT NULL,
+	interval_days INTEGER NOT NULL,
+	due_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS review_log_card_idx ON review_log(card_type, card_id);
+
+CREATE TABLE IF NOT EXISTS review_events(
+	event_id VARCHAR(64) PRIMARY KEY,
+	applied_at TIMESTAMP NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS change_log_change_id_seq;
+
+CREATE TABLE IF NOT EXISTS change_log(
+	change_id BIGINT DEFAULT change_log_change_id_seq.nextval PRIMARY KEY,
+	entity_type VARCHAR(5) NOT NULL,
+	entity_id INTEGER NOT NULL,
+	change_type VARCHAR(7) NOT NULL,
+	changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS change_log_entity_idx ON change_log(entity_type, entity_id);
+
+CREATE TABLE IF NOT EXISTS data_versions(
+	table_name VARCHAR(30) PRIMARY KEY,
+	version BIGINT NOT NULL
+);
+
+INSERT INTO data_versions(table_name, version) VALUES ('kanjis', 0);
+INSERT INTO data_versions(table_name, version) VALUES ('vocabulary', 0);
+INSERT INTO data_versions(table_name, version) VALUES ('change_log', 0);
\ No newline at end of file
@@ -1,20 +1,40 @@
-INSERT INTO kanjis VALUES (1, '牲', 'Sacrifice');
-INSERT INTO kanjis VALUES (2, '性', 'Personality/Gender');
-INSERT INTO kanjis VALUES (3, '員', 'Member');
-INSERT INTO kanjis VALUES (4, '買', 'Buy');
-INSERT INTO kanjis VALUES (5, '順', 'Sequence/Obey');
-INSERT INTO kanjis VALUES (6, '訓', 'Instruction');
-INSERT INTO kanjis VALUES (7, '川', 'River');
-INSERT INTO kanjis VALUES (8, '河', 'River');
-INSERT INTO kanjis VALUES (9, '自', 'Self');
-INSERT INTO kanjis VALUES (10, '己', 'Self');
-INSERT INTO kanjis VALUES (11, '本', 'Book/Origin');
-INSERT INTO kanjis VALUES (12, '元', 'Origin');
-INSERT INTO kanjis VALUES (13, '切', 'Cut');
-INSERT INTO kanjis VALUES (14, '絶', 'Cut off');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (1, '牲', 'Sacrifice');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (2, '性', 'Personality/Gender');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (3, '員', 'Member');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (4, '買', 'Buy');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (5, '順', 'Sequence/Obey');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (6, '訓', 'Instruction');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (7, '川', 'River');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (8, '河', 'River');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (9, '自', 'Self');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (10, '己', 'Self');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (11, '本', 'Book/Origin');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (12, '元', 'Origin');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (13, '切', 'Cut');
+INSERT INTO kanjis(kanji_id, kanji, meaning) VALUES (14, '絶', 'Cut off');
 
 
 
 INSERT INTO kanjis_confusions VALUES (2, 1);
 INSERT INTO kanjis_confusions VALUES (4, 3);
-INSERT INTO kanjis_confusions VALUES (6, 5);
\ No newline at end of file
+INSERT INTO kanjis_confusions VALUES (6, 5);
+
+
+
+INSERT INTO kanjis_meanings VALUES (1, 'sacrifice');
+INSERT INTO kanjis_meanings VALUES (2, 'personality');
+INSERT INTO kanjis_meanings VALUES (2, 'gender');
+INSERT INTO kanjis_meanings VALUES (3, 'member');
+INSERT INTO kanjis_meanings VALUES (4, 'buy');
+INSERT INTO kanjis_meanings VALUES (5, 'sequence');
+INSERT INTO kanjis_meanings VALUES (5, 'obey');
+INSERT INTO kanjis_meanings VALUES (6, 'instruction');
+INSERT INTO kanjis_meanings VALUES (7, 'river');
+INSERT INTO kanjis_meanings VALUES (8, 'river');
+INSERT INTO kanjis_meanings VALUES (9, 'self');
+INSERT INTO kanjis_meanings VALUES (10, 'self');
+INSERT INTO kanjis_meanings VALUES (11, 'book');
+INSERT INTO kanjis_meanings VALUES (11, 'origin');
+INSERT INTO kanjis_meanings VALUES (12, 'origin');
+INSERT INTO kanjis_meanings VALUES (13, 'cut');
+INSERT INTO kanjis_meanings VALUES (14, 'cut off');
\ No newline at end of file
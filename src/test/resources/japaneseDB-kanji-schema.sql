@@ -3,9 +3,13 @@ CREATE SEQUENCE IF NOT EXISTS kanjis_kanji_id_seq;
 CREATE TABLE IF NOT EXISTS kanjis(
 	kanji_id SMALLINT DEFAULT kanjis_kanji_id_seq.nextval PRIMARY KEY,
 	kanji CHAR(1) NOT NULL UNIQUE,
-	meaning VARCHAR(50) NOT NULL
+	meaning VARCHAR(50) NOT NULL,
+	version INTEGER DEFAULT 0 NOT NULL,
+	reviewed BOOLEAN DEFAULT FALSE NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS kanjis_new_idx ON kanjis(reviewed, kanji_id);
+
 CREATE TABLE IF NOT EXISTS 	kanjis_confusions(
 	kanji_id SMALLINT NOT NULL,
 	confusion_id SMALLINT NOT NULL,
@@ -15,4 +19,34 @@ CREATE TABLE IF NOT EXISTS 	kanjis_confusions(
 		REFERENCES kanjis(kanji_id) ON DELETE CASCADE,
 	UNIQUE (kanji_id, confusion_id),
 	CONSTRAINT chk_confusion_prior CHECK (kanji_id > confusion_id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS kanjis_meanings(
+	kanji_id SMALLINT NOT NULL,
+	token VARCHAR(50) NOT NULL,
+	CONSTRAINT fk_meaning_kanji_id FOREIGN KEY (kanji_id)
+		REFERENCES kanjis(kanji_id) ON DELETE CASCADE,
+	PRIMARY KEY (kanji_id, token)
+);
+
+CREATE INDEX IF NOT EXISTS kanjis_meanings_token_idx ON kanjis_meanings(token, kanji_id);
+
+CREATE SEQUENCE IF NOT EXISTS change_log_change_id_seq;
+
+CREATE TABLE IF NOT EXISTS change_log(
+	change_id BIGINT DEFAULT change_log_change_id_seq.nextval PRIMARY KEY,
+	entity_type VARCHAR(5) NOT NULL,
+	entity_id INTEGER NOT NULL,
+	change_type VARCHAR(7) NOT NULL,
+	changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS change_log_entity_idx ON change_log(entity_type, entity_id);
+
+CREATE TABLE IF NOT EXISTS data_versions(
+	table_name VARCHAR(30) PRIMARY KEY,
+	version BIGINT NOT NULL
+);
+
+INSERT INTO data_versions(table_name, version) VALUES ('kanjis', 0);
+INSERT INTO data_versions(table_name, version) VALUES ('change_log', 0);
\ No newline at end of file
@@ -0,0 +1,50 @@
+CREATE TABLE IF NOT EXISTS vocabulary_reviews(
+	word_id INTEGER PRIMARY KEY,
+	interval_days INTEGER NOT NULL,
+	ease REAL NOT NULL,
+	stability REAL NOT NULL,
+	difficulty REAL NOT NULL,
+	repetitions INTEGER NOT NULL,
+	lapses INTEGER NOT NULL,
+	due_at TIMESTAMP NOT NULL,
+	reviewed_at TIMESTAMP NOT NULL,
+	CONSTRAINT fk_review_word_id FOREIGN KEY (word_id)
+		REFERENCES vocabulary(word_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS vocabulary_reviews_due_idx ON vocabulary_reviews(due_at, word_id);
+
+CREATE TABLE IF NOT EXISTS kanjis_reviews(
+	kanji_id SMALLINT PRIMARY KEY,
+	interval_days INTEGER NOT NULL,
+	ease REAL NOT NULL,
+	stability REAL NOT NULL,
+	difficulty REAL NOT NULL,
+	repetitions INTEGER NOT NULL,
+	lapses INTEGER NOT NULL,
+	due_at TIMESTAMP NOT NULL,
+	reviewed_at TIMESTAMP NOT NULL,
+	CONSTRAINT fk_review_kanji_id FOREIGN KEY (kanji_id)
+		REFERENCES kanjis(kanji_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS kanjis_reviews_due_idx ON kanjis_reviews(due_at, kanji_id);
+
+CREATE SEQUENCE IF NOT EXISTS review_log_log_id_seq;
+
+CREATE TABLE IF NOT EXISTS review_log(
+	log_id BIGINT DEFAULT review_log_log_id_seq.nextval PRIMARY KEY,
+	card_type VARCHAR(5) NOT NULL,
+	card_id INTEGER NOT NULL,
+	grade SMALLINT NOT NULL,
+	reviewed_at TIMESTAMP NOT NULL,
+	interval_days INTEGER NOT NULL,
+	due_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS review_log_card_idx ON review_log(card_type, card_id);
+
+CREATE TABLE IF NOT EXISTS review_events(
+	event_id VARCHAR(64) PRIMARY KEY,
+	applied_at TIMESTAMP NOT NULL
+);
@@ -1,11 +1,48 @@
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(1, '一日', 'イチニチ', 'One day');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(2, '一日', 'ついたち', 'First day of month');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(3, '一月', 'イチガツ', 'January');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(4, '一月', 'ひとつき', 'One month');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(5, '丸い', 'まるい', 'Round/Circular');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(6, '円い', 'まるい', 'Round/Circular');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(7, '日', 'ひ', 'Day');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(8, '火', 'ひ', 'Fire/Flame/Blaze');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(9, '一', 'イチ', 'One');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(10,'早い','はやい','Early/Fast/Quick/Hasty/');
-INSERT INTO vocabulary(word_id, word, reading, meaning) VALUES(11,'速い','はやい','Fast/Quick/Hasty');
\ No newline at end of file
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(1, '一日', 'イチニチ', 'いちにち', 'One day');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(2, '一日', 'ついたち', 'ついたち', 'First day of month');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(3, '一月', 'イチガツ', 'いちがつ', 'January');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(4, '一月', 'ひとつき', 'ひとつき', 'One month');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(5, '丸い', 'まるい', 'まるい', 'Round/Circular');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(6, '円い', 'まるい', 'まるい', 'Round/Circular');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(7, '日', 'ひ', 'ひ', 'Day');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(8, '火', 'ひ', 'ひ', 'Fire/Flame/Blaze');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(9, '一', 'イチ', 'いち', 'One');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(10, '早い', 'はやい', 'はやい', 'Early/Fast/Quick/Hasty/');
+INSERT INTO vocabulary(word_id, word, reading, reading_key, meaning) VALUES(11, '速い', 'はやい', 'はやい', 'Fast/Quick/Hasty');
+
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(1, 'one day');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(2, 'first day of month');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(3, 'january');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(4, 'one month');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(5, 'round');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(5, 'circular');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(6, 'round');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(6, 'circular');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(7, 'day');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(8, 'fire');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(8, 'flame');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(8, 'blaze');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(9, 'one');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(10, 'early');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(10, 'fast');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(10, 'quick');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(10, 'hasty');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(11, 'fast');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(11, 'quick');
+INSERT INTO vocabulary_meanings(word_id, token) VALUES(11, 'hasty');
+
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(1, 19968); -- 一
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(1, 26085); -- 日
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(2, 19968); -- 一
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(2, 26085); -- 日
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(3, 19968); -- 一
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(3, 26376); -- 月
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(4, 19968); -- 一
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(4, 26376); -- 月
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(5, 20024); -- 丸
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(6, 20870); -- 円
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(7, 26085); -- 日
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(8, 28779); -- 火
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(9, 19968); -- 一
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(10, 26089); -- 早
+INSERT INTO vocabulary_kanjis(word_id, code_point) VALUES(11, 36895); -- 速
\ No newline at end of file
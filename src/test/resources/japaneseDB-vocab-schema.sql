@@ -4,6 +4,51 @@ CREATE TABLE IF NOT EXISTS vocabulary(
 	word_id INTEGER DEFAULT vocabulary_word_id_seq.nextval PRIMARY KEY,
 	word VARCHAR(30) NOT NULL,
 	reading VARCHAR(50) NOT NULL,
+	reading_key VARCHAR(50) NOT NULL,
 	meaning VARCHAR(255) NOT NULL,
+	version INTEGER DEFAULT 0 NOT NULL,
+	reviewed BOOLEAN DEFAULT FALSE NOT NULL,
 	UNIQUE (word, reading)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS vocabulary_new_idx ON vocabulary(reviewed, word_id);
+
+CREATE TABLE IF NOT EXISTS vocabulary_meanings(
+	word_id INTEGER NOT NULL,
+	token VARCHAR(255) NOT NULL,
+	CONSTRAINT fk_meaning_word_id FOREIGN KEY (word_id)
+		REFERENCES vocabulary(word_id) ON DELETE CASCADE,
+	PRIMARY KEY (word_id, token)
+);
+
+CREATE TABLE IF NOT EXISTS vocabulary_kanjis(
+	word_id INTEGER NOT NULL,
+	code_point INTEGER NOT NULL,
+	CONSTRAINT fk_kanji_word_id FOREIGN KEY (word_id)
+		REFERENCES vocabulary(word_id) ON DELETE CASCADE,
+	PRIMARY KEY (code_point, word_id)
+);
+
+CREATE INDEX IF NOT EXISTS vocabulary_meanings_token_idx ON vocabulary_meanings(token, word_id);
+CREATE INDEX IF NOT EXISTS vocabulary_reading_idx ON vocabulary(reading, word_id);
+CREATE INDEX IF NOT EXISTS vocabulary_reading_key_idx ON vocabulary(reading_key, word_id);
+
+CREATE SEQUENCE IF NOT EXISTS change_log_change_id_seq;
+
+CREATE TABLE IF NOT EXISTS change_log(
+	change_id BIGINT DEFAULT change_log_change_id_seq.nextval PRIMARY KEY,
+	entity_type VARCHAR(5) NOT NULL,
+	entity_id INTEGER NOT NULL,
+	change_type VARCHAR(7) NOT NULL,
+	changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS change_log_entity_idx ON change_log(entity_type, entity_id);
+
+CREATE TABLE IF NOT EXISTS data_versions(
+	table_name VARCHAR(30) PRIMARY KEY,
+	version BIGINT NOT NULL
+);
+
+INSERT INTO data_versions(table_name, version) VALUES ('vocabulary', 0);
+INSERT INTO data_versions(table_name, version) VALUES ('change_log', 0);
\ No newline at end of file